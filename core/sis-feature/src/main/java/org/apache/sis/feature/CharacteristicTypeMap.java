@@ -21,7 +21,7 @@ import java.util.HashMap;
 import org.apache.sis.internal.util.AbstractMap;
 import org.apache.sis.internal.util.CollectionsExt;
 import org.apache.sis.util.collection.Containers;
-import org.apache.sis.util.collection.WeakValueHashMap;
+import org.apache.sis.util.collection.ConcurrentWeakValueHashMap;
 import org.apache.sis.util.resources.Errors;
 
 import static org.apache.sis.util.ArgumentChecks.ensureNonNullElement;
@@ -45,7 +45,7 @@ import org.opengis.feature.AttributeType;
  *
  * @author  Martin Desruisseaux (Geomatys)
  * @since   0.5
- * @version 0.5
+ * @version 0.6
  * @module
  */
 final class CharacteristicTypeMap extends AbstractMap<String,AttributeType<?>> {
@@ -54,8 +54,8 @@ final class CharacteristicTypeMap extends AbstractMap<String,AttributeType<?>> {
      * having the same characteristics.
      */
     @SuppressWarnings("unchecked")
-    private static final WeakValueHashMap<AttributeType<?>[],CharacteristicTypeMap> SHARED =
-            new WeakValueHashMap<>((Class) AttributeType[].class);
+    private static final ConcurrentWeakValueHashMap<AttributeType<?>[],CharacteristicTypeMap> SHARED =
+            new ConcurrentWeakValueHashMap<>((Class) AttributeType[].class);
 
     /*
      * This class has intentionally no reference to the AttributeType for which we are providing characteristics.
@@ -87,12 +87,12 @@ final class CharacteristicTypeMap extends AbstractMap<String,AttributeType<?>> {
      * @throws IllegalArgumentException if two characteristics have the same name.
      */
     static CharacteristicTypeMap create(final AttributeType<?> source, final AttributeType<?>[] characterizedBy) {
-        CharacteristicTypeMap map;
-        synchronized (SHARED) {
-            map = SHARED.get(characterizedBy);
-            if (map == null) {
-                map = new CharacteristicTypeMap(source, characterizedBy);
-                SHARED.put(characterizedBy, map);
+        CharacteristicTypeMap map = SHARED.get(characterizedBy);
+        if (map == null) {
+            map = new CharacteristicTypeMap(source, characterizedBy);
+            final CharacteristicTypeMap existing = SHARED.putIfAbsent(characterizedBy, map);
+            if (existing != null) {
+                map = existing;
             }
         }
         return map;
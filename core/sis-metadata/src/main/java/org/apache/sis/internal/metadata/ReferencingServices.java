@@ -16,9 +16,19 @@
  */
 package org.apache.sis.internal.metadata;
 
+import java.util.Map;
+import javax.measure.unit.Unit;
+import javax.measure.quantity.Angle;
+import javax.measure.quantity.Length;
 import org.opengis.geometry.Envelope;
 import org.opengis.parameter.ParameterDescriptor;
 import org.opengis.referencing.IdentifiedObject;
+import org.opengis.referencing.cs.AxisDirection;
+import org.opengis.referencing.cs.CoordinateSystemAxis;
+import org.opengis.referencing.crs.GeographicCRS;
+import org.opengis.referencing.datum.Ellipsoid;
+import org.opengis.referencing.datum.GeodeticDatum;
+import org.opengis.referencing.datum.PrimeMeridian;
 import org.opengis.referencing.operation.Matrix;
 import org.opengis.referencing.operation.MathTransform;
 import org.opengis.referencing.operation.TransformException;
@@ -43,7 +53,7 @@ import org.apache.sis.util.resources.Errors;
  *
  * @author  Martin Desruisseaux (Geomatys)
  * @since   0.3
- * @version 0.5
+ * @version 0.6
  * @module
  */
 public abstract class ReferencingServices extends SystemListener {
@@ -209,4 +219,74 @@ public abstract class ReferencingServices extends SystemListener {
      * @throws TransformException If a coordinate transformation was required and failed.
      */
     public abstract void addElements(Envelope envelope, DefaultExtent target) throws TransformException;
+
+    /**
+     * Creates an ellipsoid from a semi-major axis length and inverse flattening.
+     * This method is used by the WKT parser.
+     *
+     * @param  properties        Name and other properties to give to the new object.
+     * @param  semiMajorAxis     The equatorial radius.
+     * @param  inverseFlattening The inverse flattening, or infinity for a sphere.
+     * @param  unit              The unit of the semi-major axis.
+     * @return The ellipsoid for the given properties.
+     *
+     * @since 0.6
+     */
+    public abstract Ellipsoid createEllipsoid(Map<String,?> properties, double semiMajorAxis,
+            double inverseFlattening, Unit<Length> unit);
+
+    /**
+     * Creates a prime meridian. This method is used by the WKT parser.
+     *
+     * @param  properties  Name and other properties to give to the new object.
+     * @param  longitude   The longitude of the prime meridian relative to Greenwich.
+     * @param  angularUnit The unit of the longitude value.
+     * @return The prime meridian for the given properties.
+     *
+     * @since 0.6
+     */
+    public abstract PrimeMeridian createPrimeMeridian(Map<String,?> properties, double longitude, Unit<Angle> angularUnit);
+
+    /**
+     * Creates a geodetic datum. This method is used by the WKT parser.
+     *
+     * @param  properties    Name and other properties to give to the new object.
+     * @param  ellipsoid     The ellipsoid to use in the new datum.
+     * @param  primeMeridian The prime meridian to use in the new datum.
+     * @param  toWGS84       The {@code TOWGS84} values as (<var>dx</var>, <var>dy</var>, <var>dz</var>,
+     *                       <var>ex</var>, <var>ey</var>, <var>ez</var>, <var>ppm</var>), or {@code null} if none.
+     * @return The datum for the given properties.
+     *
+     * @since 0.6
+     */
+    public abstract GeodeticDatum createGeodeticDatum(Map<String,?> properties, Ellipsoid ellipsoid,
+            PrimeMeridian primeMeridian, double[] toWGS84);
+
+    /**
+     * Creates a coordinate system axis. This method is used by the WKT parser.
+     *
+     * @param  properties   Name and other properties to give to the new object.
+     * @param  abbreviation The abbreviation used for this coordinate system axis.
+     * @param  direction    The axis direction.
+     * @param  unit         The axis unit.
+     * @return The axis for the given properties.
+     *
+     * @since 0.6
+     */
+    public abstract CoordinateSystemAxis createAxis(Map<String,?> properties, String abbreviation,
+            AxisDirection direction, Unit<?> unit);
+
+    /**
+     * Creates a geographic CRS with an ellipsoidal coordinate system using the given axes.
+     * This method is used by the WKT parser.
+     *
+     * @param  properties Name and other properties to give to the new object.
+     * @param  datum      The geodetic datum to use in the new CRS.
+     * @param  axes       The two or three axes of the ellipsoidal coordinate system.
+     * @return The coordinate reference system for the given properties.
+     *
+     * @since 0.6
+     */
+    public abstract GeographicCRS createGeographicCRS(Map<String,?> properties, GeodeticDatum datum,
+            CoordinateSystemAxis... axes);
 }
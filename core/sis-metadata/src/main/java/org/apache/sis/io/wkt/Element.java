@@ -0,0 +1,427 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sis.io.wkt;
+
+import java.util.List;
+import java.util.Iterator;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.text.ParsePosition;
+import java.text.ParseException;
+import org.apache.sis.util.resources.Errors;
+
+
+/**
+ * An element in a <cite>Well Know Text</cite> (WKT). An element is made of a keyword followed by a list
+ * of values between brackets. Values can be quoted texts ({@link String}), numbers ({@link Double}),
+ * other elements, or enumeration values. The later are stored as elements without list.
+ *
+ * <p>The whole tree is built in a single pass over the characters, before any referencing object is
+ * created. Values are then <cite>pulled</cite> from the tree by the {@link Parser}; the order in which
+ * sub-elements appear in the WKT is not significant, except for values of the same type.</p>
+ *
+ * @author  Martin Desruisseaux (Geomatys)
+ * @since   0.6
+ * @version 0.6
+ * @module
+ */
+final class Element {
+    /**
+     * The keyword of this element. For enumeration values, this is the enumeration name.
+     */
+    final String keyword;
+
+    /**
+     * Index of the keyword in the {@linkplain #text}, used for error messages.
+     */
+    final int offset;
+
+    /**
+     * Index in the {@linkplain #text} after the closing bracket of this element,
+     * or after the keyword if this element is an enumeration value.
+     */
+    private final int end;
+
+    /**
+     * The text from which this element has been parsed. This is usually the string given to
+     * {@link Parser#parse(String, ParsePosition)}, but may also be a {@link WKTFormat#definitions()} value.
+     */
+    private final String text;
+
+    /**
+     * The values and sub-elements in this element, or {@code null} if this element is an enumeration value.
+     * We use a linked list because the parser removes elements in arbitrary order.
+     */
+    private final LinkedList<Object> list;
+
+    /**
+     * The parser which created this element, used for error messages.
+     */
+    private final Parser parser;
+
+    /**
+     * The elements parsed from {@link WKTFormat#definitions()} values for the short names found in this element
+     * or in its sub-elements, in the order they appear in the {@linkplain #text}. This list does not include the
+     * short names found in the definitions themselves, which are handled by the expanded elements.
+     * This list is {@code null} if no short name has been expanded.
+     *
+     * @see #source()
+     */
+    private List<Element> expansions;
+
+    /**
+     * If this element has been parsed from a {@link WKTFormat#definitions()} value, the index of the short name
+     * in the text of the enclosing element and the index after that short name. Otherwise those values are unused.
+     */
+    private int referenceStart, referenceEnd;
+
+    /**
+     * Parses the element starting at the given position. On return, the position
+     * index is set to the index after the last character of this element.
+     *
+     * @param  parser   The parser which is creating this element.
+     * @param  text     The text to parse.
+     * @param  position On input, index of the first character to parse. On output, index after this element.
+     * @throws ParseException if the text can not be parsed.
+     */
+    Element(final Parser parser, final String text, final ParsePosition position) throws ParseException {
+        this.parser = parser;
+        this.text   = text;
+        final int length = text.length();
+        int lower = parser.skipWhitespaces(text, position.getIndex());
+        int upper = lower;
+        while (upper < length) {
+            final int c = text.codePointAt(upper);
+            if (!Character.isJavaIdentifierPart(c)) break;
+            upper += Character.charCount(c);
+        }
+        if (upper == lower) {
+            throw parser.unparsable(text, lower);
+        }
+        keyword = text.substring(lower, upper);
+        offset  = lower;
+        /*
+         * If the keyword is not followed by an opening bracket, then the keyword is an enumeration value
+         * like "NORTH" in AXIS["Latitude", NORTH], or a reference to a WKTFormat.definitions() entry.
+         */
+        int i = parser.skipWhitespaces(text, upper);
+        final int closing = (i < length) ? parser.closingBracket(text.codePointAt(i)) : -1;
+        if (closing < 0) {
+            list = null;
+            end  = upper;
+            position.setIndex(upper);
+            return;
+        }
+        list = new LinkedList<>();
+        i += Character.charCount(text.codePointAt(i));
+        while (true) {
+            i = parser.skipWhitespaces(text, i);
+            if (i >= length) {
+                throw parser.missingCharacter(text, keyword, closing, i);
+            }
+            final int c = text.codePointAt(i);
+            final int closingQuote = parser.closingQuote(c);
+            if (closingQuote >= 0) {
+                i = parseQuotedText(i + Character.charCount(c), closingQuote);
+            } else if ((c >= '0' && c <= '9') || c == '-' || c == '+' || c == '.') {
+                position.setIndex(i);
+                list.add(parser.parseNumber(text, position));
+                i = position.getIndex();
+            } else {
+                position.setIndex(i);
+                final Element child = new Element(parser, text, position);
+                if (child.list == null) {
+                    final Element expanded = parser.expand(child);
+                    if (expanded != child) {
+                        expanded.referenceStart = child.offset;
+                        expanded.referenceEnd   = child.end;
+                        addExpansion(expanded);
+                    }
+                    list.add(expanded);
+                } else {
+                    if (child.expansions != null) {
+                        for (final Element expanded : child.expansions) {
+                            addExpansion(expanded);
+                        }
+                    }
+                    list.add(child);
+                }
+                i = position.getIndex();
+            }
+            i = parser.skipWhitespaces(text, i);
+            if (i < length && text.codePointAt(i) == closing) {
+                i += Character.charCount(closing);
+                break;
+            } else if (text.startsWith(parser.separator, i)) {
+                i += parser.separator.length();
+            } else {
+                throw parser.missingCharacter(text, keyword, closing, i);
+            }
+        }
+        end = i;
+        position.setIndex(i);
+    }
+
+    /**
+     * Declares that the given element has been parsed from a {@link WKTFormat#definitions()} value
+     * for a short name found in this element.
+     */
+    private void addExpansion(final Element expanded) {
+        if (expansions == null) {
+            expansions = new ArrayList<>(2);
+        }
+        expansions.add(expanded);
+    }
+
+    /**
+     * Parses a quoted text starting at the given index, and adds the result to the {@linkplain #list}.
+     * A closing quote repeated twice is interpreted as a quote character in the text, as specified by
+     * ISO 19162. The text is copied in a buffer only if such escaped quote is found.
+     *
+     * @param  i            Index after the opening quote.
+     * @param  closingQuote The closing quote character.
+     * @return Index after the closing quote.
+     */
+    private int parseQuotedText(int i, final int closingQuote) throws ParseException {
+        final int n = Character.charCount(closingQuote);
+        StringBuilder buffer = null;
+        while (true) {
+            final int stop = text.indexOf(closingQuote, i);
+            if (stop < 0) {
+                throw parser.missingCharacter(text, keyword, closingQuote, text.length());
+            }
+            final int next = stop + n;
+            if (next >= text.length() || text.codePointAt(next) != closingQuote) {
+                final String value = text.substring(i, stop);
+                list.add(buffer != null ? buffer.append(value).toString() : value);
+                return next;
+            }
+            if (buffer == null) {
+                buffer = new StringBuilder(stop - i + 16);
+            }
+            buffer.append(text, i, next);       // Include a single occurrence of the quote.
+            i = next + n;
+        }
+    }
+
+    /**
+     * Returns {@code true} if this element keyword is one of the given keywords (ignoring case).
+     */
+    final boolean isKeyword(final String... keywords) {
+        for (final String k : keywords) {
+            if (keyword.equalsIgnoreCase(k)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns {@code true} if this element is an enumeration value (or a short name to expand)
+     * rather than an element with a list of values between brackets.
+     */
+    final boolean isEnumeration() {
+        return list == null;
+    }
+
+    /**
+     * Returns the WKT of this element, as written in the parsed text but with the short names replaced
+     * by their {@link WKTFormat#definitions()} values. This is used as a key for sharing the objects
+     * created from identical WKT fragments. Expanding the short names is necessary because the same
+     * name may have different definitions in different {@code WKTFormat} instances.
+     */
+    final String source() {
+        if (expansions == null) {
+            return text.substring(offset, end);
+        }
+        final StringBuilder buffer = new StringBuilder(end - offset + 64);
+        int last = offset;
+        for (final Element expanded : expansions) {
+            buffer.append(text, last, expanded.referenceStart).append(expanded.source());
+            last = expanded.referenceEnd;
+        }
+        return buffer.append(text, last, end).toString();
+    }
+
+    /**
+     * Removes the next sub-element having one of the given keywords, and returns it.
+     * This method ignores enumeration values.
+     *
+     * @param  keywords The keywords of the element to search, with the preferred keyword first.
+     * @return The element, or {@code null} if none.
+     */
+    final Element pullOptionalElement(final String... keywords) {
+        final Iterator<Object> it = list.iterator();
+        while (it.hasNext()) {
+            final Object value = it.next();
+            if (value instanceof Element) {
+                final Element element = (Element) value;
+                if (element.list != null && element.isKeyword(keywords)) {
+                    it.remove();
+                    return element;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Removes the next sub-element having one of the given keywords, and returns it.
+     *
+     * @param  keywords The keywords of the element to search, with the preferred keyword first.
+     * @return The element (never {@code null}).
+     * @throws ParseException if no element of the given name has been found.
+     */
+    final Element pullElement(final String... keywords) throws ParseException {
+        final Element element = pullOptionalElement(keywords);
+        if (element == null) {
+            throw missingComponent(keywords[0]);
+        }
+        return element;
+    }
+
+    /**
+     * Removes the next enumeration value and returns its name.
+     *
+     * @param  key The name of the expected value, used only for the error message.
+     * @return The enumeration name.
+     * @throws ParseException if no enumeration value has been found.
+     */
+    final String pullVoidElement(final String key) throws ParseException {
+        final Iterator<Object> it = list.iterator();
+        while (it.hasNext()) {
+            final Object value = it.next();
+            if (value instanceof Element && ((Element) value).list == null) {
+                it.remove();
+                return ((Element) value).keyword;
+            }
+        }
+        throw missingComponent(key);
+    }
+
+    /**
+     * Removes the next value of the given type and returns it, or returns {@code null} if none.
+     *
+     * @param  type Either {@code String.class} or {@code Double.class}.
+     * @return The value, or {@code null} if none.
+     */
+    final <T> T pullOptional(final Class<T> type) {
+        final Iterator<Object> it = list.iterator();
+        while (it.hasNext()) {
+            final Object value = it.next();
+            if (type.isInstance(value)) {
+                it.remove();
+                return type.cast(value);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Removes the next quoted text and returns it.
+     *
+     * @param  key The name of the expected value, used only for the error message.
+     * @return The text.
+     * @throws ParseException if no quoted text has been found.
+     */
+    final String pullString(final String key) throws ParseException {
+        final String value = pullOptional(String.class);
+        if (value == null) {
+            throw missingComponent(key);
+        }
+        return value;
+    }
+
+    /**
+     * Removes the next number and returns it.
+     *
+     * @param  key The name of the expected value, used only for the error message.
+     * @return The number.
+     * @throws ParseException if no number has been found.
+     */
+    final double pullDouble(final String key) throws ParseException {
+        final Double value = pullOptional(Double.class);
+        if (value == null) {
+            throw missingComponent(key);
+        }
+        return value;
+    }
+
+    /**
+     * Removes the next number or quoted text, and returns it as a string.
+     * Integer numbers are formatted without fraction digits.
+     * This is used for identifier codes, which are quoted in WKT 1 but not in WKT 2.
+     *
+     * @param  key The name of the expected value, used only for the error message.
+     * @return The text or number, as a string.
+     * @throws ParseException if no number or quoted text has been found.
+     */
+    final String pullCode(final String key) throws ParseException {
+        final Iterator<Object> it = list.iterator();
+        while (it.hasNext()) {
+            final Object value = it.next();
+            if (value instanceof String) {
+                it.remove();
+                return (String) value;
+            }
+            if (value instanceof Double) {
+                it.remove();
+                final double n = (Double) value;
+                return (n == (int) n) ? Integer.toString((int) n) : value.toString();
+            }
+        }
+        throw missingComponent(key);
+    }
+
+    /**
+     * Returns the exception to throw for a missing component in this element.
+     */
+    private ParseException missingComponent(final String key) {
+        return parser.error(text, end, Errors.Keys.MissingComponentInElement_2, keyword, key);
+    }
+
+    /**
+     * Returns the exception to throw when the values in this element can not be used
+     * for creating the referencing object.
+     *
+     * @param  cause The reason why the referencing object can not be created.
+     * @return The exception to throw.
+     */
+    final ParseException illegal(final Exception cause) {
+        return parser.error(text, offset, cause);
+    }
+
+    /**
+     * Returns an exception with a localized message for the given resource key.
+     * The error is located at the beginning of this element.
+     *
+     * @param  key       One of the {@code Errors.Keys} constants.
+     * @param  arguments The arguments for the localized message.
+     * @return The exception to throw.
+     */
+    final ParseException error(final short key, final Object... arguments) {
+        return parser.error(text, offset, key, arguments);
+    }
+
+    /**
+     * Returns the WKT of this element, for debugging purpose.
+     */
+    @Override
+    public String toString() {
+        return source();
+    }
+}
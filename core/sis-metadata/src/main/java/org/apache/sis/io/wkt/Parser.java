@@ -0,0 +1,771 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sis.io.wkt;
+
+import java.util.Map;
+import java.util.List;
+import java.util.Locale;
+import java.util.HashMap;
+import java.util.ArrayList;
+import java.text.NumberFormat;
+import java.text.ParsePosition;
+import java.text.ParseException;
+import javax.measure.unit.SI;
+import javax.measure.unit.NonSI;
+import javax.measure.unit.Unit;
+import javax.measure.quantity.Angle;
+import javax.measure.quantity.Length;
+import javax.measure.quantity.Quantity;
+import org.opengis.metadata.Identifier;
+import org.opengis.referencing.IdentifiedObject;
+import org.opengis.referencing.cs.AxisDirection;
+import org.opengis.referencing.cs.CoordinateSystemAxis;
+import org.opengis.referencing.datum.Ellipsoid;
+import org.opengis.referencing.datum.GeodeticDatum;
+import org.opengis.referencing.datum.PrimeMeridian;
+import org.apache.sis.internal.metadata.ReferencingServices;
+import org.apache.sis.internal.util.LocalizedParseException;
+import org.apache.sis.metadata.iso.ImmutableIdentifier;
+import org.apache.sis.metadata.iso.citation.Citations;
+import org.apache.sis.measure.Units;
+import org.apache.sis.util.CharSequences;
+import org.apache.sis.util.collection.Cache;
+import org.apache.sis.internal.system.CacheRegistry;
+import org.apache.sis.util.iso.Types;
+import org.apache.sis.util.resources.Errors;
+
+import static java.util.Collections.singletonMap;
+
+// Branch-dependent imports
+import java.util.Objects;
+
+
+/**
+ * Parser of <cite>Well Known Text</cite> (WKT) definitions of geodetic objects.
+ * This parser accepts both the WKT 1 syntax defined by OGC 01-009 and the WKT 2 syntax defined by ISO 19162.
+ * Parsing is done in two steps:
+ *
+ * <ol>
+ *   <li>The text is parsed in a single pass into a tree of {@link Element}s.</li>
+ *   <li>Referencing objects are created from the tree, using the factory methods provided
+ *       by the {@code sis-referencing} module through {@link ReferencingServices}.</li>
+ * </ol>
+ *
+ * {@section Sharing of identical elements}
+ * Ellipsoids, prime meridians, datums and units are often repeated identically in many WKT strings.
+ * The objects created for those elements are retained in a cache shared by all {@code Parser} instances,
+ * using the WKT fragment (together with the contextual information needed for interpreting that fragment)
+ * as the key. When the same fragment is parsed again, the cached object is returned without processing
+ * the sub-elements. Only the strongly referenced objects count in the cache limit; older objects are
+ * retained by soft references until the garbage collector needs the memory.
+ *
+ * {@section Current limitations}
+ * This parser supports only geographic CRS, together with their datum, ellipsoid, prime meridian,
+ * axis and unit components. Other elements like projected or vertical CRS are not yet supported.
+ *
+ * <p>Parsers are not thread-safe. Each {@link WKTFormat} instance creates its own parser.</p>
+ *
+ * @author  Martin Desruisseaux (Geomatys)
+ * @since   0.6
+ * @version 0.6
+ * @module
+ */
+final class Parser {
+    /**
+     * WKT keywords for geodetic and geographic CRS, with the WKT 2 keywords first.
+     */
+    private static final String[] GEODETIC_CRS = {"GeodeticCRS", "GeodCRS", "GeographicCRS", "GeogCRS", "GeogCS"};
+
+    /**
+     * WKT keywords for geodetic datum.
+     */
+    private static final String[] DATUM = {"Datum", "GeodeticDatum", "TRF"};
+
+    /**
+     * WKT keywords for ellipsoid.
+     */
+    private static final String[] ELLIPSOID = {"Ellipsoid", "Spheroid"};
+
+    /**
+     * WKT keywords for prime meridian.
+     */
+    private static final String[] PRIME_MERIDIAN = {"PrimeMeridian", "PrimeM"};
+
+    /**
+     * WKT keywords for angular and linear units, with the generic {@code "Unit"} keyword last.
+     */
+    private static final String[] ANGLE_UNIT  = {"AngleUnit",  "Unit"},
+                                  LENGTH_UNIT = {"LengthUnit", "Unit"};
+
+    /**
+     * WKT keywords for identifiers.
+     */
+    private static final String[] ID = {"Id", "Authority"};
+
+    /**
+     * WKT keywords for other elements parsed by this class.
+     */
+    private static final String[] AXIS = {"Axis"}, CS = {"CS"}, ORDER = {"Order"},
+                                  TOWGS84 = {"ToWGS84"}, REMARK = {"Remark"};
+
+    /**
+     * Maximal number of objects to retain by strong references in the {@link #SHARED} cache.
+     */
+    private static final int CACHE_LIMIT = 100;
+
+    /**
+     * The objects created from WKT fragments, shared by all parsers.
+     */
+    private static final Cache<Key,Object> SHARED = new Cache<>(32, CACHE_LIMIT, true);
+    static {
+        CacheRegistry.register("Parser.SHARED", SHARED);
+    }
+
+    /**
+     * Key of objects in the {@link #SHARED} cache. The key is the WKT fragment as written in the parsed text
+     * (with {@link WKTFormat#definitions()} short names replaced by their values), together with contextual information (if any) needed for interpreting that fragment. For example the
+     * {@code UNIT["degree", 0.01745329252]} fragment needs to know that the unit is angular, and the
+     * {@code PRIMEM["Paris", 2.33722917]} fragment in WKT 1 needs to know the unit of the enclosing CRS.
+     */
+    private static final class Key {
+        /** The WKT fragment. */
+        private final String source;
+
+        /** Contextual information, or {@code null} if none. */
+        private final Object context;
+
+        /** Creates a new key for the given WKT fragment and context. */
+        Key(final String source, final Object context) {
+            this.source  = source;
+            this.context = context;
+        }
+
+        /** Returns a hash code value for this key. */
+        @Override
+        public int hashCode() {
+            return source.hashCode() + 31 * Objects.hashCode(context);
+        }
+
+        /** Compares this key with the given object for equality. */
+        @Override
+        public boolean equals(final Object other) {
+            if (other instanceof Key) {
+                final Key that = (Key) other;
+                return source.equals(that.source) && Objects.equals(context, that.context);
+            }
+            return false;
+        }
+    }
+
+    /**
+     * The factory methods for the referencing objects to create.
+     */
+    private final ReferencingServices factories;
+
+    /**
+     * The convention for interpreting the WKT, used for the unit of prime meridians.
+     */
+    private final Convention convention;
+
+    /**
+     * The locale for error messages.
+     */
+    private final Locale errorLocale;
+
+    /**
+     * The opening and closing brackets, as (opening, closing) pairs of Unicode code points.
+     */
+    private final int[] brackets;
+
+    /**
+     * The opening and closing quotes, as (opening, closing) pairs of Unicode code points.
+     */
+    private final int[] quotes;
+
+    /**
+     * The separator between values, without leading or trailing spaces.
+     */
+    final String separator;
+
+    /**
+     * The format to use for parsing numbers, or {@code null} for parsing them with {@link Double#parseDouble(String)}.
+     * The later is used when the numbers are known to be formatted in the {@link Locale#ROOT} locale.
+     */
+    private final NumberFormat numberFormat;
+
+    /**
+     * The user-defined fragments to substitute to short names, or {@code null} if none.
+     *
+     * @see WKTFormat#definitions()
+     */
+    private final Map<String,String> definitions;
+
+    /**
+     * The text given to the last call to {@link #parse(String, ParsePosition)}.
+     */
+    private String text;
+
+    /**
+     * Index of the first character parsed in {@link #text}. Error offsets are relative to this index.
+     */
+    private int origin;
+
+    /**
+     * Index in {@link #text} of the short name being expanded, or -1 if none.
+     * Errors occurring in a definition are reported at the position of the short name.
+     */
+    private int reference;
+
+    /**
+     * Number of definitions currently expanded, for protection against infinite recursivity.
+     */
+    private int depth;
+
+    /**
+     * The default prime meridian, created when first needed.
+     */
+    private PrimeMeridian greenwich;
+
+    /**
+     * Creates a new parser.
+     *
+     * @param symbols      The symbols (brackets, quotes, separator) used in the WKT.
+     * @param numberFormat The format for parsing numbers, or {@code null} if the symbols use the root locale.
+     * @param definitions  The user-defined fragments to substitute to short names, or {@code null} if none.
+     * @param convention   The convention for interpreting the WKT.
+     * @param errorLocale  The locale for error messages.
+     */
+    Parser(final Symbols symbols, final NumberFormat numberFormat, final Map<String,String> definitions,
+           final Convention convention, final Locale errorLocale)
+    {
+        this.factories    = ReferencingServices.getInstance();
+        this.numberFormat = numberFormat;
+        this.definitions  = definitions;
+        this.convention   = convention;
+        this.errorLocale  = errorLocale;
+        this.separator    = symbols.getSeparator().trim();
+        brackets = new int[symbols.getNumPairedBrackets() * 2];
+        for (int i=0; i<brackets.length; i += 2) {
+            brackets[i  ] = symbols.getOpeningBracket(i >>> 1);
+            brackets[i+1] = symbols.getClosingBracket(i >>> 1);
+        }
+        quotes = new int[symbols.getNumPairedQuotes() * 2];
+        for (int i=0; i<quotes.length; i += 2) {
+            quotes[i  ] = symbols.getOpeningQuote(i >>> 1);
+            quotes[i+1] = symbols.getClosingQuote(i >>> 1);
+        }
+    }
+
+    /**
+     * Parses the given text, starting at the given position.
+     *
+     * @param  text     The text to parse.
+     * @param  position On input, index of the first character to parse. On output, index after the parsed element.
+     * @return The parsed object.
+     * @throws ParseException if the text can not be parsed. The error offset is relative to the initial position.
+     */
+    Object parse(final String text, final ParsePosition position) throws ParseException {
+        this.text = text;
+        origin    = position.getIndex();
+        reference = -1;
+        depth     = 0;
+        final Element element = expand(new Element(this, text, position));
+        if (!element.isEnumeration()) {
+            if (element.isKeyword(GEODETIC_CRS))   return parseGeographicCRS(element);
+            if (element.isKeyword(DATUM))          return parseDatum(element, greenwich());
+            if (element.isKeyword(ELLIPSOID))      return parseEllipsoid(element);
+            if (element.isKeyword(PRIME_MERIDIAN)) return parsePrimeMeridian(element, NonSI.DEGREE_ANGLE);
+            if (element.isKeyword("AngleUnit"))    return parseUnit(element, SI.RADIAN);
+            if (element.isKeyword("LengthUnit"))   return parseUnit(element, SI.METRE);
+            if (element.isKeyword("ScaleUnit"))    return parseUnit(element, Unit.ONE);
+        }
+        throw element.error(Errors.Keys.UnknownKeyword_1, element.keyword);
+    }
+
+    /**
+     * Returns the object cached for the given key, or {@code null} if none.
+     */
+    private static Object cached(final Key key) {
+        return SHARED.peek(key);
+    }
+
+    /**
+     * Caches the given object if no object of the same type is already cached for the given key.
+     * If two threads create an object for the same key concurrently, the first one to be cached
+     * wins and is returned to both threads, so all parsers share the same instance.
+     *
+     * @param  key   The key of the object to cache.
+     * @param  type  The expected type of the cached object.
+     * @param  value The object which has just been created.
+     * @return The object in the cache, which may be an instance created concurrently by another thread.
+     */
+    private static <T> T cache(final Key key, final Class<T> type, final T value) {
+        Object existing = null;
+        final Cache.Handler<Object> handler = SHARED.lock(key);
+        try {
+            existing = handler.peek();
+            if (!type.isInstance(existing)) {
+                existing = value;
+            }
+        } finally {
+            handler.putAndUnlock(existing);
+        }
+        return type.cast(existing);
+    }
+
+    /**
+     * Parses a geographic CRS element. In WKT 1, the prime meridian longitude and the axes use the unit
+     * of the enclosing {@code GEOGCS} element. If no {@code AXIS} element is specified, then the WKT 1
+     * default axes (<var>longitude</var>, <var>latitude</var>) are used.
+     *
+     * @param  element The {@code GEOGCS} or {@code GeodeticCRS} element.
+     * @return The geographic CRS.
+     * @throws ParseException if the element can not be parsed.
+     */
+    private Object parseGeographicCRS(final Element element) throws ParseException {
+        final String name = element.pullString("name");
+        Unit<Angle> angularUnit = NonSI.DEGREE_ANGLE;
+        final Element unitElement = element.pullOptionalElement(ANGLE_UNIT);
+        if (unitElement != null) {
+            angularUnit = parseUnit(unitElement, SI.RADIAN);
+        }
+        final PrimeMeridian primeMeridian;
+        final Element pm = element.pullOptionalElement(PRIME_MERIDIAN);
+        if (pm != null) {
+            primeMeridian = parsePrimeMeridian(pm, angularUnit);
+        } else {
+            primeMeridian = greenwich();
+        }
+        final GeodeticDatum datum = parseDatum(element.pullElement(DATUM), primeMeridian);
+        /*
+         * The CS[…] element exists only in WKT 2. For WKT 1, the coordinate system is implicitly ellipsoidal.
+         */
+        int dimension = 0;
+        final Element cs = element.pullOptionalElement(CS);
+        if (cs != null) {
+            final String type = cs.pullVoidElement("type");
+            if (!type.equalsIgnoreCase("ellipsoidal")) {
+                throw cs.error(Errors.Keys.UnsupportedType_1, type);
+            }
+            dimension = (int) cs.pullDouble("dimension");
+        }
+        final List<CoordinateSystemAxis> axes = new ArrayList<>(3);
+        final List<Integer> orders = new ArrayList<>(3);
+        Element axis;
+        while ((axis = element.pullOptionalElement(AXIS)) != null) {
+            final Element order = axis.pullOptionalElement(ORDER);
+            orders.add((order != null) ? (int) order.pullDouble("order") : axes.size() + 1);
+            axes.add(parseAxis(axis, angularUnit));
+        }
+        if (axes.isEmpty()) {
+            axes.add(defaultAxis("Geodetic longitude", "λ", AxisDirection.EAST,  angularUnit));
+            axes.add(defaultAxis("Geodetic latitude",  "φ", AxisDirection.NORTH, angularUnit));
+            if (dimension == 3) {
+                axes.add(defaultAxis("Ellipsoidal height", "h", AxisDirection.UP, SI.METRE));
+            }
+        } else if (dimension != 0 && dimension != axes.size()) {
+            throw cs.error(Errors.Keys.UnexpectedArrayLength_2, dimension, axes.size());
+        }
+        final CoordinateSystemAxis[] ordered = new CoordinateSystemAxis[axes.size()];
+        for (int i=0; i<ordered.length; i++) {
+            final int order = (i < orders.size()) ? orders.get(i) - 1 : i;
+            if (order < 0 || order >= ordered.length || ordered[order] != null) {
+                throw element.error(Errors.Keys.MissingComponentInElement_2, "Axis", "Order");
+            }
+            ordered[order] = axes.get(i);
+        }
+        final Map<String,Object> properties = parseMetadata(element, name);
+        try {
+            return factories.createGeographicCRS(properties, datum, ordered);
+        } catch (IllegalArgumentException | ClassCastException e) {
+            throw element.illegal(e);
+        }
+    }
+
+    /**
+     * Parses a {@code DATUM} element, or returns the cached datum if the same element has been parsed before.
+     *
+     * @param  element       The {@code DATUM} element.
+     * @param  primeMeridian The prime meridian, which is a sibling of the datum element in WKT.
+     * @return The geodetic datum.
+     * @throws ParseException if the element can not be parsed.
+     */
+    private GeodeticDatum parseDatum(final Element element, final PrimeMeridian primeMeridian) throws ParseException {
+        final Key key = new Key(element.source(), primeMeridian);
+        final Object cached = cached(key);
+        if (cached instanceof GeodeticDatum) {
+            return (GeodeticDatum) cached;
+        }
+        final String    name      = element.pullString("name");
+        final Ellipsoid ellipsoid = parseEllipsoid(element.pullElement(ELLIPSOID));
+        double[] toWGS84 = null;
+        final Element bursaWolf = element.pullOptionalElement(TOWGS84);
+        if (bursaWolf != null) {
+            toWGS84 = new double[7];
+            int n = 0;
+            Double value;
+            while (n < toWGS84.length && (value = bursaWolf.pullOptional(Double.class)) != null) {
+                toWGS84[n++] = value;
+            }
+            if (n < 3) {
+                throw bursaWolf.error(Errors.Keys.MissingComponentInElement_2, bursaWolf.keyword, "dz");
+            }
+        }
+        final Map<String,Object> properties = parseMetadata(element, name);
+        try {
+            return cache(key, GeodeticDatum.class, factories.createGeodeticDatum(properties, ellipsoid, primeMeridian, toWGS84));
+        } catch (IllegalArgumentException | ClassCastException e) {
+            throw element.illegal(e);
+        }
+    }
+
+    /**
+     * Parses an {@code ELLIPSOID} or {@code SPHEROID} element, or returns the cached ellipsoid
+     * if the same element has been parsed before. An inverse flattening of zero means a sphere.
+     *
+     * @param  element The {@code ELLIPSOID} element.
+     * @return The ellipsoid.
+     * @throws ParseException if the element can not be parsed.
+     */
+    private Ellipsoid parseEllipsoid(final Element element) throws ParseException {
+        final Key key = new Key(element.source(), null);
+        final Object cached = cached(key);
+        if (cached instanceof Ellipsoid) {
+            return (Ellipsoid) cached;
+        }
+        final String name              = element.pullString("name");
+        final double semiMajorAxis     = element.pullDouble("semiMajorAxis");
+        double       inverseFlattening = element.pullDouble("inverseFlattening");
+        if (inverseFlattening == 0) {
+            inverseFlattening = Double.POSITIVE_INFINITY;
+        }
+        Unit<Length> unit = SI.METRE;
+        final Element unitElement = element.pullOptionalElement(LENGTH_UNIT);
+        if (unitElement != null) {
+            unit = parseUnit(unitElement, SI.METRE);
+        }
+        final Map<String,Object> properties = parseMetadata(element, name);
+        try {
+            return cache(key, Ellipsoid.class, factories.createEllipsoid(properties, semiMajorAxis, inverseFlattening, unit));
+        } catch (IllegalArgumentException e) {
+            throw element.illegal(e);
+        }
+    }
+
+    /**
+     * Parses a {@code PRIMEM} element, or returns the cached prime meridian if the same element
+     * has been parsed before. If the element does not specify explicitely its unit, then the
+     * longitude is in the unit of the enclosing CRS, unless the {@link Convention#WKT1_COMMON_UNITS}
+     * convention forces the unit to degrees.
+     *
+     * @param  element     The {@code PRIMEM} element.
+     * @param  angularUnit The unit of the enclosing CRS.
+     * @return The prime meridian.
+     * @throws ParseException if the element can not be parsed.
+     */
+    private PrimeMeridian parsePrimeMeridian(final Element element, Unit<Angle> angularUnit) throws ParseException {
+        if (convention.usesCommonUnits()) {
+            angularUnit = NonSI.DEGREE_ANGLE;
+        }
+        final Key key = new Key(element.source(), angularUnit);
+        final Object cached = cached(key);
+        if (cached instanceof PrimeMeridian) {
+            return (PrimeMeridian) cached;
+        }
+        final String name      = element.pullString("name");
+        final double longitude = element.pullDouble("longitude");
+        final Element unitElement = element.pullOptionalElement(ANGLE_UNIT);
+        if (unitElement != null) {
+            angularUnit = parseUnit(unitElement, SI.RADIAN);
+        }
+        final Map<String,Object> properties = parseMetadata(element, name);
+        try {
+            return cache(key, PrimeMeridian.class, factories.createPrimeMeridian(properties, longitude, angularUnit));
+        } catch (IllegalArgumentException e) {
+            throw element.illegal(e);
+        }
+    }
+
+    /**
+     * Returns the Greenwich prime meridian, which is the default when no {@code PRIMEM} element is specified.
+     */
+    private PrimeMeridian greenwich() {
+        if (greenwich == null) {
+            final Key key = new Key("Greenwich", NonSI.DEGREE_ANGLE);
+            final Object cached = cached(key);
+            if (cached instanceof PrimeMeridian) {
+                greenwich = (PrimeMeridian) cached;
+            } else {
+                greenwich = cache(key, PrimeMeridian.class, factories.createPrimeMeridian(
+                        singletonMap(IdentifiedObject.NAME_KEY, "Greenwich"), 0, NonSI.DEGREE_ANGLE));
+            }
+        }
+        return greenwich;
+    }
+
+    /**
+     * Parses an {@code AXIS} element. In WKT 2, the name may contain the abbreviation between parentheses,
+     * as in {@code AXIS["latitude (φ)", north]}. If no abbreviation is found, then a default abbreviation
+     * is inferred from the axis direction.
+     *
+     * @param  element     The {@code AXIS} element.
+     * @param  angularUnit The unit of the enclosing CRS, used if the axis does not specify its own unit.
+     * @return The axis.
+     * @throws ParseException if the element can not be parsed.
+     */
+    private CoordinateSystemAxis parseAxis(final Element element, final Unit<Angle> angularUnit) throws ParseException {
+        String name = element.pullString("name");
+        final String d = element.pullVoidElement("direction");
+        final AxisDirection direction = Types.forCodeName(AxisDirection.class, d, false);
+        if (direction == null) {
+            throw element.error(Errors.Keys.UnknownAxisDirection_1, d);
+        }
+        final boolean isVertical = (direction == AxisDirection.UP || direction == AxisDirection.DOWN);
+        final boolean isLatitude = (direction == AxisDirection.NORTH || direction == AxisDirection.SOUTH);
+        String abbreviation = null;
+        final int open = name.lastIndexOf('(');
+        if (open >= 0 && name.endsWith(")")) {
+            abbreviation = name.substring(open + 1, name.length() - 1).trim();
+            name = name.substring(0, open).trim();
+        }
+        if (name.isEmpty() || name.equalsIgnoreCase(isLatitude ? "Latitude" : "Longitude")) {
+            // ISO 19162 §7.5.3(ii): "Geodetic latitude" and "Geodetic longitude" are formatted without "Geodetic".
+            name = isVertical ? "Ellipsoidal height" : isLatitude ? "Geodetic latitude" : "Geodetic longitude";
+        }
+        if (abbreviation == null || abbreviation.isEmpty()) {
+            abbreviation = isVertical ? "h" : isLatitude ? "φ" : "λ";
+        }
+        Unit<?> unit = isVertical ? SI.METRE : angularUnit;
+        final Element unitElement = element.pullOptionalElement(isVertical ? LENGTH_UNIT : ANGLE_UNIT);
+        if (unitElement != null) {
+            unit = parseUnit(unitElement, isVertical ? SI.METRE : SI.RADIAN);
+        }
+        final Map<String,Object> properties = parseMetadata(element, name);
+        try {
+            return factories.createAxis(properties, abbreviation, direction, unit);
+        } catch (IllegalArgumentException e) {
+            throw element.illegal(e);
+        }
+    }
+
+    /**
+     * Creates one of the axes to use when no {@code AXIS} element is specified.
+     */
+    private CoordinateSystemAxis defaultAxis(final String name, final String abbreviation,
+            final AxisDirection direction, final Unit<?> unit)
+    {
+        final Key key = new Key(name, unit);
+        final Object cached = cached(key);
+        if (cached instanceof CoordinateSystemAxis) {
+            return (CoordinateSystemAxis) cached;
+        }
+        return cache(key, CoordinateSystemAxis.class, factories.createAxis(singletonMap(IdentifiedObject.NAME_KEY, name), abbreviation, direction, unit));
+    }
+
+    /**
+     * Parses a {@code UNIT} element, or returns the cached unit if the same element has been parsed before.
+     *
+     * @param  <Q>      The quantity measured by the unit.
+     * @param  element  The {@code UNIT}, {@code ANGLEUNIT}, {@code LENGTHUNIT} or {@code SCALEUNIT} element.
+     * @param  baseUnit The unit to multiply by the conversion factor.
+     * @return The unit.
+     * @throws ParseException if the element can not be parsed.
+     */
+    @SuppressWarnings("unchecked")
+    private <Q extends Quantity> Unit<Q> parseUnit(final Element element, final Unit<Q> baseUnit) throws ParseException {
+        final Key key = new Key(element.source(), baseUnit);
+        final Object cached = cached(key);
+        if (cached instanceof Unit<?>) {
+            return (Unit<Q>) cached;
+        }
+        element.pullString("name");
+        final double factor = element.pullDouble("factor");
+        if (!(factor > 0) || Double.isInfinite(factor)) {
+            throw element.error(Errors.Keys.ValueNotGreaterThanZero_2, "factor", factor);
+        }
+        return (Unit<Q>) cache(key, Unit.class, Units.multiply(baseUnit, factor));
+    }
+
+    /**
+     * Parses the name, identifiers and remarks of an object.
+     *
+     * @param  element The element from which to pull the {@code ID} or {@code AUTHORITY} and {@code REMARK} elements.
+     * @param  name    The name of the object.
+     * @return The properties to give to the factory method.
+     * @throws ParseException if an identifier can not be parsed.
+     */
+    private static Map<String,Object> parseMetadata(final Element element, final String name) throws ParseException {
+        final Map<String,Object> properties = new HashMap<>(4);
+        properties.put(IdentifiedObject.NAME_KEY, name);
+        List<Identifier> identifiers = null;
+        Element id;
+        while ((id = element.pullOptionalElement(ID)) != null) {
+            final String authority = id.pullString("name");
+            final String code      = id.pullCode("code");
+            if (identifiers == null) {
+                identifiers = new ArrayList<>(2);
+            }
+            identifiers.add(new ImmutableIdentifier(Citations.fromName(authority), authority, code));
+        }
+        if (identifiers != null) {
+            properties.put(IdentifiedObject.IDENTIFIERS_KEY, identifiers.toArray(new Identifier[identifiers.size()]));
+        }
+        final Element remark = element.pullOptionalElement(REMARK);
+        if (remark != null) {
+            properties.put(IdentifiedObject.REMARKS_KEY, remark.pullString("remarks"));
+        }
+        return properties;
+    }
+
+    /**
+     * If the given element is a reference to a {@link WKTFormat#definitions()} entry,
+     * parses the definition. Otherwise returns the given element unchanged.
+     *
+     * @param  element An element without list, which is either an enumeration value or a short name.
+     * @return The element parsed from the definition, or {@code element} if none.
+     * @throws ParseException if the definition can not be parsed.
+     */
+    final Element expand(final Element element) throws ParseException {
+        if (definitions != null) {
+            final String definition = definitions.get(element.keyword);
+            if (definition != null) {
+                if (depth >= definitions.size()) {
+                    throw element.error(Errors.Keys.UnknownKeyword_1, element.keyword);    // Circular definition.
+                }
+                final int saved = reference;
+                if (saved < 0) {
+                    reference = element.offset;
+                }
+                depth++;
+                try {
+                    return new Element(this, definition, new ParsePosition(0));
+                } finally {
+                    depth--;
+                    reference = saved;
+                }
+            }
+        }
+        return element;
+    }
+
+    /**
+     * Returns the index of the first non-whitespace character at or after the given index.
+     */
+    final int skipWhitespaces(final String text, final int index) {
+        return CharSequences.skipLeadingWhitespaces(text, index, text.length());
+    }
+
+    /**
+     * Returns the closing bracket for the given opening bracket, or -1 if the given character is not an opening bracket.
+     */
+    final int closingBracket(final int c) {
+        for (int i=0; i<brackets.length; i += 2) {
+            if (brackets[i] == c) {
+                return brackets[i+1];
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the closing quote for the given opening quote, or -1 if the given character is not an opening quote.
+     */
+    final int closingQuote(final int c) {
+        for (int i=0; i<quotes.length; i += 2) {
+            if (quotes[i] == c) {
+                return quotes[i+1];
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Parses the number at the given position. If the numbers are formatted in the root locale, then this method
+     * parses the characters with {@link Double#parseDouble(String)}, which is much faster than {@link NumberFormat}.
+     *
+     * @param  text     The text to parse.
+     * @param  position On input, index of the number. On output, index after the number.
+     * @return The parsed number.
+     * @throws ParseException if the number can not be parsed.
+     */
+    final Double parseNumber(final String text, final ParsePosition position) throws ParseException {
+        final int start = position.getIndex();
+        if (numberFormat != null) {
+            final Number n = numberFormat.parse(text, position);
+            if (n == null) {
+                throw unparsable(text, start);
+            }
+            return n.doubleValue();
+        }
+        final int length = text.length();
+        int i = start;
+        while (i < length) {
+            final char c = text.charAt(i);
+            if ((c < '0' || c > '9') && c != '.' && c != '-' && c != '+' && c != 'E' && c != 'e') break;
+            i++;
+        }
+        final double value;
+        try {
+            value = Double.parseDouble(text.substring(start, i));
+        } catch (NumberFormatException e) {
+            throw unparsable(text, start);
+        }
+        position.setIndex(i);
+        return value;
+    }
+
+    /**
+     * Returns the error offset to report for an error at the given index in the given text.
+     */
+    private int errorOffset(final String source, final int index) {
+        return ((source == text) ? index : reference) - origin;
+    }
+
+    /**
+     * Returns the exception to throw for unparsable characters at the given index.
+     */
+    final ParseException unparsable(final String source, final int index) {
+        String token = CharSequences.token(source, index).toString();
+        if (token.isEmpty() && index < source.length()) {
+            token = source.substring(index, source.offsetByCodePoints(index, 1));
+        }
+        return error(source, index, Errors.Keys.UnparsableStringForClass_2, "WKT", token);
+    }
+
+    /**
+     * Returns the exception to throw for a missing closing bracket or quote in the given element.
+     */
+    final ParseException missingCharacter(final String source, final String keyword, final int c, final int index) {
+        return error(source, index, Errors.Keys.NonEquilibratedParenthesis_2, keyword, String.valueOf(Character.toChars(c)));
+    }
+
+    /**
+     * Returns an exception with a localized message for the given resource key.
+     */
+    final ParseException error(final String source, final int index, final short key, final Object... arguments) {
+        return new LocalizedParseException(errorLocale, key, arguments, errorOffset(source, index));
+    }
+
+    /**
+     * Returns an exception for an object that can not be created from the values of an element.
+     */
+    final ParseException error(final String source, final int index, final Exception cause) {
+        final ParseException e = new ParseException(cause.getLocalizedMessage(), errorOffset(source, index));
+        e.initCause(cause);
+        return e;
+    }
+}
@@ -16,15 +16,18 @@
  */
 package org.apache.sis.io.wkt;
 
+import java.util.Map;
 import java.util.Date;
 import java.util.Locale;
 import java.util.TimeZone;
+import java.util.LinkedHashMap;
 import java.io.IOException;
 import java.text.Format;
 import java.text.NumberFormat;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.text.ParsePosition;
+import java.text.ParseException;
 import javax.measure.unit.Unit;
 import javax.measure.unit.UnitFormat;
 import org.opengis.metadata.citation.Citation;
@@ -61,6 +64,12 @@ import org.apache.sis.util.resources.Errors;
  * Note however that this class doesn't replace occurrences between quoted text, so string
  * expansion still relatively safe even when used with non-prefixed identifiers.</p>
  *
+ * {@section Sharing of parsed objects}
+ * Ellipsoids, prime meridians, datums and units parsed from identical WKT fragments are shared between
+ * all parsed objects, including objects parsed by different {@code WKTFormat} instances. Consequently
+ * parsing many WKT strings repeating the same datum definition creates only one datum instance, and the
+ * cost of parsing the repeated fragments is reduced to a cache lookup.
+ *
  * <div class="note"><b>Example:</b>
  * In the example below, the {@code $WGS84} substring which appear in the argument given to the
  * {@code parseObject(…)} method will be expanded into the full {@code GEOGCS["WGS84", …]} string
@@ -78,7 +87,7 @@ import org.apache.sis.util.resources.Errors;
  * @author  Martin Desruisseaux (Geomatys)
  * @author  Rémi Eve (IRD)
  * @since   0.4
- * @version 0.5
+ * @version 0.6
  * @module
  */
 public class WKTFormat extends CompoundFormat<Object> {
@@ -158,6 +167,17 @@ public class WKTFormat extends CompoundFormat<Object> {
      */
     private byte indentation;
 
+    /**
+     * The short names to substitute by WKT fragments at parsing time, or {@code null} if none.
+     * Created by {@link #definitions()} when first needed.
+     */
+    private Map<String,String> definitions;
+
+    /**
+     * The parser. Will be created by the {@link #parse(CharSequence, ParsePosition)} method when first needed.
+     */
+    private transient Parser parser;
+
     /**
      * A formatter using the same symbols than the {@linkplain #parser}.
      * Will be created by the {@link #format(Object, Appendable)} method when first needed.
@@ -220,6 +240,7 @@ public class WKTFormat extends CompoundFormat<Object> {
         if (!symbols.equals(this.symbols)) {
             this.symbols = symbols.immutable();
             formatter = null;
+            parser = null;
         }
     }
 
@@ -319,6 +340,7 @@ public class WKTFormat extends CompoundFormat<Object> {
         ArgumentChecks.ensureNonNull("convention", convention);
         this.convention = convention;
         updateFormatter(formatter);
+        parser = null;
     }
 
     /**
@@ -419,15 +441,55 @@ public class WKTFormat extends CompoundFormat<Object> {
     }
 
     /**
-     * Not yet supported.
+     * Returns the map of short names to substitute by WKT fragments at parsing time.
+     * The returned map is live: changes in the map are reflected in subsequent parsing.
+     * See the <cite>String expansion</cite> section in the class javadoc for more information.
+     *
+     * @return The map of short names to WKT fragments.
+     *
+     * @since 0.6
+     */
+    public Map<String,String> definitions() {
+        if (definitions == null) {
+            definitions = new LinkedHashMap<>();
+            parser = null;
+        }
+        return definitions;
+    }
+
+    /**
+     * Creates the object from a string. This method parses the WKT element starting at the given position,
+     * including all nested elements. Short names declared in the {@linkplain #definitions() definitions} map
+     * are replaced by their WKT fragments.
+     *
+     * <p>Current implementation can parse the WKT 1 and WKT 2 forms of geographic CRS, geodetic datum,
+     * ellipsoid, prime meridian and unit elements. Parsing requires the {@code sis-referencing} module.</p>
      *
-     * @param  text The text to parse.
-     * @param  position The index of the first character to parse.
-     * @return The parsed object, or {@code null} in case of failure.
+     * @param  text     The character sequence for the object to parse.
+     * @param  position The position where to start the parsing.
+     * @return The parsed object.
+     * @throws ParseException If the string can not be parsed.
+     *
+     * @since 0.6
      */
     @Override
-    public Object parse(final CharSequence text, final ParsePosition position) {
-        throw new UnsupportedOperationException("Not supported yet.");
+    public Object parse(final CharSequence text, final ParsePosition position) throws ParseException {
+        ArgumentChecks.ensureNonNull("text",     text);
+        ArgumentChecks.ensureNonNull("position", position);
+        Parser parser = this.parser;
+        if (parser == null) {
+            this.parser = parser = new Parser(symbols,
+                    !Locale.ROOT.equals(symbols.getLocale()) ? (NumberFormat) getFormat(Number.class) : null,
+                    definitions, convention, getLocale(Locale.Category.DISPLAY));
+        }
+        final int start = position.getIndex();
+        try {
+            return parser.parse(text.toString(), position);
+        } catch (ParseException e) {
+            position.setIndex(start);
+            position.setErrorIndex(start + e.getErrorOffset());     // Parser error offsets are relative to 'start'.
+            throw e;
+        }
     }
 
     /**
@@ -532,6 +594,10 @@ public class WKTFormat extends CompoundFormat<Object> {
     public WKTFormat clone() {
         final WKTFormat clone = (WKTFormat) super.clone();
         clone.formatter = null; // Do not share the formatter.
+        clone.parser    = null;
+        if (definitions != null) {
+            clone.definitions = new LinkedHashMap<>(definitions);
+        }
         return clone;
     }
 }
@@ -0,0 +1,285 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sis.geometry;
+
+import java.util.Arrays;
+import org.opengis.referencing.crs.CoordinateReferenceSystem;
+import org.apache.sis.util.resources.Errors;
+
+import static org.apache.sis.util.ArgumentChecks.ensurePositive;
+import static org.apache.sis.util.ArgumentChecks.ensureValidIndexRange;
+import static org.apache.sis.util.ArgumentChecks.ensureDimensionMatches;
+
+// Branch-dependent imports
+import org.opengis.geometry.UnmodifiableGeometryException;
+
+
+/**
+ * A read-only direct position wrapping a window over an array of coordinates, without copying the values.
+ * The window can be moved over the array by {@link #setOffset(int)} or {@link #moveTo(int)}, which allows
+ * the same instance to be reused for iterating over all points in a coordinate buffer. This is useful for
+ * invoking the methods expecting {@link org.opengis.geometry.DirectPosition} arguments — for example
+ * {@link org.opengis.referencing.operation.MathTransform#derivative(org.opengis.geometry.DirectPosition)}
+ * or {@link GeneralEnvelope#add(org.opengis.geometry.DirectPosition)} — on many points without allocating
+ * a new position for each point.
+ *
+ * <div class="note"><b>Example:</b>
+ * the following code computes the envelope of (<var>x</var>,<var>y</var>) tuples stored in an array:
+ *
+ * {@preformat java
+ *     DirectPositionView.Double view = new DirectPositionView.Double(coordinates, 0, 2);
+ *     GeneralEnvelope envelope = new GeneralEnvelope(view, view);
+ *     for (int i=1; i<numPoints; i++) {
+ *         view.moveTo(i);
+ *         envelope.add(view);
+ *     }
+ * }
+ * </div>
+ *
+ * Two implementations are provided: {@link Double} for {@code double[]} arrays and
+ * {@link Float} for {@code float[]} arrays.
+ *
+ * {@section Mutability}
+ * The ordinate values can not be modified through this view, but they will change if the wrapped array
+ * is modified or if the view is moved to another point. Consequently callers shall not keep a reference
+ * to a view after the iteration; a copy (for example a {@link GeneralDirectPosition}) shall be created
+ * if the position needs to be retained. This class is not serializable for the same reason.
+ *
+ * {@section Thread safety}
+ * Instances of this class are not thread-safe since the offset is mutable.
+ * Each thread shall use its own view, but many views can wrap the same array.
+ *
+ * @author  Martin Desruisseaux (Geomatys)
+ * @since   0.6
+ * @version 0.6
+ * @module
+ */
+public abstract class DirectPositionView extends AbstractDirectPosition {
+    /**
+     * The coordinate reference system, or {@code null} if unspecified.
+     */
+    private final CoordinateReferenceSystem crs;
+
+    /**
+     * The number of valid ordinate values.
+     */
+    private final int dimension;
+
+    /**
+     * The index of the first ordinate value of the point at index 0.
+     * This is the offset given at construction time.
+     */
+    private final int base;
+
+    /**
+     * The index of the first ordinate value of the current point in the wrapped array.
+     */
+    int offset;
+
+    /**
+     * Creates a new view. This constructor is package-private because only the
+     * {@link Double} and {@link Float} subclasses are allowed.
+     */
+    DirectPositionView(final CoordinateReferenceSystem crs, final int offset, final int dimension, final int length) {
+        ensurePositive("dimension", dimension);
+        ensureValidIndexRange(length, offset, offset + dimension);
+        ensureDimensionMatches("crs", dimension, crs);
+        this.crs       = crs;
+        this.dimension = dimension;
+        this.base      = offset;
+        this.offset    = offset;
+    }
+
+    /**
+     * Returns the coordinate reference system given at construction time, or {@code null} if none.
+     *
+     * @return The coordinate reference system, or {@code null}.
+     */
+    @Override
+    public final CoordinateReferenceSystem getCoordinateReferenceSystem() {
+        return crs;
+    }
+
+    /**
+     * Returns the number of dimensions given at construction time.
+     *
+     * @return The dimensionality of this position.
+     */
+    @Override
+    public final int getDimension() {
+        return dimension;
+    }
+
+    /**
+     * Returns the index of the first ordinate value of this position in the wrapped array.
+     *
+     * @return Index of the first ordinate value in the wrapped array.
+     */
+    public final int getOffset() {
+        return offset;
+    }
+
+    /**
+     * Moves this view to the given index in the wrapped array.
+     * For performance reasons, this method does not check the argument validity.
+     * An invalid offset will cause an {@link ArrayIndexOutOfBoundsException} when
+     * an ordinate value is requested.
+     *
+     * @param offset Index of the first ordinate value of the new position in the wrapped array.
+     */
+    public final void setOffset(final int offset) {
+        this.offset = offset;
+    }
+
+    /**
+     * Moves this view to the point at the given index, where index 0 is the point at the offset
+     * given at construction time. This is equivalent to
+     * <code>{@linkplain #setOffset(int) setOffset}(initialOffset + index * {@linkplain #getDimension() dimension})</code>.
+     * This method does not check the argument validity.
+     *
+     * @param index Index of the point to view, relative to the point given at construction time.
+     */
+    public final void moveTo(final int index) {
+        offset = base + index * dimension;
+    }
+
+    /**
+     * Do not allow any change, since this view is read-only.
+     *
+     * @param  dimension The dimension for the ordinate of interest.
+     * @param  value     The ordinate value of interest.
+     * @throws UnmodifiableGeometryException always thrown.
+     */
+    @Override
+    public final void setOrdinate(final int dimension, final double value) throws UnmodifiableGeometryException {
+        throw new UnmodifiableGeometryException(Errors.format(Errors.Keys.UnmodifiableObject_1, getClass()));
+    }
+
+    /**
+     * A view over an array of {@code double} values.
+     *
+     * @author  Martin Desruisseaux (Geomatys)
+     * @since   0.6
+     * @version 0.6
+     * @module
+     */
+    public static final class Double extends DirectPositionView {
+        /**
+         * The ordinate values. This is a direct reference to the array given to the constructor.
+         */
+        private final double[] ordinates;
+
+        /**
+         * Creates a new view over the given array, without CRS.
+         *
+         * @param ordinates The ordinate values. This array is not cloned.
+         * @param offset    Index of the first ordinate value of the first point.
+         * @param dimension The number of ordinate values of each point.
+         */
+        public Double(final double[] ordinates, final int offset, final int dimension) {
+            this(null, ordinates, offset, dimension);
+        }
+
+        /**
+         * Creates a new view over the given array with the given CRS.
+         *
+         * @param crs       The coordinate reference system, or {@code null} if none.
+         * @param ordinates The ordinate values. This array is not cloned.
+         * @param offset    Index of the first ordinate value of the first point.
+         * @param dimension The number of ordinate values of each point.
+         */
+        public Double(final CoordinateReferenceSystem crs, final double[] ordinates, final int offset, final int dimension) {
+            super(crs, offset, dimension, ordinates.length);
+            this.ordinates = ordinates;
+        }
+
+        /**
+         * Returns the ordinate at the given dimension.
+         * <strong>This implementation does not check index validity</strong>, unless assertions are enabled.
+         *
+         * @param  dim The dimension in the range 0 to {@linkplain #getDimension() dimension}-1.
+         * @return The ordinate at the given dimension.
+         */
+        @Override
+        public double getOrdinate(final int dim) {
+            assert dim >= 0 && dim < getDimension() : dim;
+            return ordinates[offset + dim];
+        }
+
+        /**
+         * Returns a copy of the ordinate values of this position.
+         *
+         * @return A copy of the ordinate values.
+         */
+        @Override
+        public double[] getCoordinate() {
+            return Arrays.copyOfRange(ordinates, offset, offset + getDimension());
+        }
+    }
+
+    /**
+     * A view over an array of {@code float} values.
+     *
+     * @author  Martin Desruisseaux (Geomatys)
+     * @since   0.6
+     * @version 0.6
+     * @module
+     */
+    public static final class Float extends DirectPositionView {
+        /**
+         * The ordinate values. This is a direct reference to the array given to the constructor.
+         */
+        private final float[] ordinates;
+
+        /**
+         * Creates a new view over the given array, without CRS.
+         *
+         * @param ordinates The ordinate values. This array is not cloned.
+         * @param offset    Index of the first ordinate value of the first point.
+         * @param dimension The number of ordinate values of each point.
+         */
+        public Float(final float[] ordinates, final int offset, final int dimension) {
+            this(null, ordinates, offset, dimension);
+        }
+
+        /**
+         * Creates a new view over the given array with the given CRS.
+         *
+         * @param crs       The coordinate reference system, or {@code null} if none.
+         * @param ordinates The ordinate values. This array is not cloned.
+         * @param offset    Index of the first ordinate value of the first point.
+         * @param dimension The number of ordinate values of each point.
+         */
+        public Float(final CoordinateReferenceSystem crs, final float[] ordinates, final int offset, final int dimension) {
+            super(crs, offset, dimension, ordinates.length);
+            this.ordinates = ordinates;
+        }
+
+        /**
+         * Returns the ordinate at the given dimension.
+         * <strong>This implementation does not check index validity</strong>, unless assertions are enabled.
+         *
+         * @param  dim The dimension in the range 0 to {@linkplain #getDimension() dimension}-1.
+         * @return The ordinate at the given dimension.
+         */
+        @Override
+        public double getOrdinate(final int dim) {
+            assert dim >= 0 && dim < getDimension() : dim;
+            return ordinates[offset + dim];
+        }
+    }
+}
@@ -0,0 +1,250 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sis.geometry;
+
+import java.util.Arrays;
+import org.opengis.geometry.Envelope;
+import org.opengis.referencing.operation.Matrix;
+import org.opengis.referencing.operation.MathTransform;
+import org.opengis.referencing.operation.TransformException;
+
+
+/**
+ * Computes the envelope of a transformed two-dimensional envelope by walking along its four edges.
+ * Each edge is subdivided adaptively: a segment is split in two halves as long as the cubic curve
+ * fitted on the points and derivatives at the segment extremities does not predict the transformed
+ * midpoint within the tolerance threshold. When the prediction is good enough, the {@link CurveExtremum}
+ * of the fitted curve gives the location where the segment may expand the envelope. Segments which can not
+ * expand the envelope, even with the error of the fitted curve taken in account, are not subdivided further.
+ *
+ * <p>This algorithm assumes that the extremum of the transformed envelope are located on its boundary.
+ * This is true for transforms without critical point inside the envelope, for example conformal map
+ * projections applied on areas that do not contain a pole.</p>
+ *
+ * <p>This class is not thread-safe. A new instance shall be created for each envelope to transform.</p>
+ *
+ * @author  Martin Desruisseaux (Geomatys)
+ * @since   0.6
+ * @version 0.6
+ * @module
+ *
+ * @see Envelopes#transform(MathTransform, Envelope, double)
+ */
+final class EdgeDensifier {
+    /**
+     * Maximal number of times that a segment can be split in two halves. This limit prevents
+     * never-ending subdivisions when the transform has a discontinuity on an envelope edge.
+     */
+    private static final int MAXIMUM_DEPTH = 16;
+
+    /**
+     * The transform to apply.
+     */
+    private final MathTransform transform;
+
+    /**
+     * The maximal difference allowed between the transformed midpoints and the values predicted
+     * by the cubic curves, in units of the target coordinate system.
+     */
+    private final double tolerance;
+
+    /**
+     * Number of target dimensions.
+     */
+    private final int targetDim;
+
+    /**
+     * Minimal and maximal ordinate values of all transformed points.
+     */
+    private final double[] lower, upper;
+
+    /**
+     * A temporary array for the source coordinate to transform.
+     */
+    private final double[] sourcePt;
+
+    /**
+     * A temporary object to use for computing curve extremum.
+     */
+    private final CurveExtremum extremum;
+
+    /**
+     * Creates a new object for transforming envelopes with the given two-dimensional transform.
+     */
+    EdgeDensifier(final MathTransform transform, final double tolerance) {
+        this.transform = transform;
+        this.tolerance = tolerance;
+        targetDim = transform.getTargetDimensions();
+        lower     = new double[targetDim];
+        upper     = new double[targetDim];
+        sourcePt  = new double[2];
+        extremum  = new CurveExtremum();
+        Arrays.fill(lower, Double.POSITIVE_INFINITY);
+        Arrays.fill(upper, Double.NEGATIVE_INFINITY);
+    }
+
+    /**
+     * Transforms the given two-dimensional envelope.
+     *
+     * @param  envelope The envelope to transform.
+     * @return The transformed envelope.
+     * @throws TransformException if a point can not be transformed or a derivative can not be computed.
+     */
+    GeneralEnvelope transform(final Envelope envelope) throws TransformException {
+        final double xmin = envelope.getMinimum(0);
+        final double xmax = envelope.getMaximum(0);
+        final double ymin = envelope.getMinimum(1);
+        final double ymax = envelope.getMaximum(1);
+        final double[] p00 = sample(0, xmin, ymin);
+        final double[] p10 = sample(0, xmax, ymin);
+        final double[] p01 = sample(0, xmin, ymax);
+        final double[] p11 = sample(0, xmax, ymax);
+        densify(0, ymin, xmin, p00, xmax, p10, 0);      // South edge.
+        densify(0, ymax, xmin, p01, xmax, p11, 0);      // North edge.
+        densify(1, xmin, ymin, p00, ymax, p01, 0);      // West edge.
+        densify(1, xmax, ymin, p10, ymax, p11, 0);      // East edge.
+        for (int j=0; j<targetDim; j++) {
+            if (!(lower[j] <= upper[j])) {              // All values were NaN.
+                lower[j] = upper[j] = Double.NaN;
+            }
+        }
+        return new GeneralEnvelope(lower, upper);
+    }
+
+    /**
+     * Transforms the given point, expands the bounds with the result and computes the derivative.
+     * The returned array contains the transformed ordinate values, followed by the derivatives
+     * along the first source dimension, followed by the derivatives along the second source dimension.
+     *
+     * @param  dim   The dimension of the ordinate value which varies along the edge.
+     * @param  x     The ordinate value in the {@code dim} dimension.
+     * @param  fixed The ordinate value in the other dimension.
+     * @return The transformed point and its derivatives.
+     */
+    private double[] sample(final int dim, final double x, final double fixed) throws TransformException {
+        sourcePt[dim]     = x;
+        sourcePt[dim ^ 1] = fixed;
+        final double[] p = new double[3 * targetDim];
+        final Matrix derivative = Envelopes.derivativeAndTransform(transform, sourcePt, p, 0, true);
+        for (int j=0; j<targetDim; j++) {
+            final double y = p[j];
+            if (y < lower[j]) lower[j] = y;
+            if (y > upper[j]) upper[j] = y;
+            p[targetDim   + j] = derivative.getElement(j, 0);
+            p[targetDim*2 + j] = derivative.getElement(j, 1);
+        }
+        return p;
+    }
+
+    /**
+     * Subdivides the given edge segment until the transformed midpoints are predicted within the tolerance,
+     * then adds the extremum of the fitted cubic curves.
+     *
+     * @param dim   The dimension of the ordinate value which varies along the edge.
+     * @param fixed The ordinate value in the other dimension.
+     * @param x1    The ordinate value at the beginning of the segment.
+     * @param p1    The transformed point and derivatives at {@code x1}, as returned by {@link #sample sample(…)}.
+     * @param x2    The ordinate value at the end of the segment.
+     * @param p2    The transformed point and derivatives at {@code x2}.
+     * @param depth Number of subdivisions done so far.
+     */
+    private void densify(final int dim, final double fixed, final double x1, final double[] p1,
+            final double x2, final double[] p2, final int depth) throws TransformException
+    {
+        final double   xm = 0.5 * (x1 + x2);
+        final double[] pm = sample(dim, xm, fixed);
+        /*
+         * Value at the midpoint of the Hermite cubic curve defined by the points and derivatives
+         * at the segment extremities: (y1 + y2)/2 + (y1′ - y2′)⋅(x2 - x1)/8. A NaN error stops the
+         * subdivision since it would not improve the result.
+         */
+        final int    offset = targetDim * (dim + 1);
+        final double h8     = (x2 - x1) / 8;
+        double error = 0;
+        for (int j=0; j<targetDim; j++) {
+            final double predicted = 0.5 * (p1[j] + p2[j]) + (p1[offset + j] - p2[offset + j]) * h8;
+            error = Math.max(error, Math.abs(pm[j] - predicted));
+        }
+        if (!mayExpand(offset, x1, p1, x2, p2, error)) {
+            return;
+        }
+        if (error > tolerance && depth < MAXIMUM_DEPTH) {
+            densify(dim, fixed, x1, p1, xm, pm, depth + 1);
+            densify(dim, fixed, xm, pm, x2, p2, depth + 1);
+        } else {
+            addExtremums(dim, fixed, x1, p1, xm, pm);
+            addExtremums(dim, fixed, xm, pm, x2, p2);
+        }
+    }
+
+    /**
+     * Returns {@code true} if the transformed segment may expand the current bounds. The segment range is
+     * estimated from the cubic curve fitted on the whole segment, enlarged by the error of that curve.
+     * Segments which can not expand the bounds do not need to be subdivided further.
+     *
+     * @param offset Index of the derivative values in the {@code p1} and {@code p2} arrays.
+     * @param error  The estimated error of the cubic curve fitted on the whole segment.
+     */
+    private boolean mayExpand(final int offset, final double x1, final double[] p1,
+            final double x2, final double[] p2, final double error)
+    {
+        if (!(error < Double.POSITIVE_INFINITY)) {
+            return true;
+        }
+        for (int j=0; j<targetDim; j++) {
+            double ymin = Math.min(p1[j], p2[j]);
+            double ymax = Math.max(p1[j], p2[j]);
+            extremum.resolve(x1, p1[j], p1[offset + j], x2, p2[j], p2[offset + j]);
+            if (extremum.ex1 > x1 && extremum.ex1 < x2) {
+                ymin = Math.min(ymin, extremum.ey1);
+                ymax = Math.max(ymax, extremum.ey1);
+            }
+            if (extremum.ex2 > x1 && extremum.ex2 < x2) {
+                ymin = Math.min(ymin, extremum.ey2);
+                ymax = Math.max(ymax, extremum.ey2);
+            }
+            if (ymin - error < lower[j] || ymax + error > upper[j]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Expands the bounds with the extremum of the cubic curves fitted on the given segment.
+     * The extremum points are transformed rather than taken from the cubic curves,
+     * for avoiding the approximation error.
+     */
+    private void addExtremums(final int dim, final double fixed, final double x1, final double[] p1,
+            final double x2, final double[] p2) throws TransformException
+    {
+        final int offset = targetDim * (dim + 1);
+        for (int j=0; j<targetDim; j++) {
+            extremum.resolve(x1, p1[j], p1[offset + j], x2, p2[j], p2[offset + j]);
+            boolean isP2 = false;
+            do { // Executed exactly twice, one for each extremum point.
+                final double x = isP2 ? extremum.ex2 : extremum.ex1;
+                if (x > x1 && x < x2) {
+                    final double y = isP2 ? extremum.ey2 : extremum.ey1;
+                    if (y < lower[j] || y > upper[j]) {
+                        sample(dim, x, fixed);
+                    }
+                }
+            } while ((isP2 = !isP2) == true);
+        }
+    }
+}
@@ -21,6 +21,8 @@ package org.apache.sis.geometry;
  * support Java2D (e.g. Android),  or applications that do not need it may want to avoid to
  * force installation of the Java2D module (e.g. JavaFX/SWT).
  */
+import java.util.Arrays;
+import java.util.BitSet;
 import org.opengis.geometry.Envelope;
 import org.opengis.geometry.DirectPosition;
 import org.opengis.geometry.MismatchedDimensionException;
@@ -42,11 +44,15 @@ import org.apache.sis.util.logging.Logging;
 import org.apache.sis.util.resources.Errors;
 import org.apache.sis.referencing.CRS;
 import org.apache.sis.referencing.operation.transform.AbstractMathTransform;
-import org.apache.sis.internal.referencing.DirectPositionView;
+import org.apache.sis.referencing.operation.transform.LinearTransform;
 import org.apache.sis.internal.referencing.Formulas;
 import org.apache.sis.internal.system.DefaultFactories;
 
 import static org.apache.sis.util.ArgumentChecks.ensureNonNull;
+import static org.apache.sis.util.ArgumentChecks.ensurePositive;
+import static org.apache.sis.util.ArgumentChecks.ensureStrictlyPositive;
+import static org.apache.sis.math.MathFunctions.isNegative;
+import static org.apache.sis.internal.util.Numerics.SIGN_BIT_MASK;
 import static org.apache.sis.util.StringBuilders.trimFractionalPart;
 
 
@@ -87,7 +93,7 @@ import static org.apache.sis.util.StringBuilders.trimFractionalPart;
  * @author  Martin Desruisseaux (IRD, Geomatys)
  * @author  Johann Sorel (Geomatys)
  * @since   0.3
- * @version 0.5
+ * @version 0.6
  * @module
  *
  * @see org.apache.sis.metadata.iso.extent.Extents
@@ -100,6 +106,12 @@ public final class Envelopes extends Static {
     private Envelopes() {
     }
 
+    /**
+     * Maximal number of ordinate values in the temporary arrays used by the method
+     * transforming many envelopes at once.
+     */
+    private static final int BUFFER_SIZE = 4096;
+
     /**
      * Returns the coordinate operation factory to be used for transforming the envelope.
      */
@@ -140,14 +152,14 @@ public final class Envelopes extends Static {
      * @throws TransformException If the point can not be transformed
      *         or if a problem occurred while calculating the derivative.
      */
-    private static Matrix derivativeAndTransform(final MathTransform transform, final double[] srcPts,
+    static Matrix derivativeAndTransform(final MathTransform transform, final double[] srcPts,
             final double[] dstPts, final int dstOff, final boolean derivate) throws TransformException
     {
         if (transform instanceof AbstractMathTransform) {
             return ((AbstractMathTransform) transform).transform(srcPts, 0, dstPts, dstOff, derivate);
         }
         // Derivative must be calculated before to transform the coordinate.
-        final Matrix derivative = derivate ? transform.derivative(new DirectPositionView(srcPts, 0, transform.getSourceDimensions())) : null;
+        final Matrix derivative = derivate ? transform.derivative(new DirectPositionView.Double(srcPts, 0, transform.getSourceDimensions())) : null;
         transform.transform(srcPts, 0, dstPts, dstOff, 1);
         return derivative;
     }
@@ -221,6 +233,198 @@ public final class Envelopes extends Static {
         return (envelope != null) ? transform(transform, envelope, null) : null;
     }
 
+    /**
+     * Transforms a two-dimensional envelope using the given math transform, densifying only the envelope edges.
+     * This method walks along the four edges of the given envelope and splits each edge in smaller segments
+     * until the cubic curves fitted on the {@linkplain MathTransform#derivative(DirectPosition) derivatives}
+     * at the segment extremities predict the transformed segment midpoints within the given tolerance.
+     * The extremum of those cubic curves are then transformed for expanding the envelope.
+     *
+     * <p>This method is suitable when the extremum of the transformed envelope are located on its boundary,
+     * which is the case of conformal map projections applied on areas that do not contain a pole.
+     * For such transforms, the result is usually tighter than the one of {@link #transform(MathTransform, Envelope)}
+     * for a similar or smaller number of transformed points, because the points are added only where the curvature
+     * of the transformed edges requires them. The interior of the envelope is not sampled.</p>
+     *
+     * <p>If the transform does not have two source dimensions, or if a derivative can not be computed,
+     * then this method fallbacks on {@link #transform(MathTransform, Envelope)}.
+     * The limitations documented in that method apply also to this method.</p>
+     *
+     * @param  transform The transform to use.
+     * @param  envelope  Envelope to transform, or {@code null}. This envelope will not be modified.
+     * @param  tolerance Maximal error allowed on the transformed edges, in units of the target coordinate system.
+     * @return The transformed envelope, or {@code null} if {@code envelope} was null.
+     * @throws TransformException if a transform failed.
+     *
+     * @see #transform(MathTransform, Envelope)
+     *
+     * @since 0.6
+     */
+    public static GeneralEnvelope transform(final MathTransform transform, final Envelope envelope, final double tolerance)
+            throws TransformException
+    {
+        ensureNonNull("transform", transform);
+        ensureStrictlyPositive("tolerance", tolerance);
+        if (envelope == null) {
+            return null;
+        }
+        if (transform.getSourceDimensions() != 2 || transform.isIdentity()) {
+            return transform(transform, envelope, null);
+        }
+        if (envelope.getDimension() != 2) {
+            throw new MismatchedDimensionException(Errors.format(Errors.Keys.MismatchedDimension_2,
+                      2, envelope.getDimension()));
+        }
+        try {
+            return new EdgeDensifier(transform, tolerance).transform(envelope);
+        } catch (TransformException e) {
+            /*
+             * Maybe the derivative is not supported. Try the general method, which
+             * will fail anyway if the problem was in the coordinate transformation.
+             */
+            final GeneralEnvelope transformed = transform(transform, envelope, null);
+            recoverableException(e); // Log only if the above call was successful.
+            return transformed;
+        }
+    }
+
+    /**
+     * Transforms many envelopes stored in arrays of ordinate values, using the given math transform.
+     * Each envelope is stored as its lower corner followed by its upper corner, in the same order than
+     * the {@link GeneralEnvelope} constructor expecting arrays. For example two-dimensional envelopes
+     * are stored as (<var>x</var><sub>min</sub>, <var>y</var><sub>min</sub>, <var>x</var><sub>max</sub>,
+     * <var>y</var><sub>max</sub>) tuples.
+     *
+     * <p>The transformation of each envelope gives the same result than {@link #transform(MathTransform, Envelope)}.
+     * However this method is more efficient when many envelopes need to be transformed with the same transform,
+     * because the sample points of many envelopes are transformed in a single call to
+     * {@link MathTransform#transform(double[], int, double[], int, int)} and the temporary objects are
+     * allocated only once. Derivatives are computed only if the transform is not linear, since the curve
+     * extremum can not expand the envelope of a linear transform.</p>
+     *
+     * {@section Parallelism}
+     * This method does not create threads by itself. Applications having a large amount of envelopes
+     * can split the arrays in ranges and invoke this method for each range in their own threads.
+     * This is safe provided that the given transform is thread-safe and the destination ranges
+     * do not overlap.
+     *
+     * @param  transform    The transform to use.
+     * @param  srcEnvelopes The array containing the envelopes to transform.
+     * @param  srcOff       Index of the first ordinate value of the first envelope in the source array.
+     * @param  dstEnvelopes The array where to store the transformed envelopes. May be the source array.
+     * @param  dstOff       Index where to store the first transformed ordinate value in the destination array.
+     * @param  numEnvelopes The number of envelopes to transform.
+     * @throws TransformException if a transform failed.
+     *
+     * @see #transform(MathTransform, Envelope)
+     *
+     * @since 0.6
+     */
+    public static void transform(final MathTransform transform, double[] srcEnvelopes, int srcOff,
+            final double[] dstEnvelopes, int dstOff, int numEnvelopes) throws TransformException
+    {
+        ensureNonNull("transform",    transform);
+        ensureNonNull("srcEnvelopes", srcEnvelopes);
+        ensureNonNull("dstEnvelopes", dstEnvelopes);
+        final int sourceDim = transform.getSourceDimensions();
+        final int targetDim = transform.getTargetDimensions();
+        if (transform.isIdentity() && sourceDim == targetDim) {
+            System.arraycopy(srcEnvelopes, srcOff, dstEnvelopes, dstOff, numEnvelopes * (2*sourceDim));
+            return;
+        }
+        if (sourceDim >= 20) { // Maximal value supported by Formulas.pow3(int) is 19.
+            throw new IllegalArgumentException(Errors.format(Errors.Keys.ExcessiveNumberOfDimensions_1));
+        }
+        if (srcEnvelopes == dstEnvelopes && (srcOff != dstOff || sourceDim != targetDim)) {
+            /*
+             * An envelope is written only after it has been fully read. This is safe if the envelopes
+             * stay at the same location, but in other cases we may overwrite envelopes not yet read.
+             */
+            srcEnvelopes = Arrays.copyOfRange(srcEnvelopes, srcOff, srcOff + numEnvelopes * (2*sourceDim));
+            srcOff = 0;
+        }
+        /*
+         * Allocates all needed objects once for the whole method call. The sample points
+         * are the same than the ones documented in transform(MathTransform, Envelope, …),
+         * stored in the same order. The sample points of as many envelopes as possible
+         * are stored in the same buffer, for transforming them in a single method call.
+         */
+        final int numPts      = Formulas.pow3(sourceDim);
+        final int blockSize   = Math.max(1, BUFFER_SIZE / (numPts * Math.max(sourceDim, targetDim)));
+        final boolean isLinear = (transform instanceof LinearTransform);
+        final double[]           sourcePts   = new double[Math.min(blockSize, numEnvelopes) * numPts * sourceDim];
+        final double[]           targetPts   = new double[Math.min(blockSize, numEnvelopes) * numPts * targetDim];
+        final double[]           sourcePt    = new double[sourceDim];
+        final Matrix[]           derivatives = new Matrix[numPts];
+        final DirectPositionView.Double sourceView = new DirectPositionView.Double(sourcePt,  0, sourceDim);
+        final DirectPositionView.Double samplePt   = new DirectPositionView.Double(sourcePts, 0, sourceDim);
+        final DirectPositionView.Double targetView = new DirectPositionView.Double(targetPts, 0, targetDim);
+        final CurveExtremum      extremum    = new CurveExtremum();
+        final GeneralEnvelope    envelope    = new GeneralEnvelope(sourceDim);
+        final GeneralEnvelope    transformed = new GeneralEnvelope(targetDim);
+        while (numEnvelopes > 0) {
+            final int count = Math.min(blockSize, numEnvelopes);
+            /*
+             * Computes the sample points of all envelopes in the block,
+             * then transforms all of them in a single method call.
+             */
+            int p = 0;
+            for (int e=0; e<count; e++) {
+                System.arraycopy(srcEnvelopes, srcOff + e * (2*sourceDim), envelope.ordinates, 0, 2*sourceDim);
+                for (int pointIndex=0; pointIndex<numPts; pointIndex++) {
+                    int indexBase3 = pointIndex;
+                    for (int dim=sourceDim; --dim>=0; indexBase3 /= 3) {
+                        final double ordinate;
+                        switch (indexBase3 % 3) {
+                            case 0:  ordinate = envelope.getMinimum(dim); break;
+                            case 1:  ordinate = envelope.getMaximum(dim); break;
+                            case 2:  ordinate = envelope.getMedian (dim); break;
+                            default: throw new AssertionError(indexBase3); // Should never happen
+                        }
+                        sourcePts[p + dim] = ordinate;
+                    }
+                    p += sourceDim;
+                }
+            }
+            transform.transform(sourcePts, 0, targetPts, 0, count * numPts);
+            /*
+             * Builds the envelope of the transformed sample points of each envelope, then expands it with
+             * the curve extremum. The derivatives are computed in the same order than the single-envelope
+             * method, with the same fallback: if a derivative can not be computed, the derivatives of the
+             * remaining points are not computed. The derivatives are tried again for each new envelope.
+             */
+            for (int e=0; e<count; e++) {
+                System.arraycopy(srcEnvelopes, srcOff, envelope.ordinates, 0, 2*sourceDim);
+                srcOff += 2*sourceDim;
+                final int offset = e * numPts * targetDim;
+                for (int i=0; i<targetDim; i++) {
+                    final double value = targetPts[offset + i];
+                    transformed.setRange(i, value, value);
+                }
+                for (int pointIndex=1; pointIndex<numPts; pointIndex++) {
+                    targetView.setOffset(offset + pointIndex * targetDim);
+                    transformed.add(targetView);
+                }
+                if (!isLinear) {
+                    for (int pointIndex=0; pointIndex<numPts; pointIndex++) {
+                        samplePt.setOffset((e * numPts + pointIndex) * sourceDim);
+                        try {
+                            derivatives[pointIndex] = transform.derivative(samplePt);
+                        } catch (TransformException ex) {
+                            recoverableException(ex);
+                            break;
+                        }
+                    }
+                    addExtremums(transform, envelope, derivatives, targetPts, offset, transformed, sourcePt, sourceView, extremum);
+                    Arrays.fill(derivatives, null);
+                }
+                System.arraycopy(transformed.ordinates, 0, dstEnvelopes, dstOff, 2*targetDim);
+                dstOff += 2*targetDim;
+            }
+            numEnvelopes -= count;
+        }
+    }
+
     /**
      * Implementation of {@link #transform(MathTransform, Envelope)} with the opportunity to
      * save the projected center coordinate.
@@ -281,7 +485,7 @@ public final class Envelopes extends Static {
             sourcePt[i] = envelope.getMinimum(i);
         }
         // A window over a single coordinate in the 'ordinates' array.
-        final DirectPositionView ordinatesView = new DirectPositionView(ordinates, 0, targetDim);
+        final DirectPositionView.Double ordinatesView = new DirectPositionView.Double(ordinates, 0, targetDim);
         /*
          * Iterates over every minimal, maximal and median ordinate values (3 points) along each
          * dimension. The total number of iterations is 3 ^ (number of source dimensions).
@@ -320,7 +524,7 @@ public final class Envelopes extends Static {
                     transformed.setRange(i, value, value);
                 }
             } else {
-                ordinatesView.offset = offset;
+                ordinatesView.setOffset(offset);
                 transformed.add(ordinatesView);
             }
             /*
@@ -354,10 +558,40 @@ public final class Envelopes extends Static {
          * the Rectangle2D case the calculation was bundled right inside the main loop in order
          * to avoid the need for storage.
          */
+        addExtremums(transform, envelope, derivatives, ordinates, 0, transformed, sourcePt,
+                new DirectPositionView.Double(sourcePt, 0, sourceDim), new CurveExtremum());
+        if (targetPt != null) {
+            // Copy the coordinate of the center point.
+            System.arraycopy(ordinates, ordinates.length - targetDim, targetPt, 0, targetDim);
+        }
+        return transformed;
+    }
+
+    /**
+     * Expands the given envelope with the extremum of the curves between sample points. This method is
+     * the second part of {@link #transform(MathTransform, Envelope, double[])}, shared with the method
+     * working on arrays of envelopes.
+     *
+     * @param transform   The transform to use.
+     * @param envelope    The source envelope.
+     * @param derivatives The derivatives at the 3<sup>n</sup> sample points. Null elements are ignored.
+     *                    All elements are set to {@code null} by this method.
+     * @param ordinates   The transformed sample points.
+     * @param offset      Index of the first transformed sample point in the {@code ordinates} array.
+     * @param transformed The envelope to expand.
+     * @param sourcePt    A temporary array of length equals to the number of source dimensions.
+     * @param sourceView  A view over the {@code sourcePt} array.
+     * @param extremum    A temporary object to use for computing curve extremum.
+     */
+    private static void addExtremums(final MathTransform transform, final Envelope envelope,
+            final Matrix[] derivatives, final double[] ordinates, final int offset,
+            final GeneralEnvelope transformed, final double[] sourcePt,
+            final DirectPositionView.Double sourceView, final CurveExtremum extremum) throws TransformException
+    {
+        final int sourceDim = sourcePt.length;
+        final int targetDim = transformed.getDimension();
         DirectPosition temporary = null;
-        final DirectPositionView sourceView = new DirectPositionView(sourcePt, 0, sourceDim);
-        final CurveExtremum extremum = new CurveExtremum();
-        for (pointIndex=0; pointIndex < derivatives.length; pointIndex++) {
+        for (int pointIndex=0; pointIndex < derivatives.length; pointIndex++) {
             final Matrix D1 = derivatives[pointIndex];
             if (D1 != null) {
                 int indexBase3 = pointIndex, power3 = 1;
@@ -371,8 +605,8 @@ public final class Envelopes extends Static {
                             final double xmax = envelope.getMaximum(i);
                             final double x2   = envelope.getMedian (i);
                             final double x1   = (digitBase3 == 0) ? xmin : xmax;
-                            final int offset1 = targetDim * pointIndex;
-                            final int offset2 = targetDim * medianIndex;
+                            final int offset1 = targetDim * pointIndex  + offset;
+                            final int offset2 = targetDim * medianIndex + offset;
                             for (int j=0; j<targetDim; j++) {
                                 extremum.resolve(x1, ordinates[offset1 + j], D1.getElement(j,i),
                                                  x2, ordinates[offset2 + j], D2.getElement(j,i));
@@ -415,11 +649,6 @@ public final class Envelopes extends Static {
                 derivatives[pointIndex] = null; // Let GC do its job earlier.
             }
         }
-        if (targetPt != null) {
-            // Copy the coordinate of the center point.
-            System.arraycopy(ordinates, ordinates.length - targetDim, targetPt, 0, targetDim);
-        }
-        return transformed;
     }
 
     /**
@@ -736,6 +965,201 @@ public final class Envelopes extends Static {
         return transformed;
     }
 
+    /**
+     * Returns the indices of all envelopes intersecting the given region.
+     * The envelopes are stored in an array of ordinate values in the same way than
+     * {@link #transform(MathTransform, double[], int, double[], int, int)}: each envelope is its lower corner
+     * followed by its upper corner, for example (<var>x</var><sub>min</sub>, <var>y</var><sub>min</sub>,
+     * <var>x</var><sub>max</sub>, <var>y</var><sub>max</sub>) tuples in the two-dimensional case.
+     * The number of dimensions is the region dimension.
+     *
+     * <p>Bit <var>k</var> in the returned set is {@code true} if {@code region.intersects(e, edgesInclusive)}
+     * would return {@code true}, where <var>e</var> is the <var>k</var>-th envelope in the array.
+     * Envelopes spanning the anti-meridian (identified by a lower value greater than the upper value)
+     * are handled in the same way than {@link AbstractEnvelope#intersects(Envelope, boolean)}.</p>
+     *
+     * {@section Pre-conditions}
+     * This method assumes that the envelopes in the array use the same CRS than the given region.
+     *
+     * {@section Performance}
+     * This method is faster than invoking {@code intersects(…)} for each envelope, since it does not need
+     * to wrap each envelope in an object. The envelopes are processed one dimension at a time by blocks of
+     * 64 envelopes, with the same comparisons for all envelopes of a block. Blocks where no envelope is left
+     * after the first dimensions are skipped.
+     *
+     * @param  region         The region to test for intersection.
+     * @param  envelopes      The array containing the envelopes to test.
+     * @param  offset         Index of the first ordinate value of the first envelope in the array.
+     * @param  numEnvelopes   The number of envelopes to test.
+     * @param  edgesInclusive {@code true} if the region edges are inclusive.
+     * @return The indices (relative to the first envelope) of the envelopes intersecting the region.
+     *
+     * @see AbstractEnvelope#intersects(Envelope, boolean)
+     *
+     * @since 0.6
+     */
+    public static BitSet intersects(final Envelope region, final double[] envelopes, final int offset,
+            final int numEnvelopes, final boolean edgesInclusive)
+    {
+        return filter(region, envelopes, offset, numEnvelopes, edgesInclusive, false);
+    }
+
+    /**
+     * Returns the indices of all envelopes completely enclosed in the given region.
+     * The envelopes are stored in an array of ordinate values in the same way than
+     * {@link #intersects(Envelope, double[], int, int, boolean) intersects(…)}.
+     *
+     * <p>Bit <var>k</var> in the returned set is {@code true} if {@code region.contains(e, edgesInclusive)}
+     * would return {@code true}, where <var>e</var> is the <var>k</var>-th envelope in the array.
+     * Envelopes spanning the anti-meridian are handled in the same way than
+     * {@link AbstractEnvelope#contains(Envelope, boolean)}.</p>
+     *
+     * @param  region         The region to test for inclusion.
+     * @param  envelopes      The array containing the envelopes to test.
+     * @param  offset         Index of the first ordinate value of the first envelope in the array.
+     * @param  numEnvelopes   The number of envelopes to test.
+     * @param  edgesInclusive {@code true} if the region edges are inclusive.
+     * @return The indices (relative to the first envelope) of the envelopes enclosed in the region.
+     *
+     * @see AbstractEnvelope#contains(Envelope, boolean)
+     *
+     * @since 0.6
+     */
+    public static BitSet contains(final Envelope region, final double[] envelopes, final int offset,
+            final int numEnvelopes, final boolean edgesInclusive)
+    {
+        return filter(region, envelopes, offset, numEnvelopes, edgesInclusive, true);
+    }
+
+    /**
+     * Implementation of {@link #intersects(Envelope, double[], int, int, boolean)}
+     * and {@link #contains(Envelope, double[], int, int, boolean)}.
+     */
+    private static BitSet filter(final Envelope region, final double[] envelopes, final int offset,
+            final int numEnvelopes, final boolean edgesInclusive, final boolean contains)
+    {
+        ensureNonNull("region",    region);
+        ensureNonNull("envelopes", envelopes);
+        ensurePositive("numEnvelopes", numEnvelopes);
+        final int dimension = region.getDimension();
+        final int step = 2 * dimension;
+        final long[] words = new long[(numEnvelopes + (Long.SIZE - 1)) >>> 6];
+        Arrays.fill(words, -1L);
+        final DirectPosition lowerCorner = region.getLowerCorner();
+        final DirectPosition upperCorner = region.getUpperCorner();
+        final CoordinateReferenceSystem crs = region.getCoordinateReferenceSystem();
+        for (int i=0; i<dimension; i++) {
+            final double  lower0 = lowerCorner.getOrdinate(i);
+            final double  upper0 = upperCorner.getOrdinate(i);
+            final boolean sp0    = isNegative(upper0 - lower0);
+            /*
+             * Conditions which depend only on the region. See AbstractEnvelope.contains(Envelope, boolean)
+             * for an explanation of the cases where an envelope spanning the anti-meridian is accepted.
+             */
+            boolean accept = false, zeroSpan = false;
+            if (contains) {
+                accept   = AbstractEnvelope.isNegativeUnsafe(upper0 - lower0)
+                        || (lower0 == Double.NEGATIVE_INFINITY && upper0 == Double.POSITIVE_INFINITY)
+                        || (upper0 - lower0 >= AbstractEnvelope.getSpan(AbstractEnvelope.getAxis(crs, i)));
+                zeroSpan = edgesInclusive && Double.doubleToRawLongBits(lower0) == 0L
+                                          && Double.doubleToRawLongBits(upper0) == SIGN_BIT_MASK;
+            }
+            for (int w=0; w<words.length; w++) {
+                if (words[w] != 0) {
+                    final int start = w << 6;
+                    final int count = Math.min(numEnvelopes - start, Long.SIZE);
+                    final int first = offset + start * step + i;
+                    words[w] &= contains
+                            ? containsBits  (envelopes, first, step, dimension, count, lower0, upper0, edgesInclusive, sp0, accept, zeroSpan)
+                            : intersectsBits(envelopes, first, step, dimension, count, lower0, upper0, edgesInclusive, sp0);
+                }
+            }
+        }
+        if ((numEnvelopes & (Long.SIZE - 1)) != 0) {
+            words[words.length - 1] &= (1L << numEnvelopes) - 1;    // Shift is modulo 64.
+        }
+        return BitSet.valueOf(words);
+    }
+
+    /**
+     * Tests the intersection of a block of at most 64 envelopes with a region along a single dimension.
+     * This is the same logic than {@link AbstractEnvelope#intersects(Envelope, boolean)}, rewritten with
+     * non-short-circuit operators for avoiding unpredictable branches in the loop.
+     *
+     * @param  p     Index of the lower ordinate value of the first envelope in the current dimension.
+     * @param  step  Number of ordinate values between two consecutive envelopes.
+     * @param  count Number of envelopes to test, from 0 to 64 inclusive.
+     * @param  sp0   Whether the region spans the anti-meridian in the current dimension.
+     * @return A bitmask of the envelopes intersecting the region in the current dimension.
+     */
+    private static long intersectsBits(final double[] envelopes, int p, final int step, final int dimension,
+            final int count, final double lower0, final double upper0, final boolean edgesInclusive, final boolean sp0)
+    {
+        long bits = 0;
+        for (int k=0; k<count; k++, p += step) {
+            final double lower1 = envelopes[p];
+            final double upper1 = envelopes[p + dimension];
+            final boolean lowerCondition, upperCondition;
+            if (edgesInclusive) {
+                lowerCondition = (lower1 <= upper0);
+                upperCondition = (upper1 >= lower0);
+            } else {
+                lowerCondition = (lower1 < upper0);
+                upperCondition = (upper1 > lower0);
+            }
+            final double  span = upper1 - lower1;
+            final boolean sp1  = (Double.doubleToRawLongBits(span) < 0) & (span == span);  // isNegative(span)
+            final boolean match;
+            if (sp0) {
+                match = sp1 | lowerCondition | upperCondition;
+            } else {
+                match = (lowerCondition & upperCondition) | (sp1 & (lowerCondition | upperCondition));
+            }
+            if (match) {
+                bits |= (1L << k);
+            }
+        }
+        return bits;
+    }
+
+    /**
+     * Tests the inclusion of a block of at most 64 envelopes in a region along a single dimension.
+     * This is the same logic than {@link AbstractEnvelope#contains(Envelope, boolean)}, rewritten with
+     * non-short-circuit operators for avoiding unpredictable branches in the loop.
+     *
+     * @param  accept   Whether envelopes spanning the anti-meridian are accepted when both conditions hold.
+     * @param  zeroSpan Whether the region is the special [0 … -0] range with inclusive edges.
+     * @return A bitmask of the envelopes enclosed in the region in the current dimension.
+     */
+    private static long containsBits(final double[] envelopes, int p, final int step, final int dimension,
+            final int count, final double lower0, final double upper0, final boolean edgesInclusive,
+            final boolean sp0, final boolean accept, final boolean zeroSpan)
+    {
+        long bits = 0;
+        for (int k=0; k<count; k++, p += step) {
+            final double lower1 = envelopes[p];
+            final double upper1 = envelopes[p + dimension];
+            final boolean lowerCondition, upperCondition;
+            if (edgesInclusive) {
+                lowerCondition = (lower1 >= lower0);
+                upperCondition = (upper1 <= upper0);
+            } else {
+                lowerCondition = (lower1 > lower0);
+                upperCondition = (upper1 < upper0);
+            }
+            final double  span     = upper1 - lower1;
+            final boolean positive = (Double.doubleToRawLongBits(span) >= 0);         // !isNegativeUnsafe(span)
+            boolean match = (lowerCondition & upperCondition) & (positive | accept);
+            if (sp0) {
+                match |= (lowerCondition ^ upperCondition) & ((positive & (span == span)) | zeroSpan);
+            }
+            if (match) {
+                bits |= (1L << k);
+            }
+        }
+        return bits;
+    }
+
     /**
      * Returns the bounding box of a geometry defined in <cite>Well Known Text</cite> (WKT) format.
      * This method does not check the consistency of the provided WKT. For example it does not check
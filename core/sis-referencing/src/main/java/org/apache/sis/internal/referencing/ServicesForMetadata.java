@@ -16,8 +16,13 @@
  */
 package org.apache.sis.internal.referencing;
 
+import java.util.Map;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Collection;
+import javax.measure.unit.Unit;
+import javax.measure.quantity.Angle;
+import javax.measure.quantity.Length;
 
 import org.opengis.util.FactoryException;
 import org.opengis.parameter.ParameterDescriptor;
@@ -27,7 +32,13 @@ import org.opengis.referencing.crs.TemporalCRS;
 import org.opengis.referencing.crs.VerticalCRS;
 import org.opengis.referencing.crs.GeographicCRS;
 import org.opengis.referencing.crs.CoordinateReferenceSystem;
+import org.opengis.referencing.cs.AxisDirection;
 import org.opengis.referencing.cs.CoordinateSystem;
+import org.opengis.referencing.cs.CoordinateSystemAxis;
+import org.opengis.referencing.cs.EllipsoidalCS;
+import org.opengis.referencing.datum.Ellipsoid;
+import org.opengis.referencing.datum.GeodeticDatum;
+import org.opengis.referencing.datum.PrimeMeridian;
 import org.opengis.referencing.operation.Matrix;
 import org.opengis.referencing.operation.MathTransform;
 import org.opengis.referencing.operation.TransformException;
@@ -43,6 +54,13 @@ import org.apache.sis.referencing.CRS;
 import org.apache.sis.referencing.CommonCRS;
 import org.apache.sis.referencing.AbstractIdentifiedObject;
 import org.apache.sis.referencing.crs.DefaultTemporalCRS;
+import org.apache.sis.referencing.crs.DefaultGeographicCRS;
+import org.apache.sis.referencing.cs.DefaultCoordinateSystemAxis;
+import org.apache.sis.referencing.cs.DefaultEllipsoidalCS;
+import org.apache.sis.referencing.datum.BursaWolfParameters;
+import org.apache.sis.referencing.datum.DefaultEllipsoid;
+import org.apache.sis.referencing.datum.DefaultGeodeticDatum;
+import org.apache.sis.referencing.datum.DefaultPrimeMeridian;
 import org.apache.sis.referencing.operation.transform.MathTransforms;
 import org.apache.sis.parameter.DefaultParameterDescriptor;
 import org.apache.sis.io.wkt.FormattableObject;
@@ -56,13 +74,15 @@ import org.apache.sis.internal.system.DefaultFactories;
 import org.apache.sis.util.resources.Errors;
 import org.apache.sis.util.Utilities;
 
+import static java.util.Collections.singletonMap;
+
 
 /**
  * Implements the referencing services needed by the {@code "sis-metadata"} module.
  *
  * @author  Martin Desruisseaux (Geomatys)
  * @since   0.5
- * @version 0.5
+ * @version 0.6
  * @module
  */
 public final class ServicesForMetadata extends ReferencingServices {
@@ -385,4 +405,117 @@ public final class ServicesForMetadata extends ReferencingServices {
             target.getTemporalElements().add(extent);
         }
     }
+
+    /**
+     * Creates an ellipsoid from a semi-major axis length and inverse flattening.
+     *
+     * @param  properties        Name and other properties to give to the new object.
+     * @param  semiMajorAxis     The equatorial radius.
+     * @param  inverseFlattening The inverse flattening, or infinity for a sphere.
+     * @param  unit              The unit of the semi-major axis.
+     * @return The ellipsoid for the given properties.
+     */
+    @Override
+    public Ellipsoid createEllipsoid(final Map<String,?> properties, final double semiMajorAxis,
+            final double inverseFlattening, final Unit<Length> unit)
+    {
+        return DefaultEllipsoid.createFlattenedSphere(properties, semiMajorAxis, inverseFlattening, unit);
+    }
+
+    /**
+     * Creates a prime meridian.
+     *
+     * @param  properties  Name and other properties to give to the new object.
+     * @param  longitude   The longitude of the prime meridian relative to Greenwich.
+     * @param  angularUnit The unit of the longitude value.
+     * @return The prime meridian for the given properties.
+     */
+    @Override
+    public PrimeMeridian createPrimeMeridian(final Map<String,?> properties, final double longitude,
+            final Unit<Angle> angularUnit)
+    {
+        return new DefaultPrimeMeridian(properties, longitude, angularUnit);
+    }
+
+    /**
+     * Creates a geodetic datum. If {@code toWGS84} is non-null, then the values are stored
+     * as {@link BursaWolfParameters} having the WGS 84 datum as the target datum.
+     *
+     * @param  properties    Name and other properties to give to the new object.
+     * @param  ellipsoid     The ellipsoid to use in the new datum.
+     * @param  primeMeridian The prime meridian to use in the new datum.
+     * @param  toWGS84       The {@code TOWGS84} values, or {@code null} if none.
+     * @return The datum for the given properties.
+     */
+    @Override
+    public GeodeticDatum createGeodeticDatum(Map<String,?> properties, final Ellipsoid ellipsoid,
+            final PrimeMeridian primeMeridian, final double[] toWGS84)
+    {
+        if (toWGS84 != null) {
+            final BursaWolfParameters param = new BursaWolfParameters(CommonCRS.WGS84.datum(), null);
+            switch (toWGS84.length) {
+                default: // Ignore extra values, if any.
+                case 7: param.dS = toWGS84[6];
+                case 6: param.rZ = toWGS84[5];
+                case 5: param.rY = toWGS84[4];
+                case 4: param.rX = toWGS84[3];
+                case 3: param.tZ = toWGS84[2];
+                case 2: param.tY = toWGS84[1];
+                case 1: param.tX = toWGS84[0];
+                case 0: break;
+            }
+            final Map<String,Object> copy = new HashMap<>(properties);
+            copy.put(DefaultGeodeticDatum.BURSA_WOLF_KEY, param);
+            properties = copy;
+        }
+        return new DefaultGeodeticDatum(properties, ellipsoid, primeMeridian);
+    }
+
+    /**
+     * Creates a coordinate system axis.
+     *
+     * @param  properties   Name and other properties to give to the new object.
+     * @param  abbreviation The abbreviation used for this coordinate system axis.
+     * @param  direction    The axis direction.
+     * @param  unit         The axis unit.
+     * @return The axis for the given properties.
+     */
+    @Override
+    public CoordinateSystemAxis createAxis(final Map<String,?> properties, final String abbreviation,
+            final AxisDirection direction, final Unit<?> unit)
+    {
+        return new DefaultCoordinateSystemAxis(properties, abbreviation, direction, unit);
+    }
+
+    /**
+     * Creates a geographic CRS with an ellipsoidal coordinate system using the given axes.
+     *
+     * @param  properties Name and other properties to give to the new object.
+     * @param  datum      The geodetic datum to use in the new CRS.
+     * @param  axes       The two or three axes of the ellipsoidal coordinate system.
+     * @return The coordinate reference system for the given properties.
+     */
+    @Override
+    public GeographicCRS createGeographicCRS(final Map<String,?> properties, final GeodeticDatum datum,
+            final CoordinateSystemAxis... axes)
+    {
+        final EllipsoidalCS cs;
+        final Map<String,?> csProperties;
+        switch (axes.length) {
+            case 2: {
+                csProperties = singletonMap(EllipsoidalCS.NAME_KEY, "Ellipsoidal 2D");
+                cs = new DefaultEllipsoidalCS(csProperties, axes[0], axes[1]);
+                break;
+            }
+            case 3: {
+                csProperties = singletonMap(EllipsoidalCS.NAME_KEY, "Ellipsoidal 3D");
+                cs = new DefaultEllipsoidalCS(csProperties, axes[0], axes[1], axes[2]);
+                break;
+            }
+            default: {
+                throw new IllegalArgumentException(Errors.format(Errors.Keys.UnexpectedArrayLength_2, 2, axes.length));
+            }
+        }
+        return new DefaultGeographicCRS(properties, datum, cs);
+    }
 }
@@ -82,7 +82,7 @@ import static java.util.Collections.singletonMap;
  *
  * @author  Martin Desruisseaux (IRD, Geomatys)
  * @since   0.3
- * @version 0.5
+ * @version 0.6
  * @module
  */
 public final class CRS extends Static {
@@ -122,6 +122,9 @@ public final class CRS extends Static {
      *   <tr><td>EPSG:5714</td> <td>{@link CommonCRS.Vertical#MEAN_SEA_LEVEL MEAN_SEA_LEVEL}</td> <td>Vertical</td> <td>Mean Sea Level height</td></tr>
      * </table></blockquote>
      *
+     * In addition, Apache SIS embeds a subset of the EPSG definitions for geographic CRS using other datums
+     * (for example EPSG:4277 for <cite>OSGB 1936</cite>), which is used when no EPSG database is available.
+     *
      * This method accepts also the URN and URL syntax.
      * For example the following codes are considered equivalent to {@code "EPSG:4326"}:
      * <ul>
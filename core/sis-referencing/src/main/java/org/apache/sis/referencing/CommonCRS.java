@@ -114,7 +114,7 @@ import static org.apache.sis.internal.util.Constants.CRS84;
  *
  * @author  Martin Desruisseaux (Geomatys)
  * @since   0.4
- * @version 0.5
+ * @version 0.6
  * @module
  */
 public enum CommonCRS {
@@ -1351,7 +1351,9 @@ public enum CommonCRS {
     /**
      * Returns a coordinate reference system for the given authority code.
      * This method is invoked as a fallback when {@link CRS#forCode(String)}
-     * can not create a CRS for a given code.
+     * can not create a CRS for a given code. EPSG codes not defined by this
+     * enumeration are searched in the subset of EPSG definitions embedded in
+     * this module.
      *
      * @param authority The authority, either {@code "CRS"} or {@code "EPSG"} (case-insensitive).
      * @param code      The code, to be parsed as an integer.
@@ -1385,6 +1387,10 @@ public enum CommonCRS {
                             return candidate.crs();
                         }
                     }
+                    final CoordinateReferenceSystem crs = EmbeddedEPSG.forCode(n);
+                    if (crs != null) {
+                        return crs;
+                    }
                 }
             } else if (failure != null) {
                 throw failure;
@@ -0,0 +1,289 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sis.referencing;
+
+import java.util.Map;
+import java.util.HashMap;
+import java.util.Arrays;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.FileNotFoundException;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import javax.measure.unit.SI;
+import org.opengis.util.FactoryException;
+import org.opengis.referencing.IdentifiedObject;
+import org.opengis.referencing.NoSuchAuthorityCodeException;
+import org.opengis.referencing.crs.CoordinateReferenceSystem;
+import org.opengis.referencing.datum.Ellipsoid;
+import org.opengis.referencing.datum.GeodeticDatum;
+import org.apache.sis.metadata.iso.citation.Citations;
+import org.apache.sis.referencing.datum.DefaultEllipsoid;
+import org.apache.sis.referencing.datum.DefaultGeodeticDatum;
+import org.apache.sis.referencing.crs.DefaultGeographicCRS;
+import org.apache.sis.util.collection.Cache;
+import org.apache.sis.internal.system.CacheRegistry;
+import org.apache.sis.util.resources.Errors;
+
+import static org.opengis.referencing.IdentifiedObject.NAME_KEY;
+import static org.opengis.referencing.IdentifiedObject.IDENTIFIERS_KEY;
+
+
+/**
+ * A subset of the EPSG geodetic dataset embedded in the {@code sis-referencing} module.
+ * This class is used by {@link CRS#forCode(String)} for EPSG codes not defined by {@link CommonCRS}
+ * when no EPSG database is available. The definitions are read from the {@value #FILENAME} resource,
+ * which contains one record per line. The file is loaded in memory when first needed, but each record
+ * is decoded only when the corresponding object is requested:
+ *
+ * <ol>
+ *   <li>At loading time, only the EPSG codes are parsed. They are stored together with the position
+ *       of their record in a pair of sorted arrays, for lookup by binary search.</li>
+ *   <li>When an object is requested for the first time, its record is decoded and the object is
+ *       created, together with its dependencies (datum, ellipsoid). The objects are retained in a
+ *       {@link Cache}, so they can be shared between all CRS using them.</li>
+ *   <li>Subsequent requests for the same code are a hash lookup in the cache.</li>
+ * </ol>
+ *
+ * Objects which are defined by {@link CommonCRS} (for example the WGS 84 ellipsoid) are not repeated
+ * in the embedded file; the {@code CommonCRS} instances are used instead.
+ *
+ * @author  Martin Desruisseaux (Geomatys)
+ * @since   0.6
+ * @version 0.6
+ * @module
+ */
+final class EmbeddedEPSG {
+    /**
+     * The name of the resource file containing the EPSG definitions.
+     */
+    static final String FILENAME = "EPSG.txt";
+
+    /**
+     * Maximal number of objects to retain by strong references in the cache.
+     * Other objects are retained by soft references.
+     */
+    private static final int CACHE_LIMIT = 100;
+
+    /**
+     * The singleton instance, created when first needed.
+     */
+    private static volatile EmbeddedEPSG instance;
+
+    /**
+     * The content of the {@value #FILENAME} resource, encoded in UTF-8.
+     */
+    private final byte[] data;
+
+    /**
+     * The EPSG codes of all records in the {@link #data} array, in increasing order.
+     */
+    private final int[] codes;
+
+    /**
+     * Index in the {@link #data} array of the beginning of the record for each element in {@link #codes}.
+     */
+    private final int[] offsets;
+
+    /**
+     * The objects created from the records. Keys are EPSG codes.
+     */
+    private final Cache<Integer,IdentifiedObject> cache;
+
+    /**
+     * Loads the {@value #FILENAME} resource and creates the index of EPSG codes.
+     *
+     * @throws FactoryException if the resource can not be read.
+     */
+    private EmbeddedEPSG() throws FactoryException {
+        try (InputStream in = EmbeddedEPSG.class.getResourceAsStream(FILENAME)) {
+            if (in == null) {
+                throw new FileNotFoundException(FILENAME);
+            }
+            final ByteArrayOutputStream buffer = new ByteArrayOutputStream(4096);
+            final byte[] chunk = new byte[4096];
+            int n;
+            while ((n = in.read(chunk)) >= 0) {
+                buffer.write(chunk, 0, n);
+            }
+            data = buffer.toByteArray();
+        } catch (IOException e) {
+            throw new FactoryException(Errors.format(Errors.Keys.CanNotRead_1, FILENAME), e);
+        }
+        /*
+         * Build the index. Each element in the 'entries' array is an EPSG code in the high bits
+         * and the record position in the low bits, so sorting the array sorts the records by code.
+         */
+        long[] entries = new long[128];
+        int count = 0;
+        for (int start=0, end; start < data.length; start = end + 1) {
+            end = lineEnd(start);
+            if (end != start && data[start] != '#') {
+                int code = 0;
+                int i = start + 2; // Skip the record type and the tabulation.
+                byte c;
+                while (i < end && (c = data[i++]) != '\t') {
+                    if (c < '0' || c > '9') {
+                        throw new FactoryException(Errors.format(Errors.Keys.CanNotParseFile_2, "EPSG", FILENAME));
+                    }
+                    code = code * 10 + (c - '0');
+                }
+                if (count == entries.length) {
+                    entries = Arrays.copyOf(entries, count * 2);
+                }
+                entries[count++] = ((long) code << Integer.SIZE) | start;
+            }
+        }
+        Arrays.sort(entries, 0, count);
+        codes   = new int[count];
+        offsets = new int[count];
+        for (int i=0; i<count; i++) {
+            final long entry = entries[i];
+            codes  [i] = (int) (entry >>> Integer.SIZE);
+            offsets[i] = (int) entry;
+        }
+        cache = new Cache<>(count, CACHE_LIMIT, true);
+        CacheRegistry.register("EmbeddedEPSG.cache", cache);
+    }
+
+    /**
+     * Returns the index after the last character of the line starting at the given index.
+     * Both {@code '\n'} and {@code '\r'} are considered as line ends, so files using the
+     * {@code "\r\n"} convention are read as if they contained empty lines, which are ignored.
+     */
+    private int lineEnd(int i) {
+        byte c;
+        while (i < data.length && (c = data[i]) != '\n' && c != '\r') i++;
+        return i;
+    }
+
+    /**
+     * Returns the coordinate reference system for the given EPSG code,
+     * or {@code null} if the code is not a CRS defined in the embedded subset.
+     *
+     * @param  code The EPSG code of the desired CRS.
+     * @return The CRS for the given code, or {@code null} if none.
+     * @throws FactoryException if the embedded definitions can not be read.
+     */
+    static CoordinateReferenceSystem forCode(final int code) throws FactoryException {
+        EmbeddedEPSG c = instance;
+        if (c == null) {
+            synchronized (EmbeddedEPSG.class) {
+                c = instance;
+                if (c == null) {
+                    instance = c = new EmbeddedEPSG();
+                }
+            }
+        }
+        final IdentifiedObject object = c.create(code);
+        return (object instanceof CoordinateReferenceSystem) ? (CoordinateReferenceSystem) object : null;
+    }
+
+    /**
+     * Returns the object for the given EPSG code, creating it when first needed.
+     *
+     * @param  code The EPSG code of the desired object.
+     * @return The object for the given code, or {@code null} if none.
+     * @throws FactoryException if the record for the given code can not be decoded.
+     */
+    private IdentifiedObject create(final int code) throws FactoryException {
+        final Integer key = code;
+        IdentifiedObject object = cache.peek(key);
+        if (object == null && Arrays.binarySearch(codes, code) >= 0) {
+            final Cache.Handler<IdentifiedObject> handler = cache.lock(key);
+            try {
+                object = handler.peek();
+                if (object == null) {
+                    object = decode(code);
+                }
+            } finally {
+                handler.putAndUnlock(object);
+            }
+        }
+        return object;
+    }
+
+    /**
+     * Decodes the record for the given EPSG code and creates the corresponding object.
+     * The code shall exist in the {@link #codes} array.
+     */
+    private IdentifiedObject decode(final int code) throws FactoryException {
+        final int start = offsets[Arrays.binarySearch(codes, code)];
+        final String[] fields = new String(data, start, lineEnd(start) - start, StandardCharsets.UTF_8).split("\t");
+        try {
+            final Map<String,Object> properties = new HashMap<>(4);
+            properties.put(IDENTIFIERS_KEY, new NamedIdentifier(Citations.EPSG, fields[1]));
+            properties.put(NAME_KEY,        new NamedIdentifier(Citations.EPSG, fields[2]));
+            switch (fields[0]) {
+                case "E": {
+                    final double semiMajor = Double.parseDouble(fields[3]);
+                    final String other = fields[4];
+                    if (other.startsWith("b=")) {
+                        return DefaultEllipsoid.createEllipsoid(properties, semiMajor,
+                                Double.parseDouble(other.substring(2)), SI.METRE);
+                    } else {
+                        return DefaultEllipsoid.createFlattenedSphere(properties, semiMajor,
+                                Double.parseDouble(other), SI.METRE);
+                    }
+                }
+                case "D": {
+                    return new DefaultGeodeticDatum(properties,
+                            ellipsoid(Integer.parseInt(fields[3])), CommonCRS.WGS84.primeMeridian());
+                }
+                case "G": {
+                    return new DefaultGeographicCRS(properties,
+                            dependency(GeodeticDatum.class, Integer.parseInt(fields[3])),
+                            CommonCRS.WGS84.geographic().getCoordinateSystem());
+                }
+            }
+        } catch (RuntimeException e) {  // NumberFormatException, ClassCastException, IndexOutOfBoundsException, etc.
+            throw new FactoryException(Errors.format(Errors.Keys.CanNotParseFile_2, "EPSG", FILENAME), e);
+        }
+        throw new FactoryException(Errors.format(Errors.Keys.CanNotParseFile_2, "EPSG", FILENAME));
+    }
+
+    /**
+     * Returns the ellipsoid for the given EPSG code, using the {@link CommonCRS} instances when possible.
+     */
+    private Ellipsoid ellipsoid(final int code) throws FactoryException {
+        for (final CommonCRS candidate : CommonCRS.values()) {
+            if (candidate.ellipsoid == code) {
+                return candidate.ellipsoid();
+            }
+        }
+        return dependency(Ellipsoid.class, code);
+    }
+
+    /**
+     * Returns the object of the given type for the given EPSG code. This method is invoked for fetching
+     * the components (datum, ellipsoid) of the object being decoded, which must exist in the embedded subset.
+     *
+     * @param  type The expected type of the object.
+     * @param  code The EPSG code of the desired object.
+     * @return The object for the given code (never {@code null}).
+     * @throws NoSuchAuthorityCodeException if there is no object of the given type for the given code.
+     * @throws FactoryException if the record for the given code can not be decoded.
+     */
+    private <T extends IdentifiedObject> T dependency(final Class<T> type, final int code) throws FactoryException {
+        final IdentifiedObject object = create(code);
+        if (type.isInstance(object)) {
+            return type.cast(object);
+        }
+        final String c = String.valueOf(code);
+        throw new NoSuchAuthorityCodeException(Errors.format(Errors.Keys.NoSuchAuthorityCode_3, "EPSG", type, c), "EPSG", c, c);
+    }
+}
@@ -33,9 +33,10 @@ import org.opengis.metadata.Identifier;
 import org.opengis.parameter.InvalidParameterValueException;
 import org.apache.sis.internal.metadata.NameToIdentifier;
 import org.apache.sis.internal.system.DefaultFactories;
+import org.apache.sis.internal.system.CacheRegistry;
 import org.apache.sis.metadata.iso.citation.Citations;  // For javadoc
 import org.apache.sis.metadata.iso.ImmutableIdentifier;
-import org.apache.sis.util.collection.WeakValueHashMap;
+import org.apache.sis.util.collection.ConcurrentWeakValueHashMap;
 
 import static org.apache.sis.internal.util.Citations.getUnicodeIdentifier;
 
@@ -89,7 +90,7 @@ import java.util.Objects;
  *
  * @author  Martin Desruisseaux (IRD, Geomatys)
  * @since   0.4
- * @version 0.5
+ * @version 0.6
  * @module
  */
 public class NamedIdentifier extends ImmutableIdentifier implements GenericName {
@@ -101,7 +102,11 @@ public class NamedIdentifier extends ImmutableIdentifier implements GenericName
     /**
      * A pool of {@link NameSpace} values for given {@link InternationalString}.
      */
-    private static final Map<CharSequence,NameSpace> SCOPES = new WeakValueHashMap<>(CharSequence.class);
+    private static final ConcurrentWeakValueHashMap<CharSequence,NameSpace> SCOPES =
+            new ConcurrentWeakValueHashMap<>(CharSequence.class);
+    static {
+        CacheRegistry.register("NamedIdentifier.SCOPES", SCOPES);
+    }
 
     /**
      * The name of this identifier as a generic name.
@@ -243,11 +248,12 @@ public class NamedIdentifier extends ImmutableIdentifier implements GenericName
         final String identifier = getUnicodeIdentifier(authority);      // Whitespaces trimed by Citations.
         NameSpace scope = null;
         if (identifier != null) {
-            synchronized (SCOPES) {
-                scope = SCOPES.get(identifier);
-                if (scope == null) {
-                    scope = factory.createNameSpace(factory.createLocalName(null, identifier), null);
-                    SCOPES.put(identifier, scope);
+            scope = SCOPES.get(identifier);
+            if (scope == null) {
+                scope = factory.createNameSpace(factory.createLocalName(null, identifier), null);
+                final NameSpace existing = SCOPES.putIfAbsent(identifier, scope);
+                if (existing != null) {
+                    scope = existing;
                 }
             }
         }
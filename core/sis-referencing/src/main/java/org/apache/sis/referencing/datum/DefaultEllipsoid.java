@@ -39,6 +39,8 @@ import org.apache.sis.referencing.IdentifiedObjects;
 import org.apache.sis.referencing.AbstractIdentifiedObject;
 import org.apache.sis.io.wkt.Formatter;
 import org.apache.sis.io.wkt.Convention;
+import org.apache.sis.measure.Longitude;
+import org.apache.sis.util.ArgumentChecks;
 import org.apache.sis.util.ComparisonMode;
 import org.apache.sis.util.resources.Errors;
 
@@ -73,7 +75,10 @@ import java.util.Objects;
  *
  * {@section Distance calculations}
  * This class contains an {@link #orthodromicDistance(double, double, double, double)} convenience method
- * for calculating distances on great circles.
+ * for calculating distances on great circles. For large amount of points, the
+ * {@link #orthodromicDistances orthodromicDistances(…)}, {@link #orthodromicDistanceMatrix orthodromicDistanceMatrix(…)},
+ * {@link #geodesicInverse geodesicInverse(…)} and {@link #geodesicDirect geodesicDirect(…)} methods work on
+ * arrays of packed coordinates and converge for all pairs of points, including antipodal ones.
  *
  * {@section Creating new ellipsoid instances}
  * New instances can be created either directly by specifying all information to a factory method (choices 3
@@ -112,7 +117,7 @@ import java.util.Objects;
  * @author  Martin Desruisseaux (IRD, Geomatys)
  * @author  Cédric Briançon (Geomatys)
  * @since   0.4
- * @version 0.4
+ * @version 0.6
  * @module
  *
  * @see org.apache.sis.referencing.CommonCRS#ellipsoid()
@@ -693,6 +698,159 @@ public class DefaultEllipsoid extends AbstractIdentifiedObject implements Ellips
                   new DirectPosition2D(toDegrees(λ2), toDegrees(φ2))));
     }
 
+    /**
+     * Computes the orthodromic distances between many pairs of geographic coordinates.
+     * The <var>i</var><sup>th</sup> distance is computed between the <var>i</var><sup>th</sup> point
+     * in the {@code srcPts} array and the <var>i</var><sup>th</sup> point in the {@code dstPts} array.
+     * Points are stored as (<var>λ</var>,<var>φ</var>) tuples in decimal degrees.
+     *
+     * <p>Contrarily to {@link #orthodromicDistance(double, double, double, double)}, this method
+     * converges for all pairs of points including the antipodal ones, and returns {@code NaN}
+     * for pairs having at least one {@code NaN} ordinate value. This method is thread-safe:
+     * large arrays can be split in sub-ranges computed concurrently.</p>
+     *
+     * @param srcPts    The first point of each pair, as (<var>λ</var>,<var>φ</var>) tuples in decimal degrees.
+     * @param srcOff    Index of the first ordinate value in the {@code srcPts} array.
+     * @param dstPts    The second point of each pair, as (<var>λ</var>,<var>φ</var>) tuples in decimal degrees.
+     * @param dstOff    Index of the first ordinate value in the {@code dstPts} array.
+     * @param distances Where to store the distances (in the units of this ellipsoid's axis).
+     * @param offset    Index of the first distance to store in the {@code distances} array.
+     * @param numPairs  Number of pairs of points.
+     *
+     * @since 0.6
+     */
+    public void orthodromicDistances(final double[] srcPts, final int srcOff, final double[] dstPts, final int dstOff,
+            final double[] distances, final int offset, final int numPairs)
+    {
+        inverse(srcPts, srcOff, dstPts, dstOff, distances, offset, numPairs, false);
+    }
+
+    /**
+     * Computes the orthodromic distances between all pairs of points in the given array.
+     * For each row <var>i</var> in the [{@code fromRow} … {@code toRow}) range and each column
+     * <var>j</var> in the [0 … {@code numPts}) range, this method stores the distance between
+     * points <var>i</var> and <var>j</var> at index
+     * {@code dstOff + (i - fromRow) * numPts + j} in the {@code distances} array.
+     *
+     * <p>The reduced latitudes of all points are computed only once per call. This method is thread-safe,
+     * so the work can be partitioned by invoking this method concurrently on different ranges of rows.</p>
+     *
+     * @param points    The points as (<var>λ</var>,<var>φ</var>) tuples in decimal degrees.
+     * @param offset    Index of the first ordinate value in the {@code points} array.
+     * @param numPts    Number of points.
+     * @param fromRow   Index of the first point (inclusive) for which to compute the distances to all other points.
+     * @param toRow     Index of the last point (exclusive) for which to compute the distances to all other points.
+     * @param distances Where to store the distances (in the units of this ellipsoid's axis).
+     * @param dstOff    Index of the first distance to store in the {@code distances} array.
+     * @throws IndexOutOfBoundsException if the given range of rows is invalid.
+     *
+     * @since 0.6
+     */
+    public void orthodromicDistanceMatrix(final double[] points, final int offset, final int numPts,
+            final int fromRow, final int toRow, final double[] distances, int dstOff)
+    {
+        ArgumentChecks.ensureValidIndexRange(numPts, fromRow, toRow);
+        final GeodesicSolver solver = new GeodesicSolver(this);
+        final double[] reduced = new double[numPts * 2];
+        final double[] λ = new double[numPts];
+        for (int i=0; i<numPts; i++) {
+            λ[i] = toRadians(points[offset + 2*i]);
+            solver.reduce(points[offset + 2*i + 1], reduced, 2*i);
+        }
+        for (int i=fromRow; i<toRow; i++) {
+            final double sinU1 = reduced[2*i];
+            final double cosU1 = reduced[2*i + 1];
+            final double λ1 = λ[i];
+            for (int j=0; j<numPts; j++) {
+                solver.inverse(sinU1, cosU1, reduced[2*j], reduced[2*j + 1], λ[j] - λ1, false);
+                distances[dstOff++] = solver.distance;
+            }
+        }
+    }
+
+    /**
+     * Solves the inverse geodesic problem for many pairs of geographic coordinates. For each pair, this method
+     * computes the geodesic length, the azimuth at the first point and the azimuth at the second point in the
+     * direction of travel. Those three values are stored as consecutive tuples in the {@code results} array.
+     * Azimuths are in decimal degrees clockwise from North, in the [-180 … 180]° range.
+     *
+     * <p>This method converges for all pairs of points and is thread-safe.
+     * See {@link #orthodromicDistances(double[], int, double[], int, double[], int, int)} for more details.</p>
+     *
+     * @param srcPts    The first point of each pair, as (<var>λ</var>,<var>φ</var>) tuples in decimal degrees.
+     * @param srcOff    Index of the first ordinate value in the {@code srcPts} array.
+     * @param dstPts    The second point of each pair, as (<var>λ</var>,<var>φ</var>) tuples in decimal degrees.
+     * @param dstOff    Index of the first ordinate value in the {@code dstPts} array.
+     * @param results   Where to store the (<var>distance</var>, <var>azimuth₁</var>, <var>azimuth₂</var>) tuples.
+     * @param resOff    Index of the first value to store in the {@code results} array.
+     * @param numPairs  Number of pairs of points.
+     *
+     * @since 0.6
+     */
+    public void geodesicInverse(final double[] srcPts, final int srcOff, final double[] dstPts, final int dstOff,
+            final double[] results, final int resOff, final int numPairs)
+    {
+        inverse(srcPts, srcOff, dstPts, dstOff, results, resOff, numPairs, true);
+    }
+
+    /**
+     * Implementation of {@link #orthodromicDistances orthodromicDistances(…)} and
+     * {@link #geodesicInverse geodesicInverse(…)}.
+     */
+    private void inverse(final double[] srcPts, int srcOff, final double[] dstPts, int dstOff,
+            final double[] results, int resOff, int numPairs, final boolean azimuths)
+    {
+        final GeodesicSolver solver = new GeodesicSolver(this);
+        final double[] reduced = new double[4];
+        while (--numPairs >= 0) {
+            final double λ1 = srcPts[srcOff++];
+            solver.reduce(srcPts[srcOff++], reduced, 0);
+            final double λ2 = dstPts[dstOff++];
+            solver.reduce(dstPts[dstOff++], reduced, 2);
+            solver.inverse(reduced[0], reduced[1], reduced[2], reduced[3], toRadians(λ2 - λ1), azimuths);
+            results[resOff++] = solver.distance;
+            if (azimuths) {
+                results[resOff++] = toDegrees(solver.startAzimuth);
+                results[resOff++] = toDegrees(solver.endAzimuth);
+            }
+        }
+    }
+
+    /**
+     * Solves the direct geodesic problem for many starting points. For each point, this method computes the
+     * destination reached by travelling along a geodesic with the given initial azimuth and distance.
+     * The azimuths and distances are given as (<var>azimuth</var>, <var>distance</var>) tuples in the
+     * {@code vectors} array, with azimuths in decimal degrees clockwise from North and distances in the
+     * units of this ellipsoid's axis. The destinations are stored as (<var>λ</var>,<var>φ</var>) tuples
+     * in decimal degrees, with longitudes in the [-180 … 180]° range.
+     *
+     * <p>The {@code srcPts} and {@code dstPts} arrays can be the same array
+     * if {@code srcOff} and {@code dstOff} are equal. This method is thread-safe.</p>
+     *
+     * @param srcPts    The starting points, as (<var>λ</var>,<var>φ</var>) tuples in decimal degrees.
+     * @param srcOff    Index of the first ordinate value in the {@code srcPts} array.
+     * @param vectors   The (<var>azimuth</var>, <var>distance</var>) tuples.
+     * @param vecOff    Index of the first value in the {@code vectors} array.
+     * @param dstPts    Where to store the destination points.
+     * @param dstOff    Index of the first ordinate value to store in the {@code dstPts} array.
+     * @param numPts    Number of points.
+     *
+     * @since 0.6
+     */
+    public void geodesicDirect(final double[] srcPts, int srcOff, final double[] vectors, int vecOff,
+            final double[] dstPts, int dstOff, int numPts)
+    {
+        final GeodesicSolver solver = new GeodesicSolver(this);
+        final double[] reduced = new double[2];
+        while (--numPts >= 0) {
+            final double λ1 = srcPts[srcOff++];
+            solver.reduce(srcPts[srcOff++], reduced, 0);
+            solver.direct(reduced[0], reduced[1], toRadians(vectors[vecOff++]), vectors[vecOff++]);
+            dstPts[dstOff++] = IEEEremainder(λ1 + toDegrees(solver.longitudeDifference), Longitude.MAX_VALUE * 2);
+            dstPts[dstOff++] = toDegrees(solver.latitude);
+        }
+    }
+
     /**
      * Compares this ellipsoid with the specified object for equality.
      *
@@ -0,0 +1,351 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sis.referencing.datum;
+
+import static java.lang.Math.*;
+import static java.lang.Double.NaN;
+import static java.lang.Double.isNaN;
+
+
+/**
+ * Solves the direct and inverse geodesic problems on an ellipsoid of revolution.
+ * This class is used by the batch methods of {@link DefaultEllipsoid}, which compute the
+ * reduced latitudes of all points once before to invoke the methods of this class for each pair.
+ *
+ * <p>The inverse problem is solved by the iterative method of T. Vincenty (1975), which converges
+ * quickly for all pairs of points except the nearly antipodal ones. For the later, this class maps
+ * the points to the canonical configuration described by C.F.F. Karney (2013), then searches the
+ * azimuth at the first point by bisection on the longitude difference, which is a monotonic function
+ * of that azimuth. This search converges for every pair of points, but is slower than the Vincenty
+ * iteration. The direct problem is solved by the Vincenty method only.</p>
+ *
+ * <p>This class does <strong>not</strong> implement the algorithms of Karney (2013): in all cases, the
+ * longitude differences and the distances are computed with the series of Vincenty (1975), which are
+ * truncated to lower orders than the Karney series. The accuracy is about 0.1 millimetre on the WGS84
+ * ellipsoid, as verified by the tests against reference values, while the Karney algorithms are accurate
+ * to about 15 nanometres.</p>
+ *
+ * <p>Instances of this class are not thread-safe, since the results are stored in fields.
+ * The batch methods create one instance for each call.</p>
+ *
+ * @author  Martin Desruisseaux (Geomatys)
+ * @since   0.6
+ * @version 0.6
+ * @module
+ *
+ * @see <a href="http://www.ngs.noaa.gov/PUBS_LIB/inverse.pdf">Vincenty (1975)</a>
+ * @see <a href="http://arxiv.org/abs/1109.4448">Karney (2013)</a>
+ */
+final class GeodesicSolver {
+    /**
+     * Maximum number of iterations in the Vincenty loops and in the bisection.
+     */
+    private static final int MAX_ITERATIONS = 100;
+
+    /**
+     * Tolerance threshold (in radians) for stopping the Vincenty iterations.
+     * This is about 6 micrometres on the Earth surface.
+     */
+    private static final double ITERATION_TOLERANCE = 1E-12;
+
+    /**
+     * Minimal value for the cosine of reduced latitudes. Using this value instead of zero
+     * at the poles avoids divisions by zero while keeping the azimuths defined.
+     */
+    private static final double TINY = sqrt(Double.MIN_NORMAL);
+
+    /**
+     * The flattening <var>f</var> = 1 - <var>b</var>/<var>a</var>.
+     */
+    private final double flattening;
+
+    /**
+     * The semi-minor axis length <var>b</var>.
+     */
+    private final double semiMinorAxis;
+
+    /**
+     * The second eccentricity squared <var>e</var>′² = (<var>a</var>² - <var>b</var>²) / <var>b</var>².
+     */
+    private final double secondEccentricitySquared;
+
+    /**
+     * The distance computed by the last call to {@link #inverse inverse(…)}.
+     */
+    double distance;
+
+    /**
+     * The latitude and the longitude difference (in radians) computed by the last call to {@link #direct direct(…)}.
+     */
+    double latitude, longitudeDifference;
+
+    /**
+     * The azimuth (in radians) at the starting point, computed by the last call to {@link #inverse inverse(…)}.
+     */
+    double startAzimuth;
+
+    /**
+     * The azimuth (in radians) in the direction of travel at the ending point,
+     * computed by the last call to {@link #inverse inverse(…)} or {@link #direct direct(…)}.
+     */
+    double endAzimuth;
+
+    /**
+     * Values on the auxiliary sphere computed by {@link #lambda lambda(…)}.
+     */
+    private double σ, sinσ, cosσ, cos2σm, cos2α, sinα2, cosα2;
+
+    /**
+     * Creates a new solver for the given ellipsoid.
+     */
+    GeodesicSolver(final DefaultEllipsoid ellipsoid) {
+        final double a = ellipsoid.getSemiMajorAxis();
+        final double b = ellipsoid.getSemiMinorAxis();
+        flattening    = 1 / ellipsoid.getInverseFlattening();
+        semiMinorAxis = b;
+        secondEccentricitySquared = (a*a - b*b) / (b*b);
+    }
+
+    /**
+     * Stores the sine and cosine of the reduced latitude of the given geodetic latitude.
+     *
+     * @param  φ      The geodetic latitude in decimal degrees.
+     * @param  dst    Where to store the sine and cosine of the reduced latitude.
+     * @param  offset Index where to store the sine. The cosine is stored at {@code offset+1}.
+     */
+    final void reduce(final double φ, final double[] dst, final int offset) {
+        final double t = (1 - flattening) * tan(toRadians(φ));
+        final double c = 1 / sqrt(t*t + 1);
+        dst[offset]   = t * c;
+        dst[offset+1] = max(c, TINY);
+    }
+
+    /**
+     * Solves the inverse geodesic problem. The results are stored in {@link #distance},
+     * {@link #startAzimuth} and {@link #endAzimuth}. The azimuths are computed only if
+     * {@code azimuths} is {@code true}.
+     *
+     * @param sinU1    Sine of the reduced latitude of the first point.
+     * @param cosU1    Cosine of the reduced latitude of the first point.
+     * @param sinU2    Sine of the reduced latitude of the second point.
+     * @param cosU2    Cosine of the reduced latitude of the second point.
+     * @param L        Longitude difference in radians.
+     * @param azimuths Whether to compute the azimuths.
+     */
+    final void inverse(final double sinU1, final double cosU1, final double sinU2, final double cosU2,
+            double L, final boolean azimuths)
+    {
+        L = IEEEremainder(L, 2*PI);
+        if (isNaN(L) || isNaN(sinU1) || isNaN(sinU2)) {
+            distance = startAzimuth = endAzimuth = NaN;
+            return;
+        }
+        final double f = flattening;
+        double λ = L;
+        for (int i=0; i<MAX_ITERATIONS; i++) {
+            final double sinλ = sin(λ);
+            final double cosλ = cos(λ);
+            final double p = cosU2 * sinλ;
+            final double q = cosU1*sinU2 - sinU1*cosU2*cosλ;
+            sinσ = hypot(p, q);
+            cosσ = sinU1*sinU2 + cosU1*cosU2*cosλ;
+            if (sinσ == 0) {
+                if (cosσ > 0) {
+                    distance = startAzimuth = endAzimuth = 0;   // Coincident points.
+                    return;
+                }
+                break;                                          // Exactly antipodal points.
+            }
+            σ = atan2(sinσ, cosσ);
+            final double sinα = cosU1 * cosU2 * sinλ / sinσ;
+            cos2α  = 1 - sinα*sinα;
+            cos2σm = (cos2α != 0) ? cosσ - 2*sinU1*sinU2/cos2α : 0;     // Zero for equatorial lines.
+            final double previous = λ;
+            λ = L + correction(f, sinα);
+            if (!(abs(λ) <= PI)) {
+                break;                                          // Nearly antipodal points.
+            }
+            if (abs(λ - previous) <= ITERATION_TOLERANCE) {
+                distance = distance();
+                if (azimuths) {
+                    startAzimuth = atan2(p, q);
+                    endAzimuth   = atan2(cosU1*sinλ, cosU1*sinU2*cosλ - sinU1*cosU2);
+                }
+                return;
+            }
+        }
+        nearlyAntipodal(sinU1, cosU1, sinU2, cosU2, L, azimuths);
+    }
+
+    /**
+     * Solves the inverse geodesic problem for the points where the Vincenty iteration does not converge.
+     * The points are first transformed to a canonical configuration where the first point has the
+     * largest absolute latitude, that latitude is negative and the longitude difference is positive.
+     * In such configuration, the longitude difference increases monotonically with the azimuth at
+     * the first point, which can be found by bisection in the [0 … π] range.
+     */
+    private void nearlyAntipodal(double sinU1, double cosU1, double sinU2, double cosU2, double L,
+            final boolean azimuths)
+    {
+        int lonSign = (L >= 0) ? 1 : -1;
+        L = abs(L);
+        final boolean swap = abs(sinU1) < abs(sinU2);
+        if (swap) {
+            lonSign = -lonSign;
+            double t;
+            t = sinU1; sinU1 = sinU2; sinU2 = t;
+            t = cosU1; cosU1 = cosU2; cosU2 = t;
+        }
+        final int latSign = (sinU1 < 0) ? 1 : -1;
+        sinU1 *= latSign;
+        sinU2 *= latSign;
+        double lower = 0, upper = PI, α1 = PI/2;
+        for (int i=0; i<MAX_ITERATIONS; i++) {
+            if (lambda(sinU1, cosU1, sinU2, cosU2, sin(α1), cos(α1)) < L) {
+                lower = α1;
+            } else {
+                upper = α1;
+            }
+            final double m = 0.5 * (lower + upper);
+            if (!(m > lower && m < upper)) break;
+            α1 = m;
+        }
+        double sinα1 = sin(α1);
+        double cosα1 = cos(α1);
+        lambda(sinU1, cosU1, sinU2, cosU2, sinα1, cosα1);
+        distance = distance();
+        if (azimuths) {
+            double s2 = sinα2;
+            double c2 = cosα2;
+            if (swap) {
+                double t;
+                t = sinα1; sinα1 = s2; s2 = t;
+                t = cosα1; cosα1 = c2; c2 = t;
+            }
+            final int swapSign = swap ? -1 : 1;
+            startAzimuth = atan2(swapSign * lonSign * sinα1, swapSign * latSign * cosα1);
+            endAzimuth   = atan2(swapSign * lonSign * s2,    swapSign * latSign * c2);
+        }
+    }
+
+    /**
+     * Computes the longitude difference between the two points for a geodesic starting at the
+     * first point with the given azimuth. This method expects the canonical configuration
+     * described in {@link #nearlyAntipodal nearlyAntipodal(…)}.
+     */
+    private double lambda(final double sinU1, final double cosU1, final double sinU2, final double cosU2,
+            final double sinα1, final double cosα1)
+    {
+        final double sinα0 = sinα1 * cosU1;
+        cos2α = 1 - sinα0*sinα0;
+        /*
+         * σ is the arc length on the auxiliary sphere from the equator crossing,
+         * and ω the longitude on the auxiliary sphere.
+         */
+        double ssig1 = sinU1;
+        double csig1 = cosα1 * cosU1;
+        final double somg1 = sinα0 * sinU1;
+        final double comg1 = csig1;
+        sinα2 = sinα0 / cosU2;
+        cosα2 = sqrt(max(0, csig1*csig1 + (cosU2 - cosU1) * (cosU2 + cosU1))) / cosU2;
+        double t = hypot(ssig1, csig1);
+        ssig1 /= t;
+        csig1 /= t;
+        double ssig2 = sinU2;
+        double csig2 = cosα2 * cosU2;
+        final double somg2 = sinα0 * sinU2;
+        final double comg2 = csig2;
+        t = hypot(ssig2, csig2);
+        ssig2 /= t;
+        csig2 /= t;
+        sinσ   = max(0, csig1*ssig2 - ssig1*csig2);
+        cosσ   = csig1*csig2 + ssig1*ssig2;
+        cos2σm = csig1*csig2 - ssig1*ssig2;
+        σ      = atan2(sinσ, cosσ);
+        final double ω = atan2(max(0, comg1*somg2 - somg1*comg2), comg1*comg2 + somg1*somg2);
+        return ω - correction(flattening, sinα0);
+    }
+
+    /**
+     * Returns the difference between the longitude on the auxiliary sphere and the longitude on the ellipsoid.
+     * This method uses the {@link #σ}, {@link #sinσ}, {@link #cosσ}, {@link #cos2σm} and {@link #cos2α} fields.
+     */
+    private double correction(final double f, final double sinα) {
+        final double C = f/16 * cos2α * (4 + f*(4 - 3*cos2α));
+        return (1 - C) * f * sinα * (σ + C*sinσ*(cos2σm + C*cosσ*(2*cos2σm*cos2σm - 1)));
+    }
+
+    /**
+     * Returns the geodesic length from the values on the auxiliary sphere.
+     * This method uses the {@link #σ}, {@link #sinσ}, {@link #cosσ}, {@link #cos2σm} and {@link #cos2α} fields.
+     */
+    private double distance() {
+        final double u2 = cos2α * secondEccentricitySquared;
+        final double A  = 1 + u2/16384 * (4096 + u2*(-768 + u2*(320 - 175*u2)));
+        return semiMinorAxis * A * (σ - Δσ(u2));
+    }
+
+    /**
+     * Returns the Δσ term of Vincenty formulas for the given <var>u</var>² value.
+     * This method uses the {@link #sinσ}, {@link #cosσ} and {@link #cos2σm} fields.
+     */
+    private double Δσ(final double u2) {
+        final double B  = u2/1024 * (256 + u2*(-128 + u2*(74 - 47*u2)));
+        final double c2 = cos2σm * cos2σm;
+        return B * sinσ * (cos2σm + B/4 * (cosσ*(2*c2 - 1) - B/6 * cos2σm * (4*sinσ*sinσ - 3) * (4*c2 - 3)));
+    }
+
+    /**
+     * Solves the direct geodesic problem. The results are stored in {@link #latitude},
+     * {@link #longitudeDifference} and {@link #endAzimuth}.
+     *
+     * @param sinU1    Sine of the reduced latitude of the starting point.
+     * @param cosU1    Cosine of the reduced latitude of the starting point.
+     * @param α1       Azimuth at the starting point, in radians.
+     * @param s        Geodesic length, in units of the ellipsoid axes.
+     */
+    final void direct(final double sinU1, final double cosU1, final double α1, final double s) {
+        final double f = flattening;
+        final double sinα1 = sin(α1);
+        final double cosα1 = cos(α1);
+        final double σ1    = atan2(sinU1, cosU1 * cosα1);
+        final double sinα  = cosU1 * sinα1;
+        cos2α = 1 - sinα*sinα;
+        final double u2 = cos2α * secondEccentricitySquared;
+        final double A  = 1 + u2/16384 * (4096 + u2*(-768 + u2*(320 - 175*u2)));
+        final double σ0 = s / (semiMinorAxis * A);
+        σ = σ0;
+        for (int i=0; i<MAX_ITERATIONS; i++) {
+            cos2σm = cos(2*σ1 + σ);
+            sinσ   = sin(σ);
+            cosσ   = cos(σ);
+            final double previous = σ;
+            σ = σ0 + Δσ(u2);
+            if (!(abs(σ - previous) > ITERATION_TOLERANCE)) {     // Use '!' for stopping on NaN.
+                break;
+            }
+        }
+        cos2σm = cos(2*σ1 + σ);
+        sinσ   = sin(σ);
+        cosσ   = cos(σ);
+        final double t = sinU1*sinσ - cosU1*cosσ*cosα1;
+        latitude = atan2(sinU1*cosσ + cosU1*sinσ*cosα1, (1 - f) * hypot(sinα, t));
+        final double λ = atan2(sinσ*sinα1, cosU1*cosσ - sinU1*sinσ*cosα1);
+        longitudeDifference = λ - correction(f, sinα);
+        endAzimuth = atan2(sinα, -t);
+    }
+}
@@ -0,0 +1,492 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sis.referencing.operation.builder;
+
+import java.util.Arrays;
+import org.opengis.geometry.DirectPosition;
+import org.opengis.geometry.MismatchedDimensionException;
+import org.opengis.referencing.operation.MathTransform;
+import org.apache.sis.referencing.operation.matrix.Matrices;
+import org.apache.sis.referencing.operation.matrix.MatrixSIS;
+import org.apache.sis.referencing.operation.matrix.NoninvertibleMatrixException;
+import org.apache.sis.referencing.operation.transform.MathTransforms;
+import org.apache.sis.util.resources.Errors;
+import org.apache.sis.util.ArgumentChecks;
+import org.apache.sis.util.Classes;
+import org.apache.sis.util.Debug;
+
+
+/**
+ * Accumulates source and target points for fitting a polynomial transform by the <cite>least squares</cite> method,
+ * without retaining the points in memory. Each call to an {@code add(…)} method updates the sums of the
+ * <cite>normal equations</cite>, and the transform coefficients are computed only when {@link #create()} is invoked.
+ * Consequently the memory consumption of this accumulator depends only on the number of dimensions and on the
+ * polynomial degree, not on the number of points.
+ *
+ * <p>The polynomial has an arbitrary number of source dimensions and contains all terms up to the degree
+ * specified at construction time. For example a polynomial of degree 2 in a two-dimensional space has the
+ * following terms for each target dimension:</p>
+ *
+ * <blockquote>
+ * <var>t</var> = <var>c₀</var> + <var>c₁</var>⋅<var>x</var> + <var>c₂</var>⋅<var>y</var>
+ *              + <var>c₃</var>⋅<var>x</var>² + <var>c₄</var>⋅<var>x</var>⋅<var>y</var>
+ *              + <var>c₅</var>⋅<var>y</var>²
+ * </blockquote>
+ *
+ * The sums of polynomials of higher degrees grow very quickly with the magnitude of source ordinate values,
+ * which degrade the accuracy of the solution. For degrees 2 and 3, it is recommended to specify an origin
+ * close to the center of the source points at construction time. All ordinate values are expressed relative
+ * to that origin before to be added to the sums.
+ *
+ * {@section Parallel computation}
+ * Instances of this class are not thread-safe. However a large set of points can be split in many subsets,
+ * each subset being accumulated in a different thread by a separated {@code LeastSquaresAccumulator} instance.
+ * The partial results can then be combined by calls to {@link #merge(LeastSquaresAccumulator)}, provided that
+ * all accumulators have been created with the same dimensions, degree and origin.
+ *
+ * @author  Martin Desruisseaux (Geomatys)
+ * @since   0.6
+ * @version 0.6
+ * @module
+ *
+ * @see LinearTransformBuilder
+ */
+public class LeastSquaresAccumulator {
+    /**
+     * The number of source and target dimensions.
+     */
+    private final int sourceDimensions, targetDimensions;
+
+    /**
+     * The polynomial degree, from 1 to 3 inclusive.
+     */
+    private final int degree;
+
+    /**
+     * The origin to subtract from source ordinate values before to compute the polynomial terms.
+     * The length of this array is {@link #sourceDimensions}.
+     */
+    private final double[] origin;
+
+    /**
+     * For each polynomial term except the constant one at index 0, the index of the term of lower degree
+     * to multiply by the ordinate value at {@code variables[t]}. Terms are sorted by increasing degree,
+     * so {@code parents[t] < t} for all <var>t</var> &gt; 0.
+     */
+    private final int[] parents, variables;
+
+    /**
+     * Upper triangle of the symmetric matrix of the normal equations, stored row by row.
+     * Element (<var>i</var>,<var>j</var>) with <var>i</var> ≤ <var>j</var> is the sum of
+     * the products of polynomial terms <var>i</var> and <var>j</var> over all points.
+     */
+    private final double[] normal;
+
+    /**
+     * Right side of the normal equations, as a matrix of {@code parents.length} rows and
+     * {@link #targetDimensions} columns stored row by row. Element (<var>i</var>,<var>j</var>)
+     * is the sum of the products of polynomial term <var>i</var> by target ordinate <var>j</var>.
+     */
+    private final double[] rightSide;
+
+    /**
+     * Sum of the squares of target ordinate values, for each target dimension.
+     * Used only for computing the correlation coefficients.
+     */
+    private final double[] sumSquares;
+
+    /**
+     * Number of points added to this accumulator.
+     */
+    private long count;
+
+    /**
+     * Work array for the values of the polynomial terms of the point being added.
+     */
+    private final double[] terms;
+
+    /**
+     * An estimation of the Pearson correlation coefficient for each target dimension.
+     * This is {@code null} if {@link #create()} has not been invoked since the last change.
+     */
+    private double[] correlation;
+
+    /**
+     * Creates a new accumulator for a polynomial of the given degree, using (0,0,…,0) as the origin.
+     * This constructor is suitable for affine transforms (degree 1), or for polynomials of higher degree
+     * when the source ordinate values are already close to zero.
+     *
+     * @param sourceDimensions Number of dimensions of source points.
+     * @param targetDimensions Number of dimensions of target points.
+     * @param degree The polynomial degree, from 1 (affine transform) to 3 inclusive.
+     */
+    public LeastSquaresAccumulator(final int sourceDimensions, final int targetDimensions, final int degree) {
+        this(new double[positive("sourceDimensions", sourceDimensions)], targetDimensions, degree);
+    }
+
+    /**
+     * Creates a new accumulator for a polynomial of the given degree, with ordinate values relative to the given
+     * origin. The number of source dimensions is the length of the {@code origin} array.
+     *
+     * @param origin The source point to subtract from all source points before to compute polynomial terms.
+     * @param targetDimensions Number of dimensions of target points.
+     * @param degree The polynomial degree, from 1 (affine transform) to 3 inclusive.
+     */
+    public LeastSquaresAccumulator(final double[] origin, final int targetDimensions, final int degree) {
+        ArgumentChecks.ensureNonNull("origin", origin);
+        positive("origin.length", origin.length);
+        positive("targetDimensions", targetDimensions);
+        ArgumentChecks.ensureBetween("degree", 1, 3, degree);
+        this.sourceDimensions = origin.length;
+        this.targetDimensions = targetDimensions;
+        this.degree           = degree;
+        this.origin           = origin.clone();
+        /*
+         * Enumerate the polynomial terms by increasing degree. Each term of degree k is
+         * a term of degree k-1 multiplied by an ordinate value. In order to avoid duplicated
+         * terms like x⋅y and y⋅x, the dimension of the multiplicand can not be lower than the
+         * dimensions used by the parent term.
+         */
+        int numTerms = 1;
+        for (int k=1; k<=degree; k++) {
+            numTerms = numTerms * (sourceDimensions + k) / k;       // Binomial coefficient C(n+d, d).
+        }
+        parents   = new int[numTerms];
+        variables = new int[numTerms];
+        variables[0] = 0;
+        int n = 1, lower = 0;
+        for (int k=1; k<=degree; k++) {
+            final int upper = n;
+            for (int p=lower; p<upper; p++) {
+                for (int v = (p == 0) ? 0 : variables[p]; v < sourceDimensions; v++) {
+                    parents  [n] = p;
+                    variables[n] = v;
+                    n++;
+                }
+            }
+            lower = upper;
+        }
+        assert n == numTerms : n;
+        normal     = new double[numTerms * (numTerms + 1) / 2];
+        rightSide  = new double[numTerms * targetDimensions];
+        sumSquares = new double[targetDimensions];
+        terms      = new double[numTerms];
+    }
+
+    /**
+     * Ensures that the given dimension is strictly positive, then returns it.
+     */
+    private static int positive(final String name, final int dimension) {
+        ArgumentChecks.ensureStrictlyPositive(name, dimension);
+        return dimension;
+    }
+
+    /**
+     * Returns the number of source dimensions.
+     *
+     * @return Number of dimensions of source points.
+     */
+    public final int getSourceDimensions() {
+        return sourceDimensions;
+    }
+
+    /**
+     * Returns the number of target dimensions.
+     *
+     * @return Number of dimensions of target points.
+     */
+    public final int getTargetDimensions() {
+        return targetDimensions;
+    }
+
+    /**
+     * Returns the polynomial degree specified at construction time.
+     *
+     * @return The polynomial degree, from 1 to 3 inclusive.
+     */
+    public final int getDegree() {
+        return degree;
+    }
+
+    /**
+     * Returns the number of points added to this accumulator, including the points of merged accumulators.
+     *
+     * @return Number of points accumulated so far.
+     */
+    public long getPointCount() {
+        return count;
+    }
+
+    /**
+     * Adds a pair of source and target points.
+     *
+     * @param  source The source point, assumed precise.
+     * @param  target The target point, assumed uncertain.
+     * @throws MismatchedDimensionException if a point does not have the expected number of dimensions.
+     */
+    public void add(final DirectPosition source, final DirectPosition target) throws MismatchedDimensionException {
+        ArgumentChecks.ensureDimensionMatches("source", sourceDimensions, source);
+        ArgumentChecks.ensureDimensionMatches("target", targetDimensions, target);
+        add(source.getCoordinate(), 0, target.getCoordinate(), 0, 1);
+    }
+
+    /**
+     * Adds a pair of source and target points given as arrays of ordinate values.
+     *
+     * @param  source The source ordinate values, assumed precise.
+     * @param  target The target ordinate values, assumed uncertain.
+     * @throws MismatchedDimensionException if an array does not have the expected length.
+     */
+    public void add(final double[] source, final double[] target) throws MismatchedDimensionException {
+        ArgumentChecks.ensureNonNull("source", source);
+        ArgumentChecks.ensureNonNull("target", target);
+        ArgumentChecks.ensureDimensionMatches("source", sourceDimensions, source);
+        ArgumentChecks.ensureDimensionMatches("target", targetDimensions, target);
+        add(source, 0, target, 0, 1);
+    }
+
+    /**
+     * Adds many pairs of source and target points given in packed arrays. The source ordinate values are read
+     * from {@code srcPts} as (<var>x₀</var>,<var>y₀</var>,…, <var>x₁</var>,<var>y₁</var>,…) tuples of
+     * {@link #getSourceDimensions()} values, and the target ordinate values are read likewise from {@code dstPts}
+     * as tuples of {@link #getTargetDimensions()} values. Points having at least one NaN ordinate value are ignored.
+     *
+     * @param srcPts The array containing the source ordinate values.
+     * @param srcOff Index of the first ordinate value to read in the source array.
+     * @param dstPts The array containing the target ordinate values.
+     * @param dstOff Index of the first ordinate value to read in the target array.
+     * @param numPts Number of points to add.
+     */
+    public void add(final double[] srcPts, int srcOff, final double[] dstPts, int dstOff, final int numPts) {
+        ArgumentChecks.ensureNonNull("srcPts", srcPts);
+        ArgumentChecks.ensureNonNull("dstPts", dstPts);
+        ArgumentChecks.ensurePositive("numPts", numPts);
+        final int    numTerms = terms.length;
+        final double[] terms  = this.terms;
+        final double[] normal = this.normal;
+        final double[] rightSide = this.rightSide;
+        correlation = null;
+next:   for (int p=0; p<numPts; p++) {
+            /*
+             * Compute the polynomial terms relative to the origin.
+             * We perform this step first for skipping points having NaN values.
+             */
+            terms[0] = 1;
+            for (int t=1; t<numTerms; t++) {
+                final double x = srcPts[srcOff + variables[t]] - origin[variables[t]];
+                terms[t] = terms[parents[t]] * x;
+            }
+            for (int t=1; t<=sourceDimensions; t++) {
+                if (Double.isNaN(terms[t])) {
+                    srcOff += sourceDimensions;
+                    dstOff += targetDimensions;
+                    continue next;
+                }
+            }
+            for (int j=0; j<targetDimensions; j++) {
+                if (Double.isNaN(dstPts[dstOff + j])) {
+                    srcOff += sourceDimensions;
+                    dstOff += targetDimensions;
+                    continue next;
+                }
+            }
+            /*
+             * Update the sums of the normal equations. Only the upper
+             * triangle of the symmetric matrix needs to be computed.
+             */
+            int k = 0;
+            for (int i=0; i<numTerms; i++) {
+                final double ti = terms[i];
+                for (int j=i; j<numTerms; j++) {
+                    normal[k++] += ti * terms[j];
+                }
+            }
+            k = 0;
+            for (int i=0; i<numTerms; i++) {
+                final double ti = terms[i];
+                for (int j=0; j<targetDimensions; j++) {
+                    rightSide[k++] += ti * dstPts[dstOff + j];
+                }
+            }
+            for (int j=0; j<targetDimensions; j++) {
+                final double y = dstPts[dstOff++];
+                sumSquares[j] += y * y;
+            }
+            srcOff += sourceDimensions;
+            count++;
+        }
+    }
+
+    /**
+     * Adds to this accumulator all the points accumulated by the given accumulator.
+     * This method allows to accumulate points in parallel in different threads,
+     * then to combine the partial results. The given accumulator is not modified.
+     *
+     * @param  other The accumulator to merge with this accumulator.
+     * @throws MismatchedDimensionException if the given accumulator does not have the same dimensions.
+     * @throws IllegalArgumentException if the given accumulator does not have the same degree or origin.
+     */
+    public void merge(final LeastSquaresAccumulator other) throws MismatchedDimensionException {
+        ArgumentChecks.ensureNonNull("other", other);
+        if (other.sourceDimensions != sourceDimensions) {
+            throw new MismatchedDimensionException(Errors.format(Errors.Keys.MismatchedDimension_3,
+                    "other.sourceDimensions", sourceDimensions, other.sourceDimensions));
+        }
+        if (other.targetDimensions != targetDimensions) {
+            throw new MismatchedDimensionException(Errors.format(Errors.Keys.MismatchedDimension_3,
+                    "other.targetDimensions", targetDimensions, other.targetDimensions));
+        }
+        if (other.degree != degree) {
+            throw new IllegalArgumentException(Errors.format(Errors.Keys.IncompatiblePropertyValue_1, "degree"));
+        }
+        if (!Arrays.equals(other.origin, origin)) {
+            throw new IllegalArgumentException(Errors.format(Errors.Keys.IncompatiblePropertyValue_1, "origin"));
+        }
+        sum(normal,     other.normal);
+        sum(rightSide,  other.rightSide);
+        sum(sumSquares, other.sumSquares);
+        count += other.count;
+        correlation = null;
+    }
+
+    /**
+     * Adds the given values to the given sums.
+     */
+    private static void sum(final double[] sums, final double[] values) {
+        for (int i=0; i<sums.length; i++) {
+            sums[i] += values[i];
+        }
+    }
+
+    /**
+     * Creates the polynomial transform which minimizes the sum of squared differences between the fitted
+     * and the target points. If the polynomial degree is 1, then the returned transform is an instance of
+     * {@link org.apache.sis.referencing.operation.transform.LinearTransform}.
+     *
+     * <p>The normal equations are solved after scaling each polynomial term to a unitary sum of squares,
+     * using the double-double arithmetic of {@link MatrixSIS#solve(org.opengis.referencing.operation.Matrix)}.
+     * This method can be invoked many times, for example after more points have been added.</p>
+     *
+     * @return The fitted polynomial transform.
+     * @throws IllegalStateException if no point has been added to this accumulator.
+     * @throws NoninvertibleMatrixException if there is less points than polynomial terms, or if the points are
+     *         distributed in such a way that the polynomial coefficients can not be determined.
+     */
+    public MathTransform create() throws NoninvertibleMatrixException {
+        if (count == 0) {
+            throw new IllegalStateException(Errors.format(Errors.Keys.MissingValueForProperty_1, "points"));
+        }
+        final int numTerms = terms.length;
+        if (count < numTerms) {
+            throw new NoninvertibleMatrixException(Errors.format(Errors.Keys.NonInvertibleMatrix_2, numTerms, numTerms));
+        }
+        /*
+         * Scale each term in order to get 1 on the diagonal of the normal matrix.
+         * This reduce the condition number, especially for polynomial of high degree.
+         */
+        final double[] scales = new double[numTerms];
+        for (int i=0; i<numTerms; i++) {
+            scales[i] = 1 / Math.sqrt(normal[index(i, i, numTerms)]);
+        }
+        final MatrixSIS A = Matrices.createZero(numTerms, numTerms);
+        final MatrixSIS B = Matrices.createZero(numTerms, targetDimensions);
+        for (int i=0; i<numTerms; i++) {
+            for (int j=i; j<numTerms; j++) {
+                final double value = normal[index(i, j, numTerms)] * (scales[i] * scales[j]);
+                A.setElement(i, j, value);
+                A.setElement(j, i, value);
+            }
+            for (int j=0; j<targetDimensions; j++) {
+                B.setElement(i, j, rightSide[i*targetDimensions + j] * scales[i]);
+            }
+        }
+        final MatrixSIS solution = A.solve(B);
+        final double[][] coefficients = new double[targetDimensions][numTerms];
+        final double[] r = new double[targetDimensions];
+        for (int j=0; j<targetDimensions; j++) {
+            final double[] c = coefficients[j];
+            double fitted = 0;
+            for (int i=0; i<numTerms; i++) {
+                c[i] = solution.getElement(i, j) * scales[i];
+                if (Double.isInfinite(c[i]) || Double.isNaN(c[i])) {
+                    throw new NoninvertibleMatrixException(Errors.format(
+                            Errors.Keys.NonInvertibleMatrix_2, numTerms, numTerms));
+                }
+                fitted += c[i] * rightSide[i*targetDimensions + j];
+            }
+            /*
+             * Sum of squared residuals is Σy² − cᵀb at the least squares solution.
+             * The total sum of squares is Σy² − (Σy)²/n, where Σy is the term at i=0.
+             */
+            final double sum = rightSide[j];
+            final double residuals = Math.max(0, sumSquares[j] - fitted);
+            final double total = sumSquares[j] - sum*sum / count;
+            r[j] = Math.sqrt(Math.max(0, 1 - residuals / total));     // May be NaN if total = 0.
+        }
+        correlation = r;
+        if (degree == 1) {
+            /*
+             * Fold the origin into the translation terms:
+             * t = c₀ + Σcᵢ⋅(xᵢ − oᵢ) = (c₀ − Σcᵢ⋅oᵢ) + Σcᵢ⋅xᵢ
+             */
+            final MatrixSIS matrix = Matrices.createZero(targetDimensions + 1, sourceDimensions + 1);
+            matrix.setElement(targetDimensions, sourceDimensions, 1);
+            for (int j=0; j<targetDimensions; j++) {
+                final double[] c = coefficients[j];
+                double translation = c[0];
+                for (int i=0; i<sourceDimensions; i++) {
+                    matrix.setElement(j, i, c[i+1]);
+                    translation -= c[i+1] * origin[i];
+                }
+                matrix.setElement(j, sourceDimensions, translation);
+            }
+            return MathTransforms.linear(matrix);
+        }
+        return new PolynomialTransform(origin, parents, variables, coefficients);
+    }
+
+    /**
+     * Returns the index of element (<var>i</var>,<var>j</var>) with <var>i</var> ≤ <var>j</var>
+     * in the packed upper triangle of a symmetric matrix of the given size.
+     */
+    private static int index(final int i, final int j, final int size) {
+        return i*size - (i*(i-1) >> 1) + (j - i);
+    }
+
+    /**
+     * Returns the correlation coefficients of the last transform created by {@link #create()},
+     * or {@code null} if none or if points have been added since the last call to {@code create()}.
+     * If non-null, the array length is equals to the number of target dimensions.
+     *
+     * @return Estimation of correlation coefficients for each target dimension, or {@code null}.
+     */
+    public double[] correlation() {
+        return (correlation != null) ? correlation.clone() : null;
+    }
+
+    /**
+     * Returns a string representation of this accumulator for debugging purpose.
+     *
+     * @return A string representation of this accumulator.
+     */
+    @Debug
+    @Override
+    public String toString() {
+        return Classes.getShortClassName(this) + '[' + sourceDimensions + "D → " + targetDimensions
+                + "D, degree " + degree + ", " + count + " points]";
+    }
+}
@@ -24,6 +24,7 @@ import org.apache.sis.math.Line;
 import org.apache.sis.math.Plane;
 import org.apache.sis.referencing.operation.matrix.Matrices;
 import org.apache.sis.referencing.operation.matrix.MatrixSIS;
+import org.apache.sis.referencing.operation.matrix.NoninvertibleMatrixException;
 import org.apache.sis.referencing.operation.transform.LinearTransform;
 import org.apache.sis.referencing.operation.transform.MathTransforms;
 import org.apache.sis.util.resources.Vocabulary;
@@ -46,11 +47,15 @@ import org.apache.sis.util.Debug;
  * This algorithm may change in future SIS versions.
  * </div>
  *
+ * <p>This builder keeps a copy of all points in memory. For very large sets of points,
+ * or for polynomial transforms of higher degree, see {@link LeastSquaresAccumulator}.</p>
+ *
  * @author  Martin Desruisseaux (Geomatys)
  * @since   0.5
- * @version 0.5
+ * @version 0.6
  * @module
  *
+ * @see LeastSquaresAccumulator
  * @see LinearTransform
  * @see Line
  * @see Plane
@@ -111,16 +116,15 @@ public class LinearTransformBuilder {
     /**
      * Sets the source points. The number of points shall be the same than the number of target points.
      *
-     * <p><b>Limitation:</b> in current implementation, the source points must be one or two-dimensional.
-     * This restriction may be removed in a future SIS version.</p>
+     * Source points can have any number of dimensions, but all points shall have the same number of dimensions.
      *
      * @param  points The source points, assumed precise.
-     * @throws MismatchedDimensionException if at least one point does not have the expected number of dimensions.
+     * @throws MismatchedDimensionException if not all points have the same number of dimensions.
      */
     public void setSourcePoints(final DirectPosition... points) throws MismatchedDimensionException {
         ArgumentChecks.ensureNonNull("points", points);
         if (points.length != 0) {
-            sources = toArrays(points, points[0].getDimension() == 1 ? 1 : 2);
+            sources = toArrays(points, points[0].getDimension());
         } else {
             sources = null;
         }
@@ -157,6 +161,9 @@ public class LinearTransformBuilder {
      * This method assumes that source points are precise and all uncertainty is in the target points.
      *
      * @return The fitted linear transform.
+     * @throws IllegalStateException if the source or target points have not been specified,
+     *         if they have zero dimension, or if the points are distributed in such a way that
+     *         the transform can not be determined.
      */
     public LinearTransform create() {
         if (transform == null) {
@@ -168,6 +175,10 @@ public class LinearTransformBuilder {
             }
             final int sourceDim = sources.length;
             final int targetDim = targets.length;
+            if (sourceDim == 0 || targetDim == 0) {
+                throw new IllegalStateException(Errors.format(Errors.Keys.ValueNotGreaterThanZero_2,
+                        (sourceDim == 0) ? "sourceDimension" : "targetDimension", 0));
+            }
             correlation = new double[targetDim];
             final MatrixSIS matrix = Matrices.createZero(targetDim + 1, sourceDim + 1);
             matrix.setElement(targetDim, sourceDim, 1);
@@ -191,7 +202,30 @@ public class LinearTransformBuilder {
                     }
                     break;
                 }
-                default: throw new AssertionError(sourceDim); // Should have been verified by setSourcePoints(…) method.
+                default: {
+                    /*
+                     * No specialized class for more than two dimensions. Fall back on the general
+                     * case, which solves the normal equations without copying the points again.
+                     */
+                    final int numPts = Math.min(sources[0].length, targets[0].length);
+                    final LeastSquaresAccumulator accumulator = new LeastSquaresAccumulator(sourceDim, targetDim, 1);
+                    final double[] source = new double[sourceDim];
+                    final double[] target = new double[targetDim];
+                    for (int p=0; p<numPts; p++) {
+                        for (int i=0; i<sourceDim; i++) source[i] = sources[i][p];
+                        for (int i=0; i<targetDim; i++) target[i] = targets[i][p];
+                        accumulator.add(source, 0, target, 0, 1);
+                    }
+                    final LinearTransform fitted;
+                    try {
+                        fitted = (LinearTransform) accumulator.create();
+                    } catch (NoninvertibleMatrixException e) {
+                        throw new IllegalStateException(e.getLocalizedMessage(), e);
+                    }
+                    correlation = accumulator.correlation();
+                    transform = fitted;
+                    return fitted;
+                }
             }
             transform = MathTransforms.linear(matrix);
         }
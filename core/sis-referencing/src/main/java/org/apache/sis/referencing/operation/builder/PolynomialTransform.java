@@ -0,0 +1,172 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sis.referencing.operation.builder;
+
+import java.util.Arrays;
+import java.io.Serializable;
+import org.opengis.referencing.operation.Matrix;
+import org.apache.sis.referencing.operation.matrix.Matrices;
+import org.apache.sis.referencing.operation.matrix.MatrixSIS;
+import org.apache.sis.referencing.operation.transform.AbstractMathTransform;
+import org.apache.sis.util.ComparisonMode;
+
+
+/**
+ * A polynomial transform created by {@link LeastSquaresAccumulator}.
+ * Each target ordinate value is a polynomial of the source ordinate values relative to an origin.
+ * The polynomial terms are computed in the order documented in {@link LeastSquaresAccumulator},
+ * each term being the product of a term of lower degree by one ordinate value.
+ *
+ * <p>This transform is not invertible.</p>
+ *
+ * {@section Serialization}
+ * Serialized instances of this class are not guaranteed to be compatible with future SIS versions.
+ * Serialization should be used only for short term storage or RMI between applications running the
+ * same SIS version.
+ *
+ * @author  Martin Desruisseaux (Geomatys)
+ * @since   0.6
+ * @version 0.6
+ * @module
+ */
+final class PolynomialTransform extends AbstractMathTransform implements Serializable {
+    /**
+     * Serial number for inter-operability with different versions.
+     */
+    private static final long serialVersionUID = -2806155263547137587L;
+
+    /**
+     * The origin to subtract from source ordinate values before to compute the polynomial terms.
+     */
+    private final double[] origin;
+
+    /**
+     * For each polynomial term except the constant one, the index of the term of lower degree
+     * and the dimension of the ordinate value to multiply. See {@link LeastSquaresAccumulator}.
+     */
+    private final int[] parents, variables;
+
+    /**
+     * The polynomial coefficients for each target dimension.
+     */
+    private final double[][] coefficients;
+
+    /**
+     * Creates a new polynomial transform. This constructor does not clone the given arrays;
+     * it is caller responsibility to not modify them after construction.
+     */
+    PolynomialTransform(final double[] origin, final int[] parents, final int[] variables, final double[][] coefficients) {
+        this.origin       = origin;
+        this.parents      = parents;
+        this.variables    = variables;
+        this.coefficients = coefficients;
+    }
+
+    /**
+     * Returns the number of source dimensions.
+     */
+    @Override
+    public int getSourceDimensions() {
+        return origin.length;
+    }
+
+    /**
+     * Returns the number of target dimensions.
+     */
+    @Override
+    public int getTargetDimensions() {
+        return coefficients.length;
+    }
+
+    /**
+     * Transforms a single coordinate point and optionally computes the derivative.
+     * The derivative of each term is computed from the derivative of its parent term
+     * using the rule for the derivative of a product.
+     */
+    @Override
+    public Matrix transform(final double[] srcPts, final int srcOff,
+                            final double[] dstPts, final int dstOff, final boolean derivate)
+    {
+        final int sourceDim = origin.length;
+        final int numTerms  = parents.length;
+        final double[] terms = new double[numTerms];
+        final double[] dterms = derivate ? new double[numTerms * sourceDim] : null;
+        terms[0] = 1;
+        for (int t=1; t<numTerms; t++) {
+            final int    v = variables[t];
+            final int    p = parents[t];
+            final double x = srcPts[srcOff + v] - origin[v];
+            terms[t] = terms[p] * x;
+            if (dterms != null) {
+                final int offset = t * sourceDim;
+                for (int i=0; i<sourceDim; i++) {
+                    dterms[offset + i] = dterms[p*sourceDim + i] * x;
+                }
+                dterms[offset + v] += terms[p];
+            }
+        }
+        final MatrixSIS derivative = derivate ? Matrices.createZero(coefficients.length, sourceDim) : null;
+        final double[] results = new double[coefficients.length];
+        for (int j=0; j<coefficients.length; j++) {
+            final double[] c = coefficients[j];
+            double sum = 0;
+            for (int t=0; t<numTerms; t++) {
+                sum += c[t] * terms[t];
+            }
+            results[j] = sum;
+            if (derivative != null) {
+                for (int i=0; i<sourceDim; i++) {
+                    double d = 0;
+                    for (int t=1; t<numTerms; t++) {
+                        d += c[t] * dterms[t*sourceDim + i];
+                    }
+                    derivative.setElement(j, i, d);
+                }
+            }
+        }
+        if (dstPts != null) {
+            System.arraycopy(results, 0, dstPts, dstOff, results.length);
+        }
+        return derivative;
+    }
+
+    /**
+     * Computes a hash value for this transform.
+     */
+    @Override
+    protected int computeHashCode() {
+        return super.computeHashCode() + 31 * (Arrays.hashCode(origin) + 31 * Arrays.deepHashCode(coefficients));
+    }
+
+    /**
+     * Compares the given object with this transform for equality.
+     */
+    @Override
+    public boolean equals(final Object object, final ComparisonMode mode) {
+        if (object == this) {
+            return true;
+        }
+        if (super.equals(object, mode)) {
+            final PolynomialTransform that = (PolynomialTransform) object;
+            return Arrays.equals(origin, that.origin)
+                && Arrays.equals(parents, that.parents)
+                && Arrays.equals(variables, that.variables)
+                && Arrays.deepEquals(coefficients, that.coefficients);
+        }
+        return false;
+    }
+}
@@ -28,8 +28,13 @@
  * geodesic distance. It may be an approximation of Euclidian distance for implementation
  * convenience.</p>
  *
+ * <p>{@link org.apache.sis.referencing.operation.builder.LinearTransformBuilder} keeps all points in memory.
+ * For very large sets of points, {@link org.apache.sis.referencing.operation.builder.LeastSquaresAccumulator}
+ * updates the sums of the normal equations point by point and can fit polynomials up to the third degree.
+ * Partial accumulations computed in different threads can be merged together.</p>
+ *
  * @author  Martin Desruisseaux (Geomatys)
- * @version 0.5
+ * @version 0.6
  * @since   0.5
  * @module
  */
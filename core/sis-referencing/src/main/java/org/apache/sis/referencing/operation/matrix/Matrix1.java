@@ -31,7 +31,7 @@ import org.apache.sis.internal.util.Numerics;
  *
  * @author  Martin Desruisseaux (IRD, Geomatys)
  * @since   0.4
- * @version 0.4
+ * @version 0.6
  * @module
  *
  * @see Matrix2
@@ -251,6 +251,62 @@ public final class Matrix1 extends MatrixSIS {
         m00 = 1;
     }
 
+    /**
+     * Returns {@code true} if at least one element of this matrix needs double-double arithmetic.
+     */
+    private boolean hasErrorTerms() {
+        return needsExtendedPrecision(m00);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>If the given matrix is also a {@code Matrix1} and no element of the two matrices needs double-double
+     * arithmetic, then this method computes the product directly in {@code double} arithmetic without creating
+     * intermediate arrays. Otherwise this method delegates to the extended-precision implementation.</p>
+     */
+    @Override
+    public MatrixSIS multiply(final Matrix matrix) throws MismatchedMatrixSizeException {
+        if (matrix instanceof Matrix1) {
+            final Matrix1 m = (Matrix1) matrix;
+            if (!hasErrorTerms() && !m.hasErrorTerms()) {
+                final Matrix1 result = new Matrix1(m00*m.m00);
+                result.normalize();
+                return result;
+            }
+        }
+        return super.multiply(matrix);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>If the element of this matrix and its inverse do not need double-double arithmetic, then this method
+     * computes the inverse directly in {@code double} arithmetic. Otherwise, or if the matrix is singular or
+     * contains NaN value, this method delegates to the extended-precision implementation.</p>
+     */
+    @Override
+    public MatrixSIS inverse() throws NoninvertibleMatrixException {
+        if (!hasErrorTerms()) {
+            final Matrix1 inverse = new Matrix1(1 / m00);
+            if (inverse.m00 != 0 && inverse.normalize() && !inverse.hasErrorTerms()) {
+                return inverse;
+            }
+        }
+        return super.inverse();
+    }
+
+    /**
+     * Replaces the negative zeros by positive zeros, for consistency with the results of the extended-precision
+     * implementation. Then returns {@code true} if all elements of this matrix are finite. This is used for
+     * verifying that a result computed in {@code double} arithmetic did not overflow.
+     */
+    private boolean normalize() {
+        if (m00 == 0) m00 = 0;
+        // Multiplication by zero gives NaN for infinite and NaN values, and zero for all other values.
+        return (m00*0) == 0;
+    }
+
     /**
      * Returns {@code true} if the specified object is of type {@code Matrix1} and
      * all of the data members are equal to the corresponding data members in this matrix.
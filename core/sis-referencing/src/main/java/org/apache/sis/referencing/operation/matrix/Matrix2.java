@@ -32,7 +32,7 @@ import org.apache.sis.internal.util.Numerics;
  *
  * @author  Martin Desruisseaux (IRD, Geomatys)
  * @since   0.4
- * @version 0.4
+ * @version 0.6
  * @module
  *
  * @see Matrix1
@@ -275,6 +275,80 @@ public final class Matrix2 extends MatrixSIS {
         m = Math.hypot(m01, m11); m01 /= m; m11 /= m;
     }
 
+    /**
+     * Returns {@code true} if at least one element of this matrix needs double-double arithmetic.
+     */
+    private boolean hasErrorTerms() {
+        return needsExtendedPrecision(m00) || needsExtendedPrecision(m01)
+            || needsExtendedPrecision(m10) || needsExtendedPrecision(m11);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>If the given matrix is also a {@code Matrix2} and no element of the two matrices needs double-double
+     * arithmetic, then this method computes the product directly in {@code double} arithmetic without creating
+     * intermediate arrays. Otherwise this method delegates to the extended-precision implementation.</p>
+     */
+    @Override
+    public MatrixSIS multiply(final Matrix matrix) throws MismatchedMatrixSizeException {
+        if (matrix instanceof Matrix2) {
+            final Matrix2 m = (Matrix2) matrix;
+            if (!hasErrorTerms() && !m.hasErrorTerms()) {
+                final Matrix2 result = new Matrix2(
+                        m00*m.m00 + m01*m.m10,
+                        m00*m.m01 + m01*m.m11,
+
+                        m10*m.m00 + m11*m.m10,
+                        m10*m.m01 + m11*m.m11);
+                result.normalize();
+                return result;
+            }
+        }
+        return super.multiply(matrix);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>If no element of this matrix needs double-double arithmetic, then this method computes the inverse
+     * directly in {@code double} arithmetic. The result is kept only if none of its elements needs double-double
+     * arithmetic neither (for example the inverse of a scale factor of 3 is not kept), because otherwise the
+     * error terms computed by the extended-precision implementation would be lost. In such cases, or if the
+     * matrix is singular or contains NaN values, this method delegates to the extended-precision implementation.</p>
+     */
+    @Override
+    public MatrixSIS inverse() throws NoninvertibleMatrixException {
+        if (!hasErrorTerms()) {
+            final double det = m00*m11 - m01*m10;
+            if (det != 0 && !Double.isNaN(det) && !Double.isInfinite(det)) {
+                final Matrix2 inverse = new Matrix2(m11 / det, -m01 / det,
+                                                   -m10 / det,  m00 / det);
+                if (isAffine()) {
+                    inverse.m10 = 0;
+                    inverse.m11 = 1;
+                }
+                if (inverse.normalize() && !inverse.hasErrorTerms()) {
+                    return inverse;
+                }
+            }
+        }
+        return super.inverse();
+    }
+
+    /**
+     * Replaces the negative zeros by positive zeros, for consistency with the results of the extended-precision
+     * implementation. Then returns {@code true} if all elements of this matrix are finite. This is used for
+     * verifying that a result computed in {@code double} arithmetic did not overflow.
+     */
+    private boolean normalize() {
+        if (m00 == 0) m00 = 0;  if (m01 == 0) m01 = 0;
+        if (m10 == 0) m10 = 0;  if (m11 == 0) m11 = 0;
+        // Multiplication by zero gives NaN for infinite and NaN values, and zero for all other values.
+        return (m00*0 + m01*0
+              + m10*0 + m11*0) == 0;
+    }
+
     /**
      * Returns {@code true} if the specified object is of type {@code Matrix2} and
      * all of the data members are equal to the corresponding data members in this matrix.
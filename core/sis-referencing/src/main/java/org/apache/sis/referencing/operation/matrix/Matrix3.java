@@ -34,7 +34,7 @@ import org.apache.sis.math.MathFunctions;
  *
  * @author  Martin Desruisseaux (IRD, Geomatys)
  * @since   0.4
- * @version 0.4
+ * @version 0.6
  * @module
  *
  * @see Matrix1
@@ -306,6 +306,95 @@ public final class Matrix3 extends MatrixSIS {
         v[0]=m02; v[1]=m12; v[2]=m22; m = MathFunctions.magnitude(v); m02 /= m; m12 /= m; m22 /= m;
     }
 
+    /**
+     * Returns {@code true} if at least one element of this matrix needs double-double arithmetic.
+     */
+    private boolean hasErrorTerms() {
+        return needsExtendedPrecision(m00) || needsExtendedPrecision(m01) || needsExtendedPrecision(m02)
+            || needsExtendedPrecision(m10) || needsExtendedPrecision(m11) || needsExtendedPrecision(m12)
+            || needsExtendedPrecision(m20) || needsExtendedPrecision(m21) || needsExtendedPrecision(m22);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>If the given matrix is also a {@code Matrix3} and no element of the two matrices needs double-double
+     * arithmetic, then this method computes the product directly in {@code double} arithmetic without creating
+     * intermediate arrays. Otherwise this method delegates to the extended-precision implementation.</p>
+     */
+    @Override
+    public MatrixSIS multiply(final Matrix matrix) throws MismatchedMatrixSizeException {
+        if (matrix instanceof Matrix3) {
+            final Matrix3 m = (Matrix3) matrix;
+            if (!hasErrorTerms() && !m.hasErrorTerms()) {
+                final Matrix3 result = new Matrix3(
+                        m00*m.m00 + m01*m.m10 + m02*m.m20,
+                        m00*m.m01 + m01*m.m11 + m02*m.m21,
+                        m00*m.m02 + m01*m.m12 + m02*m.m22,
+
+                        m10*m.m00 + m11*m.m10 + m12*m.m20,
+                        m10*m.m01 + m11*m.m11 + m12*m.m21,
+                        m10*m.m02 + m11*m.m12 + m12*m.m22,
+
+                        m20*m.m00 + m21*m.m10 + m22*m.m20,
+                        m20*m.m01 + m21*m.m11 + m22*m.m21,
+                        m20*m.m02 + m21*m.m12 + m22*m.m22);
+                result.normalize();
+                return result;
+            }
+        }
+        return super.multiply(matrix);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>If no element of this matrix needs double-double arithmetic, then this method computes the inverse
+     * directly in {@code double} arithmetic. The result is kept only if none of its elements needs double-double
+     * arithmetic neither (for example the inverse of a scale factor of 3 is not kept), because otherwise the
+     * error terms computed by the extended-precision implementation would be lost. In such cases, or if the
+     * matrix is singular or contains NaN values, this method delegates to the extended-precision implementation.</p>
+     */
+    @Override
+    public MatrixSIS inverse() throws NoninvertibleMatrixException {
+        if (!hasErrorTerms()) {
+            final double c00 = m11*m22 - m12*m21;
+            final double c10 = m12*m20 - m10*m22;
+            final double c20 = m10*m21 - m11*m20;
+            final double det = m00*c00 + m01*c10 + m02*c20;
+            if (det != 0 && !Double.isNaN(det) && !Double.isInfinite(det)) {
+                final Matrix3 inverse = new Matrix3(
+                        c00 / det, (m02*m21 - m01*m22) / det, (m01*m12 - m02*m11) / det,
+                        c10 / det, (m00*m22 - m02*m20) / det, (m02*m10 - m00*m12) / det,
+                        c20 / det, (m01*m20 - m00*m21) / det, (m00*m11 - m01*m10) / det);
+                if (isAffine()) {
+                    inverse.m20 = 0;
+                    inverse.m21 = 0;
+                    inverse.m22 = 1;
+                }
+                if (inverse.normalize() && !inverse.hasErrorTerms()) {
+                    return inverse;
+                }
+            }
+        }
+        return super.inverse();
+    }
+
+    /**
+     * Replaces the negative zeros by positive zeros, for consistency with the results of the extended-precision
+     * implementation. Then returns {@code true} if all elements of this matrix are finite. This is used for
+     * verifying that a result computed in {@code double} arithmetic did not overflow.
+     */
+    private boolean normalize() {
+        if (m00 == 0) m00 = 0;  if (m01 == 0) m01 = 0;  if (m02 == 0) m02 = 0;
+        if (m10 == 0) m10 = 0;  if (m11 == 0) m11 = 0;  if (m12 == 0) m12 = 0;
+        if (m20 == 0) m20 = 0;  if (m21 == 0) m21 = 0;  if (m22 == 0) m22 = 0;
+        // Multiplication by zero gives NaN for infinite and NaN values, and zero for all other values.
+        return (m00*0 + m01*0 + m02*0
+              + m10*0 + m11*0 + m12*0
+              + m20*0 + m21*0 + m22*0) == 0;
+    }
+
     /**
      * Returns {@code true} if the specified object is of type {@code Matrix3} and
      * all of the data members are equal to the corresponding data members in this matrix.
@@ -35,7 +35,7 @@ import org.apache.sis.math.MathFunctions;
  *
  * @author  Martin Desruisseaux (IRD, Geomatys)
  * @since   0.4
- * @version 0.4
+ * @version 0.6
  * @module
  *
  * @see Matrix1
@@ -345,6 +345,140 @@ public final class Matrix4 extends MatrixSIS {
         v[0]=m03; v[1]=m13; v[2]=m23; v[3]=m33; m = MathFunctions.magnitude(v); m03 /= m; m13 /= m; m23 /= m; m33 /= m;
     }
 
+    /**
+     * Returns {@code true} if at least one element of this matrix needs double-double arithmetic.
+     */
+    private boolean hasErrorTerms() {
+        return needsExtendedPrecision(m00) || needsExtendedPrecision(m01)
+            || needsExtendedPrecision(m02) || needsExtendedPrecision(m03)
+            || needsExtendedPrecision(m10) || needsExtendedPrecision(m11)
+            || needsExtendedPrecision(m12) || needsExtendedPrecision(m13)
+            || needsExtendedPrecision(m20) || needsExtendedPrecision(m21)
+            || needsExtendedPrecision(m22) || needsExtendedPrecision(m23)
+            || needsExtendedPrecision(m30) || needsExtendedPrecision(m31)
+            || needsExtendedPrecision(m32) || needsExtendedPrecision(m33);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>If the given matrix is also a {@code Matrix4} and no element of the two matrices needs double-double
+     * arithmetic, then this method computes the product directly in {@code double} arithmetic without creating
+     * intermediate arrays. Otherwise this method delegates to the extended-precision implementation.</p>
+     */
+    @Override
+    public MatrixSIS multiply(final Matrix matrix) throws MismatchedMatrixSizeException {
+        if (matrix instanceof Matrix4) {
+            final Matrix4 m = (Matrix4) matrix;
+            if (!hasErrorTerms() && !m.hasErrorTerms()) {
+                final Matrix4 result = new Matrix4(
+                        m00*m.m00 + m01*m.m10 + m02*m.m20 + m03*m.m30,
+                        m00*m.m01 + m01*m.m11 + m02*m.m21 + m03*m.m31,
+                        m00*m.m02 + m01*m.m12 + m02*m.m22 + m03*m.m32,
+                        m00*m.m03 + m01*m.m13 + m02*m.m23 + m03*m.m33,
+
+                        m10*m.m00 + m11*m.m10 + m12*m.m20 + m13*m.m30,
+                        m10*m.m01 + m11*m.m11 + m12*m.m21 + m13*m.m31,
+                        m10*m.m02 + m11*m.m12 + m12*m.m22 + m13*m.m32,
+                        m10*m.m03 + m11*m.m13 + m12*m.m23 + m13*m.m33,
+
+                        m20*m.m00 + m21*m.m10 + m22*m.m20 + m23*m.m30,
+                        m20*m.m01 + m21*m.m11 + m22*m.m21 + m23*m.m31,
+                        m20*m.m02 + m21*m.m12 + m22*m.m22 + m23*m.m32,
+                        m20*m.m03 + m21*m.m13 + m22*m.m23 + m23*m.m33,
+
+                        m30*m.m00 + m31*m.m10 + m32*m.m20 + m33*m.m30,
+                        m30*m.m01 + m31*m.m11 + m32*m.m21 + m33*m.m31,
+                        m30*m.m02 + m31*m.m12 + m32*m.m22 + m33*m.m32,
+                        m30*m.m03 + m31*m.m13 + m32*m.m23 + m33*m.m33);
+                result.normalize();
+                return result;
+            }
+        }
+        return super.multiply(matrix);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>If no element of this matrix needs double-double arithmetic, then this method computes the inverse
+     * directly in {@code double} arithmetic. The result is kept only if none of its elements needs double-double
+     * arithmetic neither (for example the inverse of a scale factor of 3 is not kept), because otherwise the
+     * error terms computed by the extended-precision implementation would be lost. In such cases, or if the
+     * matrix is singular or contains NaN values, this method delegates to the extended-precision implementation.</p>
+     */
+    @Override
+    public MatrixSIS inverse() throws NoninvertibleMatrixException {
+        if (!hasErrorTerms()) {
+            /*
+             * Determinants of the 2×2 sub-matrices in the two upper rows (s) and in the two lower rows (c).
+             * The inverse is the adjugate matrix divided by the determinant, computed by Laplace expansion.
+             */
+            final double s0 = m00*m11 - m10*m01;
+            final double s1 = m00*m12 - m10*m02;
+            final double s2 = m00*m13 - m10*m03;
+            final double s3 = m01*m12 - m11*m02;
+            final double s4 = m01*m13 - m11*m03;
+            final double s5 = m02*m13 - m12*m03;
+            final double c5 = m22*m33 - m32*m23;
+            final double c4 = m21*m33 - m31*m23;
+            final double c3 = m21*m32 - m31*m22;
+            final double c2 = m20*m33 - m30*m23;
+            final double c1 = m20*m32 - m30*m22;
+            final double c0 = m20*m31 - m30*m21;
+            final double det = s0*c5 - s1*c4 + s2*c3 + s3*c2 - s4*c1 + s5*c0;
+            if (det != 0 && !Double.isNaN(det) && !Double.isInfinite(det)) {
+                final Matrix4 inverse = new Matrix4(
+                        ( m11*c5 - m12*c4 + m13*c3) / det,
+                        (-m01*c5 + m02*c4 - m03*c3) / det,
+                        ( m31*s5 - m32*s4 + m33*s3) / det,
+                        (-m21*s5 + m22*s4 - m23*s3) / det,
+
+                        (-m10*c5 + m12*c2 - m13*c1) / det,
+                        ( m00*c5 - m02*c2 + m03*c1) / det,
+                        (-m30*s5 + m32*s2 - m33*s1) / det,
+                        ( m20*s5 - m22*s2 + m23*s1) / det,
+
+                        ( m10*c4 - m11*c2 + m13*c0) / det,
+                        (-m00*c4 + m01*c2 - m03*c0) / det,
+                        ( m30*s4 - m31*s2 + m33*s0) / det,
+                        (-m20*s4 + m21*s2 - m23*s0) / det,
+
+                        (-m10*c3 + m11*c1 - m12*c0) / det,
+                        ( m00*c3 - m01*c1 + m02*c0) / det,
+                        (-m30*s3 + m31*s1 - m32*s0) / det,
+                        ( m20*s3 - m21*s1 + m22*s0) / det);
+                if (isAffine()) {
+                    inverse.m30 = 0;
+                    inverse.m31 = 0;
+                    inverse.m32 = 0;
+                    inverse.m33 = 1;
+                }
+                if (inverse.normalize() && !inverse.hasErrorTerms()) {
+                    return inverse;
+                }
+            }
+        }
+        return super.inverse();
+    }
+
+    /**
+     * Replaces the negative zeros by positive zeros, for consistency with the results of the extended-precision
+     * implementation. Then returns {@code true} if all elements of this matrix are finite. This is used for
+     * verifying that a result computed in {@code double} arithmetic did not overflow.
+     */
+    private boolean normalize() {
+        if (m00 == 0) m00 = 0;  if (m01 == 0) m01 = 0;  if (m02 == 0) m02 = 0;  if (m03 == 0) m03 = 0;
+        if (m10 == 0) m10 = 0;  if (m11 == 0) m11 = 0;  if (m12 == 0) m12 = 0;  if (m13 == 0) m13 = 0;
+        if (m20 == 0) m20 = 0;  if (m21 == 0) m21 = 0;  if (m22 == 0) m22 = 0;  if (m23 == 0) m23 = 0;
+        if (m30 == 0) m30 = 0;  if (m31 == 0) m31 = 0;  if (m32 == 0) m32 = 0;  if (m33 == 0) m33 = 0;
+        // Multiplication by zero gives NaN for infinite and NaN values, and zero for all other values.
+        return (m00*0 + m01*0 + m02*0 + m03*0
+              + m10*0 + m11*0 + m12*0 + m13*0
+              + m20*0 + m21*0 + m22*0 + m23*0
+              + m30*0 + m31*0 + m32*0 + m33*0) == 0;
+    }
+
     /**
      * Returns {@code true} if the specified object is of type {@code Matrix4} and
      * all of the data members are equal to the corresponding data members in this matrix.
@@ -22,6 +22,7 @@ import org.apache.sis.util.ArgumentChecks;
 import org.apache.sis.util.ComparisonMode;
 import org.apache.sis.util.LenientComparable;
 import org.apache.sis.util.resources.Errors;
+import org.apache.sis.internal.util.DoubleDouble;
 
 
 /**
@@ -39,7 +40,7 @@ import org.apache.sis.util.resources.Errors;
  *
  * @author  Martin Desruisseaux (IRD, Geomatys)
  * @since   0.4
- * @version 0.4
+ * @version 0.6
  * @module
  *
  * @see Matrices
@@ -101,6 +102,20 @@ public abstract class MatrixSIS implements Matrix, LenientComparable, Cloneable,
         }
     }
 
+    /**
+     * Returns {@code true} if the given element would have a non-zero error term in double-double arithmetic.
+     * This is the case of values like 0.1 or π/180, for which {@link DoubleDouble#errorForWellKnownValue(double)}
+     * infers the digits lost by the {@code double} representation. The fixed-size matrices use their unrolled
+     * {@code double} arithmetic only if this method returns {@code false} for all elements; otherwise they
+     * delegate to the extended-precision implementation for preserving the accuracy of matrix products.
+     *
+     * @param  value The matrix element to test.
+     * @return {@code true} if the given value needs double-double arithmetic.
+     */
+    static boolean needsExtendedPrecision(final double value) {
+        return value != Math.rint(value) && DoubleDouble.errorForWellKnownValue(value) != 0;
+    }
+
     /**
      * Returns an exception for the given indices.
      */
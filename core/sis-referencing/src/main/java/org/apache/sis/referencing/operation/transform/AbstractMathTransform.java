@@ -358,6 +358,7 @@ public abstract class AbstractMathTransform extends FormattableObject
          * The "offFinal" and "dstFinal" variables will be used only in the BUFFER_TARGET case.
          */
         double[] dstFinal = null;
+        double[] buffer   = null;
         int offFinal = 0;
         int srcInc = getSourceDimensions();
         int dstInc = getTargetDimensions();
@@ -373,12 +374,16 @@ public abstract class AbstractMathTransform extends FormattableObject
                 }
                 default: // Following should alway work even for unknown cases.
                 case BUFFER_SOURCE: {
-                    srcPts = Arrays.copyOfRange(srcPts, srcOff, srcOff + numPts*srcInc);
+                    final int length = numPts * srcInc;
+                    buffer = BufferCache.acquire(length);
+                    System.arraycopy(srcPts, srcOff, buffer, 0, length);
+                    srcPts = buffer;
                     srcOff = 0;
                     break;
                 }
                 case BUFFER_TARGET: {
-                    dstFinal = dstPts; dstPts = new double[numPts * dstInc];
+                    buffer = BufferCache.acquire(numPts * dstInc);
+                    dstFinal = dstPts; dstPts = buffer;
                     offFinal = dstOff; dstOff = 0;
                     break;
                 }
@@ -392,41 +397,45 @@ public abstract class AbstractMathTransform extends FormattableObject
         TransformException failure = null;
         int failureCount = 0; // Count ordinates, not coordinates.
         int blockStart   = 0;
-        do {
-            try {
-                transform(srcPts, srcOff, dstPts, dstOff, false);
-            } catch (TransformException exception) {
-                /*
-                 * If an exception occurred, let it propagate if we reached the maximum amount
-                 * of exceptions we try to handle. We do NOT invoke setLastCompletedTransform
-                 * in this case since we gave up.
-                 */
-                failureCount += Math.abs(srcInc);
-                if (failureCount > MAXIMUM_FAILURES) {
-                    throw failure;
-                }
-                /*
-                 * Otherwise fills the ordinate values to NaN and count the number of exceptions,
-                 * so we known when to give up if there is too much of them. The first exception
-                 * will be propagated at the end of this method.
-                 */
-                Arrays.fill(dstPts, dstOff, dstOff + Math.abs(dstInc), Double.NaN);
-                if (failure == null) {
-                    failure = exception; // Keep only the first failure.
-                    blockStart = srcOff;
-                } else {
-                    failure.addSuppressed(exception);
-                    if (Math.abs(srcOff - blockStart) > MAXIMUM_BUFFER_SIZE) {
-                        failureCount = 0; // We started a new block of coordinates.
+        try {
+            do {
+                try {
+                    transform(srcPts, srcOff, dstPts, dstOff, false);
+                } catch (TransformException exception) {
+                    /*
+                     * If an exception occurred, let it propagate if we reached the maximum amount
+                     * of exceptions we try to handle. We do NOT invoke setLastCompletedTransform
+                     * in this case since we gave up.
+                     */
+                    failureCount += Math.abs(srcInc);
+                    if (failureCount > MAXIMUM_FAILURES) {
+                        throw failure;
+                    }
+                    /*
+                     * Otherwise fills the ordinate values to NaN and count the number of exceptions,
+                     * so we known when to give up if there is too much of them. The first exception
+                     * will be propagated at the end of this method.
+                     */
+                    Arrays.fill(dstPts, dstOff, dstOff + Math.abs(dstInc), Double.NaN);
+                    if (failure == null) {
+                        failure = exception; // Keep only the first failure.
                         blockStart = srcOff;
+                    } else {
+                        failure.addSuppressed(exception);
+                        if (Math.abs(srcOff - blockStart) > MAXIMUM_BUFFER_SIZE) {
+                            failureCount = 0; // We started a new block of coordinates.
+                            blockStart = srcOff;
+                        }
                     }
                 }
+                srcOff += srcInc;
+                dstOff += dstInc;
+            } while (--numPts != 0);
+            if (dstFinal != null) {
+                System.arraycopy(dstPts, 0, dstFinal, offFinal, dstOff);    // dstOff is the length of valid data.
             }
-            srcOff += srcInc;
-            dstOff += dstInc;
-        } while (--numPts != 0);
-        if (dstFinal != null) {
-            System.arraycopy(dstPts, 0, dstFinal, offFinal, dstPts.length);
+        } finally {
+            BufferCache.release(buffer);
         }
         /*
          * If some points failed to be transformed, let the first exception propagate.
@@ -519,49 +528,53 @@ public abstract class AbstractMathTransform extends FormattableObject
          * We will verify that with an assert statement inside the do loop.
          */
         final int bufferedSrcOff = (dimSource >= dimTarget) ? 0 : dstStop - srcStop;
-        final double[] buffer = new double[bufferSize];
+        final double[] buffer = BufferCache.acquire(bufferSize);
         TransformException failure = null;
-        do {
-            if (numPts < numBufferedPts) {
-                numBufferedPts = numPts;
-                srcStop = numPts * dimSource;
-                dstStop = numPts * dimTarget;
-                if (srcInc < 0) {
-                    // If we were applying IterationStrategy.DESCENDING, then srcOff and dstOff
-                    // may be negative at this point because the last pass may not fill all the
-                    // buffer space. We need to apply the correction below.
-                    srcOff -= (srcStop + srcInc);
-                    dstOff -= (dstStop + dstInc);
+        try {
+            do {
+                if (numPts < numBufferedPts) {
+                    numBufferedPts = numPts;
+                    srcStop = numPts * dimSource;
+                    dstStop = numPts * dimTarget;
+                    if (srcInc < 0) {
+                        // If we were applying IterationStrategy.DESCENDING, then srcOff and dstOff
+                        // may be negative at this point because the last pass may not fill all the
+                        // buffer space. We need to apply the correction below.
+                        srcOff -= (srcStop + srcInc);
+                        dstOff -= (dstStop + dstInc);
+                    }
                 }
-            }
-            for (int i=0; i<srcStop; i++) {
-                buffer[bufferedSrcOff + i] = (double) srcPts[srcOff + i];
-            }
-            assert !IterationStrategy.suggest(bufferedSrcOff, dimSource, 0, dimTarget, numBufferedPts).needBuffer;
-            try {
-                transform(buffer, bufferedSrcOff, buffer, 0, numBufferedPts);
-            } catch (TransformException exception) {
-                /*
-                 * If an exception occurred but the transform nevertheless declares having been
-                 * able to process all coordinate points (setting to NaN those that can't be
-                 * transformed), we will keep the first exception (to be propagated at the end
-                 * of this method) and continue. Otherwise we will stop immediately.
-                 */
-                if (exception.getLastCompletedTransform() != this) {
-                    throw exception;
-                } else if (failure == null) {
-                    failure = exception; // Keep only the first exception.
-                } else {
-                    failure.addSuppressed(exception);
+                for (int i=0; i<srcStop; i++) {
+                    buffer[bufferedSrcOff + i] = (double) srcPts[srcOff + i];
                 }
-            }
-            for (int i=0; i<dstStop; i++) {
-                dstPts[dstOff + i] = (float) buffer[i];
-            }
-            srcOff += srcInc;
-            dstOff += dstInc;
-            numPts -= numBufferedPts;
-        } while (numPts != 0);
+                assert !IterationStrategy.suggest(bufferedSrcOff, dimSource, 0, dimTarget, numBufferedPts).needBuffer;
+                try {
+                    transform(buffer, bufferedSrcOff, buffer, 0, numBufferedPts);
+                } catch (TransformException exception) {
+                    /*
+                     * If an exception occurred but the transform nevertheless declares having been
+                     * able to process all coordinate points (setting to NaN those that can't be
+                     * transformed), we will keep the first exception (to be propagated at the end
+                     * of this method) and continue. Otherwise we will stop immediately.
+                     */
+                    if (exception.getLastCompletedTransform() != this) {
+                        throw exception;
+                    } else if (failure == null) {
+                        failure = exception; // Keep only the first exception.
+                    } else {
+                        failure.addSuppressed(exception);
+                    }
+                }
+                for (int i=0; i<dstStop; i++) {
+                    dstPts[dstOff + i] = (float) buffer[i];
+                }
+                srcOff += srcInc;
+                dstOff += dstInc;
+                numPts -= numBufferedPts;
+            } while (numPts != 0);
+        } finally {
+            BufferCache.release(buffer);
+        }
         if (failure != null) {
             throw failure;
         }
@@ -599,32 +612,36 @@ public abstract class AbstractMathTransform extends FormattableObject
         }
         int srcLength = numBufferedPts * dimSource;
         int dstLength = numBufferedPts * dimTarget;
-        final double[] buffer = new double[bufferSize];
+        final double[] buffer = BufferCache.acquire(bufferSize);
         TransformException failure = null;
-        do {
-            if (numPts < numBufferedPts) {
-                numBufferedPts = numPts;
-                srcLength = numPts * dimSource;
-                dstLength = numPts * dimTarget;
-            }
-            try {
-                transform(srcPts, srcOff, buffer, 0, numBufferedPts);
-            } catch (TransformException exception) {
-                // Same comment than in transform(float[], ...,float[], ...)
-                if (exception.getLastCompletedTransform() != this) {
-                    throw exception;
-                } else if (failure == null) {
-                    failure = exception;
-                } else {
-                    failure.addSuppressed(exception);
+        try {
+            do {
+                if (numPts < numBufferedPts) {
+                    numBufferedPts = numPts;
+                    srcLength = numPts * dimSource;
+                    dstLength = numPts * dimTarget;
                 }
-            }
-            for (int i=0; i<dstLength; i++) {
-                dstPts[dstOff++] = (float) buffer[i];
-            }
-            srcOff += srcLength;
-            numPts -= numBufferedPts;
-        } while (numPts != 0);
+                try {
+                    transform(srcPts, srcOff, buffer, 0, numBufferedPts);
+                } catch (TransformException exception) {
+                    // Same comment than in transform(float[], ...,float[], ...)
+                    if (exception.getLastCompletedTransform() != this) {
+                        throw exception;
+                    } else if (failure == null) {
+                        failure = exception;
+                    } else {
+                        failure.addSuppressed(exception);
+                    }
+                }
+                for (int i=0; i<dstLength; i++) {
+                    dstPts[dstOff++] = (float) buffer[i];
+                }
+                srcOff += srcLength;
+                numPts -= numBufferedPts;
+            } while (numPts != 0);
+        } finally {
+            BufferCache.release(buffer);
+        }
         if (failure != null) {
             throw failure;
         }
@@ -671,32 +688,36 @@ public abstract class AbstractMathTransform extends FormattableObject
         }
         int srcLength = numBufferedPts * dimSource;
         int dstLength = numBufferedPts * dimTarget;
-        final double[] buffer = new double[bufferSize];
+        final double[] buffer = BufferCache.acquire(bufferSize);
         TransformException failure = null;
-        do {
-            if (numPts < numBufferedPts) {
-                numBufferedPts = numPts;
-                srcLength = numPts * dimSource;
-                dstLength = numPts * dimTarget;
-            }
-            for (int i=0; i<srcLength; i++) {
-                buffer[i] = (double) srcPts[srcOff++];
-            }
-            try {
-                transform(buffer, 0, dstPts, dstOff, numBufferedPts);
-            } catch (TransformException exception) {
-                // Same comment than in transform(float[], ...,float[], ...)
-                if (exception.getLastCompletedTransform() != this) {
-                    throw exception;
-                } else if (failure == null) {
-                    failure = exception;
-                } else {
-                    failure.addSuppressed(exception);
+        try {
+            do {
+                if (numPts < numBufferedPts) {
+                    numBufferedPts = numPts;
+                    srcLength = numPts * dimSource;
+                    dstLength = numPts * dimTarget;
                 }
-            }
-            dstOff += dstLength;
-            numPts -= numBufferedPts;
-        } while (numPts != 0);
+                for (int i=0; i<srcLength; i++) {
+                    buffer[i] = (double) srcPts[srcOff++];
+                }
+                try {
+                    transform(buffer, 0, dstPts, dstOff, numBufferedPts);
+                } catch (TransformException exception) {
+                    // Same comment than in transform(float[], ...,float[], ...)
+                    if (exception.getLastCompletedTransform() != this) {
+                        throw exception;
+                    } else if (failure == null) {
+                        failure = exception;
+                    } else {
+                        failure.addSuppressed(exception);
+                    }
+                }
+                dstOff += dstLength;
+                numPts -= numBufferedPts;
+            } while (numPts != 0);
+        } finally {
+            BufferCache.release(buffer);
+        }
         if (failure != null) {
             throw failure;
         }
@@ -0,0 +1,724 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sis.referencing.operation.transform;
+
+import java.util.Arrays;
+import java.io.Serializable;
+import java.awt.geom.Rectangle2D;
+import org.opengis.referencing.operation.Matrix;
+import org.opengis.referencing.operation.MathTransform2D;
+import org.opengis.referencing.operation.TransformException;
+import org.opengis.referencing.operation.NoninvertibleTransformException;
+import org.apache.sis.referencing.operation.matrix.Matrix2;
+import org.apache.sis.internal.util.Numerics;
+import org.apache.sis.util.ComparisonMode;
+import org.apache.sis.util.Utilities;
+
+
+/**
+ * Approximation of an arbitrary two-dimensional transform by bilinear interpolations in a grid.
+ * The exact transform is evaluated at the nodes of a grid covering a given domain of validity,
+ * and points inside that domain are transformed by interpolating between the four nodes of the
+ * enclosing cell. This is much faster than the exact transform when the later is non-linear,
+ * for example map projections applied on every pixel of an image to be warped.
+ *
+ * <p>The grid is adaptive: the domain is first divided in {@value #INITIAL_CELLS}×{@value #INITIAL_CELLS}
+ * cells, then each cell is recursively divided in 4 smaller cells until the interpolation error is not
+ * greater than the tolerance threshold. The error is checked as below:</p>
+ *
+ * <ul>
+ *   <li>The exact transform is always evaluated at the cell center and compared with the interpolated value.</li>
+ *   <li>If the derivatives of the exact transform are available at the cell corners, then their variations
+ *       along the cell edges and diagonals give an estimation of the interpolation error. If that estimation
+ *       and the error at cell center are below the tolerance threshold, the cell is accepted.</li>
+ *   <li>Otherwise the exact transform is evaluated in the middle of each cell edge. If the errors at those
+ *       points are also below the tolerance threshold, the cell is accepted. Otherwise it is subdivided,
+ *       reusing the points evaluated in this step as the corners of the smaller cells.</li>
+ * </ul>
+ *
+ * Cells that are still not accurate enough after {@value #MAXIMUM_DEPTH} subdivisions, or cells having
+ * a corner that can not be transformed, are delegated to the exact transform. Points outside the domain
+ * are also delegated to the exact transform. Consequently this approximation is never worse than the
+ * given tolerance, ignoring the case where the error estimation would be wrong because of a transform
+ * varying abruptly between the checked points.
+ *
+ * <p>Interpolations in adjacent cells of different sizes are not guaranteed to give the same results
+ * on the shared edge, but the difference is not greater than the tolerance threshold.</p>
+ *
+ * @author  Martin Desruisseaux (Geomatys)
+ * @since   0.6
+ * @version 0.6
+ * @module
+ *
+ * @see MathTransforms#approximate(MathTransform2D, Rectangle2D, double)
+ */
+final class ApproximatedTransform2D extends AbstractMathTransform2D implements Serializable {
+    /**
+     * Serial number for inter-operability with different versions.
+     */
+    private static final long serialVersionUID = 4390738532917426352L;
+
+    /**
+     * Number of cells along each axis before any subdivision.
+     */
+    static final int INITIAL_CELLS = 8;
+
+    /**
+     * Maximal number of times that an initial cell can be subdivided.
+     */
+    static final int MAXIMUM_DEPTH = 8;
+
+    /**
+     * Maximal number of cells (including the subdivided ones) in the whole grid.
+     * This is a safety against excessive memory consumption for transforms that
+     * can not be approximated by interpolations.
+     */
+    private static final int MAXIMUM_CELLS = 0x10000;
+
+    /**
+     * Value in the {@link #children} array for cells which are not subdivided.
+     */
+    private static final int LEAF = -1;
+
+    /**
+     * Value in the {@link #children} array for cells where the exact transform shall be used.
+     */
+    private static final int EXACT = -2;
+
+    /**
+     * Indices of corners at the two extremities of each edge and diagonal of a cell, used for estimating
+     * the interpolation error from the derivatives. Corners are numbered as below, where <var>x</var>
+     * values increase to the right and <var>y</var> values increase upward:
+     *
+     * {@preformat text
+     *     2───3
+     *     │   │
+     *     0───1
+     * }
+     */
+    private static final int[] EDGES = {0,1, 2,3, 0,2, 1,3, 0,3, 1,2};
+
+    /**
+     * For each of the 4 cells created by a subdivision, the indices of the points to use as corners.
+     * Indices 0 to 3 are the corners of the subdivided cell, 4 is the center and 5, 6, 7, 8 are the
+     * middle of the bottom, left, right and top edges respectively. Sub-cells are in the same order
+     * than corners.
+     */
+    private static final int[] SUBCELL_CORNERS = {
+        0, 5, 6, 4,
+        5, 1, 4, 7,
+        6, 4, 2, 8,
+        4, 7, 8, 3
+    };
+
+    /**
+     * The transform to approximate.
+     */
+    final MathTransform2D exact;
+
+    /**
+     * The lower corner of the domain where the approximation is valid.
+     */
+    private final double xmin, ymin;
+
+    /**
+     * The size of the cells before subdivision.
+     */
+    private final double cellWidth, cellHeight;
+
+    /**
+     * The maximal error allowed in the approximation, in units of the target coordinates.
+     */
+    private final double tolerance;
+
+    /**
+     * For each cell, {@link #LEAF}, {@link #EXACT} or the index of the first of its 4 sub-cells.
+     * The first <code>{@linkplain #INITIAL_CELLS}²</code> elements are the initial cells in row-major order.
+     */
+    private final int[] children;
+
+    /**
+     * The target coordinates of the 4 corners of each cell, in the order documented in {@link #EDGES}.
+     * The coordinates of the cell at index <var>i</var> start at index <var>i</var>×8 in this array.
+     */
+    private final double[] corners;
+
+    /**
+     * Creates a new approximation of the given transform.
+     *
+     * @param exact     The transform to approximate.
+     * @param domain    The domain of source coordinates where to use the approximation.
+     * @param tolerance The maximal error allowed, in units of the target coordinates.
+     */
+    ApproximatedTransform2D(final MathTransform2D exact, final Rectangle2D domain, final double tolerance) {
+        this.exact     = exact;
+        this.tolerance = tolerance;
+        xmin       = domain.getMinX();
+        ymin       = domain.getMinY();
+        cellWidth  = domain.getWidth()  / INITIAL_CELLS;
+        cellHeight = domain.getHeight() / INITIAL_CELLS;
+        final Builder builder = new Builder(exact, tolerance);
+        builder.build(xmin, ymin, cellWidth, cellHeight);
+        children = Arrays.copyOf(builder.children, builder.count);
+        corners  = Arrays.copyOf(builder.corners,  builder.count * 8);
+    }
+
+    /**
+     * Returns the number of cells, including the subdivided ones. Used for testing purpose only.
+     */
+    final int getCellCount() {
+        return children.length;
+    }
+
+    /**
+     * Finds the leaf cell containing the given source point. If such cell exists, then this method stores
+     * the position of the point inside the cell in {@code uvs[0]} and {@code uvs[1]} (values between 0 and 1)
+     * and the cell size relative to the initial cells in {@code uvs[2]}.
+     *
+     * @param  x   The <var>x</var> source coordinate.
+     * @param  y   The <var>y</var> source coordinate.
+     * @param  uvs An array of length 3 where to store the position in the cell and the cell scale.
+     * @return Index of the cell containing the given point, or -1 if the exact transform shall be used.
+     */
+    private int locate(final double x, final double y, final double[] uvs) {
+        double u = (x - xmin) / cellWidth;
+        double v = (y - ymin) / cellHeight;
+        if (u >= 0 && u <= INITIAL_CELLS && v >= 0 && v <= INITIAL_CELLS) {     // False for NaN.
+            final int i = Math.min((int) u, INITIAL_CELLS - 1);
+            final int j = Math.min((int) v, INITIAL_CELLS - 1);
+            u -= i;
+            v -= j;
+            int cell = j * INITIAL_CELLS + i;
+            int child;
+            double scale = 1;
+            while ((child = children[cell]) >= 0) {
+                u *= 2;
+                v *= 2;
+                scale *= 0.5;
+                int q = 0;
+                if (u >= 1) {u -= 1; q  = 1;}
+                if (v >= 1) {v -= 1; q |= 2;}
+                cell = child + q;
+            }
+            if (child == LEAF) {
+                uvs[0] = u;
+                uvs[1] = v;
+                uvs[2] = scale;
+                return cell;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Computes the bilinear interpolation at the given position in the given cell.
+     *
+     * @param cell   Index of the cell, as returned by {@link #locate(double, double, double[])}.
+     * @param u      Position of the point in the cell along the <var>x</var> axis, between 0 and 1.
+     * @param v      Position of the point in the cell along the <var>y</var> axis, between 0 and 1.
+     * @param dstPts The array where to store the interpolated coordinate.
+     * @param dstOff Index where to store the interpolated coordinate.
+     */
+    private void interpolate(final int cell, final double u, final double v, final double[] dstPts, final int dstOff) {
+        final double[] c = corners;
+        final int    p = cell * 8;
+        final double r = 1 - u;
+        final double s = 1 - v;
+        dstPts[dstOff  ] = s*(r*c[p  ] + u*c[p+2]) + v*(r*c[p+4] + u*c[p+6]);
+        dstPts[dstOff+1] = s*(r*c[p+1] + u*c[p+3]) + v*(r*c[p+5] + u*c[p+7]);
+    }
+
+    /**
+     * Transforms the given point and stores the result in {@code buffer[0]} and {@code buffer[1]}.
+     * This is the work done for each point by the methods transforming arrays of coordinates.
+     *
+     * @param  x      The <var>x</var> source coordinate.
+     * @param  y      The <var>y</var> source coordinate.
+     * @param  buffer An array of length 3 used as a work space and for returning the result.
+     * @throws TransformException If the point is delegated to the exact transform and that transform failed.
+     */
+    private void transform(final double x, final double y, final double[] buffer) throws TransformException {
+        final int cell = locate(x, y, buffer);
+        if (cell >= 0) {
+            interpolate(cell, buffer[0], buffer[1], buffer, 0);
+        } else {
+            buffer[0] = x;
+            buffer[1] = y;
+            exact.transform(buffer, 0, buffer, 0, 1);
+        }
+    }
+
+    /**
+     * Transforms a single coordinate point in an array, and optionally computes the transform derivative
+     * at that location. If the point is inside a cell of the grid, then the result is computed by bilinear
+     * interpolation between the cell corners and the derivative is the derivative of that interpolation.
+     * Otherwise this method delegates to the exact transform.
+     *
+     * @return {@inheritDoc}
+     * @throws TransformException If the point is delegated to the exact transform and that transform failed.
+     */
+    @Override
+    public Matrix transform(final double[] srcPts, final int srcOff,
+                            final double[] dstPts, final int dstOff,
+                            final boolean derivate) throws TransformException
+    {
+        final double[] uvs = new double[3];
+        final int cell = locate(srcPts[srcOff], srcPts[srcOff+1], uvs);
+        if (cell >= 0) {
+            final double u = uvs[0];
+            final double v = uvs[1];
+            Matrix derivative = null;
+            if (derivate) {
+                final double[] c = corners;
+                final int    p = cell * 8;
+                final double r = 1 - u;
+                final double s = 1 - v;
+                final double w = cellWidth  * uvs[2];
+                final double h = cellHeight * uvs[2];
+                derivative = new Matrix2(
+                        (s*(c[p+2] - c[p  ]) + v*(c[p+6] - c[p+4])) / w,
+                        (r*(c[p+4] - c[p  ]) + u*(c[p+6] - c[p+2])) / h,
+                        (s*(c[p+3] - c[p+1]) + v*(c[p+7] - c[p+5])) / w,
+                        (r*(c[p+5] - c[p+1]) + u*(c[p+7] - c[p+3])) / h);
+            }
+            if (dstPts != null) {
+                interpolate(cell, u, v, dstPts, dstOff);
+            }
+            return derivative;
+        }
+        /*
+         * Point outside the domain, or in a cell where the approximation is not accurate enough.
+         */
+        if (derivate) {
+            return MathTransforms.derivativeAndTransform(exact, srcPts, srcOff, dstPts, dstOff);
+        }
+        if (dstPts != null) {
+            exact.transform(srcPts, srcOff, dstPts, dstOff, 1);
+        }
+        return null;
+    }
+
+    /**
+     * Transforms many coordinates in a list of ordinal values. Points that can not be transformed
+     * are set to NaN, and the first exception is thrown after all other points have been transformed.
+     *
+     * @throws TransformException If at least one point has been delegated to the exact transform
+     *         and that transform failed.
+     */
+    @Override
+    public void transform(final double[] srcPts, int srcOff, final double[] dstPts, int dstOff, int numPts)
+            throws TransformException
+    {
+        int inc = 2;
+        if (srcPts == dstPts && srcOff < dstOff) {
+            srcOff += (numPts - 1) * 2;
+            dstOff += (numPts - 1) * 2;
+            inc = -2;
+        }
+        final double[] buffer = new double[3];
+        TransformException failure = null;
+        while (--numPts >= 0) {
+            try {
+                transform(srcPts[srcOff], srcPts[srcOff+1], buffer);
+            } catch (TransformException exception) {
+                failure = addFailure(failure, exception, buffer);
+            }
+            dstPts[dstOff  ] = buffer[0];
+            dstPts[dstOff+1] = buffer[1];
+            srcOff += inc;
+            dstOff += inc;
+        }
+        checkFailure(failure);
+    }
+
+    /**
+     * Transforms many coordinates in a list of ordinal values. Points that can not be transformed
+     * are set to NaN, and the first exception is thrown after all other points have been transformed.
+     *
+     * @throws TransformException If at least one point has been delegated to the exact transform
+     *         and that transform failed.
+     */
+    @Override
+    public void transform(final float[] srcPts, int srcOff, final float[] dstPts, int dstOff, int numPts)
+            throws TransformException
+    {
+        int inc = 2;
+        if (srcPts == dstPts && srcOff < dstOff) {
+            srcOff += (numPts - 1) * 2;
+            dstOff += (numPts - 1) * 2;
+            inc = -2;
+        }
+        final double[] buffer = new double[3];
+        TransformException failure = null;
+        while (--numPts >= 0) {
+            try {
+                transform(srcPts[srcOff], srcPts[srcOff+1], buffer);
+            } catch (TransformException exception) {
+                failure = addFailure(failure, exception, buffer);
+            }
+            dstPts[dstOff  ] = (float) buffer[0];
+            dstPts[dstOff+1] = (float) buffer[1];
+            srcOff += inc;
+            dstOff += inc;
+        }
+        checkFailure(failure);
+    }
+
+    /**
+     * Transforms many coordinates in a list of ordinal values. Points that can not be transformed
+     * are set to NaN, and the first exception is thrown after all other points have been transformed.
+     *
+     * @throws TransformException If at least one point has been delegated to the exact transform
+     *         and that transform failed.
+     */
+    @Override
+    public void transform(final double[] srcPts, int srcOff, final float[] dstPts, int dstOff, int numPts)
+            throws TransformException
+    {
+        final double[] buffer = new double[3];
+        TransformException failure = null;
+        while (--numPts >= 0) {
+            try {
+                transform(srcPts[srcOff++], srcPts[srcOff++], buffer);
+            } catch (TransformException exception) {
+                failure = addFailure(failure, exception, buffer);
+            }
+            dstPts[dstOff++] = (float) buffer[0];
+            dstPts[dstOff++] = (float) buffer[1];
+        }
+        checkFailure(failure);
+    }
+
+    /**
+     * Transforms many coordinates in a list of ordinal values. Points that can not be transformed
+     * are set to NaN, and the first exception is thrown after all other points have been transformed.
+     *
+     * @throws TransformException If at least one point has been delegated to the exact transform
+     *         and that transform failed.
+     */
+    @Override
+    public void transform(final float[] srcPts, int srcOff, final double[] dstPts, int dstOff, int numPts)
+            throws TransformException
+    {
+        final double[] buffer = new double[3];
+        TransformException failure = null;
+        while (--numPts >= 0) {
+            try {
+                transform(srcPts[srcOff++], srcPts[srcOff++], buffer);
+            } catch (TransformException exception) {
+                failure = addFailure(failure, exception, buffer);
+            }
+            dstPts[dstOff++] = buffer[0];
+            dstPts[dstOff++] = buffer[1];
+        }
+        checkFailure(failure);
+    }
+
+    /**
+     * Invoked when a point in an array of coordinates can not be transformed. This method sets the result
+     * in the given buffer to NaN and returns the exception to throw after all points have been transformed.
+     *
+     * @param  failure   The first exception which occurred before this one, or {@code null} if none.
+     * @param  exception The exception which just occurred.
+     * @param  buffer    The buffer where the transformed coordinate was expected.
+     * @return The exception to throw after all points have been transformed.
+     */
+    private static TransformException addFailure(final TransformException failure,
+            final TransformException exception, final double[] buffer)
+    {
+        buffer[0] = buffer[1] = Double.NaN;
+        if (failure == null) {
+            return exception;
+        }
+        failure.addSuppressed(exception);
+        return failure;
+    }
+
+    /**
+     * Throws the given exception if non-null, after declaring that this transform
+     * has nevertheless been able to process all points (setting them to NaN when
+     * the transform failed).
+     */
+    private void checkFailure(final TransformException failure) throws TransformException {
+        if (failure != null) {
+            failure.setLastCompletedTransform(this);
+            throw failure;
+        }
+    }
+
+    /**
+     * Returns the inverse of the exact transform. The inverse transform is not approximated,
+     * since the domain of validity of this approximation is known only in source coordinates.
+     */
+    @Override
+    public MathTransform2D inverse() throws NoninvertibleTransformException {
+        return exact.inverse();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected int computeHashCode() {
+        return super.computeHashCode() ^ (exact.hashCode() + 31 * Numerics.hashCode(Double.doubleToLongBits(tolerance)));
+    }
+
+    /**
+     * Compares the specified object with this math transform for equality.
+     */
+    @Override
+    public boolean equals(final Object object, final ComparisonMode mode) {
+        if (object == this) { // Slight optimization
+            return true;
+        }
+        if (super.equals(object, mode)) {
+            final ApproximatedTransform2D that = (ApproximatedTransform2D) object;
+            return Numerics.equals(tolerance,  that.tolerance)  &&
+                   Numerics.equals(xmin,       that.xmin)       &&
+                   Numerics.equals(ymin,       that.ymin)       &&
+                   Numerics.equals(cellWidth,  that.cellWidth)  &&
+                   Numerics.equals(cellHeight, that.cellHeight) &&
+                   Utilities.deepEquals(exact, that.exact, mode);
+        }
+        return false;
+    }
+
+    /**
+     * Computes the cells of an {@link ApproximatedTransform2D}. This object is discarded after construction,
+     * together with the derivatives which are needed only for deciding whether a cell should be subdivided.
+     */
+    private static final class Builder {
+        /**
+         * The transform to approximate.
+         */
+        private final MathTransform2D exact;
+
+        /**
+         * The maximal error allowed, in units of the target coordinates.
+         */
+        private final double tolerance;
+
+        /**
+         * The value of {@link ApproximatedTransform2D#children}, with a capacity which may be greater than needed.
+         */
+        int[] children;
+
+        /**
+         * The value of {@link ApproximatedTransform2D#corners}, with a capacity which may be greater than needed.
+         */
+        double[] corners;
+
+        /**
+         * The derivatives at the corners of each cell, as 4 consecutive matrix elements in row-major order
+         * for each corner. The values are NaN where the derivative is unknown.
+         */
+        private double[] derivatives;
+
+        /**
+         * Number of valid cells in the {@link #children} array.
+         */
+        int count;
+
+        /**
+         * Creates a new builder for the given transform.
+         */
+        Builder(final MathTransform2D exact, final double tolerance) {
+            this.exact     = exact;
+            this.tolerance = tolerance;
+        }
+
+        /**
+         * Evaluates the transform at all nodes of the initial grid, then subdivides the cells where needed.
+         */
+        void build(final double xmin, final double ymin, final double cellWidth, final double cellHeight) {
+            final int n = INITIAL_CELLS + 1;
+            final double[] source = new double[n*n * 2];
+            final double[] target = new double[source.length];
+            final double[] jacobian = new double[n*n * 4];
+            int k = 0;
+            for (int j=0; j<n; j++) {
+                final double y = ymin + j * cellHeight;
+                for (int i=0; i<n; i++) {
+                    source[k++] = xmin + i * cellWidth;
+                    source[k++] = y;
+                }
+            }
+            evaluate(source, target, jacobian, 0, n*n);
+            count       = INITIAL_CELLS * INITIAL_CELLS;
+            children    = new int   [count * 4];
+            corners     = new double[count * 4 * 8];
+            derivatives = new double[count * 4 * 16];
+            for (int j=0; j<INITIAL_CELLS; j++) {
+                for (int i=0; i<INITIAL_CELLS; i++) {
+                    final int cell = j * INITIAL_CELLS + i;
+                    for (int c=0; c<4; c++) {
+                        final int node = (j + (c >>> 1)) * n + (i + (c & 1));
+                        System.arraycopy(target,   node*2, corners,     cell*8  + c*2, 2);
+                        System.arraycopy(jacobian, node*4, derivatives, cell*16 + c*4, 4);
+                    }
+                }
+            }
+            for (int j=0; j<INITIAL_CELLS; j++) {
+                for (int i=0; i<INITIAL_CELLS; i++) {
+                    refine(j * INITIAL_CELLS + i, xmin + i*cellWidth, ymin + j*cellHeight, cellWidth, cellHeight, 0);
+                }
+            }
+            derivatives = null;
+        }
+
+        /**
+         * Evaluates the exact transform and its derivative at the given points. Source and target
+         * coordinates are stored at the same indices in the {@code source} and {@code target} arrays.
+         * Points that can not be transformed are set to NaN, which will cause the cells having those
+         * points as a corner to be delegated to the exact transform. The exception will be thrown again
+         * at that time if the user tries to transform a point in one of those cells.
+         *
+         * @param lower Index of the first point to evaluate, inclusive.
+         * @param upper Index of the last point to evaluate, exclusive.
+         */
+        private void evaluate(final double[] source, final double[] target, final double[] jacobian,
+                final int lower, final int upper)
+        {
+            for (int k=lower; k<upper; k++) {
+                final int p = k*2;
+                Matrix derivative;
+                try {
+                    derivative = MathTransforms.derivativeAndTransform(exact, source, p, target, p);
+                } catch (TransformException | UnsupportedOperationException e) {
+                    derivative = null;
+                    try {
+                        exact.transform(source, p, target, p, 1);
+                    } catch (TransformException e2) {
+                        target[p] = target[p+1] = Double.NaN;
+                    }
+                }
+                final int q = k*4;
+                if (derivative != null) {
+                    jacobian[q  ] = derivative.getElement(0, 0);
+                    jacobian[q+1] = derivative.getElement(0, 1);
+                    jacobian[q+2] = derivative.getElement(1, 0);
+                    jacobian[q+3] = derivative.getElement(1, 1);
+                } else {
+                    Arrays.fill(jacobian, q, q+4, Double.NaN);
+                }
+            }
+        }
+
+        /**
+         * Decides whether the given cell is accurate enough, and subdivides it otherwise.
+         * The cell corners and their derivatives shall have been computed before this method call.
+         *
+         * @param cell  Index of the cell to refine.
+         * @param x0    Minimal <var>x</var> source coordinate of the cell.
+         * @param y0    Minimal <var>y</var> source coordinate of the cell.
+         * @param w     Width of the cell in units of source coordinates.
+         * @param h     Height of the cell in units of source coordinates.
+         * @param depth Number of subdivisions done so far for reaching this cell.
+         */
+        private void refine(final int cell, final double x0, final double y0, final double w, final double h, final int depth) {
+            final double[] target   = new double[9 * 2];
+            final double[] jacobian = new double[9 * 4];
+            System.arraycopy(corners,     cell*8,  target,   0, 8);
+            System.arraycopy(derivatives, cell*16, jacobian, 0, 16);
+            for (int i=0; i<8; i++) {
+                if (Double.isNaN(target[i])) {
+                    children[cell] = EXACT;
+                    return;
+                }
+            }
+            final double xc = x0 + 0.5*w;
+            final double yc = y0 + 0.5*h;
+            final double[] source = {
+                x0, y0,  x0+w, y0,  x0, y0+h,  x0+w, y0+h,  // Corners (not used).
+                xc, yc,                                     // Center.
+                xc, y0,  x0, yc,  x0+w, yc,  xc, y0+h       // Middle of bottom, left, right and top edges.
+            };
+            /*
+             * Check at the cell center. If the error is small and the derivatives are known, use them
+             * for estimating the errors elsewhere in the cell. The estimation is based on the fact that
+             * the interpolation error on a segment of length d is about d²/8 times the second derivative,
+             * which we approximate by the difference of first derivatives at segment extremities.
+             */
+            evaluate(source, target, jacobian, 4, 5);
+            final boolean centerValid = Math.max(
+                    Math.abs(target[8] - 0.25*(target[0] + target[2] + target[4] + target[6])),
+                    Math.abs(target[9] - 0.25*(target[1] + target[3] + target[5] + target[7]))) <= tolerance;
+            if (centerValid) {
+                double error = 0;
+                for (int i=0; i<EDGES.length;) {
+                    final int a  = EDGES[i++];
+                    final int b  = EDGES[i++];
+                    final double dx = ((b & 1)   - (a & 1))   * w;
+                    final double dy = ((b >>> 1) - (a >>> 1)) * h;
+                    final int ja = a*4;
+                    final int jb = b*4;
+                    error = Math.max(error, Math.abs((jacobian[jb  ] - jacobian[ja  ])*dx + (jacobian[jb+1] - jacobian[ja+1])*dy));
+                    error = Math.max(error, Math.abs((jacobian[jb+2] - jacobian[ja+2])*dx + (jacobian[jb+3] - jacobian[ja+3])*dy));
+                }
+                if (error / 8 <= tolerance) {   // False if any derivative is NaN.
+                    children[cell] = LEAF;
+                    return;
+                }
+            }
+            /*
+             * Check in the middle of each edge. Those points will also be the corners of the sub-cells,
+             * which is why we compute them even if the test at the cell center already failed.
+             */
+            evaluate(source, target, jacobian, 5, 9);
+            if (centerValid && Math.max(Math.max(deviation(target, 5, 0, 1), deviation(target, 6, 0, 2)),
+                                        Math.max(deviation(target, 7, 1, 3), deviation(target, 8, 2, 3))) <= tolerance)
+            {
+                children[cell] = LEAF;
+                return;
+            }
+            if (depth >= MAXIMUM_DEPTH || count + 4 > MAXIMUM_CELLS) {
+                children[cell] = EXACT;
+                return;
+            }
+            final int first = count;
+            count += 4;
+            if (count > children.length) {
+                final int capacity = Math.min(count * 2, MAXIMUM_CELLS);
+                children    = Arrays.copyOf(children,    capacity);
+                corners     = Arrays.copyOf(corners,     capacity * 8);
+                derivatives = Arrays.copyOf(derivatives, capacity * 16);
+            }
+            children[cell] = first;
+            for (int q=0; q<4; q++) {
+                for (int c=0; c<4; c++) {
+                    final int p = SUBCELL_CORNERS[q*4 + c];
+                    System.arraycopy(target,   p*2, corners,     (first + q)*8  + c*2, 2);
+                    System.arraycopy(jacobian, p*4, derivatives, (first + q)*16 + c*4, 4);
+                }
+            }
+            final double hw = 0.5 * w;
+            final double hh = 0.5 * h;
+            for (int q=0; q<4; q++) {
+                refine(first + q, x0 + (q & 1)*hw, y0 + (q >>> 1)*hh, hw, hh, depth + 1);
+            }
+        }
+
+        /**
+         * Returns the difference between the exact value at point {@code k}
+         * and the linear interpolation between points {@code a} and {@code b}.
+         */
+        private static double deviation(final double[] target, final int k, final int a, final int b) {
+            return Math.max(Math.abs(target[k*2  ] - 0.5*(target[a*2  ] + target[b*2  ])),
+                            Math.abs(target[k*2+1] - 0.5*(target[a*2+1] + target[b*2+1])));
+        }
+    }
+}
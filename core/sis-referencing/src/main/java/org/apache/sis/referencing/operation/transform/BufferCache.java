@@ -0,0 +1,120 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sis.referencing.operation.transform;
+
+import static org.apache.sis.referencing.operation.transform.AbstractMathTransform.MAXIMUM_BUFFER_SIZE;
+
+
+/**
+ * Thread-confined pool of temporary {@code double[]} arrays used by the {@code transform(…)} methods
+ * working on arrays of coordinates. Those methods often need an intermediate buffer for the results
+ * of a transform step, and allocating that buffer on every call is a significant cost when many small
+ * arrays are transformed. This class allows each thread to reuse a few buffers instead.
+ *
+ * <p>Usage pattern is as below. The {@link #release(double[])} method <strong>must</strong> be invoked
+ * in a {@code finally} block, and the buffer shall not be used anymore after that call:</p>
+ *
+ * {@preformat java
+ *     final double[] buffer = BufferCache.acquire(length);
+ *     try {
+ *         // Use only the first 'length' elements of the buffer.
+ *     } finally {
+ *         BufferCache.release(buffer);
+ *     }
+ * }
+ *
+ * Transforms may be nested (for example a concatenated transform having another concatenated transform
+ * as one of its steps), in which case many buffers may be in use at the same time in the same thread.
+ * This is the reason why this class keeps a small array of buffers rather than a single one: a buffer
+ * is removed from the array while in use, so a nested call will never get a buffer which is still used
+ * by its caller. If no buffer is available, a new one is allocated.
+ *
+ * <p>Only buffers of length {@value AbstractMathTransform#MAXIMUM_BUFFER_SIZE} are cached. Consequently
+ * the array returned by {@link #acquire(int)} may be longer than requested, and each thread retains at
+ * most {@value #CAPACITY} buffers of 4 kb.</p>
+ *
+ * @author  Martin Desruisseaux (Geomatys)
+ * @since   0.6
+ * @version 0.6
+ * @module
+ */
+final class BufferCache {
+    /**
+     * Maximal number of buffers retained by each thread.
+     * This is the maximal depth of nested transforms that can be executed without buffer allocation.
+     */
+    static final int CAPACITY = 4;
+
+    /**
+     * The buffers available for reuse in the current thread.
+     * Elements are set to {@code null} while the corresponding buffer is in use.
+     */
+    private static final ThreadLocal<double[][]> BUFFERS = new ThreadLocal<double[][]>() {
+        @Override protected double[][] initialValue() {
+            return new double[CAPACITY][];
+        }
+    };
+
+    /**
+     * Do not allow instantiation of this class.
+     */
+    private BufferCache() {
+    }
+
+    /**
+     * Returns a buffer of at least the given length. The content of the returned array is undetermined.
+     * If the requested length is greater than {@value AbstractMathTransform#MAXIMUM_BUFFER_SIZE},
+     * then this method always allocates a new array of exactly the requested length.
+     *
+     * @param  length The minimal length of the desired buffer.
+     * @return A buffer of length equals or greater than the given length.
+     */
+    static double[] acquire(final int length) {
+        if (length <= MAXIMUM_BUFFER_SIZE) {
+            final double[][] buffers = BUFFERS.get();
+            for (int i=0; i<buffers.length; i++) {
+                final double[] buffer = buffers[i];
+                if (buffer != null) {
+                    buffers[i] = null;
+                    return buffer;
+                }
+            }
+            return new double[MAXIMUM_BUFFER_SIZE];
+        }
+        return new double[length];
+    }
+
+    /**
+     * Gives back a buffer obtained by {@link #acquire(int)}. The caller shall not use the buffer after this call.
+     * If the given buffer is not of the size handled by this cache, or if the cache is full, then this method does
+     * nothing and the buffer will be garbage-collected.
+     *
+     * @param buffer The buffer to give back, or {@code null} if none.
+     */
+    static void release(final double[] buffer) {
+        if (buffer != null && buffer.length == MAXIMUM_BUFFER_SIZE) {
+            final double[][] buffers = BUFFERS.get();
+            for (int i=0; i<buffers.length; i++) {
+                if (buffers[i] == null) {
+                    buffers[i] = buffer;
+                    return;
+                }
+                assert buffers[i] != buffer : "Buffer released twice.";
+            }
+        }
+    }
+}
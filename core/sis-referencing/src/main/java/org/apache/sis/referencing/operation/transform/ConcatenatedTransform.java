@@ -53,7 +53,7 @@ import org.apache.sis.util.resources.Errors;
  *
  * @author  Martin Desruisseaux (IRD, Geomatys)
  * @since   0.5
- * @version 0.5
+ * @version 0.6
  * @module
  *
  * @see org.opengis.referencing.operation.MathTransformFactory#createConcatenatedTransform(MathTransform, MathTransform)
@@ -337,7 +337,7 @@ class ConcatenatedTransform extends AbstractMathTransform implements Serializabl
     /**
      * Returns a name for the specified math transform.
      */
-    private static String getName(final MathTransform transform) {
+    static String getName(final MathTransform transform) {
         if (transform instanceof AbstractMathTransform) {
             ParameterValueGroup params = ((AbstractMathTransform) transform).getParameterValues();
             if (params != null) {
@@ -574,21 +574,27 @@ class ConcatenatedTransform extends AbstractMathTransform implements Serializabl
         final int targetDim = transform2.getTargetDimensions();
         final double[] buffer;
         final int offset;
-        if (bufferDim > targetDim) {
-            buffer = new double[bufferDim];
+        if (bufferDim > targetDim || dstPts == null) {
+            buffer = BufferCache.acquire(bufferDim);
             offset = 0;
         } else {
             buffer = dstPts;
             offset = dstOff;
         }
-        if (derivate) {
-            final Matrix matrix1 = MathTransforms.derivativeAndTransform(transform1, srcPts, srcOff, buffer, offset);
-            final Matrix matrix2 = MathTransforms.derivativeAndTransform(transform2, buffer, offset, dstPts, dstOff);
-            return MatrixSIS.castOrCopy(matrix2).multiply(matrix1);
-        } else {
-            transform1.transform(srcPts, srcOff, buffer, offset, 1);
-            transform2.transform(buffer, offset, dstPts, dstOff, 1);
-            return null;
+        try {
+            if (derivate) {
+                final Matrix matrix1 = MathTransforms.derivativeAndTransform(transform1, srcPts, srcOff, buffer, offset);
+                final Matrix matrix2 = MathTransforms.derivativeAndTransform(transform2, buffer, offset, dstPts, dstOff);
+                return MatrixSIS.castOrCopy(matrix2).multiply(matrix1);
+            } else {
+                transform1.transform(srcPts, srcOff, buffer, offset, 1);
+                transform2.transform(buffer, offset, dstPts, dstOff, 1);
+                return null;
+            }
+        } finally {
+            if (buffer != dstPts) {
+                BufferCache.release(buffer);
+            }
         }
     }
 
@@ -657,22 +663,26 @@ class ConcatenatedTransform extends AbstractMathTransform implements Serializabl
             }
             length = numBuf * bufferDim;
         }
-        final double[] buf = new double[length];
-        do {
-            if (!descending && numBuf > numPts) {
-                // Must be done before transforms if we are iterating in ascending order.
-                numBuf = numPts;
-            }
-            transform1.transform(srcPts, srcOff, buf, 0, numBuf);
-            transform2.transform(buf, 0, dstPts, dstOff, numBuf);
-            numPts -= numBuf;
-            if (descending && numBuf > numPts) {
-                // Must be done after transforms if we are iterating in descending order.
-                numBuf = numPts;
-            }
-            srcOff += numBuf * sourceDim;
-            dstOff += numBuf * targetDim;
-        } while (numPts != 0);
+        final double[] buf = BufferCache.acquire(length);
+        try {
+            do {
+                if (!descending && numBuf > numPts) {
+                    // Must be done before transforms if we are iterating in ascending order.
+                    numBuf = numPts;
+                }
+                transform1.transform(srcPts, srcOff, buf, 0, numBuf);
+                transform2.transform(buf, 0, dstPts, dstOff, numBuf);
+                numPts -= numBuf;
+                if (descending && numBuf > numPts) {
+                    // Must be done after transforms if we are iterating in descending order.
+                    numBuf = numPts;
+                }
+                srcOff += numBuf * sourceDim;
+                dstOff += numBuf * targetDim;
+            } while (numPts != 0);
+        } finally {
+            BufferCache.release(buf);
+        }
     }
 
     /**
@@ -721,20 +731,24 @@ class ConcatenatedTransform extends AbstractMathTransform implements Serializabl
             }
             length = numBuf * dimension;
         }
-        final double[] buf = new double[length];
-        do {
-            if (!descending && numBuf > numPts) {
-                numBuf = numPts;
-            }
-            transform1.transform(srcPts, srcOff, buf, 0, numBuf);
-            transform2.transform(buf, 0, dstPts, dstOff, numBuf);
-            numPts -= numBuf;
-            if (descending && numBuf > numPts) {
-                numBuf = numPts;
-            }
-            srcOff += numBuf * sourceDim;
-            dstOff += numBuf * targetDim;
-        } while (numPts != 0);
+        final double[] buf = BufferCache.acquire(length);
+        try {
+            do {
+                if (!descending && numBuf > numPts) {
+                    numBuf = numPts;
+                }
+                transform1.transform(srcPts, srcOff, buf, 0, numBuf);
+                transform2.transform(buf, 0, dstPts, dstOff, numBuf);
+                numPts -= numBuf;
+                if (descending && numBuf > numPts) {
+                    numBuf = numPts;
+                }
+                srcOff += numBuf * sourceDim;
+                dstOff += numBuf * targetDim;
+            } while (numPts != 0);
+        } finally {
+            BufferCache.release(buf);
+        }
     }
 
     /**
@@ -766,17 +780,21 @@ class ConcatenatedTransform extends AbstractMathTransform implements Serializabl
             numBuf = Math.max(1, MAXIMUM_BUFFER_SIZE / dimension);
             length = numBuf * dimension;
         }
-        final double[] buf = new double[length];
-        do {
-            if (numBuf > numPts) {
-                numBuf = numPts;
-            }
-            transform1.transform(srcPts, srcOff, buf, 0, numBuf);
-            transform2.transform(buf, 0, dstPts, dstOff, numBuf);
-            srcOff += numBuf * sourceDim;
-            dstOff += numBuf * targetDim;
-            numPts -= numBuf;
-        } while (numPts != 0);
+        final double[] buf = BufferCache.acquire(length);
+        try {
+            do {
+                if (numBuf > numPts) {
+                    numBuf = numPts;
+                }
+                transform1.transform(srcPts, srcOff, buf, 0, numBuf);
+                transform2.transform(buf, 0, dstPts, dstOff, numBuf);
+                srcOff += numBuf * sourceDim;
+                dstOff += numBuf * targetDim;
+                numPts -= numBuf;
+            } while (numPts != 0);
+        } finally {
+            BufferCache.release(buf);
+        }
     }
 
     /**
@@ -811,18 +829,22 @@ class ConcatenatedTransform extends AbstractMathTransform implements Serializabl
             numBuf = Math.max(1, MAXIMUM_BUFFER_SIZE / bufferDim);
             length = numBuf * bufferDim;
         }
-        final double[] buf = new double[length];
+        final double[] buf = BufferCache.acquire(length);
         final int sourceDim = getSourceDimensions();
-        do {
-            if (numBuf > numPts) {
-                numBuf = numPts;
-            }
-            transform1.transform(srcPts, srcOff, buf, 0, numBuf);
-            transform2.transform(buf, 0, dstPts, dstOff, numBuf);
-            srcOff += numBuf * sourceDim;
-            dstOff += numBuf * targetDim;
-            numPts -= numBuf;
-        } while (numPts != 0);
+        try {
+            do {
+                if (numBuf > numPts) {
+                    numBuf = numPts;
+                }
+                transform1.transform(srcPts, srcOff, buf, 0, numBuf);
+                transform2.transform(buf, 0, dstPts, dstOff, numBuf);
+                srcOff += numBuf * sourceDim;
+                dstOff += numBuf * targetDim;
+                numPts -= numBuf;
+            } while (numPts != 0);
+        } finally {
+            BufferCache.release(buf);
+        }
     }
 
     /**
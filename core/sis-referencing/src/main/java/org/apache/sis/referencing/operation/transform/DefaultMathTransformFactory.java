@@ -46,6 +46,8 @@ import org.opengis.util.NoSuchIdentifierException;
 
 import org.apache.sis.internal.util.LazySet;
 import org.apache.sis.internal.util.Constants;
+import org.apache.sis.internal.system.Supervisor;
+import org.apache.sis.internal.system.CacheRegistry;
 import org.apache.sis.internal.referencing.Formulas;
 import org.apache.sis.internal.referencing.ReferencingUtilities;
 import org.apache.sis.internal.referencing.j2d.ParameterizedAffine;
@@ -58,7 +60,7 @@ import org.apache.sis.util.ArgumentChecks;
 import org.apache.sis.util.CharSequences;
 import org.apache.sis.util.Classes;
 import org.apache.sis.util.Deprecable;
-import org.apache.sis.util.collection.WeakHashSet;
+import org.apache.sis.util.collection.ConcurrentWeakHashSet;
 import org.apache.sis.util.iso.AbstractFactory;
 import org.apache.sis.util.iso.DefaultNameSpace;
 import org.apache.sis.util.logging.Logging;
@@ -189,7 +191,7 @@ public class DefaultMathTransformFactory extends AbstractFactory implements Math
 
     /**
      * The methods by name, cached for faster lookup and for avoiding some
-     * synchronizations on {@link #methods} and {@link #pool}.
+     * synchronizations on {@link #methods}.
      */
     private final ConcurrentMap<String, OperationMethod> methodsByName;
 
@@ -213,7 +215,15 @@ public class DefaultMathTransformFactory extends AbstractFactory implements Math
      * The math transforms created so far. This pool is used in order
      * to return instances of existing math transforms when possible.
      */
-    private final WeakHashSet<MathTransform> pool;
+    private final ConcurrentWeakHashSet<MathTransform> pool;
+
+    /**
+     * The profiler which records the time spent in each step of the concatenated transforms,
+     * or {@code null} if profiling is disabled (the default).
+     *
+     * @see #setProfiling(boolean)
+     */
+    private volatile TransformProfiler profiler;
 
     /**
      * Creates a new factory which will discover operation methods with a {@link ServiceLoader}.
@@ -284,7 +294,8 @@ public class DefaultMathTransformFactory extends AbstractFactory implements Math
         methodsByName = new ConcurrentHashMap<>();
         methodsByType = new IdentityHashMap<>();
         lastMethod    = new ThreadLocal<>();
-        pool          = new WeakHashSet<>(MathTransform.class);
+        pool          = new ConcurrentWeakHashSet<>(MathTransform.class);
+        CacheRegistry.register("DefaultMathTransformFactory.pool", pool);
     }
 
     /**
@@ -786,14 +797,61 @@ public class DefaultMathTransformFactory extends AbstractFactory implements Math
         lastMethod.remove();
         MathTransform tr;
         try {
-            tr = MathTransforms.concatenate(transform1, transform2);
+            tr = MathTransforms.concatenate(TransformProfiler.unwrap(transform1),
+                                            TransformProfiler.unwrap(transform2));
         } catch (IllegalArgumentException exception) {
             throw new FactoryException(exception);
         }
+        final TransformProfiler p = profiler;
+        if (p != null) {
+            tr = p.instrument(tr);
+        }
         tr = pool.unique(tr);
         return tr;
     }
 
+    /**
+     * Enables or disables the profiling of the transforms created by this factory.
+     * When profiling is enabled, each step of the transforms created by
+     * {@link #createConcatenatedTransform(MathTransform, MathTransform) createConcatenatedTransform(…)}
+     * records the number of calls, the number of points processed and the time spent in its
+     * {@code transform(…)} methods. The measurements are grouped by step name and can be read
+     * through the {@code "org.apache.sis:type=Supervisor"} JMX bean.
+     *
+     * <p>Profiling does not change the transformation results, the parameter values or the
+     * <cite>Well Known Text</cite> of the created transforms. However the concatenated transforms
+     * created while profiling is enabled are a little bit slower, since the time measurements have
+     * a cost and some optimizations are not applied. Disabling profiling stops the reporting of
+     * measurements, but does not remove the instrumentation from the transforms already created.</p>
+     *
+     * @param enabled {@code true} for enabling profiling, or {@code false} for disabling it.
+     *
+     * @since 0.6
+     */
+    public synchronized void setProfiling(final boolean enabled) {
+        TransformProfiler p = profiler;
+        if (enabled) {
+            if (p == null) {
+                profiler = p = new TransformProfiler(this);
+                Supervisor.addProfiler(p);
+            }
+        } else if (p != null) {
+            profiler = null;
+            Supervisor.removeProfiler(p);
+        }
+    }
+
+    /**
+     * Returns {@code true} if profiling has been enabled on this factory.
+     *
+     * @return {@code true} if the transforms created by this factory are profiled.
+     *
+     * @since 0.6
+     */
+    public boolean isProfiling() {
+        return profiler != null;
+    }
+
     /**
      * Creates a transform which passes through a subset of ordinates to another transform.
      * This allows transforms to operate on a subset of ordinates.
@@ -0,0 +1,412 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sis.referencing.operation.transform;
+
+import java.util.List;
+import java.util.Arrays;
+import java.util.ArrayList;
+import java.io.Serializable;
+import org.opengis.parameter.ParameterValueGroup;
+import org.opengis.parameter.ParameterDescriptorGroup;
+import org.opengis.referencing.operation.Matrix;
+import org.opengis.referencing.operation.MathTransform;
+import org.opengis.referencing.operation.MathTransform2D;
+import org.opengis.referencing.operation.TransformException;
+import org.opengis.referencing.operation.NoninvertibleTransformException;
+import org.apache.sis.referencing.operation.matrix.MatrixSIS;
+import org.apache.sis.util.ComparisonMode;
+import org.apache.sis.util.Utilities;
+import org.apache.sis.io.wkt.Formatter;
+import org.apache.sis.io.wkt.FormattableObject;
+
+
+/**
+ * A chain of transform steps executed in a single loop over blocks of coordinates.
+ * Instances of this class are created by {@link MathTransforms#compile(MathTransform)}.
+ *
+ * <p>A {@link ConcatenatedTransform} is a binary tree: each node transforms the whole array of coordinates
+ * with its first step before to give the result to its second step. When the array is large, the coordinates
+ * have been evicted from the CPU cache before the next step reads them again. This class instead stores all
+ * steps in a flat array and transforms the coordinates in blocks of at most
+ * {@value AbstractMathTransform#MAXIMUM_BUFFER_SIZE} ordinates. Each block goes through all steps while it is
+ * still in the cache, and all intermediate results are stored in a single buffer of type {@code double[]}.</p>
+ *
+ * <p>This class does not change the transform semantic: the parameter values and the <cite>Well Known Text</cite>
+ * are those of the transform given to the {@code compile(…)} method.</p>
+ *
+ * @author  Martin Desruisseaux (Geomatys)
+ * @since   0.6
+ * @version 0.6
+ * @module
+ */
+class FlattenedTransform extends AbstractMathTransform implements Serializable {
+    /**
+     * Serial number for inter-operability with different versions.
+     */
+    private static final long serialVersionUID = 2466532397567093374L;
+
+    /**
+     * The transform steps, in the order they are applied. This array contains at least 2 elements
+     * and shall not be modified.
+     */
+    private final MathTransform[] steps;
+
+    /**
+     * The transform which has been compiled into this flattened transform. Used for providing
+     * parameter values and <cite>Well Known Text</cite> formatting.
+     */
+    private final MathTransform original;
+
+    /**
+     * The largest dimension of all source and target points of all steps.
+     * This is the number of ordinates needed in the buffer for each point.
+     */
+    private final int maxDimension;
+
+    /**
+     * The inverse transform. This field will be computed only when needed
+     * and is not serialized.
+     */
+    private transient FlattenedTransform inverse;
+
+    /**
+     * Creates a new flattened transform for the given steps.
+     *
+     * @param steps    The transform steps, in the order they are applied. This array is not cloned.
+     * @param original The transform which has been compiled into this flattened transform.
+     */
+    FlattenedTransform(final MathTransform[] steps, final MathTransform original) {
+        this.steps    = steps;
+        this.original = original;
+        int max = 0;
+        for (final MathTransform step : steps) {
+            max = Math.max(max, Math.max(step.getSourceDimensions(), step.getTargetDimensions()));
+        }
+        maxDimension = max;
+    }
+
+    /**
+     * Creates a new flattened transform for the given steps. If the source and target dimensions are 2,
+     * then the returned instance implements {@link MathTransform2D}.
+     *
+     * @param steps    The transform steps, in the order they are applied. This array is not cloned.
+     * @param original The transform which has been compiled into this flattened transform.
+     */
+    static FlattenedTransform create(final MathTransform[] steps, final MathTransform original) {
+        if (steps[0].getSourceDimensions() == 2 && steps[steps.length - 1].getTargetDimensions() == 2) {
+            return new FlattenedTransform2D(steps, original);
+        }
+        return new FlattenedTransform(steps, original);
+    }
+
+    /**
+     * Gets the dimension of input points.
+     *
+     * @return {@inheritDoc}
+     */
+    @Override
+    public final int getSourceDimensions() {
+        return steps[0].getSourceDimensions();
+    }
+
+    /**
+     * Gets the dimension of output points.
+     *
+     * @return {@inheritDoc}
+     */
+    @Override
+    public final int getTargetDimensions() {
+        return steps[steps.length - 1].getTargetDimensions();
+    }
+
+    /**
+     * Returns all transform steps, in the order they are applied.
+     *
+     * @see MathTransforms#getSteps(MathTransform)
+     */
+    final List<MathTransform> getSteps() {
+        return new ArrayList<>(Arrays.asList(steps));
+    }
+
+    /**
+     * Returns the parameter descriptor of the transform which has been compiled, or {@code null} if none.
+     */
+    @Override
+    public ParameterDescriptorGroup getParameterDescriptors() {
+        return (original instanceof AbstractMathTransform) ?
+                ((AbstractMathTransform) original).getParameterDescriptors() : null;
+    }
+
+    /**
+     * Returns the parameter values of the transform which has been compiled, or {@code null} if none.
+     */
+    @Override
+    public ParameterValueGroup getParameterValues() {
+        return (original instanceof AbstractMathTransform) ?
+                ((AbstractMathTransform) original).getParameterValues() : null;
+    }
+
+    /**
+     * Transforms a single coordinate point in an array, and optionally computes the transform
+     * derivative at that location. The derivative is the product of the derivatives of all steps.
+     *
+     * @throws TransformException If a transform step failed.
+     */
+    @Override
+    public Matrix transform(final double[] srcPts, final int srcOff,
+                            final double[] dstPts, final int dstOff,
+                            final boolean derivate) throws TransformException
+    {
+        final int last = steps.length - 1;
+        final double[] buffer = BufferCache.acquire(maxDimension);
+        try {
+            MatrixSIS derivative = null;
+            for (int i=0; i<=last; i++) {
+                final MathTransform step = steps[i];
+                final double[] src, dst;
+                final int sOff, dOff;
+                if (i == 0)    {src = srcPts; sOff = srcOff;} else {src = buffer; sOff = 0;}
+                if (i == last) {dst = dstPts; dOff = dstOff;} else {dst = buffer; dOff = 0;}
+                if (derivate) {
+                    final Matrix m = MathTransforms.derivativeAndTransform(step, src, sOff, dst, dOff);
+                    derivative = (derivative == null) ? MatrixSIS.castOrCopy(m) : MatrixSIS.castOrCopy(m).multiply(derivative);
+                } else {
+                    step.transform(src, sOff, dst, dOff, 1);
+                }
+            }
+            return derivative;
+        } finally {
+            BufferCache.release(buffer);
+        }
+    }
+
+    /**
+     * Transforms many coordinates in a list of ordinal values. The coordinates are processed
+     * in blocks, each block being transformed by all steps before to process the next block.
+     *
+     * @throws TransformException If a transform step failed.
+     */
+    @Override
+    public void transform(double[] srcPts, int srcOff, double[] dstPts, int dstOff, int numPts)
+            throws TransformException
+    {
+        transform((Object) srcPts, srcOff, (Object) dstPts, dstOff, numPts);
+    }
+
+    /**
+     * Transforms many coordinates in a list of ordinal values.
+     * Intermediate results are stored in a buffer of type {@code double[]} for reducing rounding errors.
+     *
+     * @throws TransformException If a transform step failed.
+     */
+    @Override
+    public void transform(float[] srcPts, int srcOff, float[] dstPts, int dstOff, int numPts)
+            throws TransformException
+    {
+        transform((Object) srcPts, srcOff, (Object) dstPts, dstOff, numPts);
+    }
+
+    /**
+     * Transforms many coordinates in a list of ordinal values.
+     * Intermediate results are stored in a buffer of type {@code double[]} for reducing rounding errors.
+     *
+     * @throws TransformException If a transform step failed.
+     */
+    @Override
+    public void transform(double[] srcPts, int srcOff, float[] dstPts, int dstOff, int numPts)
+            throws TransformException
+    {
+        transform((Object) srcPts, srcOff, (Object) dstPts, dstOff, numPts);
+    }
+
+    /**
+     * Transforms many coordinates in a list of ordinal values.
+     *
+     * @throws TransformException If a transform step failed.
+     */
+    @Override
+    public void transform(float[] srcPts, int srcOff, double[] dstPts, int dstOff, int numPts)
+            throws TransformException
+    {
+        transform((Object) srcPts, srcOff, (Object) dstPts, dstOff, numPts);
+    }
+
+    /**
+     * Implementation of all {@code transform(…)} methods working on arrays. The source and destination
+     * arrays can be either {@code double[]} or {@code float[]}, in any combination. The first step reads
+     * from the source array, the last step writes in the destination array and all other steps work in
+     * place in a temporary buffer.
+     *
+     * <p>The loop over the blocks is the same than the one in {@link ConcatenatedTransform}, including
+     * the strategy for overlapping source and destination arrays: the whole block is handled like a
+     * single coordinate point of large dimension.</p>
+     */
+    private void transform(final Object srcPts, int srcOff, final Object dstPts, int dstOff, int numPts)
+            throws TransformException
+    {
+        if (numPts <= 0) {
+            return;
+        }
+        boolean descending = false;
+        int sourceDim = getSourceDimensions();
+        int targetDim = getTargetDimensions();
+        int numBuf = Math.max(1, MAXIMUM_BUFFER_SIZE / maxDimension);
+        if (numBuf >= numPts) {
+            numBuf = numPts;
+        } else if (srcPts == dstPts) {
+            switch (IterationStrategy.suggest(srcOff, numBuf*sourceDim, dstOff, numBuf*targetDim, numPts)) {
+                default: {
+                    // Needs to copy the whole data.
+                    numBuf = numPts;
+                    break;
+                }
+                case ASCENDING: {
+                    break;
+                }
+                case DESCENDING: {
+                    final int shift = numPts - numBuf;
+                    srcOff += shift*sourceDim; sourceDim = -sourceDim;
+                    dstOff += shift*targetDim; targetDim = -targetDim;
+                    descending = true;
+                    break;
+                }
+            }
+        }
+        final int last = steps.length - 1;
+        final double[] buffer = BufferCache.acquire(numBuf * maxDimension);
+        TransformException failure = null;
+        try {
+            do {
+                if (!descending && numBuf > numPts) {
+                    // Must be done before transforms if we are iterating in ascending order.
+                    numBuf = numPts;
+                }
+                for (int i=0; i<=last; i++) {
+                    final MathTransform step = steps[i];
+                    try {
+                        if (i == 0) {
+                            if (srcPts instanceof double[]) {
+                                step.transform((double[]) srcPts, srcOff, buffer, 0, numBuf);
+                            } else {
+                                step.transform((float[]) srcPts, srcOff, buffer, 0, numBuf);
+                            }
+                        } else if (i != last) {
+                            step.transform(buffer, 0, buffer, 0, numBuf);
+                        } else if (dstPts instanceof double[]) {
+                            step.transform(buffer, 0, (double[]) dstPts, dstOff, numBuf);
+                        } else {
+                            step.transform(buffer, 0, (float[]) dstPts, dstOff, numBuf);
+                        }
+                    } catch (TransformException exception) {
+                        /*
+                         * If the step declares having been able to process all coordinate points
+                         * (setting to NaN those that can't be transformed), keep the first exception
+                         * and continue with the next steps. Otherwise stop immediately.
+                         */
+                        if (exception.getLastCompletedTransform() != step) {
+                            throw exception;
+                        } else if (failure == null) {
+                            failure = exception;
+                        } else {
+                            failure.addSuppressed(exception);
+                        }
+                    }
+                }
+                numPts -= numBuf;
+                if (descending && numBuf > numPts) {
+                    // Must be done after transforms if we are iterating in descending order.
+                    numBuf = numPts;
+                }
+                srcOff += numBuf * sourceDim;
+                dstOff += numBuf * targetDim;
+            } while (numPts != 0);
+        } finally {
+            BufferCache.release(buffer);
+        }
+        if (failure != null) {
+            failure.setLastCompletedTransform(this);
+            throw failure;
+        }
+    }
+
+    /**
+     * Creates the inverse transform of this object.
+     */
+    @Override
+    public synchronized MathTransform inverse() throws NoninvertibleTransformException {
+        if (inverse == null) {
+            final MathTransform[] reverse = new MathTransform[steps.length];
+            for (int i=0; i<steps.length; i++) {
+                reverse[steps.length - 1 - i] = steps[i].inverse();
+            }
+            inverse = create(reverse, original.inverse());
+            inverse.inverse = this;
+        }
+        return inverse;
+    }
+
+    /**
+     * Tests whether this transform does not move any points.
+     */
+    @Override
+    public boolean isIdentity() {
+        for (final MathTransform step : steps) {
+            if (!step.isIdentity()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected int computeHashCode() {
+        return super.computeHashCode() ^ Arrays.hashCode(steps) ^ original.hashCode();
+    }
+
+    /**
+     * Compares the specified object with this math transform for equality.
+     */
+    @Override
+    public boolean equals(final Object object, final ComparisonMode mode) {
+        if (object == this) { // Slight optimization
+            return true;
+        }
+        if (object instanceof FlattenedTransform) {
+            final FlattenedTransform that = (FlattenedTransform) object;
+            return Utilities.deepEquals(steps,    that.steps,    mode) &&
+                   Utilities.deepEquals(original, that.original, mode);
+        }
+        return false;
+    }
+
+    /**
+     * Formats the <cite>Well Known Text</cite> of the transform which has been compiled.
+     *
+     * @param  formatter The formatter to use.
+     * @return The WKT element name of the transform which has been compiled.
+     */
+    @Override
+    public String formatTo(final Formatter formatter) {
+        if (original instanceof FormattableObject) {
+            return formatter.delegateTo(original);
+        }
+        return super.formatTo(formatter);
+    }
+}
@@ -17,8 +17,10 @@
 package org.apache.sis.referencing.operation.transform;
 
 import java.util.List;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.awt.geom.AffineTransform;
+import java.awt.geom.Rectangle2D;
 import org.opengis.geometry.MismatchedDimensionException;
 import org.opengis.referencing.operation.Matrix;
 import org.opengis.referencing.operation.MathTransform;
@@ -26,12 +28,14 @@ import org.opengis.referencing.operation.MathTransform1D;
 import org.opengis.referencing.operation.MathTransform2D;
 import org.opengis.referencing.operation.TransformException;
 import org.opengis.referencing.operation.MathTransformFactory;
-import org.apache.sis.internal.referencing.DirectPositionView;
+import org.apache.sis.geometry.DirectPositionView;
 import org.apache.sis.internal.referencing.ExtendedPrecisionMatrix;
 import org.apache.sis.internal.referencing.j2d.AffineTransform2D;
 import org.apache.sis.referencing.operation.matrix.AffineTransforms2D;
 import org.apache.sis.referencing.operation.matrix.Matrices;
+import org.apache.sis.referencing.operation.matrix.MatrixSIS;
 import org.apache.sis.util.Static;
+import org.apache.sis.util.resources.Errors;
 
 import static org.apache.sis.util.ArgumentChecks.*;
 
@@ -52,7 +56,7 @@ import static org.apache.sis.util.ArgumentChecks.*;
  *
  * @author  Martin Desruisseaux (Geomatys)
  * @since   0.5
- * @version 0.5
+ * @version 0.6
  * @module
  *
  * @see MathTransformFactory
@@ -275,6 +279,8 @@ public final class MathTransforms extends Static {
         if (transform != null) {
             if (transform instanceof ConcatenatedTransform) {
                 return ((ConcatenatedTransform) transform).getSteps();
+            } else if (transform instanceof FlattenedTransform) {
+                return ((FlattenedTransform) transform).getSteps();
             } else {
                 return Collections.singletonList(transform);
             }
@@ -283,6 +289,123 @@ public final class MathTransforms extends Static {
         }
     }
 
+    /**
+     * Returns a transform equivalent to the given one, but optimized for transforming large arrays of coordinates.
+     * This method performs the following steps:
+     *
+     * <ol>
+     *   <li>Expand the given transform in its {@linkplain #getSteps(MathTransform) single components}.</li>
+     *   <li>Multiply the matrices of all consecutive linear steps into a single matrix, and create a single
+     *       linear transform for that matrix. Two-dimensional affine transforms are specialized as instances
+     *       of {@link AffineTransform}.</li>
+     *   <li>If more than one step remains, returns a transform which applies all steps in a single loop
+     *       over blocks of coordinates. Each block goes through all steps before the next block is read,
+     *       so the coordinates are still in the CPU cache when the next step is applied.</li>
+     * </ol>
+     *
+     * The returned transform has the same parameter values and the same <cite>Well Known Text</cite>
+     * representation than the given transform. It implements {@link MathTransform2D} if the source and
+     * target dimensions are both 2.
+     *
+     * <p>Compiling a transform has a cost. This method is worth to be invoked only when the returned
+     * transform is used for transforming a large amount of coordinates.</p>
+     *
+     * @param  transform The transform to compile.
+     * @return A transform equivalent to the given one, but potentially faster.
+     *
+     * @since 0.6
+     */
+    public static MathTransform compile(final MathTransform transform) {
+        ensureNonNull("transform", transform);
+        final List<MathTransform> steps = getSteps(transform);
+        final List<MathTransform> compiled = new ArrayList<>(steps.size());
+        MatrixSIS matrix = null;    // Product of the matrices of consecutive linear steps.
+        MathTransform linear = null;  // The linear step, if 'matrix' is the matrix of a single step.
+        for (final MathTransform step : steps) {
+            final Matrix m = getMatrix(step);
+            if (m != null) {
+                if (matrix == null) {
+                    matrix = MatrixSIS.castOrCopy(m);
+                    linear = step;
+                } else {
+                    matrix = MatrixSIS.castOrCopy(m).multiply(matrix);
+                    linear = null;
+                }
+            } else {
+                addLinear(compiled, matrix, linear);
+                matrix = null;
+                linear = null;
+                compiled.add(step);
+            }
+        }
+        addLinear(compiled, matrix, linear);
+        switch (compiled.size()) {
+            case 0:  return identity(transform.getSourceDimensions());
+            case 1:  return compiled.get(0);
+            default: return FlattenedTransform.create(compiled.toArray(new MathTransform[compiled.size()]), transform);
+        }
+    }
+
+    /**
+     * Adds to the given list the linear transform for the given matrix, unless the matrix is null or identity.
+     * This is a helper method for {@link #compile(MathTransform)}.
+     *
+     * @param compiled The list where to add the linear transform.
+     * @param matrix   The product of the matrices of consecutive linear steps, or {@code null} if none.
+     * @param linear   The linear step if there is only one, or {@code null} if {@code matrix} is a product.
+     */
+    private static void addLinear(final List<MathTransform> compiled, final Matrix matrix, final MathTransform linear) {
+        if (matrix != null && !matrix.isIdentity()) {
+            if (linear instanceof LinearTransform && !(linear instanceof ProjectiveTransform
+                    && matrix.getNumRow() == 3 && matrix.getNumCol() == 3 && Matrices.isAffine(matrix)))
+            {
+                compiled.add(linear);
+            } else {
+                compiled.add(linear(matrix));
+            }
+        }
+    }
+
+    /**
+     * Returns an approximation of the given transform computed by bilinear interpolations in a grid.
+     * The given transform is evaluated on a grid covering the given domain, subdivided where needed
+     * until the interpolation error is not greater than the given tolerance. Points inside the domain
+     * are then transformed by interpolation between the four nodes of the enclosing grid cell, which
+     * is much faster than non-linear transforms like map projections. Points outside the domain are
+     * transformed by the given transform.
+     *
+     * <div class="note"><b>Example:</b>
+     * when warping an image, the transform from target pixel coordinates to source pixel coordinates
+     * needs to be applied on every pixel. If sub-pixel accuracy is sufficient, an approximation with
+     * a tolerance of 0.1 pixel over the image bounds gives the same image for a fraction of the cost.
+     * </div>
+     *
+     * The grid is computed by this method and retained by the returned transform. Consequently this method
+     * is worth to be invoked only when the returned transform is used for transforming a large amount of
+     * coordinates. The inverse of the returned transform is the exact inverse of the given transform.
+     *
+     * @param  transform The transform to approximate.
+     * @param  domain    The domain of source coordinates where to use the approximation.
+     * @param  tolerance The maximal error allowed, in units of the target coordinates.
+     * @return An approximation of the given transform in the given domain.
+     *
+     * @since 0.6
+     */
+    public static MathTransform2D approximate(final MathTransform2D transform, final Rectangle2D domain,
+            final double tolerance)
+    {
+        ensureNonNull("transform", transform);
+        ensureNonNull("domain",    domain);
+        ensureStrictlyPositive("tolerance", tolerance);
+        if (domain.isEmpty()) {
+            throw new IllegalArgumentException(Errors.format(Errors.Keys.EmptyArgument_1, "domain"));
+        }
+        if (transform instanceof LinearTransform || transform instanceof AffineTransform) {
+            return transform;   // Interpolation would not be faster.
+        }
+        return new ApproximatedTransform2D(transform, domain, tolerance);
+    }
+
     /**
      * If the given transform is linear, returns its coefficients as a matrix.
      * More specifically:
@@ -342,7 +465,7 @@ public final class MathTransforms extends Static {
             return ((AbstractMathTransform) transform).transform(srcPts, srcOff, dstPts, dstOff, true);
         }
         // Must be calculated before to transform the coordinate.
-        final Matrix derivative = transform.derivative(new DirectPositionView(srcPts, srcOff, transform.getSourceDimensions()));
+        final Matrix derivative = transform.derivative(new DirectPositionView.Double(srcPts, srcOff, transform.getSourceDimensions()));
         if (dstPts != null) {
             transform.transform(srcPts, srcOff, dstPts, dstOff, 1);
         }
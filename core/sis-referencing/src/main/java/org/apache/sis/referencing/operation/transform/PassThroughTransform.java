@@ -25,7 +25,7 @@ import org.opengis.referencing.operation.TransformException;
 import org.opengis.referencing.operation.NoninvertibleTransformException;
 import org.apache.sis.referencing.operation.matrix.Matrices;
 import org.apache.sis.referencing.operation.matrix.MatrixSIS;
-import org.apache.sis.internal.referencing.DirectPositionView;
+import org.apache.sis.geometry.DirectPositionView;
 import org.apache.sis.geometry.GeneralDirectPosition;
 import org.apache.sis.io.wkt.Formatter;
 import org.apache.sis.util.ComparisonMode;
@@ -58,7 +58,7 @@ import static org.apache.sis.util.ArgumentChecks.*;
  *
  * @author  Martin Desruisseaux (IRD, Geomatys)
  * @since   0.5
- * @version 0.5
+ * @version 0.6
  * @module
  */
 public class PassThroughTransform extends AbstractMathTransform implements Serializable {
@@ -309,7 +309,7 @@ public class PassThroughTransform extends AbstractMathTransform implements Seria
     {
         Matrix derivative = null;
         if (derivate) {
-            derivative = derivative(new DirectPositionView(srcPts, srcOff, getSourceDimensions()));
+            derivative = derivative(new DirectPositionView.Double(srcPts, srcOff, getSourceDimensions()));
         }
         if (dstPts != null) {
             transform(srcPts, srcOff, dstPts, dstOff, 1);
@@ -325,6 +325,206 @@ public class PassThroughTransform extends AbstractMathTransform implements Seria
     @Override
     public void transform(double[] srcPts, int srcOff, final double[] dstPts, int dstOff, int numPts)
             throws TransformException
+    {
+        if (!isBlockSafe(srcPts == dstPts, srcOff, dstOff)) {
+            transformOverlapping(srcPts, srcOff, dstPts, dstOff, numPts);
+        } else {
+            transformBlocks(srcPts, srcOff, dstPts, dstOff, numPts);
+        }
+    }
+
+    /**
+     * Transforms many coordinates in a list of ordinal values.
+     * The sub-transform works on a temporary buffer of type {@code double[]} for reducing rounding errors.
+     *
+     * @throws TransformException If the {@linkplain #subTransform sub-transform} failed.
+     */
+    @Override
+    public void transform(float[] srcPts, int srcOff, final float[] dstPts, int dstOff, int numPts)
+            throws TransformException
+    {
+        if (!isBlockSafe(srcPts == dstPts, srcOff, dstOff)) {
+            transformOverlapping(srcPts, srcOff, dstPts, dstOff, numPts);
+        } else {
+            transformBlocks(srcPts, srcOff, dstPts, dstOff, numPts);
+        }
+    }
+
+    /**
+     * Transforms many coordinates in a list of ordinal values.
+     *
+     * @throws TransformException If the {@linkplain #subTransform sub-transform} failed.
+     */
+    @Override
+    public void transform(final double[] srcPts, int srcOff, final float[] dstPts, int dstOff, int numPts)
+            throws TransformException
+    {
+        transformBlocks(srcPts, srcOff, dstPts, dstOff, numPts);
+    }
+
+    /**
+     * Transforms many coordinates in a list of ordinal values.
+     *
+     * @throws TransformException If the {@linkplain #subTransform sub-transform} failed.
+     */
+    @Override
+    public void transform(final float[] srcPts, int srcOff, final double[] dstPts, int dstOff, int numPts)
+            throws TransformException
+    {
+        transformBlocks(srcPts, srcOff, dstPts, dstOff, numPts);
+    }
+
+    /**
+     * Returns {@code true} if {@link #transformBlocks(Object, int, Object, int, int)} can be used.
+     * This is the case if the source and destination arrays are different, or if the coordinates
+     * are transformed in place (same offset) without change of dimension. In the later case, the
+     * pass-through ordinates are left untouched and only the affected ordinates are overwritten.
+     */
+    private boolean isBlockSafe(final boolean sameArray, final int srcOff, final int dstOff) {
+        return !sameArray || (srcOff == dstOff && subTransform.getSourceDimensions() == subTransform.getTargetDimensions());
+    }
+
+    /**
+     * Transforms many coordinates using a single call to the sub-transform for each block of points.
+     * The affected ordinates of a block of points are first copied in a temporary buffer of type
+     * {@code double[]}, then the sub-transform is applied on the whole buffer and the result is
+     * copied back in the destination array together with the pass-through ordinates. This is faster
+     * than invoking the sub-transform for each point, especially for the {@code float[]} variants
+     * since the sub-transform does not need to convert each point to a temporary {@code double[]}.
+     *
+     * <p>The source and destination arrays can be {@code double[]} or {@code float[]}, in any combination.
+     * This method can not be used for overlapping arrays, except in the case documented in
+     * {@link #isBlockSafe(boolean, int, int)}.</p>
+     */
+    private void transformBlocks(final Object srcPts, int srcOff, final Object dstPts, int dstOff, int numPts)
+            throws TransformException
+    {
+        if (numPts <= 0) {
+            return;
+        }
+        final int subDimSource = subTransform.getSourceDimensions();
+        final int subDimTarget = subTransform.getTargetDimensions();
+        final int dimSource    = subDimSource + (firstAffectedOrdinate + numTrailingOrdinates);
+        final int dimTarget    = subDimTarget + (firstAffectedOrdinate + numTrailingOrdinates);
+        final boolean inPlace  = (srcPts == dstPts);   // Implies srcOff == dstOff and dimSource == dimTarget.
+        final int subDim = Math.max(subDimSource, subDimTarget);
+        int numBuf = Math.min(numPts, Math.max(1, MAXIMUM_BUFFER_SIZE / subDim));
+        final double[] buffer = BufferCache.acquire(numBuf * subDim);
+        TransformException failure = null;
+        try {
+            do {
+                if (numBuf > numPts) {
+                    numBuf = numPts;
+                }
+                /*
+                 * Copy the affected ordinates in the buffer, transform them in a single call
+                 * to the sub-transform, then copy the results in the destination array.
+                 */
+                int src = srcOff + firstAffectedOrdinate;
+                if (srcPts instanceof double[]) {
+                    final double[] array = (double[]) srcPts;
+                    for (int i=0; i<numBuf; i++) {
+                        System.arraycopy(array, src, buffer, i*subDimSource, subDimSource);
+                        src += dimSource;
+                    }
+                } else {
+                    final float[] array = (float[]) srcPts;
+                    for (int i=0,j=0; i<numBuf; i++) {
+                        for (int k=0; k<subDimSource; k++) {
+                            buffer[j++] = array[src + k];
+                        }
+                        src += dimSource;
+                    }
+                }
+                try {
+                    subTransform.transform(buffer, 0, buffer, 0, numBuf);
+                } catch (TransformException exception) {
+                    // Same policy than AbstractMathTransform.transform(float[], …, float[], …)
+                    if (exception.getLastCompletedTransform() != subTransform) {
+                        throw exception;
+                    } else if (failure == null) {
+                        failure = exception;
+                    } else {
+                        failure.addSuppressed(exception);
+                    }
+                }
+                if (!inPlace) {
+                    copyPassThrough(srcPts, srcOff, dimSource, dstPts, dstOff, dimTarget, subDimSource, numBuf);
+                }
+                int dst = dstOff + firstAffectedOrdinate;
+                if (dstPts instanceof double[]) {
+                    final double[] array = (double[]) dstPts;
+                    for (int i=0; i<numBuf; i++) {
+                        System.arraycopy(buffer, i*subDimTarget, array, dst, subDimTarget);
+                        dst += dimTarget;
+                    }
+                } else {
+                    final float[] array = (float[]) dstPts;
+                    for (int i=0,j=0; i<numBuf; i++) {
+                        for (int k=0; k<subDimTarget; k++) {
+                            array[dst + k] = (float) buffer[j++];
+                        }
+                        dst += dimTarget;
+                    }
+                }
+                srcOff += numBuf * dimSource;
+                dstOff += numBuf * dimTarget;
+                numPts -= numBuf;
+            } while (numPts != 0);
+        } finally {
+            BufferCache.release(buffer);
+        }
+        if (failure != null) {
+            failure.setLastCompletedTransform(this);
+            throw failure;
+        }
+    }
+
+    /**
+     * Copies the leading and trailing pass-through ordinates of a block of points.
+     * This is a helper method for {@link #transformBlocks(Object, int, Object, int, int)}.
+     */
+    private void copyPassThrough(final Object srcPts, int srcOff, final int dimSource,
+                                 final Object dstPts, int dstOff, final int dimTarget,
+                                 final int subDimSource, final int numPts)
+    {
+        final int trailingSrc = firstAffectedOrdinate + subDimSource;
+        final int trailingDst = dimTarget - numTrailingOrdinates;
+        for (int i=0; i<numPts; i++) {
+            if (srcPts instanceof double[]) {
+                final double[] src = (double[]) srcPts;
+                if (dstPts instanceof double[]) {
+                    final double[] dst = (double[]) dstPts;
+                    System.arraycopy(src, srcOff, dst, dstOff, firstAffectedOrdinate);
+                    System.arraycopy(src, srcOff + trailingSrc, dst, dstOff + trailingDst, numTrailingOrdinates);
+                } else {
+                    final float[] dst = (float[]) dstPts;
+                    for (int k=0; k<firstAffectedOrdinate; k++) dst[dstOff + k] = (float) src[srcOff + k];
+                    for (int k=0; k<numTrailingOrdinates;  k++) dst[dstOff + trailingDst + k] = (float) src[srcOff + trailingSrc + k];
+                }
+            } else {
+                final float[] src = (float[]) srcPts;
+                if (dstPts instanceof float[]) {
+                    final float[] dst = (float[]) dstPts;
+                    System.arraycopy(src, srcOff, dst, dstOff, firstAffectedOrdinate);
+                    System.arraycopy(src, srcOff + trailingSrc, dst, dstOff + trailingDst, numTrailingOrdinates);
+                } else {
+                    final double[] dst = (double[]) dstPts;
+                    for (int k=0; k<firstAffectedOrdinate; k++) dst[dstOff + k] = src[srcOff + k];
+                    for (int k=0; k<numTrailingOrdinates;  k++) dst[dstOff + trailingDst + k] = src[srcOff + trailingSrc + k];
+                }
+            }
+            srcOff += dimSource;
+            dstOff += dimTarget;
+        }
+    }
+
+    /**
+     * Transforms many coordinates in overlapping arrays, invoking the sub-transform for each point.
+     * This is the fallback used when {@link #transformBlocks(Object, int, Object, int, int)} can not be used.
+     */
+    private void transformOverlapping(double[] srcPts, int srcOff, final double[] dstPts, int dstOff, int numPts)
+            throws TransformException
     {
         final int subDimSource = subTransform.getSourceDimensions();
         final int subDimTarget = subTransform.getTargetDimensions();
@@ -364,12 +564,10 @@ public class PassThroughTransform extends AbstractMathTransform implements Seria
     }
 
     /**
-     * Transforms many coordinates in a list of ordinal values.
-     *
-     * @throws TransformException If the {@linkplain #subTransform sub-transform} failed.
+     * Transforms many coordinates in overlapping arrays, invoking the sub-transform for each point.
+     * This is the fallback used when {@link #transformBlocks(Object, int, Object, int, int)} can not be used.
      */
-    @Override
-    public void transform(float[] srcPts, int srcOff, final float[] dstPts, int dstOff, int numPts)
+    private void transformOverlapping(float[] srcPts, int srcOff, final float[] dstPts, int dstOff, int numPts)
             throws TransformException
     {
         final int subDimSource = subTransform.getSourceDimensions();
@@ -409,54 +607,6 @@ public class PassThroughTransform extends AbstractMathTransform implements Seria
         }
     }
 
-    /**
-     * Transforms many coordinates in a list of ordinal values.
-     *
-     * @throws TransformException If the {@linkplain #subTransform sub-transform} failed.
-     */
-    @Override
-    public void transform(final double[] srcPts, int srcOff, final float[] dstPts, int dstOff, int numPts)
-            throws TransformException
-    {
-        final int subDimSource = subTransform.getSourceDimensions();
-        final int subDimTarget = subTransform.getTargetDimensions();
-        while (--numPts >= 0) {
-            for (int i=0; i<firstAffectedOrdinate; i++) {
-                dstPts[dstOff++] = (float) srcPts[srcOff++];
-            }
-            subTransform.transform(srcPts, srcOff, dstPts, dstOff, 1);
-            srcOff += subDimSource;
-            dstOff += subDimTarget;
-            for (int i=0; i<numTrailingOrdinates; i++) {
-                dstPts[dstOff++] = (float) srcPts[srcOff++];
-            }
-        }
-    }
-
-    /**
-     * Transforms many coordinates in a list of ordinal values.
-     *
-     * @throws TransformException If the {@linkplain #subTransform sub-transform} failed.
-     */
-    @Override
-    public void transform(final float[] srcPts, int srcOff, final double[] dstPts, int dstOff, int numPts)
-            throws TransformException
-    {
-        final int subDimSource = subTransform.getSourceDimensions();
-        final int subDimTarget = subTransform.getTargetDimensions();
-        while (--numPts >= 0) {
-            for (int i=0; i<firstAffectedOrdinate; i++) {
-                dstPts[dstOff++] = srcPts[srcOff++];
-            }
-            subTransform.transform(srcPts, srcOff, dstPts, dstOff, 1);
-            srcOff += subDimSource;
-            dstOff += subDimTarget;
-            for (int i=0; i<numTrailingOrdinates; i++) {
-                dstPts[dstOff++] = srcPts[srcOff++];
-            }
-        }
-    }
-
     /**
      * Gets the derivative of this transform at a point.
      *
@@ -0,0 +1,341 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sis.referencing.operation.transform;
+
+import java.util.List;
+import org.opengis.parameter.ParameterValueGroup;
+import org.opengis.parameter.ParameterDescriptorGroup;
+import org.opengis.geometry.DirectPosition;
+import org.opengis.referencing.operation.Matrix;
+import org.opengis.referencing.operation.MathTransform;
+import org.opengis.referencing.operation.TransformException;
+import org.opengis.referencing.operation.NoninvertibleTransformException;
+import org.apache.sis.util.ComparisonMode;
+import org.apache.sis.util.Utilities;
+import org.apache.sis.io.wkt.Formatter;
+import org.apache.sis.io.wkt.FormattableObject;
+
+
+/**
+ * A transform step which delegates all its work to another transform, while recording the number of calls,
+ * the number of points processed and the time spent in the {@code transform(…)} methods.
+ * Instances of this class are created by {@link TransformProfiler} when profiling has been enabled on a
+ * {@link DefaultMathTransformFactory}.
+ *
+ * <p>This class does not change the transform semantic: the transformed coordinates, the derivatives,
+ * the parameter values and the <cite>Well Known Text</cite> are those of the wrapped transform.
+ * If the wrapped transform is linear, then the wrapper implements {@link LinearTransform} too.</p>
+ *
+ * <p>This class is not serializable, since the measurements are meaningful only in the running JVM.</p>
+ *
+ * @author  Martin Desruisseaux (Geomatys)
+ * @since   0.6
+ * @version 0.6
+ * @module
+ */
+class ProfiledTransform extends AbstractMathTransform {
+    /**
+     * The transform on which to delegate all the work.
+     */
+    final MathTransform delegate;
+
+    /**
+     * The profiler which created this transform. Used for wrapping the inverse transform.
+     */
+    private final TransformProfiler profiler;
+
+    /**
+     * Where to record the measurements. This object may be shared by many transforms of the same kind.
+     */
+    private final TransformProfiler.Counters counters;
+
+    /**
+     * The inverse transform. This field will be computed only when needed.
+     */
+    private ProfiledTransform inverse;
+
+    /**
+     * Creates a new wrapper. Callers should use {@link #create create(…)} instead.
+     */
+    ProfiledTransform(final MathTransform delegate, final TransformProfiler profiler) {
+        this.delegate = delegate;
+        this.profiler = profiler;
+        this.counters = profiler.counters(delegate);
+    }
+
+    /**
+     * Creates a new wrapper for the given transform. If the given transform is linear,
+     * then the returned instance implements {@link LinearTransform}.
+     *
+     * @param delegate The transform on which to delegate all the work.
+     * @param profiler Where to record the measurements.
+     */
+    static ProfiledTransform create(final MathTransform delegate, final TransformProfiler profiler) {
+        return (delegate instanceof LinearTransform) ? new Linear((LinearTransform) delegate, profiler)
+                                                     : new ProfiledTransform(delegate, profiler);
+    }
+
+    /**
+     * Gets the dimension of input points.
+     *
+     * @return {@inheritDoc}
+     */
+    @Override
+    public final int getSourceDimensions() {
+        return delegate.getSourceDimensions();
+    }
+
+    /**
+     * Gets the dimension of output points.
+     *
+     * @return {@inheritDoc}
+     */
+    @Override
+    public final int getTargetDimensions() {
+        return delegate.getTargetDimensions();
+    }
+
+    /**
+     * Returns the parameter descriptors of the wrapped transform.
+     *
+     * @return {@inheritDoc}
+     */
+    @Override
+    public ParameterDescriptorGroup getParameterDescriptors() {
+        return (delegate instanceof AbstractMathTransform)
+                ? ((AbstractMathTransform) delegate).getParameterDescriptors() : null;
+    }
+
+    /**
+     * Returns the parameter values of the wrapped transform.
+     *
+     * @return {@inheritDoc}
+     */
+    @Override
+    public ParameterValueGroup getParameterValues() {
+        return (delegate instanceof AbstractMathTransform)
+                ? ((AbstractMathTransform) delegate).getParameterValues() : null;
+    }
+
+    /**
+     * Transforms a single coordinate point and optionally computes the derivative,
+     * then records the elapsed time.
+     *
+     * @return {@inheritDoc}
+     * @throws TransformException If the point can not be transformed or the derivative can not be computed.
+     */
+    @Override
+    public final Matrix transform(final double[] srcPts, final int srcOff,
+                                  final double[] dstPts, final int dstOff,
+                                  final boolean derivate) throws TransformException
+    {
+        final Matrix derivative;
+        final long time = System.nanoTime();
+        try {
+            if (derivate) {
+                derivative = MathTransforms.derivativeAndTransform(delegate, srcPts, srcOff, dstPts, dstOff);
+            } else if (delegate instanceof AbstractMathTransform) {
+                derivative = ((AbstractMathTransform) delegate).transform(srcPts, srcOff, dstPts, dstOff, false);
+            } else {
+                if (dstPts != null) {
+                    delegate.transform(srcPts, srcOff, dstPts, dstOff, 1);
+                }
+                derivative = null;
+            }
+        } finally {
+            counters.record(1, System.nanoTime() - time);
+        }
+        return derivative;
+    }
+
+    /**
+     * Transforms many coordinate points, then records the elapsed time.
+     *
+     * @throws TransformException If a point can not be transformed.
+     */
+    @Override
+    public final void transform(final double[] srcPts, final int srcOff,
+                                final double[] dstPts, final int dstOff, final int numPts)
+            throws TransformException
+    {
+        final long time = System.nanoTime();
+        try {
+            delegate.transform(srcPts, srcOff, dstPts, dstOff, numPts);
+        } finally {
+            counters.record(numPts, System.nanoTime() - time);
+        }
+    }
+
+    /**
+     * Transforms many coordinate points, then records the elapsed time.
+     *
+     * @throws TransformException If a point can not be transformed.
+     */
+    @Override
+    public final void transform(final float[] srcPts, final int srcOff,
+                                final float[] dstPts, final int dstOff, final int numPts)
+            throws TransformException
+    {
+        final long time = System.nanoTime();
+        try {
+            delegate.transform(srcPts, srcOff, dstPts, dstOff, numPts);
+        } finally {
+            counters.record(numPts, System.nanoTime() - time);
+        }
+    }
+
+    /**
+     * Transforms many coordinate points, then records the elapsed time.
+     *
+     * @throws TransformException If a point can not be transformed.
+     */
+    @Override
+    public final void transform(final double[] srcPts, final int srcOff,
+                                final float [] dstPts, final int dstOff, final int numPts)
+            throws TransformException
+    {
+        final long time = System.nanoTime();
+        try {
+            delegate.transform(srcPts, srcOff, dstPts, dstOff, numPts);
+        } finally {
+            counters.record(numPts, System.nanoTime() - time);
+        }
+    }
+
+    /**
+     * Transforms many coordinate points, then records the elapsed time.
+     *
+     * @throws TransformException If a point can not be transformed.
+     */
+    @Override
+    public final void transform(final float [] srcPts, final int srcOff,
+                                final double[] dstPts, final int dstOff, final int numPts)
+            throws TransformException
+    {
+        final long time = System.nanoTime();
+        try {
+            delegate.transform(srcPts, srcOff, dstPts, dstOff, numPts);
+        } finally {
+            counters.record(numPts, System.nanoTime() - time);
+        }
+    }
+
+    /**
+     * Returns the derivative of the wrapped transform. This method is not profiled.
+     *
+     * @return {@inheritDoc}
+     * @throws TransformException if the derivative can not be evaluated at the specified point.
+     */
+    @Override
+    public final Matrix derivative(final DirectPosition point) throws TransformException {
+        return delegate.derivative(point);
+    }
+
+    /**
+     * Returns the inverse of the wrapped transform, also profiled.
+     */
+    @Override
+    public synchronized MathTransform inverse() throws NoninvertibleTransformException {
+        if (inverse == null) {
+            inverse = create(delegate.inverse(), profiler);
+            inverse.inverse = this;
+        }
+        return inverse;
+    }
+
+    /**
+     * Tests whether the wrapped transform does not move any points.
+     */
+    @Override
+    public final boolean isIdentity() {
+        return delegate.isIdentity();
+    }
+
+    /**
+     * Gives to the wrapped transform a chance to merge itself with its neighbor steps before formatting.
+     */
+    @Override
+    final int beforeFormat(final List<Object> transforms, final int index, final boolean inverse) {
+        if (delegate instanceof AbstractMathTransform) {
+            return ((AbstractMathTransform) delegate).beforeFormat(transforms, index, inverse);
+        }
+        return index;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected int computeHashCode() {
+        return super.computeHashCode() ^ delegate.hashCode();
+    }
+
+    /**
+     * Compares the specified object with this math transform for equality.
+     * Profiled transforms are never equal to the transform that they wrap,
+     * in order to prevent the transforms pool from replacing one by the other.
+     */
+    @Override
+    public boolean equals(final Object object, final ComparisonMode mode) {
+        if (object == this) { // Slight optimization
+            return true;
+        }
+        if (object instanceof ProfiledTransform) {
+            return Utilities.deepEquals(delegate, ((ProfiledTransform) object).delegate, mode);
+        }
+        return false;
+    }
+
+    /**
+     * Formats the <cite>Well Known Text</cite> of the wrapped transform.
+     *
+     * @param  formatter The formatter to use.
+     * @return The WKT element name of the wrapped transform.
+     */
+    @Override
+    public String formatTo(final Formatter formatter) {
+        if (delegate instanceof FormattableObject) {
+            return formatter.delegateTo(delegate);
+        }
+        return super.formatTo(formatter);
+    }
+
+    /**
+     * A profiled transform wrapping a linear transform.
+     *
+     * @author  Martin Desruisseaux (Geomatys)
+     * @since   0.6
+     * @version 0.6
+     * @module
+     */
+    private static final class Linear extends ProfiledTransform implements LinearTransform {
+        /**
+         * Creates a new wrapper for the given linear transform.
+         */
+        Linear(final LinearTransform delegate, final TransformProfiler profiler) {
+            super(delegate, profiler);
+        }
+
+        /**
+         * Returns the matrix of the wrapped transform.
+         */
+        @Override
+        public Matrix getMatrix() {
+            return ((LinearTransform) delegate).getMatrix();
+        }
+    }
+}
@@ -0,0 +1,205 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sis.referencing.operation.transform;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.opengis.referencing.operation.MathTransform;
+import org.apache.sis.internal.system.Profiler;
+import org.apache.sis.util.collection.TableColumn;
+import org.apache.sis.util.collection.TreeTable;
+import org.apache.sis.util.Classes;
+
+
+/**
+ * Collects the number of calls, the number of points and the time spent in each step of the transforms
+ * created by a {@link DefaultMathTransformFactory} for which profiling has been enabled. The measurements
+ * are grouped by step name (typically the operation method name), and reported by the
+ * {@link org.apache.sis.internal.system.Supervisor} MBean.
+ *
+ * @author  Martin Desruisseaux (Geomatys)
+ * @since   0.6
+ * @version 0.6
+ * @module
+ *
+ * @see DefaultMathTransformFactory#setProfiling(boolean)
+ */
+final class TransformProfiler implements Profiler {
+    /**
+     * The label of this profiler in the MBean report.
+     */
+    private final String label;
+
+    /**
+     * The measurements for each kind of transform step, indexed by step name.
+     */
+    private final ConcurrentMap<String,Counters> counters;
+
+    /**
+     * Creates a new profiler for the transforms created by the given factory.
+     */
+    TransformProfiler(final DefaultMathTransformFactory factory) {
+        label    = Classes.getShortClassName(factory) + '@' + Integer.toHexString(System.identityHashCode(factory));
+        counters = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Returns the counters where to record the measurements of the given transform step.
+     */
+    final Counters counters(final MathTransform step) {
+        final String name = ConcatenatedTransform.getName(step);
+        Counters c = counters.get(name);
+        if (c == null) {
+            c = new Counters();
+            final Counters existing = counters.putIfAbsent(name, c);
+            if (existing != null) {
+                c = existing;
+            }
+        }
+        return c;
+    }
+
+    /**
+     * Returns a transform equivalent to the given one, but with all steps wrapped in {@link ProfiledTransform}.
+     * Transforms having a single step are returned unchanged, since the time spent in those transforms
+     * does not need to be separated from the time spent in the caller code.
+     *
+     * <p>The steps are chained without trying to optimize the concatenations, since the optimizations
+     * have already been done when the given transform has been created.</p>
+     *
+     * @param  transform The transform to instrument.
+     * @return The instrumented transform.
+     */
+    final MathTransform instrument(final MathTransform transform) {
+        if (!(transform instanceof ConcatenatedTransform)) {
+            return transform;
+        }
+        MathTransform result = null;
+        for (final MathTransform step : MathTransforms.getSteps(transform)) {
+            final MathTransform profiled = ProfiledTransform.create(step, this);
+            result = (result == null) ? profiled : ConcatenatedTransform.createConcatenatedTransform(result, profiled);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the given transform with all {@link ProfiledTransform} steps replaced by the transforms that they wrap.
+     * This method shall be invoked before to concatenate transforms, in order to allow the optimizations performed
+     * by {@link MathTransforms#concatenate(MathTransform, MathTransform)}.
+     *
+     * @param  transform The transform from which to remove the instrumentation, or {@code null}.
+     * @return The transform without instrumentation.
+     */
+    static MathTransform unwrap(final MathTransform transform) {
+        if (transform instanceof ProfiledTransform) {
+            return ((ProfiledTransform) transform).delegate;
+        }
+        if (transform instanceof ConcatenatedTransform) {
+            final List<MathTransform> steps = MathTransforms.getSteps(transform);
+            boolean found = false;
+            for (final MathTransform step : steps) {
+                if (step instanceof ProfiledTransform) {
+                    found = true;
+                    break;
+                }
+            }
+            if (found) {
+                MathTransform result = null;
+                for (final MathTransform step : steps) {
+                    final MathTransform original = unwrap(step);
+                    result = (result == null) ? original : MathTransforms.concatenate(result, original);
+                }
+                return result;
+            }
+        }
+        return transform;
+    }
+
+    /**
+     * Writes the measurements collected so far in the given node.
+     *
+     * @param node The node where to write the measurements.
+     */
+    @Override
+    public void report(final TreeTable.Node node) {
+        node.setValue(TableColumn.NAME, label);
+        for (final Map.Entry<String,Counters> entry : counters.entrySet()) {
+            final Counters c = entry.getValue();
+            final TreeTable.Node step = node.newChild();
+            step.setValue(TableColumn.NAME, entry.getKey());
+            add(step, "Calls",  c.calls .get());
+            add(step, "Points", c.points.get());
+            add(step, "Time (ms)", c.nanos.get() / 1E+6);
+        }
+    }
+
+    /**
+     * Adds a child node with the given name and value.
+     */
+    private static void add(final TreeTable.Node node, final String name, final Number value) {
+        final TreeTable.Node child = node.newChild();
+        child.setValue(TableColumn.NAME,  name);
+        child.setValue(TableColumn.VALUE, value);
+    }
+
+    /**
+     * The measurements for one kind of transform step. All fields are updated atomically,
+     * but the three fields together are not guaranteed to be a consistent snapshot.
+     *
+     * @author  Martin Desruisseaux (Geomatys)
+     * @since   0.6
+     * @version 0.6
+     * @module
+     */
+    static final class Counters {
+        /**
+         * Number of calls to a {@code transform(…)} method.
+         */
+        final AtomicLong calls = new AtomicLong();
+
+        /**
+         * Number of points given to the {@code transform(…)} methods.
+         */
+        final AtomicLong points = new AtomicLong();
+
+        /**
+         * Time spent in the {@code transform(…)} methods, in nanoseconds.
+         */
+        final AtomicLong nanos = new AtomicLong();
+
+        /**
+         * Creates new counters initialized to zero.
+         */
+        Counters() {
+        }
+
+        /**
+         * Records a call to a {@code transform(…)} method.
+         *
+         * @param numPts Number of points transformed.
+         * @param time   Time spent in the method, in nanoseconds.
+         */
+        void record(final int numPts, final long time) {
+            calls .incrementAndGet();
+            points.addAndGet(numPts);
+            nanos .addAndGet(time);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sis.geometry;
+
+import org.apache.sis.test.DependsOn;
+import org.apache.sis.test.TestCase;
+import org.junit.Test;
+
+import static org.apache.sis.test.Assert.*;
+import static org.opengis.test.Validators.*;
+
+// Branch-dependent imports
+import org.opengis.geometry.UnmodifiableGeometryException;
+
+
+/**
+ * Tests the {@link DirectPositionView} class.
+ *
+ * @author  Martin Desruisseaux (Geomatys)
+ * @since   0.6
+ * @version 0.6
+ * @module
+ */
+@DependsOn(GeneralDirectPositionTest.class)
+public final strictfp class DirectPositionViewTest extends TestCase {
+    /**
+     * Tolerance threshold for strict comparisons of floating point values.
+     */
+    private static final double STRICT = 0;
+
+    /**
+     * Tests a view over a {@code double[]} array, including the moves to other points.
+     */
+    @Test
+    public void testDouble() {
+        final double[] ordinates = {9, 9, 2, 3, 4, 5, 6, 7};
+        final DirectPositionView view = new DirectPositionView.Double(ordinates, 2, 2);
+        assertEquals("dimension", 2, view.getDimension());
+        assertEquals("POINT(2 3)", view.toString());
+        assertArrayEquals(new double[] {2, 3}, view.getCoordinate(), STRICT);
+        assertEquals(new GeneralDirectPosition(2, 3), view);
+        validate(view);
+
+        view.moveTo(2);
+        assertEquals("offset", 6, view.getOffset());
+        assertEquals("POINT(6 7)", view.toString());
+        view.setOffset(3);
+        assertEquals("POINT(3 4)", view.toString());
+
+        ordinates[4] = 10;
+        assertEquals("Shall see the changes in the wrapped array.", 10, view.getOrdinate(1), STRICT);
+        try {
+            view.setOrdinate(0, 1);
+            fail("The view shall be read-only.");
+        } catch (UnmodifiableGeometryException e) {
+            // This is the expected exception.
+        }
+    }
+
+    /**
+     * Tests a view over a {@code float[]} array.
+     */
+    @Test
+    public void testFloat() {
+        final float[] ordinates = {1, 2, 3, 4, 5, 6};
+        final DirectPositionView view = new DirectPositionView.Float(ordinates, 0, 3);
+        assertEquals("POINT(1 2 3)", view.toString());
+        view.moveTo(1);
+        assertArrayEquals(new double[] {4, 5, 6}, view.getCoordinate(), STRICT);
+        validate(view);
+    }
+
+    /**
+     * Tests the use of a view for computing the envelope of many points without creating position objects.
+     */
+    @Test
+    public void testEnvelope() {
+        final double[] ordinates = {4, 5, -2, 8, 7, 1, 3, 9};
+        final DirectPositionView view = new DirectPositionView.Double(ordinates, 0, 2);
+        final GeneralEnvelope envelope = new GeneralEnvelope(view, view);
+        for (int i=1; i<4; i++) {
+            view.moveTo(i);
+            envelope.add(view);
+        }
+        assertEquals(new GeneralEnvelope(new double[] {-2, 1}, new double[] {7, 9}), envelope);
+    }
+
+    /**
+     * Tests that the constructor rejects a window outside the array.
+     */
+    @Test
+    public void testInvalidRange() {
+        try {
+            new DirectPositionView.Double(new double[4], 3, 2);
+            fail("Shall not accept a window outside the array.");
+        } catch (IndexOutOfBoundsException e) {
+            // This is the expected exception.
+        }
+    }
+}
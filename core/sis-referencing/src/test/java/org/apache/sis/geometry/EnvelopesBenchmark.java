@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sis.geometry;
+
+import java.util.BitSet;
+import java.util.Random;
+import org.apache.sis.referencing.CommonCRS;
+
+
+/**
+ * Compares the speed of {@code Envelopes.intersects(…)}
+ * with invocations of {@code GeneralEnvelope.intersects(…)} for each envelope.
+ * This class simulates the filtering of feature bounding boxes by a region of interest.
+ * Some bounding boxes span the anti-meridian.
+ */
+public final class EnvelopesBenchmark {
+    /**
+     * Number of envelopes to filter.
+     */
+    private static final int NUM_ENVELOPES = 1000000;
+
+    /**
+     * The envelopes to filter, as (<var>x</var><sub>min</sub>, <var>y</var><sub>min</sub>,
+     * <var>x</var><sub>max</sub>, <var>y</var><sub>max</sub>) tuples.
+     */
+    private final double[] packed;
+
+    /**
+     * The same envelopes than {@link #packed}, as objects.
+     */
+    private final GeneralEnvelope[] envelopes;
+
+    /**
+     * The region of interest.
+     */
+    private final GeneralEnvelope region;
+
+    /**
+     * Creates a new benchmark with random envelopes.
+     */
+    private EnvelopesBenchmark() {
+        final Random random = new Random();
+        packed    = new double[NUM_ENVELOPES * 4];
+        envelopes = new GeneralEnvelope[NUM_ENVELOPES];
+        region    = new GeneralEnvelope(CommonCRS.WGS84.normalizedGeographic());
+        region.setEnvelope(-40, -20, 60, 50);
+        for (int k=0; k<NUM_ENVELOPES; k++) {
+            final double x = random.nextDouble() * 360 - 180;
+            final double y = random.nextDouble() * 170 - 85;
+            double xmax = x + random.nextDouble() * 10;
+            if (xmax > 180) xmax -= 360;                        // Span the anti-meridian.
+            final int i = k * 4;
+            packed[i  ] = x;
+            packed[i+1] = y;
+            packed[i+2] = xmax;
+            packed[i+3] = y + random.nextDouble() * 5;
+            final GeneralEnvelope e = new GeneralEnvelope(region.getCoordinateReferenceSystem());
+            e.setEnvelope(packed[i], packed[i+1], packed[i+2], packed[i+3]);
+            envelopes[k] = e;
+        }
+    }
+
+    /**
+     * Filters the envelopes by invoking {@code GeneralEnvelope.intersects(…)} for each envelope.
+     */
+    private BitSet perObject() {
+        final BitSet matches = new BitSet(NUM_ENVELOPES);
+        for (int k=0; k<NUM_ENVELOPES; k++) {
+            if (region.intersects(envelopes[k], true)) {
+                matches.set(k);
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Filters the envelopes with a single call to {@code Envelopes.intersects(…)}.
+     */
+    private BitSet packed() {
+        return Envelopes.intersects(region, packed, 0, NUM_ENVELOPES, true);
+    }
+
+    /**
+     * Runs from the command line. The two methods are executed many times for letting
+     * the JIT compiler do its work. The execution times of each run are printed.
+     *
+     * @param arguments Ignored.
+     */
+    public static void main(final String[] arguments) {
+        final EnvelopesBenchmark b = new EnvelopesBenchmark();
+        for (int i=0; i<20; i++) {
+            long time = System.nanoTime();
+            final BitSet expected = b.perObject();
+            final long perObject = System.nanoTime() - time;
+            time = System.nanoTime();
+            final BitSet actual = b.packed();
+            final long packed = System.nanoTime() - time;
+            if (!expected.equals(actual)) {
+                throw new AssertionError("Inconsistent results.");
+            }
+            System.out.printf("Matches: %d    per-object: %6.2f ms    packed: %6.2f ms%n",
+                    actual.cardinality(), perObject / 1E+6, packed / 1E+6);
+        }
+    }
+}
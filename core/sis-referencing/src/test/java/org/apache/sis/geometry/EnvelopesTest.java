@@ -16,14 +16,26 @@
  */
 package org.apache.sis.geometry;
 
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Random;
 import org.opengis.geometry.Envelope;
 import org.opengis.util.FactoryException;
+import org.opengis.referencing.operation.Matrix;
+import org.opengis.referencing.operation.MathTransform;
+import org.opengis.referencing.operation.TransformException;
+import org.apache.sis.referencing.operation.matrix.Matrix2;
+import org.apache.sis.referencing.operation.transform.AbstractMathTransform2D;
+import org.apache.sis.referencing.operation.transform.MathTransformsTest;
 import org.apache.sis.test.TestCase;
 import org.apache.sis.test.DependsOn;
+import org.apache.sis.test.DependsOnMethod;
+import org.apache.sis.test.TestUtilities;
 import org.junit.Test;
 
 import static org.apache.sis.test.Assert.*;
 import static org.opengis.test.Validators.validate;
+import static org.apache.sis.geometry.AbstractEnvelopeTest.WGS84;
 
 
 /**
@@ -31,12 +43,14 @@ import static org.opengis.test.Validators.validate;
  *
  * @author  Martin Desruisseaux (IRD, Geomatys)
  * @since   0.3
- * @version 0.3
+ * @version 0.6
  * @module
  */
 @DependsOn({
+    AbstractEnvelopeTest.class,
     GeneralEnvelopeTest.class,
-    CurveExtremumTest.class
+    CurveExtremumTest.class,
+    MathTransformsTest.class
 })
 public final strictfp class EnvelopesTest extends TestCase {
 
@@ -45,6 +59,184 @@ public final strictfp class EnvelopesTest extends TestCase {
      * implementations. Those tests will be ported in a future Apache SIS version.
      */
 
+    /**
+     * Tests {@link Envelopes#transform(MathTransform, double[], int, double[], int, int)} by comparing
+     * with the results of {@link Envelopes#transform(MathTransform, Envelope)} for each envelope.
+     *
+     * @throws TransformException if an error occurred while transforming an envelope.
+     */
+    @Test
+    public void testTransformArray() throws TransformException {
+        final MathTransform transform = MathTransformsTest.createConcatenateAndPassThrough();
+        final int numEnvelopes = 100;
+        final double[] source = new double[numEnvelopes * 6];
+        for (int i=0; i<source.length; i += 6) {
+            final double x = i * 0.01;
+            source[i  ] = x;        source[i+3] = x + 0.4;
+            source[i+1] = x - 1;    source[i+4] = x + 2;
+            source[i+2] = 10 - x;   source[i+5] = 12 - x;
+        }
+        final double[] actual = new double[source.length + 3];
+        Envelopes.transform(transform, source, 0, actual, 3, numEnvelopes);
+        final GeneralEnvelope envelope = new GeneralEnvelope(3);
+        for (int i=0; i<source.length; i += 6) {
+            for (int d=0; d<3; d++) {
+                envelope.setRange(d, source[i+d], source[i+d+3]);
+            }
+            final GeneralEnvelope expected = Envelopes.transform(transform, envelope);
+            for (int d=0; d<3; d++) {
+                assertEquals("min", expected.getMinimum(d), actual[i+d+3], 1E-10);
+                assertEquals("max", expected.getMaximum(d), actual[i+d+6], 1E-10);
+            }
+        }
+        /*
+         * Transform in-place, with an offset which require the method to copy the source.
+         */
+        final double[] inPlace = Arrays.copyOf(source, source.length + 3);
+        Envelopes.transform(transform, inPlace, 0, inPlace, 3, numEnvelopes);
+        System.arraycopy(source, 0, actual, 0, 3);      // Values not overwritten by the transform.
+        assertArrayEquals(actual, inPlace, 0);
+    }
+
+    /**
+     * Tests {@link Envelopes#transform(MathTransform, double[], int, double[], int, int)} with a transform
+     * which can not compute the derivative for some envelopes. A failure for one envelope shall not
+     * prevent the use of derivatives for the next envelopes.
+     *
+     * @throws TransformException if an error occurred while transforming an envelope.
+     */
+    @Test
+    @DependsOnMethod("testTransformArray")
+    public void testTransformArrayWithDerivativeFailure() throws TransformException {
+        final MathTransform transform = new AbstractMathTransform2D() {
+            private final Exponential exact = new Exponential();
+
+            @Override
+            public Matrix transform(final double[] srcPts, final int srcOff,
+                                    final double[] dstPts, final int dstOff, final boolean derivate)
+                    throws TransformException
+            {
+                if (derivate && srcPts[srcOff] < 0) {
+                    throw new TransformException("Derivative not supported for negative x.");
+                }
+                return exact.transform(srcPts, srcOff, dstPts, dstOff, derivate);
+            }
+        };
+        final double[] source = {
+            -1.0, 0,  0, 2,         // Derivative not supported for this envelope.
+             0.5, 0,  1, 2          // Maximum of sin(y) at π/2, found only with derivatives.
+        };
+        final double[] actual = new double[source.length];
+        Envelopes.transform(transform, source, 0, actual, 0, 2);
+        for (int i=0; i<source.length; i += 4) {
+            final GeneralEnvelope expected = Envelopes.transform(transform,
+                    new GeneralEnvelope(Arrays.copyOfRange(source, i, i+2), Arrays.copyOfRange(source, i+2, i+4)));
+            for (int d=0; d<2; d++) {
+                assertEquals("min", expected.getMinimum(d), actual[i+d  ], 1E-10);
+                assertEquals("max", expected.getMaximum(d), actual[i+d+2], 1E-10);
+            }
+        }
+        assertEquals("Expected the maximum found from the derivatives.", Math.exp(1), actual[7], 0.01);
+    }
+
+    /**
+     * A conformal transform for testing purpose: the complex exponential
+     * (<var>x</var>, <var>y</var>) → (e<sup>x</sup>⋅cos(<var>y</var>), e<sup>x</sup>⋅sin(<var>y</var>)).
+     */
+    private static final class Exponential extends AbstractMathTransform2D {
+        /** Number of points transformed so far. */
+        int count;
+
+        /** Transforms a single point and optionally computes the derivative. */
+        @Override
+        public Matrix transform(final double[] srcPts, final int srcOff,
+                                final double[] dstPts, final int dstOff, final boolean derivate)
+        {
+            count++;
+            final double r = Math.exp(srcPts[srcOff]);
+            final double c = r * Math.cos(srcPts[srcOff + 1]);
+            final double s = r * Math.sin(srcPts[srcOff + 1]);
+            if (dstPts != null) {
+                dstPts[dstOff  ] = c;
+                dstPts[dstOff+1] = s;
+            }
+            return derivate ? new Matrix2(c, -s, s, c) : null;
+        }
+    }
+
+    /**
+     * Tests {@link Envelopes#transform(MathTransform, Envelope, double)} with a conformal transform
+     * having a maximum in the middle of an envelope edge.
+     *
+     * @throws TransformException if an error occurred while transforming the envelope.
+     */
+    @Test
+    @DependsOnMethod("testTransformArray")
+    public void testTransformWithTolerance() throws TransformException {
+        final double tolerance = 1E-6;
+        final Exponential transform = new Exponential();
+        final GeneralEnvelope envelope = new GeneralEnvelope(new double[] {0, 0.5}, new double[] {1, 2.5});
+        final GeneralEnvelope actual = Envelopes.transform(transform, envelope, tolerance);
+        /*
+         * The minimum along the second axis is at a corner, but the maximum
+         * is in the middle of the eastern edge, at y = π/2.
+         */
+        assertEquals("xmin", Math.E * Math.cos(2.5), actual.getMinimum(0), tolerance);
+        assertEquals("xmax", Math.E * Math.cos(0.5), actual.getMaximum(0), tolerance);
+        assertEquals("ymin", Math.sin(0.5),          actual.getMinimum(1), tolerance);
+        assertEquals("ymax", Math.E,                 actual.getMaximum(1), tolerance);
+        assertTrue("count", transform.count < 100);
+        /*
+         * Non-sensical tolerance values shall be rejected.
+         */
+        try {
+            Envelopes.transform(transform, envelope, 0);
+            fail("Shall not accept a zero tolerance.");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains("tolerance"));
+        }
+    }
+
+    /**
+     * Tests {@link Envelopes#intersects(Envelope, double[], int, int, boolean)} and
+     * {@link Envelopes#contains(Envelope, double[], int, int, boolean)} by comparing with the results
+     * of {@link GeneralEnvelope#intersects(Envelope, boolean)} and {@link GeneralEnvelope#contains(Envelope, boolean)}
+     * for each envelope. Some envelopes and regions span the anti-meridian.
+     */
+    @Test
+    public void testFilterArray() {
+        final Random random = TestUtilities.createRandomNumberGenerator();
+        final int numEnvelopes = 1000;
+        final double[] envelopes = new double[numEnvelopes * 4 + 1];
+        for (int i=1; i<envelopes.length; i += 4) {
+            final double ymin = random.nextInt(180) - 90;
+            envelopes[i  ] = random.nextInt(360) - 180;                 // May be greater than xmax.
+            envelopes[i+1] = ymin;
+            envelopes[i+2] = random.nextInt(360) - 180;
+            envelopes[i+3] = ymin + random.nextInt((int) (90 - ymin) + 1);
+        }
+        final GeneralEnvelope region   = new GeneralEnvelope(WGS84);
+        final GeneralEnvelope envelope = new GeneralEnvelope(WGS84);
+        for (int r=0; r<4; r++) {
+            final boolean edgesInclusive = (r & 1) != 0;
+            if (r < 2) {
+                region.setEnvelope(-40, -20, 60, 50);
+            } else {
+                region.setEnvelope(150, -60, -170, 30);                     // Spans the anti-meridian.
+            }
+            final BitSet intersects = Envelopes.intersects(region, envelopes, 1, numEnvelopes, edgesInclusive);
+            final BitSet contains   = Envelopes.contains  (region, envelopes, 1, numEnvelopes, edgesInclusive);
+            for (int k=0; k<numEnvelopes; k++) {
+                final int i = k*4 + 1;
+                envelope.setEnvelope(envelopes[i], envelopes[i+1], envelopes[i+2], envelopes[i+3]);
+                assertEquals("intersects", region.intersects(envelope, edgesInclusive), intersects.get(k));
+                assertEquals("contains",   region.contains  (envelope, edgesInclusive), contains  .get(k));
+            }
+            assertTrue("length", intersects.length() <= numEnvelopes);
+            assertTrue("subset", intersects.cardinality() >= contains.cardinality());
+        }
+    }
+
     /**
      * Tests {@link Envelopes#fromWKT(CharSequence)}. This test is provided as a matter of principle,
      * but the real test is done by {@link GeneralEnvelopeTest#testWktParsing()}.
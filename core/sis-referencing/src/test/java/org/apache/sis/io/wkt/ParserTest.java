@@ -0,0 +1,292 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sis.io.wkt;
+
+import java.text.ParsePosition;
+import java.text.ParseException;
+import javax.measure.unit.SI;
+import javax.measure.unit.NonSI;
+import org.opengis.referencing.cs.AxisDirection;
+import org.opengis.referencing.cs.RangeMeaning;
+import org.opengis.referencing.cs.EllipsoidalCS;
+import org.opengis.referencing.crs.GeographicCRS;
+import org.opengis.referencing.datum.Ellipsoid;
+import org.opengis.referencing.datum.GeodeticDatum;
+import org.opengis.referencing.datum.PrimeMeridian;
+import org.apache.sis.test.DependsOnMethod;
+import org.apache.sis.test.DependsOn;
+import org.apache.sis.test.TestCase;
+import org.junit.Test;
+
+import static org.apache.sis.test.ReferencingAssert.*;
+
+
+/**
+ * Tests the parsing of geodetic objects by {@link WKTFormat}, which delegates to {@link Parser}.
+ *
+ * @author  Martin Desruisseaux (Geomatys)
+ * @since   0.6
+ * @version 0.6
+ * @module
+ */
+@DependsOn(org.apache.sis.referencing.crs.DefaultGeographicCRSTest.class)
+public final strictfp class ParserTest extends TestCase {
+    /**
+     * Tolerance threshold for strict comparisons of floating point values.
+     */
+    private static final double STRICT = 0;
+
+    /**
+     * The WKT 1 definition of the WGS 84 datum, used by many tests.
+     */
+    private static final String DATUM =
+            "DATUM[\"World Geodetic System 1984\",\n" +
+            "  SPHEROID[\"WGS84\", 6378137.0, 298.257223563, AUTHORITY[\"EPSG\", \"7030\"]],\n" +
+            "  AUTHORITY[\"EPSG\", \"6326\"]]";
+
+    /**
+     * Parses the given text with a new {@link WKTFormat} using the given convention.
+     */
+    private static Object parse(final Convention convention, final String text) throws ParseException {
+        final WKTFormat format = new WKTFormat(null, null);
+        format.setConvention(convention);
+        return format.parseObject(text);
+    }
+
+    /**
+     * Tests the parsing of a geographic CRS in WKT 1 format.
+     *
+     * @throws ParseException if the parsing failed.
+     */
+    @Test
+    public void testGeographicCRS_WKT1() throws ParseException {
+        final GeographicCRS crs = (GeographicCRS) parse(Convention.WKT1,
+                "GEOGCS[\"WGS 84\",\n" + DATUM + ",\n" +
+                "  PRIMEM[\"Greenwich\", 0.0, AUTHORITY[\"EPSG\", \"8901\"]],\n" +
+                "  UNIT[\"degree\", 0.017453292519943295],\n" +
+                "  AXIS[\"Lat\", NORTH],\n" +
+                "  AXIS[\"Lon\", EAST],\n" +
+                "  AUTHORITY[\"EPSG\", \"4326\"]]");
+
+        assertEquals("name", "WGS 84", crs.getName().getCode());
+        assertIdentifierEqualsEPSG(4326, crs);
+        final GeodeticDatum datum = crs.getDatum();
+        assertEquals("datum", "World Geodetic System 1984", datum.getName().getCode());
+        assertIdentifierEqualsEPSG(6326, datum);
+        final Ellipsoid ellipsoid = datum.getEllipsoid();
+        assertEquals("ellipsoid", "WGS84", ellipsoid.getName().getCode());
+        assertEquals("semiMajorAxis", 6378137, ellipsoid.getSemiMajorAxis(), STRICT);
+        assertEquals("inverseFlattening", 298.257223563, ellipsoid.getInverseFlattening(), STRICT);
+        assertEquals("unit", SI.METRE, ellipsoid.getAxisUnit());
+        final PrimeMeridian pm = datum.getPrimeMeridian();
+        assertEquals("primeMeridian", "Greenwich", pm.getName().getCode());
+        assertEquals("greenwichLongitude", 0, pm.getGreenwichLongitude(), STRICT);
+
+        final EllipsoidalCS cs = crs.getCoordinateSystem();
+        assertEquals("dimension", 2, cs.getDimension());
+        assertAxisEquals("Lat", "φ", AxisDirection.NORTH, -90,  +90, NonSI.DEGREE_ANGLE, RangeMeaning.EXACT,      cs.getAxis(0));
+        assertAxisEquals("Lon", "λ", AxisDirection.EAST, -180, +180, NonSI.DEGREE_ANGLE, RangeMeaning.WRAPAROUND, cs.getAxis(1));
+    }
+
+    /**
+     * Tests the parsing of a geographic CRS in WKT 1 format without {@code AXIS} elements.
+     * The default axis order in WKT 1 is (<var>longitude</var>, <var>latitude</var>).
+     *
+     * @throws ParseException if the parsing failed.
+     */
+    @Test
+    @DependsOnMethod("testGeographicCRS_WKT1")
+    public void testDefaultAxes() throws ParseException {
+        final GeographicCRS crs = (GeographicCRS) parse(Convention.WKT1,
+                "GEOGCS[\"WGS 84\", " + DATUM + ", PRIMEM[\"Greenwich\", 0], UNIT[\"degree\", 0.017453292519943295]]");
+        final EllipsoidalCS cs = crs.getCoordinateSystem();
+        assertEquals("dimension", 2, cs.getDimension());
+        assertEquals(AxisDirection.EAST,  cs.getAxis(0).getDirection());
+        assertEquals(AxisDirection.NORTH, cs.getAxis(1).getDirection());
+    }
+
+    /**
+     * Tests the parsing of a geographic CRS in WKT 2 format.
+     *
+     * @throws ParseException if the parsing failed.
+     */
+    @Test
+    @DependsOnMethod("testGeographicCRS_WKT1")
+    public void testGeographicCRS_WKT2() throws ParseException {
+        final GeographicCRS crs = (GeographicCRS) parse(Convention.WKT2,
+                "GeodeticCRS[\"WGS 84\",\n" +
+                "  Datum[\"World Geodetic System 1984\",\n" +
+                "    Ellipsoid[\"WGS84\", 6378137.0, 298.257223563, LengthUnit[\"metre\", 1]]],\n" +
+                "  PrimeMeridian[\"Greenwich\", 0.0, AngleUnit[\"degree\", 0.017453292519943295]],\n" +
+                "  CS[ellipsoidal, 2],\n" +
+                "    Axis[\"Longitude (λ)\", east, Order[2]],\n" +
+                "    Axis[\"Latitude (φ)\", north, Order[1]],\n" +
+                "    AngleUnit[\"degree\", 0.017453292519943295],\n" +
+                "  Id[\"EPSG\", 4326]]");
+
+        assertEquals("name", "WGS 84", crs.getName().getCode());
+        assertIdentifierEqualsEPSG(4326, crs);
+        assertEquals("semiMajorAxis", 6378137, crs.getDatum().getEllipsoid().getSemiMajorAxis(), STRICT);
+        final EllipsoidalCS cs = crs.getCoordinateSystem();
+        assertEquals("dimension", 2, cs.getDimension());
+        assertAxisEquals("Geodetic latitude",  "φ", AxisDirection.NORTH, -90,  +90, NonSI.DEGREE_ANGLE, RangeMeaning.EXACT,      cs.getAxis(0));
+        assertAxisEquals("Geodetic longitude", "λ", AxisDirection.EAST, -180, +180, NonSI.DEGREE_ANGLE, RangeMeaning.WRAPAROUND, cs.getAxis(1));
+    }
+
+    /**
+     * Tests that the prime meridian longitude is interpreted in the unit of the enclosing CRS,
+     * except when using the {@link Convention#WKT1_COMMON_UNITS} convention.
+     *
+     * @throws ParseException if the parsing failed.
+     */
+    @Test
+    @DependsOnMethod("testGeographicCRS_WKT1")
+    public void testPrimeMeridianUnit() throws ParseException {
+        final String wkt = "GEOGCS[\"NTF (Paris)\",\n" +
+                "  DATUM[\"Nouvelle Triangulation Francaise\", SPHEROID[\"Clarke 1880 (IGN)\", 6378249.2, 293.4660212936269]],\n" +
+                "  PRIMEM[\"Paris\", 2.5969213],\n" +
+                "  UNIT[\"grade\", 0.015707963267948967]]";
+
+        PrimeMeridian pm = ((GeographicCRS) parse(Convention.WKT1, wkt)).getDatum().getPrimeMeridian();
+        assertEquals("greenwichLongitude", 2.5969213, pm.getGreenwichLongitude(), STRICT);
+        assertEquals("angularUnit", NonSI.GRADE, pm.getAngularUnit());
+
+        pm = ((GeographicCRS) parse(Convention.WKT1_COMMON_UNITS, wkt)).getDatum().getPrimeMeridian();
+        assertEquals("greenwichLongitude", 2.5969213, pm.getGreenwichLongitude(), STRICT);
+        assertEquals("angularUnit", NonSI.DEGREE_ANGLE, pm.getAngularUnit());
+    }
+
+    /**
+     * Tests that identical elements in different WKT strings are parsed into the same instance.
+     *
+     * @throws ParseException if the parsing failed.
+     */
+    @Test
+    @DependsOnMethod("testGeographicCRS_WKT1")
+    public void testSharedElements() throws ParseException {
+        final GeographicCRS crs1 = (GeographicCRS) parse(Convention.WKT1,
+                "GEOGCS[\"First\", " + DATUM + ", PRIMEM[\"Greenwich\", 0], UNIT[\"degree\", 0.017453292519943295]]");
+        final GeographicCRS crs2 = (GeographicCRS) parse(Convention.WKT1,
+                "GEOGCS[\"Second\", " + DATUM + ", PRIMEM[\"Greenwich\", 0], UNIT[\"degree\", 0.017453292519943295]]");
+        final GeographicCRS crs3 = (GeographicCRS) parse(Convention.WKT1,
+                "GEOGCS[\"Third\", DATUM[\"Other datum\",\n" +
+                "  SPHEROID[\"WGS84\", 6378137.0, 298.257223563, AUTHORITY[\"EPSG\", \"7030\"]]],\n" +
+                "  PRIMEM[\"Greenwich\", 0], UNIT[\"degree\", 0.017453292519943295]]");
+
+        assertNotSame("crs", crs1, crs2);
+        assertSame("datum",     crs1.getDatum(), crs2.getDatum());
+        assertNotSame("datum",  crs1.getDatum(), crs3.getDatum());
+        assertSame("ellipsoid", crs1.getDatum().getEllipsoid(), crs3.getDatum().getEllipsoid());
+        assertSame("primeMeridian", crs1.getDatum().getPrimeMeridian(), crs3.getDatum().getPrimeMeridian());
+    }
+
+    /**
+     * Tests the substitution of short names declared in {@link WKTFormat#definitions()}.
+     *
+     * @throws ParseException if the parsing failed.
+     */
+    @Test
+    @DependsOnMethod("testGeographicCRS_WKT1")
+    public void testDefinitions() throws ParseException {
+        final WKTFormat format = new WKTFormat(null, null);
+        format.definitions().put("$WGS84", DATUM);
+        final GeographicCRS crs = (GeographicCRS) format.parseObject(
+                "GEOGCS[\"WGS 84\", $WGS84, PRIMEM[\"Greenwich\", 0], UNIT[\"degree\", 0.017453292519943295]]");
+        assertEquals("datum", "World Geodetic System 1984", crs.getDatum().getName().getCode());
+    }
+
+    /**
+     * Tests that the same short name declared with different definitions in two {@link WKTFormat} instances
+     * does not cause one format to get the objects cached for the other format, and that the expanded
+     * definition shares the objects parsed from the same WKT written in full.
+     *
+     * @throws ParseException if the parsing failed.
+     */
+    @Test
+    @DependsOnMethod({"testDefinitions", "testSharedElements"})
+    public void testDefinitionsInSharedElements() throws ParseException {
+        final String wkt = "GEOGCS[\"Test\", DATUM[\"Test datum\", $ELLIPSOID], PRIMEM[\"Greenwich\", 0]]";
+        final WKTFormat wgs84 = new WKTFormat(null, null);
+        final WKTFormat clarke = new WKTFormat(null, null);
+        wgs84 .definitions().put("$ELLIPSOID", "SPHEROID[\"WGS84\", 6378137.0, 298.257223563]");
+        clarke.definitions().put("$ELLIPSOID", "SPHEROID[\"Clarke 1866\", 6378206.4, 294.9786982]");
+        final GeographicCRS crs1 = (GeographicCRS) wgs84 .parseObject(wkt);
+        final GeographicCRS crs2 = (GeographicCRS) clarke.parseObject(wkt);
+        assertEquals("semiMajorAxis", 6378137.0, crs1.getDatum().getEllipsoid().getSemiMajorAxis(), STRICT);
+        assertEquals("semiMajorAxis", 6378206.4, crs2.getDatum().getEllipsoid().getSemiMajorAxis(), STRICT);
+        assertNotSame("datum", crs1.getDatum(), crs2.getDatum());
+
+        final GeographicCRS crs3 = (GeographicCRS) parse(Convention.WKT1,
+                "GEOGCS[\"Test\", DATUM[\"Test datum\", SPHEROID[\"WGS84\", 6378137.0, 298.257223563]], PRIMEM[\"Greenwich\", 0]]");
+        assertSame("datum", crs1.getDatum(), crs3.getDatum());
+    }
+
+    /**
+     * Tests the error offset reported for a malformed WKT.
+     */
+    @Test
+    public void testErrorOffset() {
+        final String wkt = "GEOGCS[\"WGS 84\", " + DATUM + ", PRIMEM[\"Greenwich\", 0]";
+        try {
+            parse(Convention.WKT1, wkt);
+            fail("Missing bracket shall be reported.");
+        } catch (ParseException e) {
+            assertEquals("errorOffset", wkt.length(), e.getErrorOffset());
+        }
+        try {
+            parse(Convention.WKT1, "GEOGCS[\"WGS 84\", PRIMEM[\"Greenwich\", 0]]");
+            fail("Missing datum shall be reported.");
+        } catch (ParseException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("DATUM") || e.getMessage().contains("Datum"));
+        }
+    }
+
+    /**
+     * Tests the error index stored in the {@link ParsePosition} when parsing a malformed WKT
+     * which does not start at the beginning of the text.
+     */
+    @Test
+    @DependsOnMethod("testErrorOffset")
+    public void testErrorIndex() {
+        final String prefix = "Some text before: ";
+        final String wkt = prefix + "GEOGCS[\"WGS 84\", " + DATUM + ", PRIMEM[\"Greenwich\", 0]";
+        final WKTFormat format = new WKTFormat(null, null);
+        format.setConvention(Convention.WKT1);
+        final ParsePosition position = new ParsePosition(prefix.length());
+        try {
+            format.parse(wkt, position);
+            fail("Missing bracket shall be reported.");
+        } catch (ParseException e) {
+            assertEquals("errorOffset", wkt.length() - prefix.length(), e.getErrorOffset());
+        }
+        assertEquals("index",      prefix.length(), position.getIndex());
+        assertEquals("errorIndex", wkt.length(),    position.getErrorIndex());
+        /*
+         * An error in the middle of the text shall not be reported at the beginning of the WKT.
+         */
+        final String bad = prefix + "GEOGCS[\"WGS 84\", " + DATUM + ", PRIMEM[\"Greenwich\", 0x]]";
+        position.setIndex(prefix.length());
+        position.setErrorIndex(-1);
+        try {
+            format.parse(bad, position);
+            fail("Unparsable number shall be reported.");
+        } catch (ParseException e) {
+            assertEquals("errorIndex", prefix.length() + e.getErrorOffset(), position.getErrorIndex());
+        }
+        assertTrue("errorIndex", position.getErrorIndex() > bad.indexOf("PRIMEM"));
+    }
+}
@@ -16,9 +16,14 @@
  */
 package org.apache.sis.referencing;
 
+import java.io.IOException;
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import org.opengis.referencing.NoSuchAuthorityCodeException;
 import org.opengis.referencing.crs.CoordinateReferenceSystem;
 import org.opengis.referencing.crs.GeodeticCRS;
 import org.opengis.referencing.crs.SingleCRS;
+import org.opengis.referencing.datum.Ellipsoid;
 import org.opengis.util.FactoryException;
 import org.apache.sis.referencing.crs.DefaultCompoundCRS;
 import org.apache.sis.referencing.crs.HardCodedCRS;
@@ -35,7 +40,7 @@ import static org.apache.sis.test.Assert.*;
  *
  * @author  Martin Desruisseaux (Geomatys)
  * @since   0.4
- * @version 0.5
+ * @version 0.6
  * @module
  */
 @DependsOn({
@@ -82,6 +87,58 @@ public final strictfp class CRSTest extends TestCase {
         verifyForCode(CommonCRS.Vertical.DEPTH.crs(), "EPSG:5715");
     }
 
+    /**
+     * Tests {@link CRS#forCode(String)} with EPSG codes defined in the embedded subset of the EPSG dataset.
+     * This test also verifies that all geographic CRS declared in the {@value EmbeddedEPSG#FILENAME} file
+     * can be created.
+     *
+     * @throws FactoryException If a CRS can not be constructed.
+     * @throws IOException If an error occurred while reading the embedded file.
+     */
+    @Test
+    @DependsOnMethod("testForEpsgCode")
+    public void testForEmbeddedEpsgCode() throws FactoryException, IOException {
+        final GeodeticCRS osgb = (GeodeticCRS) CRS.forCode("EPSG:4277");
+        assertEquals("name", "OSGB 1936", osgb.getName().getCode());
+        assertEquals("datum", "Ordnance Survey of Great Britain 1936", osgb.getDatum().getName().getCode());
+        final Ellipsoid ellipsoid = osgb.getDatum().getEllipsoid();
+        assertEquals("name", "Airy 1830", ellipsoid.getName().getCode());
+        assertEquals("semiMajorAxis", 6377563.396, ellipsoid.getSemiMajorAxis(), STRICT);
+        assertEquals("inverseFlattening", 299.3249646, ellipsoid.getInverseFlattening(), STRICT);
+        assertSame("Expected cached instance.", osgb, CRS.forCode("urn:ogc:def:crs:EPSG::4277"));
+        /*
+         * Dependencies shall be shared between CRS, including with CommonCRS.
+         */
+        assertSame("ellipsoid", ((GeodeticCRS) CRS.forCode("EPSG:4314")).getDatum().getEllipsoid(),
+                                ((GeodeticCRS) CRS.forCode("EPSG:4301")).getDatum().getEllipsoid());
+        assertSame("ellipsoid", CommonCRS.ETRS89.ellipsoid(),
+                                ((GeodeticCRS) CRS.forCode("EPSG:4283")).getDatum().getEllipsoid());
+        assertSame("cs", CommonCRS.WGS84.geographic().getCoordinateSystem(), osgb.getCoordinateSystem());
+        /*
+         * Codes of objects which are not CRS shall not be accepted.
+         */
+        try {
+            CRS.forCode("EPSG:6277");
+            fail("Datum code shall not be accepted as a CRS code.");
+        } catch (NoSuchAuthorityCodeException e) {
+            assertEquals("6277", e.getAuthorityCode());
+        }
+        /*
+         * Verify that all CRS in the embedded file can be created.
+         */
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(
+                EmbeddedEPSG.class.getResourceAsStream(EmbeddedEPSG.FILENAME), "UTF-8")))
+        {
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (line.startsWith("G\t")) {
+                    final String[] fields = line.split("\t");
+                    assertEquals(fields[2], CRS.forCode("EPSG:" + fields[1]).getName().getCode());
+                }
+            }
+        }
+    }
+
     /**
      * Tests {@link CRS#forCode(String)} with CRS codes.
      *
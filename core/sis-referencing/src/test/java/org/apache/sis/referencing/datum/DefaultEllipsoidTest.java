@@ -38,7 +38,7 @@ import static org.apache.sis.test.MetadataAssert.*;
  *
  * @author  Martin Desruisseaux (IRD, Geomatys)
  * @since   0.4
- * @version 0.4
+ * @version 0.6
  * @module
  */
 @DependsOn({
@@ -145,6 +145,159 @@ public final strictfp class DefaultEllipsoidTest extends XMLTestCase {
         }
     }
 
+    /**
+     * Tests {@link DefaultEllipsoid#orthodromicDistances(double[], int, double[], int, double[], int, int)}
+     * by comparison with {@link DefaultEllipsoid#orthodromicDistance(double, double, double, double)},
+     * then on nearly antipodal points where the later method does not converge.
+     * The expected values for the antipodal points are given by C.F.F. Karney (2013).
+     */
+    @Test
+    @DependsOnMethod("testOrthodromicDistance")
+    public void testOrthodromicDistances() {
+        final DefaultEllipsoid e = new DefaultEllipsoid(GeodeticDatumMock.WGS84.getEllipsoid());
+        final Random random = TestUtilities.createRandomNumberGenerator();
+        final double[] srcPts = new double[200];
+        final double[] dstPts = new double[200];
+        for (int i=0; i<srcPts.length; i += 2) {
+            srcPts[i]   = nextLongitude(random);
+            srcPts[i+1] = -80 + 160*random.nextDouble();
+            dstPts[i]   = srcPts[i] - 90 + 180*random.nextDouble();       // Avoid antipodal points.
+            dstPts[i+1] = -80 + 160*random.nextDouble();
+        }
+        final double[] distances = new double[srcPts.length / 2 + 1];
+        e.orthodromicDistances(srcPts, 0, dstPts, 0, distances, 1, srcPts.length / 2);
+        assertEquals(0, distances[0], 0);
+        for (int i=0; i<srcPts.length; i += 2) {
+            assertEquals(e.orthodromicDistance(srcPts[i], srcPts[i+1], dstPts[i], dstPts[i+1]), distances[i/2 + 1], 0.001);
+        }
+        e.orthodromicDistances(new double[] {0, 0,   0,  0,     0, 90,   0,   0,  0, 0, Double.NaN, 0},  0,
+                               new double[] {180, 0, 179.5, 0.5, 90, -90, 179.7, 0.5, 0, 0, 10,         0},  0,
+                               distances, 0, 6);
+        assertEquals("Equatorial antipodes",  20003931.4586, distances[0], 0.001);
+        assertEquals("Nearly antipodal",      19936288.5790, distances[1], 0.001);
+        assertEquals("Poles",                 20003931.4586, distances[2], 0.001);
+        assertEquals("Nearly antipodal",      19944127.4211, distances[3], 0.001);
+        assertEquals("Coincident points",     0,             distances[4], 0);
+        assertTrue  ("NaN",                   Double.isNaN(  distances[5]));
+    }
+
+    /**
+     * Tests {@link DefaultEllipsoid#geodesicInverse(double[], int, double[], int, double[], int, int)}
+     * followed by {@link DefaultEllipsoid#geodesicDirect(double[], int, double[], int, double[], int, int)},
+     * which shall bring back the destination points.
+     */
+    @Test
+    @DependsOnMethod("testOrthodromicDistances")
+    public void testGeodesicDirectAndInverse() {
+        final DefaultEllipsoid e = new DefaultEllipsoid(GeodeticDatumMock.WGS84.getEllipsoid());
+        final Random random = TestUtilities.createRandomNumberGenerator();
+        final int numPts = 1000;
+        final double[] srcPts = new double[numPts * 2];
+        final double[] dstPts = new double[numPts * 2];
+        for (int i=0; i<srcPts.length; i += 2) {
+            srcPts[i]   = nextLongitude(random);
+            srcPts[i+1] = -90 + 180*random.nextDouble();
+            dstPts[i]   = nextLongitude(random);
+            dstPts[i+1] = -90 + 180*random.nextDouble();
+            if ((i & 2) != 0) {
+                dstPts[i]   = srcPts[i] + 180 + (random.nextDouble() - 0.5);  // Nearly antipodal points.
+                dstPts[i+1] = Math.max(-90, Math.min(90, (random.nextDouble() - 0.5) - srcPts[i+1]));
+            }
+        }
+        final double[] results = new double[numPts * 3];
+        e.geodesicInverse(srcPts, 0, dstPts, 0, results, 0, numPts);
+        final double[] vectors = new double[numPts * 2];
+        for (int i=0; i<numPts; i++) {
+            final double azimuth = results[i*3 + 1];
+            assertTrue("azimuth₁", azimuth >= -180 && azimuth <= 180);
+            vectors[i*2]     = azimuth;
+            vectors[i*2 + 1] = results[i*3];
+        }
+        final double[] actual = new double[numPts * 2];
+        e.geodesicDirect(srcPts, 0, vectors, 0, actual, 0, numPts);
+        for (int i=0; i<srcPts.length; i += 2) {
+            final double φ = dstPts[i+1];
+            assertEquals("φ", φ, actual[i+1], 1E-9);
+            if (Math.abs(φ) < 89) {
+                assertEquals("λ", 0, IEEEremainder(actual[i] - dstPts[i], 360), 1E-9 / cos(toRadians(φ)));
+            }
+        }
+    }
+
+    /**
+     * Tests {@link DefaultEllipsoid#geodesicInverse(double[], int, double[], int, double[], int, int)} and
+     * {@link DefaultEllipsoid#geodesicDirect(double[], int, double[], int, double[], int, int)} against
+     * reference values on the WGS84 ellipsoid. The first two rows are the examples published by Karney (2013)
+     * in <cite>Algorithms for geodesics</cite>, the second one being a nearly antipodal pair of points.
+     * The other rows have been computed by numerical integration of the geodesic differential equations
+     * using the Runge-Kutta method with steps of 25 metres, which reproduces the Karney examples to 10⁻¹⁰°.
+     */
+    @Test
+    @DependsOnMethod("testGeodesicDirectAndInverse")
+    public void testGeodesicReferenceValues() {
+        final double[][] data = {
+            // φ₁      α₁ (°)           s₁₂ (m)         φ₂               λ₂               α₂
+            {  40,     30,              10000000,       41.79331020506,  137.84490004377, 149.09016931807},
+            { -30,    161.890524736,    19989832.82761, 29.9,            179.8,            18.090737246 },
+            {   0,     90,               5000000,        0,               44.91576420614,  90            },
+            {  10,      0,               8000000,       81.97656058692,    0,               0            },
+            { -45,    135,              15000000,        8.37278816159,  149.42361852276,  30.41095208813},
+            {  60,     80,              18000000,      -52.87823362870,  149.61807729362, 125.29259187374},
+            {   0,     45,              12000000,       42.33963060006,  114.49436808220, 107.22002201498},
+            { -75,   -100,               3000000,      -61.86747723913,  -70.78724612139, -32.74192195707},
+            {  35,    170,              19000000,      -43.88081651948,  177.75483223325,  11.37598695631}
+        };
+        final DefaultEllipsoid e = new DefaultEllipsoid(GeodeticDatumMock.WGS84.getEllipsoid());
+        final double[] results = new double[3];
+        final double[] actual  = new double[2];
+        for (final double[] row : data) {
+            final double[] srcPts = {0, row[0]};
+            e.geodesicInverse(srcPts, 0, new double[] {row[4], row[3]}, 0, results, 0, 1);
+            assertEquals("s₁₂", row[2], results[0], 1E-4);
+            assertEquals("α₁",  row[1], results[1], 1E-7);
+            assertEquals("α₂",  row[5], results[2], 1E-7);
+            e.geodesicDirect(srcPts, 0, new double[] {row[1], row[2]}, 0, actual, 0, 1);
+            assertEquals("λ₂",  row[4], actual[0], 1E-9);
+            assertEquals("φ₂",  row[3], actual[1], 1E-9);
+        }
+        /*
+         * Short line example from Karney (2013). The azimuths of a 5 metres line are less accurate
+         * when expressed in degrees, but the corresponding lateral displacement is only a few nanometres.
+         */
+        e.geodesicInverse(new double[] {0, -30.12345}, 0, new double[] {0.00005, -30.12344}, 0, results, 0, 1);
+        assertEquals("s₁₂", 4.944208,     results[0], 1E-6);
+        assertEquals("α₁",  77.043533542, results[1], 1E-6);
+        assertEquals("α₂",  77.043508449, results[2], 1E-6);
+    }
+
+    /**
+     * Tests {@link DefaultEllipsoid#orthodromicDistanceMatrix(double[], int, int, int, int, double[], int)}.
+     */
+    @Test
+    @DependsOnMethod("testOrthodromicDistances")
+    public void testOrthodromicDistanceMatrix() {
+        final DefaultEllipsoid e = new DefaultEllipsoid(GeodeticDatumMock.WGS84.getEllipsoid());
+        final Random random = TestUtilities.createRandomNumberGenerator();
+        final int numPts = 20;
+        final double[] points = new double[numPts * 2 + 1];
+        for (int i=1; i<points.length; i += 2) {
+            points[i]   = nextLongitude(random);
+            points[i+1] = -90 + 180*random.nextDouble();
+        }
+        final double[] matrix = new double[numPts * numPts];
+        e.orthodromicDistanceMatrix(points, 1, numPts, 0, 5, matrix, 0);
+        e.orthodromicDistanceMatrix(points, 1, numPts, 5, numPts, matrix, 5 * numPts);
+        final double[] distance = new double[1];
+        for (int i=0; i<numPts; i++) {
+            assertEquals("diagonal", 0, matrix[i*numPts + i], 0);
+            for (int j=0; j<numPts; j++) {
+                e.orthodromicDistances(points, 1 + 2*i, points, 1 + 2*j, distance, 0, 1);
+                assertEquals("distance",  distance[0], matrix[i*numPts + j], 1E-4);
+                assertEquals("symmetry", matrix[j*numPts + i], matrix[i*numPts + j], 1E-4);
+            }
+        }
+    }
+
     /**
      * Tests the {@link DefaultEllipsoid#getAuthalicRadius()} method on the GRS 1980 ellipsoid (EPSG:7019).
      * The expected result is the radius of the sphere defined by EPSG:7048.
@@ -0,0 +1,120 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sis.referencing.datum;
+
+import java.util.Random;
+import org.apache.sis.test.mock.GeodeticDatumMock;
+
+
+/**
+ * Compares the speed of {@code DefaultEllipsoid.orthodromicDistances(…)}, which delegates to
+ * {@link GeodesicSolver}, with invocations of {@code DefaultEllipsoid.orthodromicDistance(…)}
+ * for each pair of points. The pairs are random points on the WGS84 ellipsoid, excluding the
+ * nearly antipodal ones since {@code orthodromicDistance(…)} does not converge for them.
+ * An other run measures the batch method on nearly antipodal points only, which use the
+ * slower bisection.
+ */
+public final class GeodesicSolverBenchmark {
+    /**
+     * Number of pairs of points.
+     */
+    private static final int NUM_PAIRS = 1000000;
+
+    /**
+     * The ellipsoid on which to compute the distances.
+     */
+    private final DefaultEllipsoid ellipsoid;
+
+    /**
+     * The first and second point of each pair, as (<var>λ</var>,<var>φ</var>) tuples in decimal degrees.
+     */
+    private final double[] srcPts, dstPts;
+
+    /**
+     * Nearly antipodal points, as (<var>λ</var>,<var>φ</var>) tuples in decimal degrees.
+     */
+    private final double[] antipodes;
+
+    /**
+     * Creates a new benchmark with random pairs of points.
+     */
+    private GeodesicSolverBenchmark() {
+        final Random random = new Random();
+        ellipsoid = new DefaultEllipsoid(GeodeticDatumMock.WGS84.getEllipsoid());
+        srcPts    = new double[NUM_PAIRS * 2];
+        dstPts    = new double[NUM_PAIRS * 2];
+        antipodes = new double[NUM_PAIRS * 2];
+        for (int i=0; i<srcPts.length; i += 2) {
+            final double λ = random.nextDouble() * 360 - 180;
+            final double φ = random.nextDouble() * 170 -  85;
+            srcPts[i]      = λ;
+            srcPts[i+1]    = φ;
+            dstPts[i]      = λ + random.nextDouble() * 300 - 150;       // Avoid antipodal points.
+            dstPts[i+1]    = random.nextDouble() * 170 - 85;
+            antipodes[i]   = λ + 180 + (random.nextDouble() - 0.5);
+            antipodes[i+1] = (random.nextDouble() - 0.5) - φ;
+        }
+    }
+
+    /**
+     * Computes the distances by invoking {@code DefaultEllipsoid.orthodromicDistance(…)} for each pair.
+     */
+    private double[] perPair() {
+        final double[] distances = new double[NUM_PAIRS];
+        for (int i=0; i<NUM_PAIRS; i++) {
+            distances[i] = ellipsoid.orthodromicDistance(srcPts[2*i], srcPts[2*i+1], dstPts[2*i], dstPts[2*i+1]);
+        }
+        return distances;
+    }
+
+    /**
+     * Computes the distances with a single call to {@code DefaultEllipsoid.orthodromicDistances(…)}.
+     */
+    private double[] batch(final double[] targets) {
+        final double[] distances = new double[NUM_PAIRS];
+        ellipsoid.orthodromicDistances(srcPts, 0, targets, 0, distances, 0, NUM_PAIRS);
+        return distances;
+    }
+
+    /**
+     * Runs from the command line. The methods are executed many times for letting
+     * the JIT compiler do its work. The execution times of each run are printed.
+     *
+     * @param arguments Ignored.
+     */
+    public static void main(final String[] arguments) {
+        final GeodesicSolverBenchmark b = new GeodesicSolverBenchmark();
+        for (int i=0; i<20; i++) {
+            long time = System.nanoTime();
+            final double[] expected = b.perPair();
+            final long perPair = System.nanoTime() - time;
+            time = System.nanoTime();
+            final double[] actual = b.batch(b.dstPts);
+            final long batch = System.nanoTime() - time;
+            time = System.nanoTime();
+            b.batch(b.antipodes);
+            final long antipodal = System.nanoTime() - time;
+            for (int j=0; j<NUM_PAIRS; j++) {
+                if (!(Math.abs(expected[j] - actual[j]) <= 0.001)) {
+                    throw new AssertionError("Inconsistent results.");
+                }
+            }
+            System.out.printf("per-pair: %6.2f ms    batch: %6.2f ms    batch (nearly antipodal): %6.2f ms%n",
+                    perPair / 1E+6, batch / 1E+6, antipodal / 1E+6);
+        }
+    }
+}
@@ -0,0 +1,208 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sis.referencing.operation.builder;
+
+import java.util.Random;
+import org.opengis.referencing.operation.Matrix;
+import org.opengis.referencing.operation.MathTransform;
+import org.opengis.referencing.operation.TransformException;
+import org.apache.sis.referencing.operation.matrix.NoninvertibleMatrixException;
+import org.apache.sis.referencing.operation.transform.LinearTransform;
+import org.apache.sis.referencing.operation.transform.AbstractMathTransform;
+import org.apache.sis.test.DependsOnMethod;
+import org.apache.sis.test.DependsOn;
+import org.apache.sis.test.TestUtilities;
+import org.apache.sis.test.TestCase;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+
+/**
+ * Tests {@link LeastSquaresAccumulator}.
+ *
+ * @author  Martin Desruisseaux (Geomatys)
+ * @since   0.6
+ * @version 0.6
+ * @module
+ */
+@DependsOn(LinearTransformBuilderTest.class)
+public final strictfp class LeastSquaresAccumulatorTest extends TestCase {
+    /**
+     * The origin of the points used by the polynomial tests,
+     * in a range of values typical of projected coordinates.
+     */
+    private static final double X0 = 500000, Y0 = 4000000;
+
+    /**
+     * Half the width and height of the domain of points used by the polynomial tests.
+     */
+    private static final double HALF_SPAN = 10000;
+
+    /**
+     * The cubic polynomial used by the tests, relative to ({@link #X0}, {@link #Y0}).
+     */
+    private static double polynomial(final double x, final double y, final int dimension) {
+        final double dx = x - X0;
+        final double dy = y - Y0;
+        return (dimension == 0 ? 100 : -50) + 0.9*dx + 0.1*dy
+                + 1E-6*dx*dx - 2E-6*dx*dy + 3E-7*dy*dy
+                + 1E-11*dx*dx*dx - 2E-12*dy*dy*dy + (dimension == 0 ? 3E-12 : -1E-12)*dx*dx*dy;
+    }
+
+    /**
+     * Adds random points to the given accumulators, in a round-robin way.
+     */
+    private static void addPoints(final Random rd, final int numPts, final LeastSquaresAccumulator... accumulators) {
+        final double[] source = new double[2];
+        final double[] target = new double[2];
+        for (int i=0; i<numPts; i++) {
+            source[0] = X0 + (rd.nextDouble() * 2 - 1) * HALF_SPAN;
+            source[1] = Y0 + (rd.nextDouble() * 2 - 1) * HALF_SPAN;
+            target[0] = polynomial(source[0], source[1], 0);
+            target[1] = polynomial(source[0], source[1], 1);
+            accumulators[i % accumulators.length].add(source, target);
+        }
+    }
+
+    /**
+     * Tests the fit of an affine transform from three-dimensional source points.
+     *
+     * @throws NoninvertibleMatrixException should never happen.
+     */
+    @Test
+    public void testAffine() throws NoninvertibleMatrixException {
+        final Random rd = TestUtilities.createRandomNumberGenerator(6245031298640155274L);
+        final LeastSquaresAccumulator accumulator = new LeastSquaresAccumulator(3, 2, 1);
+        for (int i=0; i<1000; i++) {
+            final double x = rd.nextDouble() * 1E+6;
+            final double y = rd.nextDouble() * 1E+6;
+            final double z = rd.nextDouble() * 100;
+            accumulator.add(new double[] {x, y, z}, new double[] {2*x - 3*y + 0.5*z + 7, -x + 4*y - z - 11});
+        }
+        assertEquals("pointCount", 1000, accumulator.getPointCount());
+        final Matrix m = ((LinearTransform) accumulator.create()).getMatrix();
+        assertEquals("m₀₀",   2,   m.getElement(0, 0), 1E-12);
+        assertEquals("m₀₁",  -3,   m.getElement(0, 1), 1E-12);
+        assertEquals("m₀₂",   0.5, m.getElement(0, 2), 1E-8);
+        assertEquals("m₀₃",   7,   m.getElement(0, 3), 1E-6);
+        assertEquals("m₁₀",  -1,   m.getElement(1, 0), 1E-12);
+        assertEquals("m₁₁",   4,   m.getElement(1, 1), 1E-12);
+        assertEquals("m₁₂",  -1,   m.getElement(1, 2), 1E-8);
+        assertEquals("m₁₃", -11,   m.getElement(1, 3), 1E-6);
+        assertEquals("m₂₃",   1,   m.getElement(2, 3), 0);
+        assertArrayEquals("correlation", new double[] {1, 1}, accumulator.correlation(), 1E-12);
+    }
+
+    /**
+     * Tests the fit of a cubic polynomial, then verifies the transformed points and the derivatives.
+     *
+     * @throws NoninvertibleMatrixException should never happen.
+     * @throws TransformException should never happen.
+     */
+    @Test
+    @DependsOnMethod("testAffine")
+    public void testCubic() throws NoninvertibleMatrixException, TransformException {
+        final Random rd = TestUtilities.createRandomNumberGenerator();
+        final LeastSquaresAccumulator accumulator = new LeastSquaresAccumulator(new double[] {X0, Y0}, 2, 3);
+        addPoints(rd, 10000, accumulator);
+        accumulator.add(new double[] {Double.NaN, Y0}, new double[] {1, 2});     // Shall be ignored.
+        assertEquals("pointCount", 10000, accumulator.getPointCount());
+        final MathTransform tr = accumulator.create();
+        assertEquals("sourceDimensions", 2, tr.getSourceDimensions());
+        assertEquals("targetDimensions", 2, tr.getTargetDimensions());
+        assertArrayEquals("correlation", new double[] {1, 1}, accumulator.correlation(), 1E-12);
+        final double[] point = new double[2];
+        final double[] result = new double[2];
+        for (int i=0; i<100; i++) {
+            point[0] = X0 + (rd.nextDouble() * 2 - 1) * HALF_SPAN;
+            point[1] = Y0 + (rd.nextDouble() * 2 - 1) * HALF_SPAN;
+            final Matrix derivative = ((AbstractMathTransform) tr).transform(point, 0, result, 0, true);
+            for (int j=0; j<2; j++) {
+                assertEquals("transform", polynomial(point[0], point[1], j), result[j], 1E-6);
+                final double h = 0.01;
+                final double dx = (polynomial(point[0] + h, point[1], j) - polynomial(point[0] - h, point[1], j)) / (2*h);
+                final double dy = (polynomial(point[0], point[1] + h, j) - polynomial(point[0], point[1] - h, j)) / (2*h);
+                assertEquals("∂/∂x", dx, derivative.getElement(j, 0), 1E-6);
+                assertEquals("∂/∂y", dy, derivative.getElement(j, 1), 1E-6);
+            }
+        }
+    }
+
+    /**
+     * Tests the merge of partial accumulators, as would be done after a parallel computation.
+     * The result shall be the same than accumulating all points in a single instance.
+     *
+     * @throws NoninvertibleMatrixException should never happen.
+     * @throws TransformException should never happen.
+     */
+    @Test
+    @DependsOnMethod("testCubic")
+    public void testMerge() throws NoninvertibleMatrixException, TransformException {
+        final long seed = TestUtilities.createRandomNumberGenerator().nextLong();
+        final double[] origin = new double[] {X0, Y0};
+        final LeastSquaresAccumulator whole = new LeastSquaresAccumulator(origin, 2, 2);
+        final LeastSquaresAccumulator[] parts = new LeastSquaresAccumulator[4];
+        for (int i=0; i<parts.length; i++) {
+            parts[i] = new LeastSquaresAccumulator(origin, 2, 2);
+        }
+        addPoints(new Random(seed), 2000, whole);
+        addPoints(new Random(seed), 2000, parts);
+        for (int i=1; i<parts.length; i++) {
+            parts[0].merge(parts[i]);
+        }
+        assertEquals("pointCount", whole.getPointCount(), parts[0].getPointCount());
+        final MathTransform expected = whole.create();
+        final MathTransform actual = parts[0].create();
+        final double[] points = new double[] {X0, Y0, X0 - 5000, Y0 + 3000, X0 + 8000, Y0 - 9000};
+        final double[] expectedResults = new double[points.length];
+        final double[] actualResults = new double[points.length];
+        expected.transform(points, 0, expectedResults, 0, 3);
+        actual  .transform(points, 0, actualResults,   0, 3);
+        assertArrayEquals("transform", expectedResults, actualResults, 1E-6);
+        try {
+            parts[0].merge(new LeastSquaresAccumulator(origin, 2, 3));
+            fail("Shall not merge accumulators of different degrees.");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains("degree"));
+        }
+    }
+
+    /**
+     * Tests that an accumulator with less points than polynomial terms can not create a transform.
+     */
+    @Test
+    public void testNotEnoughPoints() {
+        final LeastSquaresAccumulator accumulator = new LeastSquaresAccumulator(2, 1, 2);
+        try {
+            accumulator.create();
+            fail("Shall not create a transform without points.");
+        } catch (IllegalStateException e) {
+            // This is the expected exception.
+        } catch (NoninvertibleMatrixException e) {
+            fail(e.toString());
+        }
+        accumulator.add(new double[] {1, 2}, new double[] {3});
+        accumulator.add(new double[] {2, 3}, new double[] {3});
+        try {
+            accumulator.create();
+            fail("Shall not create a transform from 2 points.");
+        } catch (NoninvertibleMatrixException e) {
+            // This is the expected exception.
+        }
+    }
+}
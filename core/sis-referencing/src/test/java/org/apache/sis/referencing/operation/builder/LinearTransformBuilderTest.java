@@ -21,6 +21,7 @@ import java.awt.geom.AffineTransform;
 import org.opengis.referencing.operation.Matrix;
 import org.apache.sis.geometry.DirectPosition1D;
 import org.apache.sis.geometry.DirectPosition2D;
+import org.apache.sis.geometry.GeneralDirectPosition;
 import org.apache.sis.test.DependsOnMethod;
 import org.apache.sis.test.TestUtilities;
 import org.apache.sis.test.TestCase;
@@ -34,7 +35,7 @@ import static org.junit.Assert.*;
  *
  * @author  Martin Desruisseaux (Geomatys)
  * @since   0.5
- * @version 0.5
+ * @version 0.6
  * @module
  */
 public final strictfp class LinearTransformBuilderTest extends TestCase {
@@ -120,6 +121,56 @@ public final strictfp class LinearTransformBuilderTest extends TestCase {
         }
     }
 
+    /**
+     * Tests with three-dimensional source points, which are handled by {@link LeastSquaresAccumulator}.
+     */
+    @Test
+    @DependsOnMethod("testExact2D")
+    public void testExact3D() {
+        final Random rd = TestUtilities.createRandomNumberGenerator(-3527421936581403521L);
+        final int numPts = rd.nextInt(900) + 100;
+        final GeneralDirectPosition[] sources = new GeneralDirectPosition[numPts];
+        final DirectPosition2D[] targets = new DirectPosition2D[numPts];
+        for (int i=0; i<numPts; i++) {
+            final double x = rd.nextDouble() * 100 - 50;
+            final double y = rd.nextDouble() * 200 - 75;
+            final double z = rd.nextDouble() * 10;
+            sources[i] = new GeneralDirectPosition(x, y, z);
+            targets[i] = new DirectPosition2D(2*x - 3*y + 0.5*z + 7, -x + 4*y - z - 11);
+        }
+        final LinearTransformBuilder builder = new LinearTransformBuilder();
+        builder.setSourcePoints(sources);
+        builder.setTargetPoints(targets);
+        final Matrix m = builder.create().getMatrix();
+        assertEquals("numRow", 3, m.getNumRow());
+        assertEquals("numCol", 4, m.getNumCol());
+        assertEquals("m₀₀",   2,   m.getElement(0, 0), 1E-12);
+        assertEquals("m₀₁",  -3,   m.getElement(0, 1), 1E-12);
+        assertEquals("m₀₂",   0.5, m.getElement(0, 2), 1E-12);
+        assertEquals("m₀₃",   7,   m.getElement(0, 3), 1E-10);
+        assertEquals("m₁₀",  -1,   m.getElement(1, 0), 1E-12);
+        assertEquals("m₁₁",   4,   m.getElement(1, 1), 1E-12);
+        assertEquals("m₁₂",  -1,   m.getElement(1, 2), 1E-12);
+        assertEquals("m₁₃", -11,   m.getElement(1, 3), 1E-10);
+        assertArrayEquals("correlation", new double[] {1, 1}, builder.correlation(), 1E-12);
+    }
+
+    /**
+     * Tests that points having zero dimension cause an {@link IllegalStateException}.
+     */
+    @Test
+    public void testZeroDimension() {
+        final LinearTransformBuilder builder = new LinearTransformBuilder();
+        builder.setSourcePoints(new GeneralDirectPosition(0), new GeneralDirectPosition(0));
+        builder.setTargetPoints(new DirectPosition1D(1), new DirectPosition1D(2));
+        try {
+            builder.create();
+            fail("Expected IllegalStateException.");
+        } catch (IllegalStateException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("sourceDimension"));
+        }
+    }
+
     /**
      * Tests with a random number of points and a random errors in target points.
      */
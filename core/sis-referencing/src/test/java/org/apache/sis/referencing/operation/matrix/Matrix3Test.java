@@ -17,6 +17,7 @@
 package org.apache.sis.referencing.operation.matrix;
 
 import org.apache.sis.test.DependsOn;
+import org.apache.sis.test.DependsOnMethod;
 import org.junit.Test;
 
 import static org.junit.Assert.*;
@@ -29,7 +30,7 @@ import static org.apache.sis.referencing.operation.matrix.Matrix3.SIZE;
  *
  * @author  Martin Desruisseaux (Geomatys)
  * @since   0.4
- * @version 0.4
+ * @version 0.6
  * @module
  */
 @DependsOn(SolverTest.class)
@@ -100,4 +101,51 @@ public final strictfp class Matrix3Test extends MatrixTestCase {
         // Now the actual test.
         assertEqualsElements(expected, SIZE, SIZE, A.solve(B), TOLERANCE);
     }
+
+    /**
+     * Tests {@link Matrix3#multiply(Matrix)} and {@link Matrix3#inverse()} with matrices having only integer
+     * or binary fraction values, in which case the unrolled {@code double} arithmetic shall be used. Then tests
+     * with a matrix which requires the extended precision.
+     *
+     * @throws NoninvertibleMatrixException Should not happen.
+     */
+    @Test
+    @DependsOnMethod("testSolveEquivalence")
+    public void testUnrolledOperations() throws NoninvertibleMatrixException {
+        final Matrix3 swap = new Matrix3(
+                0,  1,  0,
+                1,  0,  0,
+                0,  0,  1);
+
+        final Matrix3 scale = new Matrix3(
+                2,  0, 10,
+                0, -4, 20,
+                0,  0,  1);
+
+        final MatrixSIS product = swap.multiply(scale);
+        validate(product);
+        assertEquals(new Matrix3(
+                0, -4, 20,
+                2,  0, 10,
+                0,  0,  1), product);
+
+        final MatrixSIS inverse = product.inverse();
+        validate(inverse);
+        assertEquals(new Matrix3(       // Strict comparison, including the sign of zeros.
+                 0,    0.5, -5,
+                -0.25, 0,    5,
+                 0,    0,    1), inverse);
+        assertTrue("isIdentity", inverse.multiply(product).isIdentity());
+        /*
+         * The inverse of a scale factor of 3 can not be computed exactly in double arithmetic.
+         * The extended precision is required for getting back the identity matrix.
+         */
+        final Matrix3 three = new Matrix3(
+                3,  0,  0,
+                0,  3,  0,
+                0,  0,  1);
+        final MatrixSIS third = three.inverse();
+        assertNotSame(Matrix3.class, third.getClass());
+        assertTrue("isIdentity", three.multiply(third).isIdentity());
+    }
 }
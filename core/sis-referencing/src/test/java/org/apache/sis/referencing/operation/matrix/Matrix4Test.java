@@ -17,6 +17,7 @@
 package org.apache.sis.referencing.operation.matrix;
 
 import org.apache.sis.test.DependsOn;
+import org.apache.sis.test.DependsOnMethod;
 import org.junit.Test;
 
 import static org.junit.Assert.*;
@@ -29,7 +30,7 @@ import static org.apache.sis.referencing.operation.matrix.Matrix4.SIZE;
  *
  * @author  Martin Desruisseaux (Geomatys)
  * @since   0.4
- * @version 0.4
+ * @version 0.6
  * @module
  */
 @DependsOn(SolverTest.class)
@@ -118,4 +119,43 @@ public final strictfp class Matrix4Test extends MatrixTestCase {
         final MatrixSIS result = step3.multiply(step2).multiply(step1);
         assertTrue("isIdentity()", result.isIdentity());
     }
+
+    /**
+     * Tests {@link Matrix4#multiply(Matrix)} and {@link Matrix4#inverse()} with matrices having only integer
+     * or binary fraction values, in which case the unrolled {@code double} arithmetic shall be used.
+     *
+     * @throws NoninvertibleMatrixException Should never happen.
+     */
+    @Test
+    @DependsOnMethod("testAccuracy")
+    public void testUnrolledOperations() throws NoninvertibleMatrixException {
+        final Matrix4 step1 = new Matrix4(
+                0,  1,  0,  0,
+                1,  0,  0,  0,
+                0,  0, -1,  3,
+                0,  0,  0,  1);
+
+        final Matrix4 step2 = new Matrix4(
+                4,  0,  0,  2,
+                0,  2,  0,  1,
+                0,  0,  1,  0,
+                0,  0,  0,  1);
+
+        final MatrixSIS product = step2.multiply(step1);
+        validate(product);
+        assertEquals(new Matrix4(
+                0,  4,  0,  2,
+                2,  0,  0,  1,
+                0,  0, -1,  3,
+                0,  0,  0,  1), product);
+
+        final MatrixSIS inverse = product.inverse();
+        validate(inverse);
+        assertEquals(new Matrix4(       // Strict comparison, including the sign of zeros.
+                0,    0.5,  0, -0.5,
+                0.25, 0,    0, -0.5,
+                0,    0,   -1,  3,
+                0,    0,    0,  1), inverse);
+        assertTrue("isIdentity", product.multiply(inverse).isIdentity());
+    }
 }
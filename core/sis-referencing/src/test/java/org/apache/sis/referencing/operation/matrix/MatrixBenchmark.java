@@ -0,0 +1,146 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sis.referencing.operation.matrix;
+
+import java.util.Arrays;
+import java.util.Random;
+import org.opengis.referencing.operation.MathTransform;
+import org.opengis.referencing.operation.NoninvertibleTransformException;
+import org.apache.sis.referencing.operation.transform.MathTransforms;
+
+
+/**
+ * Compares the speed of {@code multiply(…)} and {@code inverse()} on {@link Matrix1} to {@link Matrix4}
+ * with the same operations on {@link GeneralMatrix}, which is the extended-precision implementation used
+ * by the fixed-size matrices when their fast path does not apply. The matrices are affine transforms made
+ * of axis swaps, sign changes, power of two scales and integer offsets, as created for axis order changes
+ * and unit conversions. The throughput of the creation of linear transforms by concatenation and inversion
+ * is also measured, since this is the main use of those matrix operations.
+ */
+public final class MatrixBenchmark {
+    /**
+     * Number of pairs of matrices to multiply for each size.
+     */
+    private static final int NUM_PAIRS = 100000;
+
+    /**
+     * The matrix size, from 1 to 4 inclusive.
+     */
+    private final int size;
+
+    /**
+     * The pairs of matrices as {@code Matrix1} to {@code Matrix4} instances,
+     * and the same matrices as {@code GeneralMatrix} instances.
+     */
+    private final MatrixSIS[] fixed, general;
+
+    /**
+     * Creates a new benchmark with random matrices of the given size.
+     */
+    private MatrixBenchmark(final int size, final Random random) {
+        this.size = size;
+        fixed   = new MatrixSIS[NUM_PAIRS * 2];
+        general = new MatrixSIS[NUM_PAIRS * 2];
+        final int[] axes = new int[size - 1];
+        for (int i=0; i<fixed.length; i++) {
+            final double[] elements = new double[size * size];
+            if (size == 1) {
+                elements[0] = Math.scalb(random.nextBoolean() ? 1 : -1, random.nextInt(9) - 4);
+            } else {
+                for (int j=0; j<axes.length; j++) {
+                    axes[j] = j;
+                }
+                for (int j=axes.length; --j > 0;) {                         // Random axis order.
+                    final int k = random.nextInt(j + 1);
+                    final int t = axes[j]; axes[j] = axes[k]; axes[k] = t;
+                }
+                for (int j=0; j<axes.length; j++) {
+                    elements[j*size + axes[j]] = Math.scalb(random.nextBoolean() ? 1 : -1, random.nextInt(9) - 4);
+                    elements[j*size + axes.length] = random.nextInt(2001) - 1000;
+                }
+                elements[elements.length - 1] = 1;
+            }
+            fixed  [i] = Matrices.create(size, size, elements);
+            general[i] = new GeneralMatrix(fixed[i]);
+        }
+    }
+
+    /**
+     * Multiplies each pair of matrices and inverts the result.
+     *
+     * @return The elements of the last result, for verification purpose.
+     */
+    private static double[] multiplyAndInvert(final MatrixSIS[] matrices) throws NoninvertibleMatrixException {
+        MatrixSIS result = null;
+        for (int i=0; i<matrices.length; i += 2) {
+            result = matrices[i].multiply(matrices[i+1]).inverse();
+        }
+        return result.getElements();
+    }
+
+    /**
+     * Creates the linear transforms for each pair of matrices,
+     * then concatenates and inverts them.
+     *
+     * @return The last transform created, for preventing the JIT compiler to discard the work.
+     */
+    private MathTransform createTransforms() throws NoninvertibleTransformException {
+        MathTransform result = null;
+        for (int i=0; i<fixed.length; i += 2) {
+            result = MathTransforms.concatenate(MathTransforms.linear(fixed[i+1]), MathTransforms.linear(fixed[i])).inverse();
+        }
+        return result;
+    }
+
+    /**
+     * Runs from the command line. The methods are executed many times for letting
+     * the JIT compiler do its work. The execution times of each run are printed.
+     *
+     * @param  arguments Ignored.
+     * @throws NoninvertibleMatrixException Should never happen.
+     * @throws NoninvertibleTransformException Should never happen.
+     */
+    public static void main(final String[] arguments) throws NoninvertibleMatrixException, NoninvertibleTransformException {
+        final Random random = new Random();
+        final MatrixBenchmark[] benchmarks = new MatrixBenchmark[4];
+        for (int i=0; i<benchmarks.length; i++) {
+            benchmarks[i] = new MatrixBenchmark(i + 1, random);
+        }
+        for (int r=0; r<10; r++) {
+            for (final MatrixBenchmark b : benchmarks) {
+                long time = System.nanoTime();
+                final double[] expected = multiplyAndInvert(b.general);
+                final long extended = System.nanoTime() - time;
+                time = System.nanoTime();
+                final double[] actual = multiplyAndInvert(b.fixed);
+                final long fast = System.nanoTime() - time;
+                if (!Arrays.equals(expected, actual)) {
+                    throw new AssertionError("Inconsistent results.");
+                }
+                String transforms = "";
+                if (b.size > 1) {                                           // Matrix1 has no transform dimension.
+                    time = System.nanoTime();
+                    b.createTransforms();
+                    time = System.nanoTime() - time;
+                    transforms = String.format("    transforms: %,.0f per second", NUM_PAIRS / (time / 1E+9));
+                }
+                System.out.printf("Matrix%d    GeneralMatrix: %6.2f ms    fixed size: %6.2f ms%s%n",
+                        b.size, extended / 1E+6, fast / 1E+6, transforms);
+            }
+        }
+    }
+}
@@ -0,0 +1,216 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sis.referencing.operation.transform;
+
+import java.util.Random;
+import java.awt.geom.Rectangle2D;
+import org.opengis.referencing.operation.Matrix;
+import org.opengis.referencing.operation.MathTransform2D;
+import org.opengis.referencing.operation.TransformException;
+import org.apache.sis.referencing.operation.matrix.Matrix2;
+import org.apache.sis.referencing.operation.matrix.Matrix3;
+import org.apache.sis.test.TestUtilities;
+import org.apache.sis.test.DependsOnMethod;
+import org.apache.sis.test.TestCase;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+
+/**
+ * Tests the {@link ApproximatedTransform2D} class.
+ *
+ * @author  Martin Desruisseaux (Geomatys)
+ * @since   0.6
+ * @version 0.6
+ * @module
+ */
+public final strictfp class ApproximatedTransform2DTest extends TestCase {
+    /**
+     * The maximal error allowed in the approximations.
+     */
+    private static final double TOLERANCE = 1E-3;
+
+    /**
+     * The domain where to approximate the {@link Wave} transform.
+     */
+    private static final Rectangle2D DOMAIN = new Rectangle2D.Double(0, 0, 10, 10);
+
+    /**
+     * A non-linear transform computing (<var>x</var> + ½⋅sin(<var>y</var>), <var>y</var> + <var>x</var>²/10).
+     */
+    @SuppressWarnings("serial")
+    private static final class Wave extends AbstractMathTransform2D {
+        @Override
+        public Matrix transform(final double[] srcPts, final int srcOff,
+                                final double[] dstPts, final int dstOff, final boolean derivate)
+        {
+            final double x = srcPts[srcOff];
+            final double y = srcPts[srcOff + 1];
+            if (dstPts != null) {
+                dstPts[dstOff]   = x + 0.5*Math.sin(y);
+                dstPts[dstOff+1] = y + 0.1*x*x;
+            }
+            return derivate ? new Matrix2(1, 0.5*Math.cos(y), 0.2*x, 1) : null;
+        }
+    }
+
+    /**
+     * Tests that the interpolated values are within the tolerance threshold
+     * for random points in the domain, and that the grid has been refined.
+     *
+     * @throws TransformException if an error occurred while transforming a point.
+     */
+    @Test
+    public void testInterpolation() throws TransformException {
+        final Wave exact = new Wave();
+        final ApproximatedTransform2D approx = new ApproximatedTransform2D(exact, DOMAIN, TOLERANCE);
+        assertTrue("Expected subdivided cells.", approx.getCellCount() > ApproximatedTransform2D.INITIAL_CELLS
+                                                                        * ApproximatedTransform2D.INITIAL_CELLS);
+        final Random random = TestUtilities.createRandomNumberGenerator();
+        final double[] source   = new double[2 * 1000];
+        final double[] expected = new double[source.length];
+        final double[] actual   = new double[source.length];
+        for (int i=0; i<source.length; i++) {
+            source[i] = 10 * random.nextDouble();
+        }
+        exact .transform(source, 0, expected, 0, source.length / 2);
+        approx.transform(source, 0, actual,   0, source.length / 2);
+        for (int i=0; i<source.length; i++) {
+            assertEquals(expected[i], actual[i], TOLERANCE);
+        }
+        /*
+         * Same test for the cell corners, which should be exact.
+         */
+        final double[] corner = {0, 0, 10, 10};
+        exact .transform(corner, 0, expected, 0, 2);
+        approx.transform(corner, 0, actual,   0, 2);
+        for (int i=0; i<corner.length; i++) {
+            assertEquals(expected[i], actual[i], 1E-12);
+        }
+    }
+
+    /**
+     * Tests that points outside the domain are transformed by the exact transform.
+     *
+     * @throws TransformException if an error occurred while transforming a point.
+     */
+    @Test
+    public void testOutsideDomain() throws TransformException {
+        final Wave exact = new Wave();
+        final ApproximatedTransform2D approx = new ApproximatedTransform2D(exact, DOMAIN, TOLERANCE);
+        final double[] source = {-1, 5,  5, 12,  Double.NaN, 3};
+        final double[] expected = new double[source.length];
+        final double[] actual   = new double[source.length];
+        exact .transform(source, 0, expected, 0, 3);
+        approx.transform(source, 0, actual,   0, 3);
+        assertArrayEquals(expected, actual, 0);
+    }
+
+    /**
+     * Tests the derivative of the interpolation.
+     *
+     * @throws TransformException if an error occurred while computing a derivative.
+     */
+    @Test
+    @DependsOnMethod("testInterpolation")
+    public void testDerivative() throws TransformException {
+        final Wave exact = new Wave();
+        final ApproximatedTransform2D approx = new ApproximatedTransform2D(exact, DOMAIN, TOLERANCE);
+        final double[] point = {3.7, 6.2};
+        final Matrix expected = exact .transform(point, 0, null, 0, true);
+        final Matrix actual   = approx.transform(point, 0, null, 0, true);
+        for (int j=0; j<2; j++) {
+            for (int i=0; i<2; i++) {
+                assertEquals(expected.getElement(j,i), actual.getElement(j,i), 0.05);
+            }
+        }
+    }
+
+    /**
+     * Tests the methods transforming arrays of coordinates, including overlapping arrays and
+     * {@code float} arrays. The results shall be the same than transforming each point individually.
+     *
+     * @throws TransformException if an error occurred while transforming a point.
+     */
+    @Test
+    @DependsOnMethod({"testInterpolation", "testOutsideDomain"})
+    public void testArrays() throws TransformException {
+        final ApproximatedTransform2D approx = new ApproximatedTransform2D(new Wave(), DOMAIN, TOLERANCE);
+        final Random random = TestUtilities.createRandomNumberGenerator();
+        final int numPts = 200;
+        final double[] source   = new double[2 * numPts];
+        final double[] expected = new double[source.length];
+        for (int i=0; i<source.length; i++) {
+            source[i] = 12 * random.nextDouble() - 1;       // Some points are outside the domain.
+        }
+        for (int i=0; i<source.length; i += 2) {
+            approx.transform(source, i, expected, i, false);
+        }
+        final double[] actual = new double[source.length];
+        approx.transform(source, 0, actual, 0, numPts);
+        assertArrayEquals("double[] → double[]", expected, actual, 0);
+        /*
+         * Overlapping arrays, with the target before and after the source.
+         */
+        for (final int shift : new int[] {-6, +6}) {
+            final double[] array = new double[source.length + 6];
+            final int srcOff = (shift < 0) ? 6 : 0;
+            System.arraycopy(source, 0, array, srcOff, source.length);
+            approx.transform(array, srcOff, array, srcOff + shift, numPts);
+            for (int i=0; i<expected.length; i++) {
+                assertEquals("Overlapping arrays", expected[i], array[srcOff + shift + i], 0);
+            }
+        }
+        /*
+         * Float arrays. We use the rounded source coordinates for computing the expected values.
+         */
+        final float[] sourceFloat = new float[source.length];
+        for (int i=0; i<source.length; i++) {
+            sourceFloat[i] = (float) source[i];
+            source[i] = sourceFloat[i];
+        }
+        for (int i=0; i<source.length; i += 2) {
+            approx.transform(source, i, expected, i, false);
+        }
+        final float[] actualFloat = new float[source.length];
+        approx.transform(sourceFloat, 0, actual, 0, numPts);
+        assertArrayEquals("float[] → double[]", expected, actual, 0);
+        approx.transform(source, 0, actualFloat, 0, numPts);
+        for (int i=0; i<expected.length; i++) {
+            assertEquals("double[] → float[]", (float) expected[i], actualFloat[i], 0);
+        }
+        approx.transform(sourceFloat, 0, actualFloat, 0, numPts);
+        for (int i=0; i<expected.length; i++) {
+            assertEquals("float[] → float[]", (float) expected[i], actualFloat[i], 0);
+        }
+    }
+
+    /**
+     * Tests {@link MathTransforms#approximate(MathTransform2D, Rectangle2D, double)}.
+     */
+    @Test
+    public void testFactory() {
+        final Matrix3 matrix = new Matrix3();
+        matrix.m00 = 2;
+        matrix.m11 = 3;
+        final MathTransform2D linear = (MathTransform2D) MathTransforms.linear(matrix);
+        assertSame("Linear transforms do not need approximation.", linear,
+                MathTransforms.approximate(linear, DOMAIN, TOLERANCE));
+        assertTrue(MathTransforms.approximate(new Wave(), DOMAIN, TOLERANCE) instanceof ApproximatedTransform2D);
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sis.referencing.operation.transform;
+
+import java.util.Set;
+import java.util.IdentityHashMap;
+import java.util.Collections;
+
+// Test imports
+import org.junit.Test;
+import org.apache.sis.test.TestCase;
+import static org.junit.Assert.*;
+
+
+/**
+ * Tests the {@link BufferCache} class.
+ *
+ * @author  Martin Desruisseaux (Geomatys)
+ * @since   0.6
+ * @version 0.6
+ * @module
+ */
+public final strictfp class BufferCacheTest extends TestCase {
+    /**
+     * Tests that a released buffer is reused by the next call to {@link BufferCache#acquire(int)}.
+     */
+    @Test
+    public void testReuse() {
+        final double[] buffer = BufferCache.acquire(10);
+        assertEquals("length", AbstractMathTransform.MAXIMUM_BUFFER_SIZE, buffer.length);
+        BufferCache.release(buffer);
+        final double[] again = BufferCache.acquire(20);
+        assertSame("Expected the released buffer.", buffer, again);
+        BufferCache.release(again);
+    }
+
+    /**
+     * Tests that nested acquisitions never return a buffer which is still in use.
+     */
+    @Test
+    public void testNested() {
+        final Set<double[]> inUse = Collections.newSetFromMap(new IdentityHashMap<double[],Boolean>());
+        final double[][] buffers = new double[BufferCache.CAPACITY + 2][];
+        for (int i=0; i<buffers.length; i++) {
+            buffers[i] = BufferCache.acquire(AbstractMathTransform.MAXIMUM_BUFFER_SIZE);
+            assertTrue("Buffer still in use.", inUse.add(buffers[i]));
+        }
+        for (final double[] buffer : buffers) {
+            BufferCache.release(buffer);
+        }
+    }
+
+    /**
+     * Tests that requests for large buffers are served by new arrays of the exact requested length.
+     */
+    @Test
+    public void testLargeBuffer() {
+        final int length = AbstractMathTransform.MAXIMUM_BUFFER_SIZE + 1;
+        final double[] buffer = BufferCache.acquire(length);
+        assertEquals("length", length, buffer.length);
+        BufferCache.release(buffer);
+        assertNotSame(buffer, BufferCache.acquire(length));
+    }
+}
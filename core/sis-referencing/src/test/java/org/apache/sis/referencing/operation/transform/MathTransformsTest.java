@@ -17,9 +17,13 @@
 package org.apache.sis.referencing.operation.transform;
 
 import java.util.List;
+import java.util.Arrays;
+import java.util.Random;
 import org.opengis.referencing.operation.MathTransform;
+import org.opengis.referencing.operation.TransformException;
 import org.apache.sis.referencing.operation.matrix.Matrix4;
 import org.apache.sis.test.TestCase;
+import org.apache.sis.test.DependsOnMethod;
 import org.junit.Test;
 
 import static org.opengis.test.Assert.*;
@@ -30,7 +34,7 @@ import static org.opengis.test.Assert.*;
  *
  * @author  Martin Desruisseaux (Geomatys)
  * @since   0.5
- * @version 0.5
+ * @version 0.6
  * @module
  */
 public final strictfp class MathTransformsTest extends TestCase {
@@ -91,4 +95,55 @@ public final strictfp class MathTransformsTest extends TestCase {
         assertMatrixEquals("Step 3", swap,  MathTransforms.getMatrix(steps.get(2)), STRICT);
         assertInstanceOf  ("Step 2", PassThroughTransform.class, steps.get(1));
     }
+
+    /**
+     * Tests {@link MathTransforms#compile(MathTransform)}. This method prepends an additional linear step
+     * to the transform created by {@link #createConcatenateAndPassThrough()}, then verifies that the two
+     * consecutive linear steps have been merged and that the compiled transform gives the same results
+     * than the original one for an array larger than the internal buffer.
+     *
+     * @throws TransformException Should never happen.
+     */
+    @Test
+    @DependsOnMethod("testGetSteps")
+    public void testCompile() throws TransformException {
+        final Matrix4 offset = new Matrix4();
+        offset.m03 = 2;
+        offset.m13 = -1;
+        final MathTransform original = new ConcatenatedTransformDirect(
+                MathTransforms.linear(offset), createConcatenateAndPassThrough());
+        assertEquals(4, MathTransforms.getSteps(original).size());
+
+        final MathTransform compiled = MathTransforms.compile(original);
+        final List<MathTransform> steps = MathTransforms.getSteps(compiled);
+        assertEquals(3, steps.size());
+        assertInstanceOf("Step 1", LinearTransform.class, steps.get(0));
+        assertInstanceOf("Step 2", PassThroughTransform.class, steps.get(1));
+        assertInstanceOf("Step 3", LinearTransform.class, steps.get(2));
+        assertEquals("sourceDimensions", 3, compiled.getSourceDimensions());
+        assertEquals("targetDimensions", 3, compiled.getTargetDimensions());
+
+        final Random random = new Random(6284017395832671L);
+        final double[] source = new double[3 * 1000];
+        for (int i=0; i<source.length; i++) {
+            source[i] = random.nextDouble() * 10 - 5;
+        }
+        final double[] expected = new double[source.length];
+        final double[] actual   = new double[source.length];
+        final float [] asFloats = new float [source.length];
+        original.transform(source, 0, expected, 0, 1000);
+        compiled.transform(source, 0, actual,   0, 1000);
+        compiled.transform(source, 0, asFloats, 0, 1000);
+        assertArrayEquals(expected, actual, 1E-12);
+        for (int i=0; i<expected.length; i++) {
+            assertEquals((float) expected[i], asFloats[i], Math.ulp((float) expected[i]));
+        }
+        /*
+         * Transform in place, with overlapping source and target arrays.
+         */
+        System.arraycopy(source, 0, actual, 3, source.length - 3);
+        compiled.transform(actual, 3, actual, 0, 999);
+        assertArrayEquals(Arrays.copyOf(expected, expected.length - 3),
+                          Arrays.copyOf(actual,   actual.length   - 3), 1E-12);
+    }
 }
@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sis.referencing.operation.transform;
+
+import java.util.Arrays;
+import java.util.Random;
+import org.opengis.referencing.operation.MathTransform;
+import org.opengis.referencing.operation.TransformException;
+
+
+/**
+ * Compares the speed of {@code PassThroughTransform.transform(float[], …, float[], …)} with the invocation
+ * of the sub-transform for each point, which was the implementation in Apache SIS 0.5 and is still the
+ * fallback for overlapping arrays. This class simulates the transformation of (<var>x</var>, <var>y</var>,
+ * <var>z</var>, <var>t</var>) coordinates stored as {@code float} values, where only the horizontal
+ * ordinates are transformed. The transformation of the same coordinates stored as {@code double} values
+ * is also measured for comparison purpose.
+ */
+public final class PassThroughTransformBenchmark {
+    /**
+     * Number of points to transform.
+     */
+    private static final int NUM_POINTS = 1000000;
+
+    /**
+     * Number of dimensions of the points.
+     */
+    private static final int DIMENSION = 4;
+
+    /**
+     * Number of ordinates to pass through after the transformed ones.
+     */
+    private static final int NUM_TRAILING = 2;
+
+    /**
+     * The transform to benchmark, which is a {@link PassThroughTransform} instance.
+     */
+    private final PassThroughTransform transform;
+
+    /**
+     * The sub-transform to apply on the horizontal ordinates.
+     */
+    private final MathTransform subTransform;
+
+    /**
+     * The source points as {@code float} and {@code double} values.
+     */
+    private final float[] floats;
+    private final double[] doubles;
+
+    /**
+     * Creates a new benchmark with random points.
+     */
+    private PassThroughTransformBenchmark() {
+        subTransform = new PseudoTransform(DIMENSION - NUM_TRAILING, DIMENSION - NUM_TRAILING);
+        transform    = (PassThroughTransform) PassThroughTransform.create(0, subTransform, NUM_TRAILING);
+        floats       = new float [NUM_POINTS * DIMENSION];
+        doubles      = new double[NUM_POINTS * DIMENSION];
+        final Random random = new Random();
+        for (int i=0; i<floats.length; i++) {
+            floats[i] = random.nextFloat();
+            doubles[i] = floats[i];
+        }
+    }
+
+    /**
+     * Transforms the {@code float} values by invoking the sub-transform for each point.
+     */
+    private float[] perPoint() throws TransformException {
+        final float[] result = new float[floats.length];
+        final int subDim = DIMENSION - NUM_TRAILING;
+        for (int i=0; i<floats.length; i += DIMENSION) {
+            subTransform.transform(floats, i, result, i, 1);
+            System.arraycopy(floats, i + subDim, result, i + subDim, NUM_TRAILING);
+        }
+        return result;
+    }
+
+    /**
+     * Transforms the {@code float} values with a single call to {@code PassThroughTransform.transform(…)}.
+     */
+    private float[] floats() throws TransformException {
+        final float[] result = new float[floats.length];
+        transform.transform(floats, 0, result, 0, NUM_POINTS);
+        return result;
+    }
+
+    /**
+     * Transforms the {@code double} values with a single call to {@code PassThroughTransform.transform(…)}.
+     */
+    private double[] doubles() throws TransformException {
+        final double[] result = new double[doubles.length];
+        transform.transform(doubles, 0, result, 0, NUM_POINTS);
+        return result;
+    }
+
+    /**
+     * Runs from the command line. The methods are executed many times for letting
+     * the JIT compiler do its work. The execution times of each run are printed.
+     *
+     * @param  arguments Ignored.
+     * @throws TransformException if an error occurred while transforming the points.
+     */
+    public static void main(final String[] arguments) throws TransformException {
+        final PassThroughTransformBenchmark b = new PassThroughTransformBenchmark();
+        for (int i=0; i<20; i++) {
+            long time = System.nanoTime();
+            final float[] expected = b.perPoint();
+            final long perPoint = System.nanoTime() - time;
+            time = System.nanoTime();
+            final float[] actual = b.floats();
+            final long floats = System.nanoTime() - time;
+            time = System.nanoTime();
+            b.doubles();
+            final long doubles = System.nanoTime() - time;
+            if (!Arrays.equals(expected, actual)) {
+                throw new AssertionError("Inconsistent results.");
+            }
+            System.out.printf("float per-point: %6.2f ms    float blocks: %6.2f ms    double blocks: %6.2f ms%n",
+                    perPoint / 1E+6, floats / 1E+6, doubles / 1E+6);
+        }
+    }
+}
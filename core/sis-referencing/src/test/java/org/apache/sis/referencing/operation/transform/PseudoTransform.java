@@ -18,7 +18,7 @@ package org.apache.sis.referencing.operation.transform;
 
 import org.opengis.referencing.operation.Matrix;
 import org.opengis.referencing.operation.TransformException;
-import org.apache.sis.internal.referencing.DirectPositionView;
+import org.apache.sis.geometry.DirectPositionView;
 
 import static java.lang.StrictMath.*;
 
@@ -41,7 +41,7 @@ import static java.lang.StrictMath.*;
  *
  * @author  Martin Desruisseaux (Geomatys)
  * @since   0.5
- * @version 0.5
+ * @version 0.6
  * @module
  */
 strictfp class PseudoTransform extends AbstractMathTransform {
@@ -96,7 +96,7 @@ strictfp class PseudoTransform extends AbstractMathTransform {
                             final boolean derivate) throws TransformException
     {
         final Matrix derivative = derivate ? derivative(
-                new DirectPositionView(srcPts, srcOff, getSourceDimensions())) : null;
+                new DirectPositionView.Double(srcPts, srcOff, getSourceDimensions())) : null;
         System.arraycopy(srcPts, srcOff, buffer, 0, sourceDimension);
         for (int i=0; i<targetDimension; i++) {
             double v = buffer[i % sourceDimension];
@@ -0,0 +1,157 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sis.referencing.operation.transform;
+
+import java.util.List;
+import java.util.Iterator;
+import java.util.Collection;
+import org.opengis.util.FactoryException;
+import org.opengis.referencing.operation.MathTransform;
+import org.opengis.referencing.operation.MathTransform2D;
+import org.opengis.referencing.operation.TransformException;
+import org.apache.sis.referencing.operation.matrix.Matrix3;
+import org.apache.sis.geometry.DirectPosition2D;
+import org.apache.sis.util.collection.DefaultTreeTable;
+import org.apache.sis.util.collection.TableColumn;
+import org.apache.sis.util.collection.TreeTable;
+import org.apache.sis.test.DependsOnMethod;
+import org.apache.sis.test.DependsOn;
+import org.apache.sis.test.TestCase;
+import org.junit.Test;
+
+import static org.opengis.test.Assert.*;
+
+
+/**
+ * Tests {@link TransformProfiler} and {@link ProfiledTransform}.
+ *
+ * @author  Martin Desruisseaux (Geomatys)
+ * @since   0.6
+ * @version 0.6
+ * @module
+ */
+@DependsOn({
+    ConcatenatedTransformTest.class,
+    DefaultMathTransformFactoryTest.class
+})
+public final strictfp class TransformProfilerTest extends TestCase {
+    /**
+     * Tolerance threshold for strict comparisons of floating point values.
+     */
+    private static final double STRICT = 0;
+
+    /**
+     * Creates a two-dimensional transform made of an affine transform followed by an exponential
+     * transform on the first dimension. The affine transform mixes the two dimensions in order to
+     * prevent {@link MathTransforms#concatenate(MathTransform, MathTransform)} from moving it
+     * inside the pass-through transform.
+     */
+    private static MathTransform[] createSteps(final DefaultMathTransformFactory factory) throws FactoryException {
+        return new MathTransform[] {
+            factory.createAffineTransform(new Matrix3(
+                    0.5, 0.25, 1,
+                    0.25, 2,  -3,
+                    0,    0,   1)),
+            factory.createPassThroughTransform(0, ExponentialTransform1D.create(10, 1), 1)
+        };
+    }
+
+    /**
+     * Tests the instrumentation of a transform chain. The instrumented transform shall give the same
+     * results than the original transform, and the measurements shall be reported for each step.
+     *
+     * @throws FactoryException should never happen.
+     * @throws TransformException should never happen.
+     */
+    @Test
+    public void testInstrument() throws FactoryException, TransformException {
+        final DefaultMathTransformFactory factory = new DefaultMathTransformFactory();
+        final MathTransform[]  steps    = createSteps(factory);
+        final MathTransform    original = MathTransforms.concatenate(steps[0], steps[1]);
+        final TransformProfiler profiler = new TransformProfiler(factory);
+        final MathTransform    profiled = profiler.instrument(original);
+        assertInstanceOf("profiled", MathTransform2D.class, profiled);
+        assertEquals("WKT", original.toString(), profiled.toString());
+
+        final List<MathTransform> components = MathTransforms.getSteps(profiled);
+        assertEquals("steps", 2, components.size());
+        assertInstanceOf("steps[0]", LinearTransform.class, components.get(0));
+        for (final MathTransform step : components) {
+            assertInstanceOf("step", ProfiledTransform.class, step);
+        }
+        final double[] source   = {0, 0,  1, 2,  -3, 0.5,  0.25, -1};
+        final double[] expected = new double[source.length];
+        final double[] actual   = new double[source.length];
+        original.transform(source, 0, expected, 0, 4);
+        profiled.transform(source, 0, actual,   0, 4);
+        assertArrayEquals("transform", expected, actual, STRICT);
+        assertMatrixEquals("derivative", original.derivative(new DirectPosition2D(1, 2)),
+                profiled.derivative(new DirectPosition2D(1, 2)), STRICT);
+        /*
+         * Verify the measurements. The transformation of 4 points shall have been recorded
+         * in each step, in addition to the call for computing the derivative.
+         */
+        final DefaultTreeTable table = new DefaultTreeTable(TableColumn.NAME, TableColumn.VALUE);
+        profiler.report(table.getRoot());
+        final Collection<TreeTable.Node> nodes = table.getRoot().getChildren();
+        assertEquals("steps", 2, nodes.size());
+        for (final TreeTable.Node node : nodes) {
+            final Iterator<TreeTable.Node> values = node.getChildren().iterator();
+            TreeTable.Node value = values.next();
+            assertEquals("Calls", value.getValue(TableColumn.NAME));
+            assertTrue("Calls", ((Long) value.getValue(TableColumn.VALUE)) >= 1);
+            value = values.next();
+            assertEquals("Points", value.getValue(TableColumn.NAME));
+            assertTrue("Points", ((Long) value.getValue(TableColumn.VALUE)) >= 4);
+        }
+        assertEquals("unwrap", original, TransformProfiler.unwrap(profiled));
+    }
+
+    /**
+     * Tests enabling and disabling profiling on a {@link DefaultMathTransformFactory}.
+     *
+     * @throws FactoryException should never happen.
+     */
+    @Test
+    @DependsOnMethod("testInstrument")
+    public void testFactory() throws FactoryException {
+        final DefaultMathTransformFactory factory = new DefaultMathTransformFactory();
+        final MathTransform[] steps = createSteps(factory);
+        assertFalse("isProfiling", factory.isProfiling());
+        factory.setProfiling(true);
+        try {
+            assertTrue("isProfiling", factory.isProfiling());
+            final MathTransform profiled = factory.createConcatenatedTransform(steps[0], steps[1]);
+            for (final MathTransform step : MathTransforms.getSteps(profiled)) {
+                assertInstanceOf("step", ProfiledTransform.class, step);
+            }
+            /*
+             * Concatenating a linear transform shall still merge the linear steps,
+             * as if the profiled transform was not instrumented.
+             */
+            final MathTransform inverse = factory.createConcatenatedTransform(steps[0].inverse(), profiled);
+            assertEquals("steps", 1, MathTransforms.getSteps(inverse).size());
+        } finally {
+            factory.setProfiling(false);
+        }
+        assertFalse("isProfiling", factory.isProfiling());
+        final MathTransform original = factory.createConcatenatedTransform(steps[0], steps[1]);
+        for (final MathTransform step : MathTransforms.getSteps(original)) {
+            assertFalse("step", step instanceof ProfiledTransform);
+        }
+    }
+}
@@ -18,6 +18,7 @@ package org.apache.sis.internal.converter;
 
 import java.util.Map;
 import java.util.LinkedHashMap;
+import java.util.concurrent.ConcurrentHashMap;
 import org.apache.sis.util.Debug;
 import org.apache.sis.util.Classes;
 import org.apache.sis.util.Numbers;
@@ -46,11 +47,14 @@ import org.apache.sis.util.resources.Errors;
  *
  * {@section Thread safety}
  * This base class is thread-safe. Subclasses shall make sure that any overridden methods remain safe to call
- * from multiple threads.
+ * from multiple threads. The results of {@link #find(Class, Class)} are cached, so repeated searches for the
+ * same pair of classes do not need synchronization. Consequently {@link #createConverter(Class, Class)} is
+ * invoked at most once for a given pair of classes until the next call to {@link #register(ObjectConverter)}
+ * or {@link #clear()}.
  *
  * @author  Martin Desruisseaux (Geomatys)
  * @since   0.3
- * @version 0.3
+ * @version 0.6
  * @module
  */
 public class ConverterRegistry {
@@ -70,9 +74,30 @@ public class ConverterRegistry {
      * {@code ReadWriteLock}, but this is not very convenient because read operations may be
      * followed by write operations at any time if the requested converter is not in the cache.
      * Furthermore profiling has not identified this class as a noticeable contention point.
+     * Nevertheless the most frequent operation, which is the search of a converter already
+     * found by a previous call to {@link #find(Class, Class)}, is performed in the
+     * {@link #found} map without synchronization.
      */
     private final Map<ClassPair<?,?>, ObjectConverter<?,?>> converters;
 
+    /**
+     * The results of previous calls to {@link #find(Class, Class)}, for lookups without synchronization.
+     * For any key of type {@code ClassPair<S,T>}, the value is either {@link #NONE} if no converter was
+     * found, or otherwise of type {@code ObjectConverter<? super S, ? extends T>}. Keys are always plain
+     * {@link ClassPair} instances, never {@link SystemConverter}.
+     *
+     * <p>This map is written only while holding the {@link #converters} lock, and cleared every time that
+     * the {@code converters} map is modified in a way that may change the result of a search. Entries are
+     * added after the search has been performed under the same lock, so a concurrent registration can not
+     * be hidden by an obsolete cached result.</p>
+     */
+    private final ConcurrentHashMap<ClassPair<?,?>, Object> found;
+
+    /**
+     * Sentinel value in the {@link #found} map for pairs of classes for which no converter exists.
+     */
+    private static final Object NONE = Void.TYPE;
+
     /**
      * {@code true} if this {@code ConverterRegistry} has been initialized.
      *
@@ -85,6 +110,7 @@ public class ConverterRegistry {
      */
     public ConverterRegistry() {
         converters = new LinkedHashMap<>();
+        found      = new ConcurrentHashMap<>();
     }
 
     /**
@@ -115,6 +141,7 @@ public class ConverterRegistry {
     public void clear() {
         synchronized (converters) {
             converters.clear();
+            found.clear();
             isInitialized = false;
         }
     }
@@ -264,6 +291,11 @@ public class ConverterRegistry {
         ArgumentChecks.ensureNonNull("sourceClass", sourceClass);
         ArgumentChecks.ensureNonNull("targetClass", targetClass);
         synchronized (converters) {
+            /*
+             * The new converter may be more specific than the ones found by previous searches,
+             * or may be merged with them in a chain of fallbacks. Forget all previous results.
+             */
+            found.clear();
             /*
              * If this registry has not yet been initialized, initializes it before we search
              * for the place where to put the given converter in the hierarchy of converters.
@@ -439,65 +471,96 @@ public class ConverterRegistry {
             throws UnconvertibleObjectException
     {
         final ClassPair<S,T> key = new ClassPair<>(sourceClass, targetClass);
-        synchronized (converters) {
-            ObjectConverter<? super S, ? extends T> converter = get(key);
-            if (converter != null) {
-                return converter;
-            }
-            /*
-             * If the user is invoking this method for the firt time, regiter the converers
-             * declared in all "META-INF/services/org.apache.sis.util.ObjectConverter" files
-             * found on the classpath and try again.
-             */
-            if (!isInitialized) {
-                isInitialized = true; // Before 'initialize()' for preventing infinite recursivity.
-                initialize();
-                converter = get(key);
-                if (converter != null) {
-                    return converter;
+        Object converter = found.get(key);
+        if (converter == null) {
+            synchronized (converters) {
+                converter = found.get(key);     // May have been computed by an other thread.
+                if (converter == null) {
+                    converter = search(key);
+                    if (converter == null) {
+                        converter = NONE;
+                    }
+                    found.put(key, converter);
                 }
             }
-            /*
-             * At this point, no converter were found explicitly for the given key. Searches a
-             * converter accepting some super-class of S, and if we find any cache the result.
-             * This is the complement of the search performed in the register(ObjectConverter)
-             * method, which looked for the parents of the target class. Here we process the
-             * case of the source class.
-             */
-            ClassPair<? super S, T> candidate = key;
-            while ((candidate = candidate.parentSource()) != null) {
-                converter = get(candidate);
-                if (converter != null) {
-                    put(key, converter);
-                    return converter;
-                }
+        }
+        if (converter != NONE) {
+            return key.cast((ObjectConverter<?,?>) converter);
+        }
+        throw new UnconvertibleObjectException(Errors.format(Errors.Keys.CanNotConvertFromType_2, sourceClass, targetClass));
+    }
+
+    /**
+     * Implementation of {@link #find(Class, Class)} without the cache of previous results.
+     * This method shall be invoked while holding the {@link #converters} lock.
+     *
+     * @param  key The source and target classes.
+     * @return The converter from the specified source class to the target class, or {@code null} if none.
+     * @throws UnconvertibleObjectException if the classes are arrays and no converter is found for their components.
+     */
+    private <S,T> ObjectConverter<? super S, ? extends T> search(final ClassPair<S,T> key)
+            throws UnconvertibleObjectException
+    {
+        assert Thread.holdsLock(converters);
+        final Class<S> sourceClass = key.sourceClass;
+        final Class<T> targetClass = key.targetClass;
+        ObjectConverter<? super S, ? extends T> converter = get(key);
+        if (converter != null) {
+            return converter;
+        }
+        /*
+         * If the user is invoking this method for the firt time, regiter the converers
+         * declared in all "META-INF/services/org.apache.sis.util.ObjectConverter" files
+         * found on the classpath and try again.
+         */
+        if (!isInitialized) {
+            isInitialized = true; // Before 'initialize()' for preventing infinite recursivity.
+            initialize();
+            converter = get(key);
+            if (converter != null) {
+                return converter;
             }
-            /*
-             * No converter found. Gives a chance to subclasses to provide dynamically-generated
-             * converter.
-             */
-            converter = createConverter(sourceClass, targetClass);
+        }
+        /*
+         * At this point, no converter were found explicitly for the given key. Searches a
+         * converter accepting some super-class of S, and if we find any cache the result.
+         * This is the complement of the search performed in the register(ObjectConverter)
+         * method, which looked for the parents of the target class. Here we process the
+         * case of the source class.
+         */
+        ClassPair<? super S, T> candidate = key;
+        while ((candidate = candidate.parentSource()) != null) {
+            converter = get(candidate);
             if (converter != null) {
                 put(key, converter);
                 return converter;
             }
-            /*
-             * Still no converter found. If the source and target classes are array classes,
-             * search a converter for their components.
-             */
-            final Class<?> sourceComponent = sourceClass.getComponentType();
-            if (sourceComponent != null) {
-                final Class<?> targetComponent = targetClass.getComponentType();
-                if (targetComponent != null) {
-                    converter = new ArrayConverter<>(sourceClass, targetClass, find(
-                            Numbers.primitiveToWrapper(sourceComponent),
-                            Numbers.primitiveToWrapper(targetComponent)));
-                    put(key, converter);
-                    return converter;
-                }
+        }
+        /*
+         * No converter found. Gives a chance to subclasses to provide dynamically-generated
+         * converter.
+         */
+        converter = createConverter(sourceClass, targetClass);
+        if (converter != null) {
+            put(key, converter);
+            return converter;
+        }
+        /*
+         * Still no converter found. If the source and target classes are array classes,
+         * search a converter for their components.
+         */
+        final Class<?> sourceComponent = sourceClass.getComponentType();
+        if (sourceComponent != null) {
+            final Class<?> targetComponent = targetClass.getComponentType();
+            if (targetComponent != null) {
+                converter = new ArrayConverter<>(sourceClass, targetClass, find(
+                        Numbers.primitiveToWrapper(sourceComponent),
+                        Numbers.primitiveToWrapper(targetComponent)));
+                put(key, converter);
+                return converter;
             }
         }
-        throw new UnconvertibleObjectException(Errors.format(Errors.Keys.CanNotConvertFromType_2, sourceClass, targetClass));
+        return null;
     }
 
     /**
@@ -0,0 +1,143 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sis.internal.system;
+
+import java.util.Map;
+import java.util.List;
+import java.util.Collection;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.lang.ref.WeakReference;
+import org.apache.sis.util.Classes;
+import org.apache.sis.util.Disposable;
+import org.apache.sis.util.collection.Cache;
+import org.apache.sis.util.collection.TreeTable;
+import org.apache.sis.util.collection.TableColumn;
+
+
+/**
+ * The caches and pools created by the SIS library, for reporting their usage by the {@link Supervisor} MBean.
+ * Containers are registered by the code which creates them, typically in a static initializer. The registry
+ * holds only weak references to the containers, so registration does not prevent garbage collection.
+ *
+ * <p>All containers report their size. {@link Cache} instances report also their number of hits, misses
+ * and evictions, together with the number of times and the total time that threads have waited for a value
+ * under computation in an other thread. Other containers can report their own statistics by implementing the
+ * {@link UsageReport} interface, for example the pools of XML (un)marshallers.</p>
+ *
+ * @author  Martin Desruisseaux (Geomatys)
+ * @since   0.6
+ * @version 0.6
+ * @module
+ */
+public final class CacheRegistry {
+    /**
+     * All registered containers, in registration order.
+     */
+    private static final List<Entry> ENTRIES = new CopyOnWriteArrayList<>();
+
+    /**
+     * Do not allow instantiation of this class.
+     */
+    private CacheRegistry() {
+    }
+
+    /**
+     * A weak reference to a registered container, which removes itself
+     * from the registry after the container has been garbage-collected.
+     */
+    private static final class Entry extends WeakReference<Object> implements Disposable {
+        /** The name of the container, as given at registration time. */
+        final String name;
+
+        /** Creates a new entry for the given container. */
+        Entry(final String name, final Object container) {
+            super(container, ReferenceQueueConsumer.QUEUE);
+            this.name = name;
+        }
+
+        /** Removes this entry from the registry. */
+        @Override public void dispose() {
+            ENTRIES.remove(this);
+        }
+    }
+
+    /**
+     * Registers the given container. The container should be a {@link Map}, a {@link Collection}
+     * or a {@link UsageReport}, for example a {@link Cache}, a {@link org.apache.sis.util.collection.WeakValueHashMap}
+     * or a {@link org.apache.sis.util.collection.WeakHashSet}.
+     *
+     * @param name      A name identifying the container, for example the class and field names.
+     * @param container The container to register.
+     */
+    public static void register(final String name, final Object container) {
+        ENTRIES.add(new Entry(name, container));
+    }
+
+    /**
+     * Writes the statistics of all registered containers as children of the given node.
+     */
+    static void report(final TreeTable.Node root) {
+        for (final Entry entry : ENTRIES) {
+            final Object container = entry.get();
+            if (container == null) {
+                continue;
+            }
+            final TreeTable.Node node = root.newChild();
+            node.setValue(TableColumn.NAME, entry.name);
+            add(node, "Type", Classes.getShortClassName(container));
+            final int size;
+            if (container instanceof Map<?,?>) {
+                size = ((Map<?,?>) container).size();
+            } else if (container instanceof Collection<?>) {
+                size = ((Collection<?>) container).size();
+            } else {
+                if (container instanceof UsageReport) {
+                    ((UsageReport) container).report(node);
+                }
+                continue;
+            }
+            add(node, "Size", size);
+            if (container instanceof Cache<?,?>) {
+                final Cache<?,?> cache = (Cache<?,?>) container;
+                final long hits   = cache.getHitCount();
+                final long misses = cache.getMissCount();
+                add(node, "Hits",      hits);
+                add(node, "Misses",    misses);
+                if (hits + misses != 0) {
+                    add(node, "Hit ratio", hits / (double) (hits + misses));
+                }
+                add(node, "Evictions", cache.getEvictionCount());
+                add(node, "Waits",     cache.getWaitCount());
+                add(node, "Wait time (ms)", cache.getWaitTime() / 1E+6);
+            }
+        }
+    }
+
+    /**
+     * Adds a child node with the given name and value.
+     * This is a convenience method for {@link UsageReport} implementations.
+     *
+     * @param node  The node where to add a child.
+     * @param name  The name of the statistic to add.
+     * @param value The statistic value.
+     */
+    public static void add(final TreeTable.Node node, final String name, final Object value) {
+        final TreeTable.Node child = node.newChild();
+        child.setValue(TableColumn.NAME,  name);
+        child.setValue(TableColumn.VALUE, value);
+    }
+}
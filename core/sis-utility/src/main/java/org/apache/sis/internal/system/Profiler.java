@@ -0,0 +1,45 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sis.internal.system;
+
+import org.apache.sis.util.collection.TreeTable;
+
+
+/**
+ * A component which collects performance measurements, for reporting by the {@link Supervisor} MBean.
+ * Profilers are opt-in: they are registered by {@link Supervisor#addProfiler(Profiler)} only when the
+ * user enabled profiling on some component, for example a math transform factory.
+ *
+ * @author  Martin Desruisseaux (Geomatys)
+ * @since   0.6
+ * @version 0.6
+ * @module
+ */
+public interface Profiler {
+    /**
+     * Writes the measurements collected so far in the given node. Implementations shall set the
+     * {@link org.apache.sis.util.collection.TableColumn#NAME NAME} column of the given node to a
+     * label identifying this profiler, then add one child per measured item. The children can use
+     * the {@code NAME} and {@link org.apache.sis.util.collection.TableColumn#VALUE VALUE} columns.
+     *
+     * <p>This method may be invoked while other threads are still updating the measurements.
+     * Consequently the reported values may not be a consistent snapshot.</p>
+     *
+     * @param node The node where to write the measurements.
+     */
+    void report(TreeTable.Node node);
+}
@@ -18,6 +18,7 @@ package org.apache.sis.internal.system;
 
 import java.util.EnumSet;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.Locale;
 import java.util.TimeZone;
 import java.util.ResourceBundle;
@@ -42,6 +43,8 @@ import org.apache.sis.util.logging.Logging;
 import org.apache.sis.util.resources.Errors;
 import org.apache.sis.util.resources.Messages;
 import org.apache.sis.util.collection.TreeTable;
+import org.apache.sis.util.collection.TableColumn;
+import org.apache.sis.util.collection.DefaultTreeTable;
 
 
 /**
@@ -50,9 +53,13 @@ import org.apache.sis.util.collection.TreeTable;
  * variables.  The MBean interface should allow administrators to know the cache size and
  * eventually perform some operations like clearing a cache.
  *
+ * <p>Components can also contribute performance measurements to this MBean by registering a
+ * {@link Profiler}. This is an opt-in mechanism: no profiler is registered by default.
+ * The usage of the caches created by SIS is reported from the {@link CacheRegistry}.</p>
+ *
  * @author  Martin Desruisseaux (Geomatys)
  * @since   0.3
- * @version 0.4
+ * @version 0.6
  * @module
  */
 public final class Supervisor extends StandardMBean implements SupervisorMBean, Localized {
@@ -101,6 +108,37 @@ public final class Supervisor extends StandardMBean implements SupervisorMBean,
         }
     }
 
+    /**
+     * The components which collect performance measurements, in registration order.
+     *
+     * @see #profiling()
+     */
+    private static final List<Profiler> PROFILERS = new CopyOnWriteArrayList<>();
+
+    /**
+     * Adds a component which collects performance measurements. The measurements will be reported
+     * by the {@link #profiling()} MBean operation until {@link #removeProfiler(Profiler)} is invoked.
+     * This method registers the {@code Supervisor} MBean if it was not already done.
+     *
+     * @param profiler The profiler to add.
+     */
+    public static void addProfiler(final Profiler profiler) {
+        PROFILERS.add(profiler);
+        if (ENABLED) {
+            register();
+        }
+    }
+
+    /**
+     * Removes a component previously added by {@link #addProfiler(Profiler)}.
+     * This method does nothing if the given profiler was not registered.
+     *
+     * @param profiler The profiler to remove.
+     */
+    public static void removeProfiler(final Profiler profiler) {
+        PROFILERS.remove(profiler);
+    }
+
     /**
      * Unregister the {@code Supervisor} instance. This method does nothing if the supervisor
      * has not been previously successfully {@linkplain #register() registered}, or if it has
@@ -248,4 +286,30 @@ public final class Supervisor extends StandardMBean implements SupervisorMBean,
         }
         return warnings;
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public TreeTable profiling() {
+        final DefaultTreeTable table = new DefaultTreeTable(TableColumn.NAME, TableColumn.VALUE);
+        final TreeTable.Node root = table.getRoot();
+        root.setValue(TableColumn.NAME, "Profiling");
+        for (final Profiler profiler : PROFILERS) {
+            profiler.report(root.newChild());
+        }
+        return table;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public TreeTable caches() {
+        final DefaultTreeTable table = new DefaultTreeTable(TableColumn.NAME, TableColumn.VALUE);
+        final TreeTable.Node root = table.getRoot();
+        root.setValue(TableColumn.NAME, "Caches");
+        CacheRegistry.report(root);
+        return table;
+    }
 }
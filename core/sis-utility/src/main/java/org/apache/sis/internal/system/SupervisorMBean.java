@@ -24,7 +24,7 @@ import org.apache.sis.util.collection.TreeTable;
  *
  * @author  Martin Desruisseaux (Geomatys)
  * @since   0.3
- * @version 0.3
+ * @version 0.6
  * @module
  */
 public interface SupervisorMBean {
@@ -46,4 +46,25 @@ public interface SupervisorMBean {
      * @return A description of a problems in the library, or {@code null} if none.
      */
     String[] warnings();
+
+    /**
+     * Returns the performance measurements collected by the components for which profiling has been enabled.
+     * Profiling is disabled by default; the returned tree contains only a root node in such case.
+     *
+     * @return Performance measurements, as a tree with one branch per profiled component.
+     *
+     * @since 0.6
+     */
+    TreeTable profiling();
+
+    /**
+     * Returns the sizes of the caches and pools created by Apache SIS, together with statistics
+     * about cache hits, misses, evictions and the time spent waiting for values under computation.
+     * This information can be used for sizing the heap and tuning the cache limits.
+     *
+     * @return Cache statistics, as a tree with one branch per cache.
+     *
+     * @since 0.6
+     */
+    TreeTable caches();
 }
@@ -0,0 +1,46 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sis.internal.system;
+
+import org.apache.sis.util.collection.TreeTable;
+
+
+/**
+ * A container which reports its own usage statistics to the {@link CacheRegistry}.
+ * Containers which are neither {@link java.util.Map}, {@link java.util.Collection} nor
+ * {@link org.apache.sis.util.collection.Cache} implement this interface for making their
+ * statistics visible in the {@link Supervisor} MBean.
+ *
+ * @author  Martin Desruisseaux (Geomatys)
+ * @since   0.6
+ * @version 0.6
+ * @module
+ */
+public interface UsageReport {
+    /**
+     * Writes the statistics of this container as children of the given node. The {@code NAME} column
+     * of the given node has already been set by the caller. Each child shall use the
+     * {@link org.apache.sis.util.collection.TableColumn#NAME NAME} column for the statistic label and the
+     * {@link org.apache.sis.util.collection.TableColumn#VALUE VALUE} column for its value.
+     *
+     * <p>This method may be invoked while other threads are still using this container.
+     * Consequently the reported values may not be a consistent snapshot.</p>
+     *
+     * @param node The node where to write the statistics.
+     */
+    void report(TreeTable.Node node);
+}
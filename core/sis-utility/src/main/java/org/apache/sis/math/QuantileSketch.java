@@ -0,0 +1,375 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sis.math;
+
+import java.io.Serializable;
+import org.apache.sis.util.ArgumentChecks;
+import org.apache.sis.util.resources.Errors;
+
+import static java.lang.Math.*;
+
+// Branch-dependent imports
+import org.apache.sis.internal.jdk8.DoubleConsumer;
+
+
+/**
+ * Approximate quantiles of a series of sample values, computed without storing the values.
+ * Samples are counted in buckets of logarithmically increasing width, which guarantee that
+ * any quantile is estimated with a relative error not greater than the accuracy specified
+ * at construction time. For example with an accuracy of 0.01, the estimated median of values
+ * having a true median of 250 is between 247.5 and 252.5.
+ *
+ * <p>The memory used by this object depends on the ratio between the largest and the smallest
+ * magnitudes of sample values, but not on the number of samples. Values having a magnitude smaller
+ * than {@link Double#MIN_NORMAL} are counted as zero. {@link Double#NaN NaN} and infinite values
+ * are ignored.</p>
+ *
+ * {@section Parallel computation}
+ * Like {@link Statistics}, {@code QuantileSketch} objects are mergeable: the values can be divided in blocks
+ * given to different instances in different threads, then all instances can be merged by calls to
+ * {@link #combine(QuantileSketch)}. Contrarily to {@code Statistics}, the result does not depend on the
+ * order in which the values are given or merged.
+ *
+ * <div class="note"><b>Note:</b>
+ * the algorithm used by this class is similar to the <cite>DDSketch</cite> algorithm
+ * published by Masson, Rim and Lee in 2019.</div>
+ *
+ * @author  Martin Desruisseaux (Geomatys)
+ * @since   0.6
+ * @version 0.6
+ * @module
+ *
+ * @see Statistics
+ */
+public class QuantileSketch implements DoubleConsumer, Cloneable, Serializable {
+    /**
+     * Serial number for compatibility with different versions.
+     */
+    private static final long serialVersionUID = -3586117574539413218L;
+
+    /**
+     * The maximal relative error of the quantiles computed by this object.
+     *
+     * @see #relativeAccuracy()
+     */
+    private final double relativeAccuracy;
+
+    /**
+     * Ratio between the upper and lower bounds of each bucket. This is
+     * (1 + {@linkplain #relativeAccuracy}) / (1 - {@linkplain #relativeAccuracy}).
+     */
+    private final double gamma;
+
+    /**
+     * The natural logarithm of {@link #gamma}, used for computing bucket indices.
+     */
+    private final double logGamma;
+
+    /**
+     * Number of values in buckets of positive and negative values,
+     * or {@code null} if there is no value of the corresponding sign.
+     */
+    private Buckets positives, negatives;
+
+    /**
+     * Number of values having a magnitude smaller than {@link Double#MIN_NORMAL}.
+     */
+    private long zeroCount;
+
+    /**
+     * Number of finite values given to this object.
+     *
+     * @see #count()
+     */
+    private long count;
+
+    /**
+     * Creates an initially empty sketch computing quantiles with the given relative accuracy.
+     * Smaller accuracy values give better quantile estimations, at the cost of more memory.
+     * A value of 0.01 (1%) is typical.
+     *
+     * @param relativeAccuracy The maximal relative error of quantile values, greater than 0 and smaller than 1.
+     */
+    public QuantileSketch(final double relativeAccuracy) {
+        if (!(relativeAccuracy > 0 && relativeAccuracy < 1)) {
+            throw new IllegalArgumentException(Errors.format(Errors.Keys.ValueOutOfRange_4,
+                    "relativeAccuracy", 0, 1, relativeAccuracy));
+        }
+        this.relativeAccuracy = relativeAccuracy;
+        gamma    = (1 + relativeAccuracy) / (1 - relativeAccuracy);
+        logGamma = log(gamma);
+    }
+
+    /**
+     * Number of values in buckets of logarithmically increasing width, for values of the same sign.
+     * The bucket at index <var>k</var> contains the magnitudes in the (γ<sup>k-1</sup> … γ<sup>k</sup>] range.
+     */
+    private static final class Buckets implements Cloneable, Serializable {
+        /**
+         * Serial number for compatibility with different versions.
+         */
+        private static final long serialVersionUID = 2837152609337816297L;
+
+        /**
+         * Number of values in each bucket. Element 0 is the bucket at index {@link #offset}.
+         */
+        long[] counts;
+
+        /**
+         * Index of the bucket counted by {@code counts[0]}.
+         */
+        int offset;
+
+        /**
+         * Creates an initially empty set of buckets around the bucket at the given index.
+         */
+        Buckets(final int k) {
+            counts = new long[8];
+            offset = k - 4;
+        }
+
+        /**
+         * Adds the given number of values to the bucket at the given index,
+         * expanding the {@link #counts} array if needed.
+         */
+        final void add(final int k, final long n) {
+            int i = k - offset;
+            if (i < 0 || i >= counts.length) {
+                final int lower = min(offset, k);
+                final int upper = max(offset + counts.length, k + 1);
+                final int size  = (upper - lower) * 3 / 2;              // Reserve space for future growth.
+                final int base  = (k < offset) ? upper - size : lower;  // Put the reserved space on the growing side.
+                final long[] expanded = new long[size];
+                System.arraycopy(counts, 0, expanded, offset - base, counts.length);
+                counts = expanded;
+                offset = base;
+                i = k - base;
+            }
+            counts[i] += n;
+        }
+
+        /**
+         * Adds the counts of the given buckets to this set of buckets.
+         */
+        final void addAll(final Buckets other) {
+            final long[] c = other.counts;
+            int lower = 0, upper = c.length;
+            while (lower < upper && c[lower]   == 0) lower++;
+            while (upper > lower && c[upper-1] == 0) upper--;
+            if (lower < upper) {
+                add(other.offset + lower,   0);         // Expand the array only once.
+                add(other.offset + upper-1, 0);
+                for (int i=lower; i<upper; i++) {
+                    counts[other.offset + i - offset] += c[i];
+                }
+            }
+        }
+
+        /**
+         * Returns a deep copy of this set of buckets.
+         */
+        @Override
+        protected Buckets clone() {
+            final Buckets copy;
+            try {
+                copy = (Buckets) super.clone();
+            } catch (CloneNotSupportedException exception) {
+                throw new AssertionError(exception);
+            }
+            copy.counts = counts.clone();
+            return copy;
+        }
+    }
+
+    /**
+     * Returns the maximal relative error of the quantiles computed by this object.
+     * This is the value given at construction time.
+     *
+     * @return The maximal relative error of quantile values.
+     */
+    public double relativeAccuracy() {
+        return relativeAccuracy;
+    }
+
+    /**
+     * Returns the number of finite sample values given to this object.
+     *
+     * @return The number of sample values, excluding NaN and infinities.
+     */
+    public long count() {
+        return count;
+    }
+
+    /**
+     * Resets this object state as if it was just created.
+     */
+    public void reset() {
+        positives = null;
+        negatives = null;
+        zeroCount = 0;
+        count     = 0;
+    }
+
+    /**
+     * Updates the quantiles for the specified sample value.
+     * {@link Double#NaN NaN} and infinite values are ignored.
+     *
+     * @param sample The sample value.
+     */
+    @Override
+    public void accept(final double sample) {
+        final double magnitude = abs(sample);
+        if (magnitude < Double.MIN_NORMAL) {
+            zeroCount++;
+        } else if (magnitude < Double.POSITIVE_INFINITY) {
+            final int k = (int) ceil(log(magnitude) / logGamma);
+            if (sample > 0) {
+                if (positives == null) positives = new Buckets(k);
+                positives.add(k, 1);
+            } else {
+                if (negatives == null) negatives = new Buckets(k);
+                negatives.add(k, 1);
+            }
+        } else {
+            return;                 // NaN or infinity.
+        }
+        count++;
+    }
+
+    /**
+     * Updates the quantiles for all sample values in the given range of the given array.
+     * {@link Double#NaN NaN} and infinite values are ignored.
+     *
+     * @param  samples The array of sample values.
+     * @param  offset  Index of the first sample value to accept.
+     * @param  length  Number of sample values to accept.
+     * @throws IndexOutOfBoundsException if the given range is outside the array bounds.
+     */
+    public void acceptAll(final double[] samples, int offset, final int length) {
+        ArgumentChecks.ensureNonNull("samples", samples);
+        ArgumentChecks.ensureValidIndexRange(samples.length, offset, offset + length);
+        for (final int upper = offset + length; offset < upper; offset++) {
+            accept(samples[offset]);
+        }
+    }
+
+    /**
+     * Updates the quantiles for all sample values in the given range of the given array.
+     * {@link Float#NaN NaN} and infinite values are ignored.
+     *
+     * @param  samples The array of sample values.
+     * @param  offset  Index of the first sample value to accept.
+     * @param  length  Number of sample values to accept.
+     * @throws IndexOutOfBoundsException if the given range is outside the array bounds.
+     */
+    public void acceptAll(final float[] samples, int offset, final int length) {
+        ArgumentChecks.ensureNonNull("samples", samples);
+        ArgumentChecks.ensureValidIndexRange(samples.length, offset, offset + length);
+        for (final int upper = offset + length; offset < upper; offset++) {
+            accept(samples[offset]);
+        }
+    }
+
+    /**
+     * Updates the quantiles with all samples from the specified sketch. Invoking this method is equivalent
+     * to invoking {@link #accept(double) accept(…)} for all samples that were added to {@code other}.
+     *
+     * @param  other The sketch to be added to {@code this}.
+     * @throws IllegalArgumentException if the given sketch does not have the same relative accuracy than this sketch.
+     */
+    public void combine(final QuantileSketch other) throws IllegalArgumentException {
+        ArgumentChecks.ensureNonNull("other", other);
+        if (Double.doubleToLongBits(other.relativeAccuracy) != Double.doubleToLongBits(relativeAccuracy)) {
+            throw new IllegalArgumentException(Errors.format(Errors.Keys.IllegalArgumentValue_2,
+                    "other.relativeAccuracy", other.relativeAccuracy));
+        }
+        if (other.positives != null) {
+            if (positives == null) positives = other.positives.clone();
+            else positives.addAll(other.positives);
+        }
+        if (other.negatives != null) {
+            if (negatives == null) negatives = other.negatives.clone();
+            else negatives.addAll(other.negatives);
+        }
+        zeroCount += other.zeroCount;
+        count     += other.count;
+    }
+
+    /**
+     * Returns an estimation of the value at the given quantile. For example {@code quantile(0.5)} returns
+     * the median, and {@code quantile(0.9)} returns a value greater than or equal to 90% of sample values.
+     * The returned value has a relative error not greater than the {@linkplain #relativeAccuracy() accuracy}
+     * specified at construction time.
+     *
+     * @param  q The quantile, from 0 to 1 inclusive.
+     * @return Estimation of the value at the given quantile, or {@link Double#NaN} if there is no sample value.
+     */
+    public double quantile(final double q) {
+        ArgumentChecks.ensureBetween("q", 0.0, 1.0, q);
+        if (count == 0) {
+            return Double.NaN;
+        }
+        long rank = (long) (q * (count - 1));           // Zero-based rank of the value to search.
+        if (negatives != null) {
+            final long[] c = negatives.counts;
+            for (int i=c.length; --i >= 0;) {           // Greatest magnitudes are the smallest values.
+                if ((rank -= c[i]) < 0) {
+                    return -valueOf(negatives.offset + i);
+                }
+            }
+        }
+        if ((rank -= zeroCount) < 0) {
+            return 0;
+        }
+        if (positives != null) {
+            final long[] c = positives.counts;
+            for (int i=0; i<c.length; i++) {
+                if ((rank -= c[i]) < 0) {
+                    return valueOf(positives.offset + i);
+                }
+            }
+        }
+        throw new AssertionError(rank);                 // Should never happen if the counts are consistent.
+    }
+
+    /**
+     * Returns the magnitude which approximates all magnitudes in the bucket at the given index
+     * with a relative error not greater than {@link #relativeAccuracy}.
+     */
+    private double valueOf(final int k) {
+        return 2 * pow(gamma, k) / (gamma + 1);
+    }
+
+    /**
+     * Returns a clone of this sketch.
+     *
+     * @return A clone of this sketch.
+     */
+    @Override
+    public QuantileSketch clone() {
+        final QuantileSketch copy;
+        try {
+            copy = (QuantileSketch) super.clone();
+        } catch (CloneNotSupportedException exception) {
+            // Should not happen since we are cloneable
+            throw new AssertionError(exception);
+        }
+        if (positives != null) copy.positives = positives.clone();
+        if (negatives != null) copy.negatives = negatives.clone();
+        return copy;
+    }
+}
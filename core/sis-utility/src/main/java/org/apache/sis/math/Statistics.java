@@ -57,7 +57,15 @@ import org.apache.sis.internal.jdk8.DoubleConsumer;
  * <p>An instance of {@code Statistics} is initially empty: the {@linkplain #count() count} of
  * values is set to zero, and all above-cited statistical values are set to {@link Double#NaN NaN}.
  * The statistics are updated every time an {@link #accept(double)} method is invoked with a non-NaN
- * value.</p>
+ * value. Blocks of sample values stored in arrays can be given in a single call to one of the
+ * {@code acceptAll(…)} methods, which is faster than invoking {@code accept(double)} for each value.</p>
+ *
+ * {@section Parallel computation}
+ * {@code Statistics} objects are not thread-safe, but they are mergeable: a large array can be divided in
+ * blocks, the statistics of each block computed by a different thread in its own {@code Statistics} instance,
+ * then all instances combined together by calls to {@link #combine(Statistics)}. The result is the same
+ * (except for rounding errors) than if all values were given to a single instance. Approximate quantiles
+ * can be computed in the same way with {@link QuantileSketch}.
  *
  * {@section Examples}
  * The following examples assume that a <var>y</var>=<var>f</var>(<var>x</var>) function
@@ -87,8 +95,10 @@ import org.apache.sis.internal.jdk8.DoubleConsumer;
  *
  * @author  Martin Desruisseaux (MPO, IRD, Geomatys)
  * @since   0.3
- * @version 0.3
+ * @version 0.6
  * @module
+ *
+ * @see QuantileSketch
  */
 public class Statistics implements DoubleConsumer, LongConsumer, Cloneable, Serializable {
     /**
@@ -297,6 +307,102 @@ public class Statistics implements DoubleConsumer, LongConsumer, Cloneable, Seri
         real(sample);
     }
 
+    /**
+     * Updates statistics for all sample values in the given range of the given array.
+     * Invoking this method is equivalent to invoking {@link #accept(double)} for each value in the
+     * range, but is faster since the statistics are accumulated in local variables in a single loop.
+     * {@link Double#NaN NaN} values increment the {@linkplain #countNaN() NaN count}, but are otherwise
+     * ignored.
+     *
+     * <p>If a subclass overrides {@link #accept(double)}, then this method invokes that method for
+     * each value in the range instead than accumulating the statistics directly.</p>
+     *
+     * @param  samples The array of sample values.
+     * @param  offset  Index of the first sample value to accept.
+     * @param  length  Number of sample values to accept.
+     * @throws IndexOutOfBoundsException if the given range is outside the array bounds.
+     *
+     * @since 0.6
+     */
+    public void acceptAll(final double[] samples, final int offset, final int length) {
+        ArgumentChecks.ensureNonNull("samples", samples);
+        ArgumentChecks.ensureValidIndexRange(samples.length, offset, offset + length);
+        acceptAll(samples, null, offset, length);
+    }
+
+    /**
+     * Updates statistics for all sample values in the given range of the given array.
+     * This method performs the same work than {@link #acceptAll(double[], int, int)}
+     * for an array of {@code float} values.
+     *
+     * @param  samples The array of sample values.
+     * @param  offset  Index of the first sample value to accept.
+     * @param  length  Number of sample values to accept.
+     * @throws IndexOutOfBoundsException if the given range is outside the array bounds.
+     *
+     * @since 0.6
+     */
+    public void acceptAll(final float[] samples, final int offset, final int length) {
+        ArgumentChecks.ensureNonNull("samples", samples);
+        ArgumentChecks.ensureValidIndexRange(samples.length, offset, offset + length);
+        acceptAll(null, samples, offset, length);
+    }
+
+    /**
+     * Implementation of {@code acceptAll(…)} methods. Exactly one of the {@code doubles}
+     * and {@code floats} arrays shall be non-null. The range shall be valid.
+     */
+    private void acceptAll(final double[] doubles, final float[] floats, int offset, final int length) {
+        final int upper = offset + length;
+        if (isAcceptOverridden()) {
+            while (offset < upper) {
+                accept((doubles != null) ? doubles[offset++] : floats[offset++]);
+            }
+            return;
+        }
+        double min = minimum, max = maximum, s = sum, s2 = squareSum, low = lowBits, low2 = squareLowBits;
+        int n = 0, nNaN = 0;
+        for (; offset < upper; offset++) {
+            double sample = (doubles != null) ? doubles[offset] : floats[offset];
+            if (isNaN(sample)) {
+                nNaN++;
+                continue;
+            }
+            if (!(min <= sample)) min = sample;
+            if (!(max >= sample)) max = sample;
+            double y = sample + low;            // Kahan summation algorithm as in real(double).
+            low = y + (s - (s += y));
+            sample *= sample;
+            y = sample + low2;
+            low2 = y + (s2 - (s2 += y));
+            n++;
+        }
+        minimum       = min;
+        maximum       = max;
+        sum           = s;
+        squareSum     = s2;
+        lowBits       = low;
+        squareLowBits = low2;
+        count        += n;
+        countNaN     += nNaN;
+    }
+
+    /**
+     * Returns {@code true} if the {@link #accept(double)} method has been overridden.
+     * In such case, the {@code acceptAll(…)} methods need to invoke that method for each value.
+     */
+    private boolean isAcceptOverridden() {
+        final Class<?> c = getClass();
+        if (c == Statistics.class) {
+            return false;
+        }
+        try {
+            return c.getMethod("accept", Double.TYPE).getDeclaringClass() != Statistics.class;
+        } catch (NoSuchMethodException e) {
+            throw new AssertionError(e);    // Should never happen since the method is public.
+        }
+    }
+
     /**
      * Updates statistics with all samples from the specified {@code stats}.
      * Invoking this method is equivalent (except for rounding errors) to invoking
@@ -570,7 +676,7 @@ public class Statistics implements DoubleConsumer, LongConsumer, Cloneable, Seri
      *
      * @author  Martin Desruisseaux (MPO, IRD, Geomatys)
      * @since   0.3
-     * @version 0.3
+     * @version 0.6
      * @module
      */
     private static final class WithDelta extends Statistics {
@@ -17,6 +17,7 @@
 package org.apache.sis.measure;
 
 import java.util.Locale;
+import java.io.IOException;
 import java.text.Format;
 import java.text.FieldPosition;
 import java.text.ParsePosition;
@@ -121,7 +122,7 @@ import java.util.Objects;
  *
  * @author  Martin Desruisseaux (MPO, IRD, Geomatys)
  * @since   0.3
- * @version 0.4
+ * @version 0.6
  * @module
  *
  * @see Angle
@@ -912,54 +913,11 @@ public class AngleFormat extends Format implements Localized {
             }
             return toAppendTo;
         }
-        /*
-         * Computes the numerical values of minutes and seconds fields.
-         * If those fiels are not written, then store NaN.
-         */
-        double degrees = angle;
-        double minutes = NaN;
-        double seconds = NaN;
-        int maximumFractionDigits = fractionFieldWidth;
-        if (minutesFieldWidth != 0 && !isNaN(angle)) {
-            minutes = abs(degrees - (degrees = truncate(degrees))) * 60;
-            /*
-             * Limit the maximal number of fraction digits to the amount of significant digits for a 'double' value.
-             * The intend is to avoid non-significant garbage that are pure artifacts from the conversion from base
-             * 2 to base 10.
-             */
-            final int n = fractionDigitsForDelta(Math.ulp(angle) * (secondsFieldWidth == 0 ? 60 : 3600), false);
-            maximumFractionDigits = Math.max(minimumFractionDigits,
-                                    Math.min(maximumFractionDigits, n - 1));
-            final double p = pow10(maximumFractionDigits);
-            if (secondsFieldWidth != 0) {
-                seconds = (minutes - (minutes = truncate(minutes))) * 60;
-                seconds = rint(seconds * p) / p; // Correction for rounding errors.
-                if (seconds >= 60) { // We do not expect > 60 (only == 60), but let be safe.
-                    seconds = 0;
-                    minutes++;
-                }
-            } else {
-                minutes = rint(minutes * p) / p; // Correction for rounding errors.
-            }
-            if (minutes >= 60) { // We do not expect > 60 (only == 60), but let be safe.
-                minutes = 0;
-                degrees += Math.signum(angle);
-            }
-            // Note: a previous version was doing a unconditional addition to the 'degrees' variable,
-            // in the form 'degrees += correction'. However -0.0 + 0 == +0.0, while we really need to
-            // preserve the sign of negative zero. See [SIS-120].
-        }
-        /*
-         * Avoid formatting values like 12.01°N as 12°36″N because of the risk of confusion.
-         * In such cases, force the formatting of minutes field as in 12°00′36″.
-         */
-        byte effectiveOptionalFields = optionalFields;
-        if (showLeadingFields) {
-            effectiveOptionalFields &= ~(1 << DEGREES_FIELD);
-            if (minutes == 0 && ((effectiveOptionalFields & (1 << SECONDS_FIELD)) == 0 || seconds != 0)) {
-                effectiveOptionalFields &= ~(1 << MINUTES_FIELD);
-            }
-        }
+        int maximumFractionDigits = fractionDigits(angle);
+        double degrees = degrees(angle, maximumFractionDigits);
+        double minutes = minutes(angle, maximumFractionDigits);
+        double seconds = seconds(angle, maximumFractionDigits);
+        byte effectiveOptionalFields = effectiveOptionalFields(showLeadingFields, minutes, seconds);
         /*
          * At this point the 'degrees', 'minutes' and 'seconds' variables contain the final values to format.
          * The following loop will format fields from DEGREES_FIELD to SECONDS_FIELD inclusive.
@@ -1063,6 +1021,119 @@ public class AngleFormat extends Format implements Localized {
         return toAppendTo;
     }
 
+    /**
+     * Returns the maximal number of fraction digits to write in the last field for the given angle.
+     * This is the value to give to the {@link #degrees degrees(…)}, {@link #minutes minutes(…)} and
+     * {@link #seconds seconds(…)} methods. Those methods are shared by {@link #format(double, StringBuffer,
+     * FieldPosition)} and {@link Compiled}, and read only the pattern fields of this {@code AngleFormat}.
+     * They compute the field values without allocating any array, at the cost of computing the minutes
+     * field more than once.
+     *
+     * @param  angle The angle to format, in decimal degrees. Shall not be NaN or infinite.
+     * @return The maximal number of fraction digits to write in the last field.
+     */
+    private int fractionDigits(final double angle) {
+        if (minutesFieldWidth == 0) {
+            return fractionFieldWidth;
+        }
+        /*
+         * Limit the maximal number of fraction digits to the amount of significant digits for a 'double' value.
+         * The intend is to avoid non-significant garbage that are pure artifacts from the conversion from base
+         * 2 to base 10.
+         */
+        final int n = fractionDigitsForDelta(Math.ulp(angle) * (secondsFieldWidth == 0 ? 60 : 3600), false);
+        return Math.max(minimumFractionDigits, Math.min(fractionFieldWidth, n - 1));
+    }
+
+    /**
+     * Returns the value of the degrees field for the given angle.
+     *
+     * @param  angle          The angle to format, in decimal degrees. Shall not be NaN or infinite.
+     * @param  fractionDigits The value returned by {@link #fractionDigits(double)}.
+     * @return The value to write in the degrees field.
+     */
+    private double degrees(final double angle, final int fractionDigits) {
+        if (minutesFieldWidth == 0) {
+            return angle;
+        }
+        double degrees = truncate(angle);
+        if (roundedMinutes(angle, fractionDigits) >= 60) {      // We do not expect > 60 (only == 60), but let be safe.
+            degrees += Math.signum(angle);
+            // Note: a previous version was doing a unconditional addition to the 'degrees' variable,
+            // in the form 'degrees += correction'. However -0.0 + 0 == +0.0, while we really need to
+            // preserve the sign of negative zero. See [SIS-120].
+        }
+        return degrees;
+    }
+
+    /**
+     * Returns the value of the minutes field for the given angle, or NaN if that field is not written.
+     *
+     * @param  angle          The angle to format, in decimal degrees. Shall not be NaN or infinite.
+     * @param  fractionDigits The value returned by {@link #fractionDigits(double)}.
+     * @return The value to write in the minutes field.
+     */
+    private double minutes(final double angle, final int fractionDigits) {
+        if (minutesFieldWidth == 0) {
+            return NaN;
+        }
+        final double minutes = roundedMinutes(angle, fractionDigits);
+        return (minutes >= 60) ? 0 : minutes;
+    }
+
+    /**
+     * Returns the value of the minutes field before the carry of 60 minutes to the degrees field.
+     * If the seconds field is written, then the minutes are truncated to an integer, plus one if
+     * the rounded seconds are 60. Otherwise the minutes are rounded to the given number of digits.
+     */
+    private double roundedMinutes(final double angle, final int fractionDigits) {
+        final double minutes = abs(angle - truncate(angle)) * 60;
+        final double p = pow10(fractionDigits);
+        if (secondsFieldWidth == 0) {
+            return rint(minutes * p) / p;                       // Correction for rounding errors.
+        }
+        final double truncated = truncate(minutes);
+        return (rint((minutes - truncated) * 60 * p) / p >= 60) ? truncated + 1 : truncated;
+    }
+
+    /**
+     * Returns the value of the seconds field for the given angle, or NaN if that field is not written.
+     *
+     * @param  angle          The angle to format, in decimal degrees. Shall not be NaN or infinite.
+     * @param  fractionDigits The value returned by {@link #fractionDigits(double)}.
+     * @return The value to write in the seconds field.
+     */
+    private double seconds(final double angle, final int fractionDigits) {
+        if (minutesFieldWidth == 0 || secondsFieldWidth == 0) {
+            return NaN;
+        }
+        final double minutes = abs(angle - truncate(angle)) * 60;
+        final double p = pow10(fractionDigits);
+        final double seconds = rint((minutes - truncate(minutes)) * 60 * p) / p;    // Correction for rounding errors.
+        return (seconds >= 60) ? 0 : seconds;       // We do not expect > 60 (only == 60), but let be safe.
+    }
+
+    /**
+     * Returns the bitmask of optional fields to omit for the given minutes and seconds values.
+     * Avoid formatting values like 12.01°N as 12°36″N because of the risk of confusion.
+     * In such cases, force the formatting of minutes field as in 12°00′36″.
+     *
+     * @param  showLeadingFields Whether optional fields are omitted only if they are trailing fields.
+     * @param  minutes The value computed by {@link #minutes(double, int)} for the minutes field.
+     * @param  seconds The value computed by {@link #seconds(double, int)} for the seconds field.
+     * @return The bitmask of optional fields, as a combination of {@code 1 << DEGREES_FIELD} <i>etc.</i>
+     */
+    private byte effectiveOptionalFields(final boolean showLeadingFields, final double minutes, final double seconds) {
+        byte effectiveOptionalFields = optionalFields;
+        if (showLeadingFields) {
+            effectiveOptionalFields &= ~(1 << DEGREES_FIELD);
+            if (minutes == 0 && ((effectiveOptionalFields & (1 << SECONDS_FIELD)) == 0 || seconds != 0)) {
+                effectiveOptionalFields &= ~(1 << MINUTES_FIELD);
+            }
+        }
+        return effectiveOptionalFields;
+    }
+
     /**
      * Formats an angle, latitude or longitude value in the given buffer.
      * The angular values will be formatted according the pattern given to the
@@ -1737,6 +1808,572 @@ BigBoss:    switch (skipSuffix(source, pos, DEGREES_FIELD)) {
         isFallbackAllowed = allowed;
     }
 
+    /**
+     * Returns an immutable and thread-safe formatter for the current pattern and locale of this {@code AngleFormat}.
+     * The returned object formats and parses angles with the same results than this {@code AngleFormat}, but is
+     * designed for applications formatting or parsing a large amount of angles. Changes applied on this
+     * {@code AngleFormat} after this method call do not affect the returned object.
+     *
+     * @return A thread-safe formatter and parser for the current pattern and locale.
+     *
+     * @since 0.6
+     */
+    public Compiled compile() {
+        return new Compiled(clone());
+    }
+
+    /**
+     * An immutable and thread-safe formatter and parser of angles, with the pattern and locale of the
+     * {@link AngleFormat} from which it has been {@linkplain AngleFormat#compile() compiled}.
+     * This class produces the same results than {@code AngleFormat}, but writes directly in a
+     * caller-provided {@link Appendable} and reads directly from a {@link CharSequence} without
+     * {@link FieldPosition}, {@link ParsePosition} or {@link NumberFormat} calls in the usual cases.
+     *
+     * <p>The values or strings for which this class can not guarantee the same result than {@code AngleFormat}
+     * — for example NaN or infinite values, values to be rounded close to the half-way between two decimal
+     * representations, or strings that do not strictly follow the pattern — are delegated to a private
+     * {@code AngleFormat} instance under synchronization.</p>
+     *
+     * @author  Martin Desruisseaux (Geomatys)
+     * @since   0.6
+     * @version 0.6
+     * @module
+     *
+     * @see AngleFormat#compile()
+     */
+    public static final class Compiled {
+        /**
+         * Magnitude of values below which all integers are representable exactly in a {@code double},
+         * with enough margin for the half-way tests done by {@link #format(double, boolean, Appendable)}.
+         */
+        private static final double MAX_EXACT = 1L << 52;
+
+        /**
+         * Maximal number of fraction digits that can be formatted or parsed without delegation to
+         * {@link AngleFormat}. This limit ensures that powers of 10 are exact in {@code double} and
+         * {@code long} arithmetic.
+         */
+        private static final int MAX_FRACTION_DIGITS = 18;
+
+        /**
+         * Value returned by {@link #suffixAt(CharSequence, int, int)} if no prefix or suffix has been found.
+         */
+        private static final int NO_FIELD = Integer.MIN_VALUE;
+
+        /**
+         * The format from which this object has been compiled. This format shall never be modified.
+         * It is also used, under synchronization, for the cases not handled by this class.
+         */
+        private final AngleFormat format;
+
+        /**
+         * Number of fields in the pattern: 1 for degrees only, 2 for degrees and minutes,
+         * 3 for degrees, minutes and seconds.
+         */
+        private final int numFields;
+
+        /**
+         * Locale-dependent symbols of the {@link NumberFormat} used by {@link #format}.
+         */
+        private final char zeroDigit, decimalSeparator, groupingSeparator;
+
+        /**
+         * Locale-dependent strings of the {@link NumberFormat} used by {@link #format}.
+         */
+        private final String negativePrefix, exponentSeparator, infinity, notANumber;
+
+        /**
+         * Whether angles can be formatted or parsed without delegation to {@link #format}.
+         * Some patterns or locales are always delegated.
+         */
+        private final boolean canFormat, canParse;
+
+        /**
+         * Creates a new formatter and parser for the given format.
+         * The given format shall be a private clone.
+         */
+        Compiled(final AngleFormat format) {
+            this.format = format;
+            final DecimalFormat nf = (DecimalFormat) format.numberFormat();
+            final DecimalFormatSymbols symbols = nf.getDecimalFormatSymbols();
+            zeroDigit         = symbols.getZeroDigit();
+            decimalSeparator  = symbols.getDecimalSeparator();
+            groupingSeparator = symbols.getGroupingSeparator();
+            exponentSeparator = symbols.getExponentSeparator();
+            infinity          = symbols.getInfinity();
+            notANumber        = symbols.getNaN();
+            negativePrefix    = nf.getNegativePrefix();
+            numFields = (format.minutesFieldWidth == 0) ? 1 : (format.secondsFieldWidth == 0) ? 2 : 3;
+            final boolean isSimple = !negativePrefix.isEmpty()
+                    && nf.getPositivePrefix().isEmpty()
+                    && nf.getPositiveSuffix().isEmpty()
+                    && nf.getNegativeSuffix().isEmpty()
+                    && (!nf.isGroupingUsed() || nf.getGroupingSize() == 0);
+            canFormat = isSimple && format.maximumTotalWidth == 0 && format.degreesFieldWidth != 0;
+            canParse  = isSimple && format.useDecimalSeparator
+                    && (numFields < 2 || format.degreesSuffix != null)
+                    && (numFields < 3 || format.minutesSuffix != null)
+                    && isSafe(format.prefix) && isSafe(format.degreesSuffix)
+                    && isSafe(format.minutesSuffix) && isSafe(format.secondsSuffix);
+        }
+
+        /**
+         * Returns {@code true} if the given prefix or suffix can not be confused with a part of a number
+         * or with the spaces skipped by {@link AngleFormat#parse(String)}.
+         */
+        private boolean isSafe(final String affix) {
+            if (affix == null) {
+                return true;
+            }
+            if (affix.isEmpty()) {
+                return false;
+            }
+            final char c = affix.charAt(0);
+            return !Character.isSpaceChar(c) && !Character.isDigit(c)
+                    && c != decimalSeparator && c != groupingSeparator
+                    && c != negativePrefix.charAt(0)
+                    && !startsWith(exponentSeparator, c)
+                    && !startsWith(infinity, c)
+                    && !startsWith(notANumber, c);
+        }
+
+        /**
+         * Returns {@code true} if the given string is non-empty and starts with the given character.
+         */
+        private static boolean startsWith(final String s, final char c) {
+            return !s.isEmpty() && s.charAt(0) == c;
+        }
+
+        /**
+         * Formats an angle in the given appendable.
+         * The result is the same than {@link AngleFormat#format(double)}.
+         *
+         * @param  angle      Angle to format, in decimal degrees.
+         * @param  toAppendTo Where to append the formatted angle.
+         * @throws IOException if an error occurred while writing in the given appendable.
+         */
+        public void format(final double angle, final Appendable toAppendTo) throws IOException {
+            if (!format(angle, false, toAppendTo)) {
+                final StringBuffer buffer = new StringBuffer();
+                synchronized (format) {
+                    format.format(angle, buffer, null);
+                }
+                toAppendTo.append(buffer);
+            }
+        }
+
+        /**
+         * Formats a latitude in the given appendable, followed by the "N" or "S" hemisphere symbol.
+         * The result is the same than formatting a {@link Latitude} object with {@link AngleFormat}.
+         *
+         * @param  latitude   Latitude to format, in decimal degrees.
+         * @param  toAppendTo Where to append the formatted latitude.
+         * @throws IOException if an error occurred while writing in the given appendable.
+         */
+        public void formatLatitude(final double latitude, final Appendable toAppendTo) throws IOException {
+            format(latitude, NORTH, SOUTH, toAppendTo);
+        }
+
+        /**
+         * Formats a longitude in the given appendable, followed by the "E" or "W" hemisphere symbol.
+         * The result is the same than formatting a {@link Longitude} object with {@link AngleFormat}.
+         *
+         * @param  longitude  Longitude to format, in decimal degrees.
+         * @param  toAppendTo Where to append the formatted longitude.
+         * @throws IOException if an error occurred while writing in the given appendable.
+         */
+        public void formatLongitude(final double longitude, final Appendable toAppendTo) throws IOException {
+            format(longitude, EAST, WEST, toAppendTo);
+        }
+
+        /**
+         * Formats a latitude or longitude value followed by the given hemisphere symbol.
+         */
+        private void format(final double angle, final char positiveSuffix, final char negativeSuffix,
+                final Appendable toAppendTo) throws IOException
+        {
+            if (format(abs(angle), true, toAppendTo)) {
+                toAppendTo.append(isNegative(angle) ? negativeSuffix : positiveSuffix);
+            } else {
+                final StringBuffer buffer = new StringBuffer();
+                synchronized (format) {
+                    format.format(angle, buffer, null, positiveSuffix, negativeSuffix);
+                }
+                toAppendTo.append(buffer);
+            }
+        }
+
+        /**
+         * Formats the given angle if this can be done with the same result than {@link AngleFormat}.
+         * The fields values are computed by the same methods than {@link AngleFormat#format(double,
+         * StringBuffer, FieldPosition)}. If this method returns {@code false}, then nothing has been
+         * written and the caller shall delegate to {@link #format}.
+         *
+         * @param  showLeadingFields Whether optional fields are omitted only if they are trailing fields.
+         * @return {@code true} on success, or {@code false} if the caller needs to delegate to {@code AngleFormat}.
+         */
+        private boolean format(final double angle, final boolean showLeadingFields, final Appendable toAppendTo)
+                throws IOException
+        {
+            final AngleFormat f = format;
+            if (!canFormat || isNaN(angle) || isInfinite(angle)) {
+                return false;
+            }
+            final int maximumFractionDigits = f.fractionDigits(angle);
+            double degrees = f.degrees(angle, maximumFractionDigits);
+            double minutes = f.minutes(angle, maximumFractionDigits);
+            double seconds = f.seconds(angle, maximumFractionDigits);
+            if (numFields != 1 && !(abs(degrees) < MAX_EXACT)) {
+                return false;
+            }
+            final byte effectiveOptionalFields = f.effectiveOptionalFields(showLeadingFields, minutes, seconds);
+            /*
+             * Only the last field may have fraction digits, since other fields are integers. Round that field
+             * to an integer number of units of its last digit before to write anything. NumberFormat rounds the
+             * exact binary value with the HALF_EVEN mode; we can reproduce that only if the scaled value is not
+             * too close from a half-way. If the scaled value is computed without rounding error (no fraction
+             * digits), Math.rint(…) is exactly the HALF_EVEN mode.
+             */
+            final double last;
+            switch (numFields) {
+                case 1:  last = degrees; break;
+                case 2:  last = minutes; break;
+                default: last = seconds; break;
+            }
+            final int fractionDigits = f.useDecimalSeparator ? maximumFractionDigits : 0;
+            if (fractionDigits > MAX_FRACTION_DIGITS || f.fractionFieldWidth > MAX_FRACTION_DIGITS) {
+                return false;
+            }
+            final double scaled = abs(last) * pow10(f.useDecimalSeparator ? fractionDigits : f.fractionFieldWidth);
+            if (!(scaled < MAX_EXACT)) {
+                return false;
+            }
+            if (fractionDigits != 0 && abs(scaled - Math.floor(scaled) - 0.5) <= 4 * Math.ulp(scaled)) {
+                return false;
+            }
+            final long rounded = (long) rint(scaled);
+            /*
+             * At this point the values are known to be formattable. Write the fields in the same way than
+             * AngleFormat, with NumberFormat replaced by the writing of digits in the locale-specific symbols.
+             */
+            if (f.prefix != null) {
+                toAppendTo.append(f.prefix);
+            }
+            int field = PREFIX_FIELD;
+            boolean hasMore;
+            do {
+                int    width;
+                double value;
+                String suffix;
+                switch (++field) {
+                    case DEGREES_FIELD: value=degrees; width=f.degreesFieldWidth; suffix=f.degreesSuffix; hasMore=(f.minutesFieldWidth != 0); break;
+                    case MINUTES_FIELD: value=minutes; width=f.minutesFieldWidth; suffix=f.minutesSuffix; hasMore=(f.secondsFieldWidth != 0); break;
+                    case SECONDS_FIELD: value=seconds; width=f.secondsFieldWidth; suffix=f.secondsSuffix; hasMore=false; break;
+                    default: throw new AssertionError(field);
+                }
+                if (value == 0 && (effectiveOptionalFields & (1 << field)) != 0) {
+                    switch (field) {
+                        case DEGREES_FIELD: minutes = Math.copySign(minutes, degrees); break;
+                        case MINUTES_FIELD: seconds = Math.copySign(seconds, minutes); break;
+                    }
+                    continue;
+                }
+                if (isNegative(value)) {
+                    toAppendTo.append(negativePrefix);
+                }
+                if (hasMore) {
+                    appendDigits(toAppendTo, (long) abs(value), width);
+                } else if (f.useDecimalSeparator) {
+                    long divisor = 1;
+                    for (int i=0; i<fractionDigits; i++) {
+                        divisor *= 10;
+                    }
+                    appendDigits(toAppendTo, rounded / divisor, width);
+                    long fraction = rounded % divisor;
+                    int n = fractionDigits;
+                    while (n > f.minimumFractionDigits && fraction % 10 == 0) {
+                        fraction /= 10;
+                        n--;
+                    }
+                    if (n != 0) {
+                        toAppendTo.append(decimalSeparator);
+                        appendDigits(toAppendTo, fraction, n);
+                    }
+                } else {
+                    appendDigits(toAppendTo, rounded, width + f.fractionFieldWidth);
+                }
+                if (suffix != null) {
+                    toAppendTo.append(suffix);
+                }
+            } while (hasMore);
+            return true;
+        }
+
+        /**
+         * Writes the digits of the given positive integer, with leading zeros for the given minimal width.
+         */
+        private void appendDigits(final Appendable toAppendTo, final long value, int width) throws IOException {
+            long scale = 1;
+            while (scale <= value / 10) {
+                scale *= 10;
+                width--;
+            }
+            while (--width > 0) {
+                toAppendTo.append(zeroDigit);
+            }
+            do {
+                toAppendTo.append((char) (zeroDigit + (value / scale) % 10));
+            } while ((scale /= 10) != 0);
+        }
+
+        /**
+         * Parses the given text as an angle. The full text is expected to represent an angle value,
+         * optionally followed by the "N", "S", "E" or "W" hemisphere symbol. The result is the same
+         * than <code>{@linkplain AngleFormat#parse(String) AngleFormat.parse}(text).degrees()</code>,
+         * which means that angles in the South or West hemisphere are returned as negative values.
+         *
+         * @param  text The text to parse.
+         * @return The parsed angle, in decimal degrees.
+         * @throws ParseException if the text is blank or can not be fully parsed.
+         */
+        public double parse(final CharSequence text) throws ParseException {
+            if (canParse) {
+                final double angle = tryParse(text);
+                if (!isNaN(angle)) {
+                    return angle;
+                }
+            }
+            final String source = text.toString();
+            final Angle angle;
+            synchronized (format) {
+                angle = format.parse(source);
+            }
+            if (angle == null) {
+                // AngleFormat.parse(String) returns null for blank strings.
+                throw new LocalizedParseException(format.locale, Angle.class, source, null);
+            }
+            return angle.degrees();
+        }
+
+        /**
+         * Parses the given text if it strictly follows the pattern, or returns NaN if the caller shall
+         * delegate to {@link AngleFormat#parse(String)}. This method emulates {@code AngleFormat} for the
+         * strings accepted here, including the precedence rules of {@code skipSuffix(…)}. Any string which
+         * would take a different path in {@code AngleFormat} (spaces between fields, fallback symbols,
+         * missing suffixes, numbers in non-ASCII digits, <i>etc.</i>) is delegated.
+         */
+        private double tryParse(final CharSequence text) {
+            final AngleFormat f = format;
+            final int length = text.length();
+            int i = 0;
+            switch (suffixAt(text, 0, PREFIX_FIELD)) {
+                case NO_FIELD:     break;
+                case PREFIX_FIELD: i = f.prefix.length(); break;
+                default:           return NaN;
+            }
+            double degrees = NaN;
+            double minutes = NaN;
+            double seconds = NaN;
+            for (int field = DEGREES_FIELD;; field++) {
+                /*
+                 * Parse a number as DecimalFormat would do with the "#0" pattern.
+                 * The value is the correctly rounded 'double' if the mantissa and
+                 * the power of 10 are both exact.
+                 */
+                boolean negative = false;
+                if (regionMatches(text, i, negativePrefix)) {
+                    negative = true;
+                    i += negativePrefix.length();
+                }
+                long mantissa = 0;
+                int  scale = 0;
+                int  start = i;
+                boolean isFraction = false;
+                while (true) {
+                    if (i < length) {
+                        final int digit = text.charAt(i) - zeroDigit;
+                        if (digit >= 0 && digit <= 9) {
+                            if (mantissa >= MAX_EXACT) {
+                                return NaN;
+                            }
+                            mantissa = mantissa * 10 + digit;
+                            if (isFraction) scale++;
+                            i++;
+                            continue;
+                        }
+                    }
+                    if (i == start) {
+                        return NaN;                             // No digit before or after the separator.
+                    }
+                    if (isFraction || i >= length || text.charAt(i) != decimalSeparator) {
+                        break;
+                    }
+                    isFraction = true;
+                    start = ++i;
+                }
+                if (mantissa >= MAX_EXACT || scale > MAX_FRACTION_DIGITS
+                        || isNumberPart(text, i) || regionMatches(text, i, exponentSeparator))
+                {
+                    return NaN;
+                }
+                double value = mantissa;
+                if (scale != 0) {
+                    value /= pow10(scale);
+                }
+                if (negative) {
+                    value = -value;
+                }
+                switch (field) {
+                    case DEGREES_FIELD: degrees = value; break;
+                    case MINUTES_FIELD: minutes = value; break;
+                    default:            seconds = value; break;
+                }
+                /*
+                 * Skip the suffix. AngleFormat searches the minutes suffix first after both minutes and seconds.
+                 * The suffix found shall be the one of the current field, otherwise AngleFormat may interpret
+                 * the number in a different way.
+                 */
+                final boolean isLast = (field == numFields - 1);
+                final String suffix = suffix(field);
+                final int found = suffixAt(text, i, (field == DEGREES_FIELD) ? DEGREES_FIELD : MINUTES_FIELD);
+                if (found == field) {
+                    i += suffix.length();
+                    if (!isLast && i < length && (regionMatches(text, i, negativePrefix)
+                            || (text.charAt(i) >= zeroDigit && text.charAt(i) <= zeroDigit + 9)))
+                    {
+                        continue;
+                    }
+                    if (isNumberPart(text, skipSpaces(text, i, length))) {
+                        return NaN;         // AngleFormat would try to parse the next field.
+                    }
+                    break;
+                }
+                if (found != NO_FIELD || !isLast || suffix != null) {
+                    return NaN;
+                }
+                /*
+                 * Last field without suffix. AngleFormat accepts it unconditionally for the degrees field,
+                 * but only if fallback is allowed for the minutes and seconds fields.
+                 */
+                final int next = skipSpaces(text, i, length);
+                if (field != DEGREES_FIELD && (!f.isFallbackAllowed || isNumberPart(text, next))) {
+                    return NaN;
+                }
+                if (f.isFallbackAllowed && next < length) {
+                    switch (text.charAt(next)) {
+                        case '°': case '′': case '\'': case '″': case '"': return NaN;
+                    }
+                }
+                break;
+            }
+            /*
+             * Optional hemisphere symbol, followed by nothing else than spaces.
+             */
+            boolean negate = false;
+            while (i < length) {
+                final char c = text.charAt(i++);
+                switch (Character.toUpperCase(c)) {
+                    case NORTH: case EAST: break;
+                    case SOUTH: case WEST: negate = true; break;
+                    default: {
+                        if (Character.isSpaceChar(c)) continue;
+                        return NaN;
+                    }
+                }
+                if (skipSpaces(text, i, length) != length) {
+                    return NaN;
+                }
+                break;
+            }
+            /*
+             * Combine the fields in the same way than AngleFormat.
+             */
+            if (isNegative(minutes)) {
+                seconds = -seconds;
+            }
+            if (isNegative(degrees)) {
+                minutes = -minutes;
+                seconds = -seconds;
+            }
+            if (!isNaN(minutes)) degrees += minutes /   60;
+            if (!isNaN(seconds)) degrees += seconds / 3600;
+            return negate ? -degrees : degrees;
+        }
+
+        /**
+         * Returns the first field, in the same order than {@code AngleFormat.skipSuffix(…)}, for which
+         * the prefix or suffix appears in the given text at the given index, or {@link #NO_FIELD} if none.
+         * Contrarily to {@code skipSuffix(…)}, this method does not skip spaces before the suffixes.
+         * This is not needed since {@link #isSafe(String)} ensures that no suffix starts with a space.
+         */
+        private int suffixAt(final CharSequence text, final int index, final int expectedField) {
+            int field = expectedField;
+            do {
+                final String toSkip = (field == PREFIX_FIELD) ? format.prefix : suffix(field);
+                if (toSkip != null && regionMatches(text, index, toSkip)) {
+                    return field;
+                }
+                if (++field > SECONDS_FIELD) {
+                    field = PREFIX_FIELD;
+                }
+            } while (field != expectedField);
+            return NO_FIELD;
+        }
+
+        /**
+         * Returns the suffix of the given field, or {@code null} if none.
+         */
+        private String suffix(final int field) {
+            switch (field) {
+                case DEGREES_FIELD: return format.degreesSuffix;
+                case MINUTES_FIELD: return format.minutesSuffix;
+                case SECONDS_FIELD: return format.secondsSuffix;
+                default: throw new AssertionError(field);
+            }
+        }
+
+        /**
+         * Returns {@code true} if the character at the given index could be consumed by
+         * {@link NumberFormat#parse(String, ParsePosition)} as a part of a number.
+         */
+        private boolean isNumberPart(final CharSequence text, final int index) {
+            if (index >= text.length()) {
+                return false;
+            }
+            final char c = text.charAt(index);
+            return Character.isDigit(c) || c == decimalSeparator || c == groupingSeparator
+                    || regionMatches(text, index, negativePrefix)
+                    || regionMatches(text, index, infinity)
+                    || regionMatches(text, index, notANumber);
+        }
+
+        /**
+         * Returns the index of the first non-space character, using the same criterion than AngleFormat.
+         */
+        private static int skipSpaces(final CharSequence text, int index, final int length) {
+            while (index < length && Character.isSpaceChar(text.charAt(index))) {
+                index++;
+            }
+            return index;
+        }
+
+        /**
+         * Returns {@code true} if the given text contains the given string at the given index.
+         */
+        private static boolean regionMatches(final CharSequence text, final int index, final String s) {
+            final int n = s.length();
+            if (n == 0 || index + n > text.length()) {
+                return false;
+            }
+            for (int i=0; i<n; i++) {
+                if (text.charAt(index + i) != s.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
     /**
      * Returns this formatter locale. This is the locale specified at construction time if any,
      * or the {@linkplain Locale#getDefault() default locale} at construction time otherwise.
@@ -20,6 +20,7 @@ import org.apache.sis.util.Numbers;
 import org.apache.sis.util.resources.Errors;
 import org.apache.sis.internal.util.Numerics;
 import org.apache.sis.util.collection.WeakHashSet;
+import org.apache.sis.internal.system.CacheRegistry;
 
 
 /**
@@ -81,7 +82,7 @@ import org.apache.sis.util.collection.WeakHashSet;
  * @author  Martin Desruisseaux (IRD)
  * @author  Jody Garnett (for parameterized type inspiration)
  * @since   0.3
- * @version 0.5
+ * @version 0.6
  * @module
  *
  * @see RangeFormat
@@ -99,6 +100,9 @@ public class NumberRange<E extends Number & Comparable<? super E>> extends Range
      */
     @SuppressWarnings("unchecked")
     private static final WeakHashSet<NumberRange<?>> POOL = new WeakHashSet<>((Class) NumberRange.class);
+    static {
+        CacheRegistry.register("NumberRange.POOL", POOL);
+    }
 
     /**
      * Returns a unique instance of the given range.
@@ -20,6 +20,7 @@ import java.util.Arrays;
 import java.nio.CharBuffer;
 import org.opengis.metadata.citation.Citation;      // For javadoc
 import org.opengis.referencing.IdentifiedObject;    // For javadoc
+import org.apache.sis.math.MathFunctions;
 
 import static java.lang.Character.*;
 
@@ -73,7 +74,7 @@ import static java.lang.Character.*;
  *
  * @author  Martin Desruisseaux (Geomatys)
  * @since   0.3
- * @version 0.4
+ * @version 0.6
  * @module
  *
  * @see StringBuilders
@@ -783,27 +784,289 @@ search:     for (; fromIndex <= toIndex; fromIndex++) {
         return ArraysExt.resize(splitted, count);
     }
 
+    /**
+     * Iterator over the (<var>lower</var>, <var>upper</var>) index ranges of the tokens to be parsed by
+     * the {@code parseDoubles(…)}, {@code parseInts(…)}, <i>etc.</i> methods. The ranges are the same
+     * than the ones of the sub-sequences that {@link #split(CharSequence, char)} would return, but are
+     * computed without creating any {@link CharSequence} instance.
+     */
+    private static final class Tokens {
+        /** The text to split. */
+        private final CharSequence text;
+
+        /** The delimiting character. */
+        private final char separator;
+
+        /** Whether the separator is any of the {@code '\r'} or {@code '\n'} characters. */
+        private final boolean isEOL;
+
+        /** Whether empty tokens shall be skipped, for consistency with {@code split(…)}. */
+        private final boolean excludeEmpty;
+
+        /** Length of the text, or -1 if there is no more token. */
+        private final int length;
+
+        /** Index of the first character of the next token, or a value greater than {@link #length} if none. */
+        private int next;
+
+        /** Index of the first and after the last non-white character of the current token. */
+        int lower, upper;
+
+        /** Whether the last number parsed by {@link #mantissa(long)} has a minus sign. */
+        private boolean negative;
+
+        /** The power of 10 by which to multiply the value returned by {@link #mantissa(long)}. */
+        private int exponent;
+
+        /** Creates a new iterator over the tokens of the given text, which can be null. */
+        Tokens(final CharSequence text, final char separator) {
+            this.text      = text;
+            this.separator = separator;
+            isEOL          = (separator == '\n' || separator == '\r');
+            excludeEmpty   = !isEOL && isWhitespace(separator);
+            length         = (text != null) ? text.length() : -1;
+        }
+
+        /** Moves to the next token. Returns {@code false} if there is no more token. */
+        boolean next() {
+            while (next <= length) {
+                int end = next;
+                if (isEOL) {
+                    while (end < length) {
+                        final char c = text.charAt(end);
+                        if (c == '\n' || c == '\r') break;
+                        end++;
+                    }
+                } else {
+                    // No need to use the code point API here, since we are looking for exact matches.
+                    while (end < length && text.charAt(end) != separator) {
+                        end++;
+                    }
+                }
+                lower = skipLeadingWhitespaces (text, next,  end);
+                upper = skipTrailingWhitespaces(text, lower, end);
+                next  = end + 1;
+                if (isEOL && next < length && text.charAt(end) == '\r' && text.charAt(next) == '\n') {
+                    next++;
+                }
+                if (!excludeEmpty || lower != upper) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /** Returns {@code true} if the current token is empty or contains only whitespaces. */
+        boolean isEmpty() {
+            return lower == upper;
+        }
+
+        /** Returns the current token as a string, for delegating to the standard Java parsers. */
+        String token() {
+            return text.subSequence(lower, upper).toString();
+        }
+
+        /**
+         * Parses the current token as an integer in the given radix. This method handles only the common
+         * case of short sequences of digits, and delegates to {@link Long#parseLong(String, int)} in all
+         * other cases (including the malformed ones).
+         */
+        long parseLong(final int radix) throws NumberFormatException {
+            int i = lower;
+            boolean negative = false;
+            if (i < upper) {
+                final char c = text.charAt(i);
+                if (c == '-' || c == '+') {
+                    negative = (c == '-');
+                    i++;
+                }
+            }
+            /*
+             * 36¹² is still lower than Long.MAX_VALUE, so 12 digits in any radix can not overflow.
+             */
+            if (i < upper && upper - i <= 12) {
+                long value = 0;
+                do {
+                    final int digit = Character.digit(text.charAt(i), radix);
+                    if (digit < 0) {
+                        return Long.parseLong(token(), radix);      // Will throw the NumberFormatException.
+                    }
+                    value = value * radix + digit;
+                } while (++i < upper);
+                return negative ? -value : value;
+            }
+            return Long.parseLong(token(), radix);
+        }
+
+        /**
+         * Parses the current token as a {@code double} value. This method handles only the common case
+         * of decimal numbers having few enough digits for allowing an exact computation with the method
+         * described by Clinger (1990). All other cases (hexadecimal notation, {@code "NaN"}, {@code "Infinity"},
+         * many digits, malformed number, <i>etc.</i>) are delegated to {@link Double#parseDouble(String)},
+         * so the results are identical in all cases.
+         */
+        double parseDouble() throws NumberFormatException {
+            final long mantissa = mantissa(MAX_DOUBLE_MANTISSA);
+            final int  exponent = this.exponent;
+            if (mantissa >= 0) {
+                double value = mantissa;
+                if (exponent >= 0) {
+                    if (exponent <= MAX_DOUBLE_POW10) {
+                        value *= MathFunctions.pow10(exponent);
+                        return negative ? -value : value;
+                    }
+                } else if (exponent >= -MAX_DOUBLE_POW10) {
+                    value /= MathFunctions.pow10(-exponent);
+                    return negative ? -value : value;
+                }
+            }
+            return Double.parseDouble(token());
+        }
+
+        /**
+         * Parses the current token as a {@code float} value.
+         * This method applies the same strategy than {@link #parseDouble()}.
+         */
+        float parseFloat() throws NumberFormatException {
+            final long mantissa = mantissa(MAX_FLOAT_MANTISSA);
+            final int  exponent = this.exponent;
+            if (mantissa >= 0) {
+                float value = mantissa;
+                if (exponent >= 0) {
+                    if (exponent <= MAX_FLOAT_POW10) {
+                        value *= (float) MathFunctions.pow10(exponent);
+                        return negative ? -value : value;
+                    }
+                } else if (exponent >= -MAX_FLOAT_POW10) {
+                    value /= (float) MathFunctions.pow10(-exponent);
+                    return negative ? -value : value;
+                }
+            }
+            return Float.parseFloat(token());
+        }
+
+        /**
+         * Parses the digits of the current token, ignoring the decimal separator, and stores the sign and the
+         * power of 10 in the {@link #negative} and {@link #exponent} fields. Returns -1 if the token is not a
+         * plain decimal number of the form {@code [+-]digits[.digits][(e|E)[+-]digits]}, or if the mantissa
+         * would be greater than the given limit.
+         */
+        private long mantissa(final long limit) {
+            int i = lower;
+            negative = false;
+            if (i < upper) {
+                final char c = text.charAt(i);
+                if (c == '-' || c == '+') {
+                    negative = (c == '-');
+                    i++;
+                }
+            }
+            long    mantissa = 0;
+            int     scale    = 0;
+            boolean hasDigit = false;
+            boolean hasPoint = false;
+            for (; i < upper; i++) {
+                final char c = text.charAt(i);
+                if (c >= '0' && c <= '9') {
+                    mantissa = mantissa * 10 + (c - '0');
+                    if (mantissa > limit) {
+                        return -1;
+                    }
+                    if (hasPoint) scale--;
+                    hasDigit = true;
+                } else if (c == '.' && !hasPoint) {
+                    hasPoint = true;
+                } else {
+                    break;
+                }
+            }
+            if (!hasDigit) {
+                return -1;
+            }
+            if (i < upper) {
+                final char c = text.charAt(i);
+                if (c != 'e' && c != 'E' || ++i >= upper) {
+                    return -1;
+                }
+                boolean negativeExponent = false;
+                final char s = text.charAt(i);
+                if (s == '-' || s == '+') {
+                    negativeExponent = (s == '-');
+                    if (++i >= upper) {
+                        return -1;
+                    }
+                }
+                int n = 0;
+                do {
+                    final char d = text.charAt(i);
+                    if (d < '0' || d > '9' || n >= 1000) {      // Large exponents are delegated to Java.
+                        return -1;
+                    }
+                    n = n * 10 + (d - '0');
+                } while (++i < upper);
+                scale += negativeExponent ? -n : n;
+            }
+            exponent = (mantissa != 0) ? scale : 0;
+            return mantissa;
+        }
+    }
+
+    /**
+     * The maximal mantissa value that can be parsed in a {@code double} without lost of precision.
+     * This is 2<sup>53</sup>, the value following the largest integer that can be stored in the
+     * 52 bits of the {@code double} significand.
+     */
+    private static final long MAX_DOUBLE_MANTISSA = 1L << 53;
+
+    /**
+     * The maximal mantissa value that can be parsed in a {@code float} without lost of precision.
+     */
+    private static final long MAX_FLOAT_MANTISSA = 1L << 24;
+
+    /**
+     * The maximal power of 10 which is exactly representable as a {@code double}.
+     * 10<sup>22</sup> = 2<sup>22</sup> × 5<sup>22</sup> and 5<sup>22</sup> &lt; 2<sup>53</sup>.
+     */
+    private static final int MAX_DOUBLE_POW10 = 22;
+
+    /**
+     * The maximal power of 10 which is exactly representable as a {@code float}.
+     * 10<sup>10</sup> = 2<sup>10</sup> × 5<sup>10</sup> and 5<sup>10</sup> &lt; 2<sup>24</sup>.
+     */
+    private static final int MAX_FLOAT_POW10 = 10;
+
     /**
      * {@linkplain #split(CharSequence, char) Splits} the given text around the given character,
      * then {@linkplain Double#parseDouble(String) parses} each item as a {@code double}.
      * Empty sub-sequences are parsed as {@link Double#NaN}.
      *
+     * <div class="note"><b>Performance note:</b>
+     * this method does not create any intermediate {@code CharSequence} or {@code String} object for the
+     * common case of decimal numbers having no more than 15 significant digits and a moderate exponent.
+     * Consequently it is suitable for parsing long list of coordinate values, as found in GML documents.
+     * The result is always the same than the one of {@link Double#parseDouble(String)}.</div>
+     *
      * @param  values    The text containing the values to parse, or {@code null}.
      * @param  separator The delimiting character (typically the coma).
      * @return The array of numbers parsed from the given text,
      *         or an empty array if {@code values} was null.
      * @throws NumberFormatException If at least one number can not be parsed.
+     *
+     * @see StringBuilders#appendAll(StringBuilder, double[], char)
      */
     public static double[] parseDoubles(final CharSequence values, final char separator)
             throws NumberFormatException
     {
-        final CharSequence[] tokens = split(values, separator);
-        final double[] parsed = new double[tokens.length];
-        for (int i=0; i<tokens.length; i++) {
-            final String token = trimWhitespaces(tokens[i]).toString();
-            parsed[i] = token.isEmpty() ? Double.NaN : Double.parseDouble(token);
+        final Tokens tokens = new Tokens(values, separator);
+        double[] parsed = ArraysExt.EMPTY_DOUBLE;
+        int count = 0;
+        while (tokens.next()) {
+            if (count == parsed.length) {
+                parsed = Arrays.copyOf(parsed, Math.max(8, count << 1));
+            }
+            parsed[count++] = tokens.isEmpty() ? Double.NaN : tokens.parseDouble();
         }
-        return parsed;
+        return ArraysExt.resize(parsed, count);
     }
 
     /**
@@ -811,22 +1074,32 @@ search:     for (; fromIndex <= toIndex; fromIndex++) {
      * then {@linkplain Float#parseFloat(String) parses} each item as a {@code float}.
      * Empty sub-sequences are parsed as {@link Float#NaN}.
      *
+     * <div class="note"><b>Performance note:</b>
+     * this method does not create any intermediate {@code CharSequence} or {@code String} object for the
+     * common case of decimal numbers having no more than 7 significant digits and a moderate exponent.
+     * The result is always the same than the one of {@link Float#parseFloat(String)}.</div>
+     *
      * @param  values    The text containing the values to parse, or {@code null}.
      * @param  separator The delimiting character (typically the coma).
      * @return The array of numbers parsed from the given text,
      *         or an empty array if {@code values} was null.
      * @throws NumberFormatException If at least one number can not be parsed.
+     *
+     * @see StringBuilders#appendAll(StringBuilder, float[], char)
      */
     public static float[] parseFloats(final CharSequence values, final char separator)
             throws NumberFormatException
     {
-        final CharSequence[] tokens = split(values, separator);
-        final float[] parsed = new float[tokens.length];
-        for (int i=0; i<tokens.length; i++) {
-            final String token = trimWhitespaces(tokens[i]).toString();
-            parsed[i] = token.isEmpty() ? Float.NaN : Float.parseFloat(token);
+        final Tokens tokens = new Tokens(values, separator);
+        float[] parsed = ArraysExt.EMPTY_FLOAT;
+        int count = 0;
+        while (tokens.next()) {
+            if (count == parsed.length) {
+                parsed = Arrays.copyOf(parsed, Math.max(8, count << 1));
+            }
+            parsed[count++] = tokens.isEmpty() ? Float.NaN : tokens.parseFloat();
         }
-        return parsed;
+        return ArraysExt.resize(parsed, count);
     }
 
     /**
@@ -843,12 +1116,16 @@ search:     for (; fromIndex <= toIndex; fromIndex++) {
     public static long[] parseLongs(final CharSequence values, final char separator, final int radix)
             throws NumberFormatException
     {
-        final CharSequence[] tokens = split(values, separator);
-        final long[] parsed = new long[tokens.length];
-        for (int i=0; i<tokens.length; i++) {
-            parsed[i] = Long.parseLong(trimWhitespaces(tokens[i]).toString(), radix);
+        final Tokens tokens = new Tokens(values, separator);
+        long[] parsed = ArraysExt.EMPTY_LONG;
+        int count = 0;
+        while (tokens.next()) {
+            if (count == parsed.length) {
+                parsed = Arrays.copyOf(parsed, Math.max(8, count << 1));
+            }
+            parsed[count++] = tokens.parseLong(radix);
         }
-        return parsed;
+        return ArraysExt.resize(parsed, count);
     }
 
     /**
@@ -865,12 +1142,17 @@ search:     for (; fromIndex <= toIndex; fromIndex++) {
     public static int[] parseInts(final CharSequence values, final char separator, final int radix)
             throws NumberFormatException
     {
-        final CharSequence[] tokens = split(values, separator);
-        final int[] parsed = new int[tokens.length];
-        for (int i=0; i<tokens.length; i++) {
-            parsed[i] = Integer.parseInt(trimWhitespaces(tokens[i]).toString(), radix);
+        final Tokens tokens = new Tokens(values, separator);
+        int[] parsed = ArraysExt.EMPTY_INT;
+        int count = 0;
+        while (tokens.next()) {
+            if (count == parsed.length) {
+                parsed = Arrays.copyOf(parsed, Math.max(8, count << 1));
+            }
+            final long value = tokens.parseLong(radix);
+            parsed[count++] = (value == (int) value) ? (int) value : Integer.parseInt(tokens.token(), radix);
         }
-        return parsed;
+        return ArraysExt.resize(parsed, count);
     }
 
     /**
@@ -887,12 +1169,17 @@ search:     for (; fromIndex <= toIndex; fromIndex++) {
     public static short[] parseShorts(final CharSequence values, final char separator, final int radix)
             throws NumberFormatException
     {
-        final CharSequence[] tokens = split(values, separator);
-        final short[] parsed = new short[tokens.length];
-        for (int i=0; i<tokens.length; i++) {
-            parsed[i] = Short.parseShort(trimWhitespaces(tokens[i]).toString(), radix);
+        final Tokens tokens = new Tokens(values, separator);
+        short[] parsed = ArraysExt.EMPTY_SHORT;
+        int count = 0;
+        while (tokens.next()) {
+            if (count == parsed.length) {
+                parsed = Arrays.copyOf(parsed, Math.max(8, count << 1));
+            }
+            final long value = tokens.parseLong(radix);
+            parsed[count++] = (value == (short) value) ? (short) value : Short.parseShort(tokens.token(), radix);
         }
-        return parsed;
+        return ArraysExt.resize(parsed, count);
     }
 
     /**
@@ -909,12 +1196,17 @@ search:     for (; fromIndex <= toIndex; fromIndex++) {
     public static byte[] parseBytes(final CharSequence values, final char separator, final int radix)
             throws NumberFormatException
     {
-        final CharSequence[] tokens = split(values, separator);
-        final byte[] parsed = new byte[tokens.length];
-        for (int i=0; i<tokens.length; i++) {
-            parsed[i] = Byte.parseByte(trimWhitespaces(tokens[i]).toString(), radix);
+        final Tokens tokens = new Tokens(values, separator);
+        byte[] parsed = ArraysExt.EMPTY_BYTE;
+        int count = 0;
+        while (tokens.next()) {
+            if (count == parsed.length) {
+                parsed = Arrays.copyOf(parsed, Math.max(8, count << 1));
+            }
+            final long value = tokens.parseLong(radix);
+            parsed[count++] = (value == (byte) value) ? (byte) value : Byte.parseByte(tokens.token(), radix);
         }
-        return parsed;
+        return ArraysExt.resize(parsed, count);
     }
 
     /**
@@ -34,7 +34,7 @@ import static java.lang.Character.*;
  *
  * @author  Martin Desruisseaux (Geomatys)
  * @since   0.3
- * @version 0.3
+ * @version 0.6
  * @module
  *
  * @see CharSequences
@@ -190,6 +190,78 @@ public final class StringBuilders extends Static {
         }
     }
 
+    /**
+     * Appends the given values separated by the given character. This method is the converse of
+     * {@link CharSequences#parseDoubles(CharSequence, char)}: parsing the appended text gives back
+     * exactly the same values, including {@code NaN}, infinities and negative zero.
+     *
+     * <p>Values without fractional part are appended without the trailing {@code ".0"} characters,
+     * using the cheaper {@link StringBuilder#append(long)} method. This is the common case for example
+     * of projected coordinates rounded to the metre, or of grid indices. All other values are appended
+     * by {@link StringBuilder#append(double)}, which uses the shortest decimal representation that can
+     * be parsed back to the same value.</p>
+     *
+     * <div class="note"><b>Example:</b>
+     * appending {@code {500000, 4000000.25, -1.5}} with the space separator gives
+     * {@code "500000 4000000.25 -1.5"}, which is suitable for a GML {@code <gml:posList>} element.</div>
+     *
+     * @param  buffer    The buffer where to append the values.
+     * @param  values    The values to append.
+     * @param  separator The character to insert between the values (typically the space or the coma).
+     * @throws NullArgumentException If the given {@code buffer} or {@code values} is null.
+     *
+     * @see CharSequences#parseDoubles(CharSequence, char)
+     *
+     * @since 0.6
+     */
+    public static void appendAll(final StringBuilder buffer, final double[] values, final char separator) {
+        ArgumentChecks.ensureNonNull("buffer", buffer);
+        ArgumentChecks.ensureNonNull("values", values);
+        for (int i=0; i<values.length; i++) {
+            if (i != 0) {
+                buffer.append(separator);
+            }
+            final double value = values[i];
+            final long asInteger = (long) value;
+            if (asInteger == value && (asInteger != 0 || Double.doubleToRawLongBits(value) == 0)) {
+                buffer.append(asInteger);
+            } else {
+                buffer.append(value);
+            }
+        }
+    }
+
+    /**
+     * Appends the given values separated by the given character. This method is the converse of
+     * {@link CharSequences#parseFloats(CharSequence, char)}. See {@link #appendAll(StringBuilder,
+     * double[], char)} for more information.
+     *
+     * @param  buffer    The buffer where to append the values.
+     * @param  values    The values to append.
+     * @param  separator The character to insert between the values (typically the space or the coma).
+     * @throws NullArgumentException If the given {@code buffer} or {@code values} is null.
+     *
+     * @see CharSequences#parseFloats(CharSequence, char)
+     *
+     * @since 0.6
+     */
+    public static void appendAll(final StringBuilder buffer, final float[] values, final char separator) {
+        ArgumentChecks.ensureNonNull("buffer", buffer);
+        ArgumentChecks.ensureNonNull("values", values);
+        for (int i=0; i<values.length; i++) {
+            if (i != 0) {
+                buffer.append(separator);
+            }
+            final float value = values[i];
+            final int asInteger = (int) value;
+            if (asInteger == value && (asInteger != 0 || Float.floatToRawIntBits(value) == 0)) {
+                buffer.append(asInteger);
+            } else {
+                buffer.append(value);
+            }
+        }
+    }
+
     /**
      * Replaces some Unicode characters by ASCII characters on a "best effort basis".
      * For example the {@code 'é'} character is replaced by {@code 'e'} (without accent).
@@ -25,6 +25,8 @@ import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
 import java.lang.ref.Reference;
 import java.lang.ref.WeakReference;
 import java.lang.ref.SoftReference;
@@ -122,6 +124,18 @@ import org.apache.sis.internal.jdk8.Supplier;
  * The total cost is given at construction time. If the {@link #cost} method has not been
  * overridden, then the total cost is the maximal amount of values to keep by strong references.
  *
+ * <p>By default, the values exceeding the cost limit are not removed from the cache; they are only
+ * made eligible to garbage collection. Consequently the memory used by the cache depends on the
+ * garbage collector activity. If a more predictable memory usage is desired, the cache can be
+ * created in {@link Eviction#BOUNDED} mode, in which case the values exceeding the cost limit
+ * are removed from the cache before the method storing a new value returns.</p>
+ *
+ * {@section Statistics}
+ * The number of cache hits, misses and evictions are available by {@link #getHitCount()},
+ * {@link #getMissCount()} and {@link #getEvictionCount()}. The time spent by threads waiting for
+ * values under computation in other threads is available by {@link #getWaitTime()}. Those statistics are always collected,
+ * since their cost is small compared to the other cache operations.
+ *
  *
  * {@section Circular dependencies}
  *
@@ -135,10 +149,58 @@ import org.apache.sis.internal.jdk8.Supplier;
  *
  * @author  Martin Desruisseaux (Geomatys)
  * @since   0.3
- * @version 0.4
+ * @version 0.6
  * @module
  */
 public class Cache<K,V> extends AbstractMap<K,V> {
+    /**
+     * Specifies what happen to the values exceeding the cost limit of a cache.
+     *
+     * @author  Martin Desruisseaux (Geomatys)
+     * @since   0.6
+     * @version 0.6
+     * @module
+     *
+     * @see Cache#Cache(int, long, Eviction)
+     */
+    public static enum Eviction {
+        /**
+         * The eldest values are held by {@linkplain WeakReference weak references}.
+         * This is the default mode.
+         */
+        WEAK,
+
+        /**
+         * The eldest values are held by {@linkplain SoftReference soft references}.
+         */
+        SOFT,
+
+        /**
+         * The values exceeding the cost limit are removed from the cache, so the total cost is a hard limit.
+         * The values to remove are chosen by a policy which takes in account both the recency and the
+         * frequency of accesses: new values are admitted in the main space of the cache only if they are
+         * accessed more often than the values that they would replace. Cache hits are recorded without
+         * blocking, which makes this mode suitable for caches shared by many threads.
+         *
+         * <p>In this mode, a value having a cost greater than the cost limit is removed from the cache
+         * immediately after insertion.</p>
+         */
+        BOUNDED
+    }
+
+    /**
+     * Number of stripes in the {@link #hits} counters and in the {@link CachePolicy} read buffer.
+     * This is a power of 2.
+     */
+    static final int STRIPES = Integer.highestOneBit(
+            Math.min(64, Runtime.getRuntime().availableProcessors()) * 2 - 1);
+
+    /**
+     * Distance between two stripes in the {@link #hits} array, chosen for putting each stripe
+     * in a different CPU cache line.
+     */
+    private static final int STRIPE_SPACING = 8;
+
     /**
      * The map that contains the cached values. If a value is under the process of being
      * calculated, then the value will be a temporary instance of {@link Handler}. The
@@ -153,9 +215,48 @@ public class Cache<K,V> extends AbstractMap<K,V> {
      * for read-only operations.
      *
      * <p>Entries in this map are ordered from least-recently accessed to most-recently accessed.</p>
+     *
+     * <p>This map is {@code null} in {@link Eviction#BOUNDED} mode.</p>
      */
     private final Map<K,Integer> costs;
 
+    /**
+     * The policy which removes the values exceeding the cost limit, or {@code null} if the eldest
+     * values are replaced by weak or soft references instead. If non-null, then the {@link #costs}
+     * map is not used.
+     */
+    private final CachePolicy<K,V> policy;
+
+    /**
+     * Number of cache hits, striped by thread for reducing contention.
+     *
+     * @see #getHitCount()
+     */
+    private final AtomicLongArray hits;
+
+    /**
+     * Number of cache misses.
+     *
+     * @see #getMissCount()
+     */
+    private final AtomicLong misses;
+
+    /**
+     * Number of strong references replaced by weak or soft references. Not used in {@link Eviction#BOUNDED} mode.
+     *
+     * @see #getEvictionCount()
+     */
+    private final AtomicLong demotions;
+
+    /**
+     * Number of times that a thread has waited for a value under computation in an other thread,
+     * and the total time spent waiting in nanoseconds.
+     *
+     * @see #getWaitCount()
+     * @see #getWaitTime()
+     */
+    private final AtomicLong waitCount, waitTime;
+
     /**
      * The sum of all values in the {@link #costs} map. This field must be used in the
      * same thread than {@link #costs}.
@@ -209,14 +310,42 @@ public class Cache<K,V> extends AbstractMap<K,V> {
      * @param costLimit The maximum number of objects to keep by strong reference.
      * @param soft If {@code true}, use {@link SoftReference} instead of {@link WeakReference}.
      */
-    public Cache(int initialCapacity, final long costLimit, final boolean soft) {
+    public Cache(final int initialCapacity, final long costLimit, final boolean soft) {
+        this(initialCapacity, costLimit, soft ? Eviction.SOFT : Eviction.WEAK);
+    }
+
+    /**
+     * Creates a new cache using the given initial capacity, cost limit and eviction mode.
+     * The initial capacity and the cost limit have the same meaning than in the
+     * {@linkplain #Cache(int, long, boolean) above constructor}, except that the cost
+     * limit is a hard limit if the eviction mode is {@link Eviction#BOUNDED}.
+     *
+     * @param initialCapacity the initial capacity.
+     * @param costLimit The maximum cost of the objects to keep by strong reference.
+     * @param eviction What to do with the values exceeding the cost limit.
+     *
+     * @since 0.6
+     */
+    public Cache(int initialCapacity, final long costLimit, final Eviction eviction) {
         ArgumentChecks.ensureStrictlyPositive("initialCapacity", initialCapacity);
         ArgumentChecks.ensurePositive("costLimit", costLimit);
+        ArgumentChecks.ensureNonNull("eviction", eviction);
         initialCapacity = Containers.hashMapCapacity(initialCapacity);
         this.map        = new ConcurrentHashMap<>(initialCapacity);
-        this.costs      = new LinkedHashMap<>((int) Math.min(initialCapacity, costLimit), 0.75f, true);
         this.costLimit  = costLimit;
-        this.soft       = soft;
+        this.soft       = (eviction == Eviction.SOFT);
+        if (eviction == Eviction.BOUNDED) {
+            costs  = null;
+            policy = new CachePolicy<>(map, costLimit);
+        } else {
+            costs  = new LinkedHashMap<>((int) Math.min(initialCapacity, costLimit), 0.75f, true);
+            policy = null;
+        }
+        hits      = new AtomicLongArray(STRIPES * STRIPE_SPACING);
+        misses    = new AtomicLong();
+        demotions = new AtomicLong();
+        waitCount = new AtomicLong();
+        waitTime  = new AtomicLong();
     }
 
     /**
@@ -224,7 +353,11 @@ public class Cache<K,V> extends AbstractMap<K,V> {
      */
     @Override
     public void clear() {
-        map.clear();
+        if (policy != null) {
+            policy.clear();
+        } else {
+            map.clear();
+        }
         // Do not update "costs" and "totalCost". Instead let adjustReferences(...)
         // do its job, which needs to be done in a different thread.
     }
@@ -302,11 +435,13 @@ public class Cache<K,V> extends AbstractMap<K,V> {
                     Errors.Keys.IllegalArgumentClass_2, "value", value.getClass()));
         }
         final Object previous;
-        if (value != null) {
+        if (value == null) {
+            previous = (policy != null) ? policy.remove(key) : map.remove(key);
+        } else if (policy != null) {
+            previous = policy.put(key, value, cost(value));
+        } else {
             previous = map.put(key, value);
             executeDaemonTask(new Strong(key, value));
-        } else {
-            previous = map.remove(key);
         }
         return Cache.<V>valueOf(previous);
     }
@@ -319,7 +454,8 @@ public class Cache<K,V> extends AbstractMap<K,V> {
      */
     @Override
     public V remove(final Object key) {
-        return Cache.<V>valueOf(map.remove(key));
+        final Object previous = (policy != null) ? policy.remove(key) : map.remove(key);
+        return Cache.<V>valueOf(previous);
     }
 
     /**
@@ -332,7 +468,13 @@ public class Cache<K,V> extends AbstractMap<K,V> {
      */
     @Override
     public V get(final Object key) {
-        return Cache.<V>valueOf(map.get(key));
+        final V value = Cache.<V>valueOf(map.get(key));
+        if (value != null) {
+            @SuppressWarnings("unchecked")
+            final K k = (K) key;     // Safe since a value has been found for that key.
+            hit(k);
+        }
+        return value;
     }
 
     /**
@@ -382,17 +524,33 @@ public class Cache<K,V> extends AbstractMap<K,V> {
             @SuppressWarnings("unchecked")
             final Reference<V> ref = (Reference<V>) value;
             final V result = ref.get();
-            if (result != null && map.replace(key, ref, result)) {
-                ref.clear(); // Prevents the reference from being enqueued.
-                executeDaemonTask(new Strong(key, result));
+            if (result != null) {
+                if (map.replace(key, ref, result)) {
+                    ref.clear(); // Prevents the reference from being enqueued.
+                    executeDaemonTask(new Strong(key, result));
+                }
+                hit(key);
             }
             return result;
         }
         @SuppressWarnings("unchecked")
         final V result = (V) value;
+        if (result != null) {
+            hit(key);
+        }
         return result;
     }
 
+    /**
+     * Records a cache hit for the given key.
+     */
+    private void hit(final K key) {
+        hits.incrementAndGet(((int) Thread.currentThread().getId() & (STRIPES - 1)) * STRIPE_SPACING);
+        if (policy != null) {
+            policy.recordAccess(key);
+        }
+    }
+
     /**
      * Invoked from the a background thread after a {@linkplain WeakReference weak}
      * or {@linkplain SoftReference soft} reference has been replaced by a strong one. It will
@@ -455,6 +613,7 @@ public class Cache<K,V> extends AbstractMap<K,V> {
                      * unlock in the finally clause (we want the lock to still active).
                      */
                     unlock = false;
+                    misses.incrementAndGet();
                     return handler;
                 }
                 /*
@@ -479,6 +638,7 @@ public class Cache<K,V> extends AbstractMap<K,V> {
                         ref.clear(); // Prevents the reference from being enqueued.
                         executeDaemonTask(new Strong(key, result));
                     }
+                    hit(key);
                     return new Simple<>(result);
                 }
                 /*
@@ -488,6 +648,7 @@ public class Cache<K,V> extends AbstractMap<K,V> {
                  */
                 if (map.replace(key, ref, handler)) {
                     unlock = false;
+                    misses.incrementAndGet();
                     return handler;
                 }
                 // The map content changed. Try again.
@@ -525,6 +686,7 @@ public class Cache<K,V> extends AbstractMap<K,V> {
                 }
                 throw new IllegalStateException(Errors.format(Errors.Keys.RecursiveCreateCallForKey_1, key));
             }
+            hit(key);
             return work.new Wait();
         }
         /*
@@ -534,6 +696,7 @@ public class Cache<K,V> extends AbstractMap<K,V> {
         assert !isReservedType(value) : value;
         @SuppressWarnings("unchecked")
         final V result = (V) value;
+        hit(key);
         return new Simple<>(result);
     }
 
@@ -670,7 +833,12 @@ public class Cache<K,V> extends AbstractMap<K,V> {
                 return null;
             }
             final V v;
-            lock.lock();
+            if (!lock.tryLock()) {
+                final long start = System.nanoTime();
+                lock.lock();
+                waitTime.addAndGet(System.nanoTime() - start);
+                waitCount.incrementAndGet();
+            }
             v = value;
             lock.unlock();
             return v;
@@ -701,15 +869,17 @@ public class Cache<K,V> extends AbstractMap<K,V> {
                 }
                 // Assignation of 'value' must happen before we release the lock.
                 value = result;
-                if (result != null) {
-                    done = map.replace(key, this, result);
-                } else {
+                if (result == null) {
                     done = map.remove(key, this);
+                } else if (policy != null) {
+                    done = policy.replace(key, this, result, cost(result));
+                } else {
+                    done = map.replace(key, this, result);
                 }
             } finally {
                 lock.unlock();
             }
-            if (done) {
+            if (done && policy == null) {
                 executeDaemonTask(this);
             }
         }
@@ -787,7 +957,9 @@ public class Cache<K,V> extends AbstractMap<K,V> {
                         @SuppressWarnings("unchecked")
                         final Reference<V> ref = soft ? new Soft<>(map, oldKey, (V) oldValue)
                                                       : new Weak<>(map, oldKey, (V) oldValue);
-                        if (!map.replace(oldKey, oldValue, ref)) {
+                        if (map.replace(oldKey, oldValue, ref)) {
+                            demotions.incrementAndGet();
+                        } else {
                             ref.clear(); // Prevents the reference to be enqueued.
                         }
                     }
@@ -905,6 +1077,74 @@ public class Cache<K,V> extends AbstractMap<K,V> {
         isKeyCollisionAllowed = allowed;
     }
 
+    /**
+     * Returns the number of times that a value has been found in this cache. This includes the values
+     * returned by {@link #get(Object)} and {@link #peek(Object)}, and the values found by {@link #lock(Object)}
+     * either in the cache or under computation in an other thread.
+     *
+     * @return Number of cache hits since this cache has been created.
+     *
+     * @since 0.6
+     */
+    public long getHitCount() {
+        long count = 0;
+        for (int i=0; i<hits.length(); i += STRIPE_SPACING) {
+            count += hits.get(i);
+        }
+        return count;
+    }
+
+    /**
+     * Returns the number of times that a value had to be computed because it was not found in this cache.
+     * This is the number of {@link Handler} instances returned by {@link #lock(Object)} which were not
+     * associated to an existing value.
+     *
+     * @return Number of cache misses since this cache has been created.
+     *
+     * @since 0.6
+     */
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    /**
+     * Returns the number of values that exceeded the cost limit. In {@link Eviction#BOUNDED} mode, this is
+     * the number of values removed from this cache. In other modes, this is the number of strong references
+     * replaced by weak or soft references; the referenced values may still be in the cache.
+     *
+     * @return Number of evictions since this cache has been created.
+     *
+     * @since 0.6
+     */
+    public long getEvictionCount() {
+        return (policy != null) ? policy.evictionCount() : demotions.get();
+    }
+
+    /**
+     * Returns the number of times that a thread had to wait for a value under computation in an other thread.
+     * This happen when a thread invokes {@link Handler#peek()} on the handler returned by {@link #lock(Object)}
+     * while an other thread is computing the value for the same key.
+     *
+     * @return Number of waits since this cache has been created.
+     *
+     * @since 0.6
+     */
+    public long getWaitCount() {
+        return waitCount.get();
+    }
+
+    /**
+     * Returns the total time spent by threads waiting for values under computation in other threads.
+     * This is the cumulative time of the waits counted by {@link #getWaitCount()}.
+     *
+     * @return Total wait time in nanoseconds since this cache has been created.
+     *
+     * @since 0.6
+     */
+    public long getWaitTime() {
+        return waitTime.get();
+    }
+
     /**
      * Computes an estimation of the cost of the given value. The default implementation returns 1
      * in all cases. Subclasses should override this method if they have some easy way to measure
@@ -0,0 +1,471 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sis.util.collection;
+
+import java.util.Map;
+import java.util.HashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+
+/**
+ * The eviction policy of a {@link Cache} created in {@link Cache.Eviction#BOUNDED} mode.
+ * This class keeps the total cost of the values in the cache below a hard limit by removing
+ * values from the cache map. The choice of the values to remove is made by a <cite>Window
+ * TinyLFU</cite> policy:
+ *
+ * <ul>
+ *   <li>New entries are added in a small <cite>window</cite> queue (1% of the cost limit) ordered
+ *       from least-recently to most-recently used.</li>
+ *   <li>Entries leaving the window become candidates for the <cite>probation</cite> queue of the main
+ *       space. If the main space is full, a candidate is admitted only if its estimated access frequency
+ *       is higher than the frequency of the least-recently used entry of the probation queue, which is
+ *       evicted in such case. Otherwise the candidate itself is evicted.</li>
+ *   <li>Entries accessed while in the probation queue are moved to the <cite>protected</cite> queue
+ *       (80% of the main space). Entries leaving the protected queue go back to the probation queue.</li>
+ * </ul>
+ *
+ * Access frequencies are estimated by a {@link FrequencySketch}.
+ *
+ * {@section Concurrency}
+ * All queues are guarded by a single lock. Cache hits do not acquire that lock: they are recorded in
+ * a lossy buffer which is striped by thread, and the buffer is drained by the first thread which finds
+ * a full stripe and succeeds in acquiring the lock without waiting. If the lock is busy, the access is
+ * dropped; this loses a little bit of precision in the recency order but never blocks the readers.
+ * Writes acquire the lock, modify the cache map and evict the values exceeding the cost limit before
+ * to return. Because the map is modified only while holding the lock, the queues always contain
+ * exactly the values of the map (ignoring the handlers of values under computation).
+ *
+ * @param <K> The type of key objects.
+ * @param <V> The type of value objects.
+ *
+ * @author  Martin Desruisseaux (Geomatys)
+ * @since   0.6
+ * @version 0.6
+ * @module
+ */
+final class CachePolicy<K,V> {
+    /**
+     * Number of accesses that can be recorded in each stripe of the read buffer. Must be a power of 2.
+     * This is also the distance between the indices of two stripes in the {@link #writeIndex} array,
+     * in order to keep the indices of different stripes in different cache lines.
+     */
+    private static final int BUFFER_SIZE = 16;
+
+    /**
+     * Identifies the queue where an entry is located.
+     */
+    private static final byte WINDOW = 0, PROBATION = 1, PROTECTED = 2;
+
+    /**
+     * An entry in one of the three queues. Each queue is a circular doubly-linked list
+     * with a sentinel node, which is the node returned by {@link #newQueue()}.
+     */
+    private static final class Node<K,V> {
+        /** The key of the cached value.      */ final K key;
+        /** The cached value.                 */ V value;
+        /** The cost of the cached value.     */ int cost;
+        /** Queue where this node is located. */ byte queue;
+        /** Whether this node is a candidate for admission in the main space. */ boolean candidate;
+        /** Previous and next nodes in the queue. */ Node<K,V> previous, next;
+
+        /** Creates a new node. */
+        Node(final K key, final V value, final int cost) {
+            this.key   = key;
+            this.value = value;
+            this.cost  = cost;
+        }
+
+        /** Removes this node from its queue. */
+        void unlink() {
+            previous.next = next;
+            next.previous = previous;
+            previous = next = null;
+        }
+    }
+
+    /**
+     * The map of the enclosing cache. Evicted values are removed from this map.
+     */
+    private final ConcurrentMap<K,Object> map;
+
+    /**
+     * The maximal total cost of all values.
+     */
+    private final long costLimit;
+
+    /**
+     * The maximal total cost of the values in the window queue and in the protected queue.
+     */
+    private final long windowLimit, protectedLimit;
+
+    /**
+     * The entries of all queues, for finding the node of a given key.
+     */
+    private final Map<K,Node<K,V>> nodes;
+
+    /**
+     * The sentinel nodes of the three queues. The first element of a queue is {@code queue.next}
+     * (the least recently used entry) and the last element is {@code queue.previous}.
+     */
+    private final Node<K,V> window, probation, protect;
+
+    /**
+     * Total cost of the values in each queue.
+     */
+    private long windowCost, probationCost, protectedCost;
+
+    /**
+     * Estimation of the access frequencies.
+     */
+    private final FrequencySketch sketch;
+
+    /**
+     * The lock guarding all the above fields.
+     */
+    private final ReentrantLock lock;
+
+    /**
+     * The keys of the values recently accessed, waiting to be processed. This array contains
+     * {@link #BUFFER_SIZE} elements for each stripe. Keys may be lost on concurrent writes.
+     */
+    private final AtomicReferenceArray<Object> buffer;
+
+    /**
+     * Index of the next element to write in the stripes of the {@linkplain #buffer}.
+     * The index of stripe <var>i</var> is stored at index <var>i</var> × {@link #BUFFER_SIZE}.
+     */
+    private final AtomicIntegerArray writeIndex;
+
+    /**
+     * The mask to apply on a thread identifier for getting the stripe index.
+     */
+    private final int stripeMask;
+
+    /**
+     * Number of values removed from the cache by this policy. Shall be modified only while holding the lock.
+     */
+    private volatile long evictionCount;
+
+    /**
+     * Creates a new policy for the given map.
+     *
+     * @param map       The map of the enclosing cache.
+     * @param costLimit The maximal total cost of all values.
+     */
+    CachePolicy(final ConcurrentMap<K,Object> map, final long costLimit) {
+        this.map       = map;
+        this.costLimit = costLimit;
+        windowLimit    = Math.max(1, costLimit / 100);
+        protectedLimit = (costLimit - windowLimit) * 4 / 5;
+        nodes          = new HashMap<>();
+        window         = newQueue();
+        probation      = newQueue();
+        protect        = newQueue();
+        sketch         = new FrequencySketch();
+        lock           = new ReentrantLock();
+        stripeMask     = Cache.STRIPES - 1;
+        buffer         = new AtomicReferenceArray<>(Cache.STRIPES * BUFFER_SIZE);
+        writeIndex     = new AtomicIntegerArray(Cache.STRIPES * BUFFER_SIZE);
+    }
+
+    /**
+     * Creates the sentinel node of an empty queue.
+     */
+    private static <K,V> Node<K,V> newQueue() {
+        final Node<K,V> sentinel = new Node<>(null, null, 0);
+        sentinel.previous = sentinel.next = sentinel;
+        return sentinel;
+    }
+
+    /**
+     * Adds the given node at the end (most recently used position) of the given queue.
+     */
+    private static <K,V> void addLast(final Node<K,V> queue, final Node<K,V> node) {
+        node.previous = queue.previous;
+        node.next     = queue;
+        queue.previous.next = node;
+        queue.previous = node;
+    }
+
+    /**
+     * Returns the first (least recently used) node of the given queue, or {@code null} if the queue is empty.
+     */
+    private static <K,V> Node<K,V> first(final Node<K,V> queue) {
+        final Node<K,V> node = queue.next;
+        return (node != queue) ? node : null;
+    }
+
+    /**
+     * Records an access to the value associated to the given key. This method does not block:
+     * the access is stored in a buffer, or discarded if the buffer is full and busy.
+     *
+     * @param key The key of the value which has been accessed.
+     */
+    final void recordAccess(final K key) {
+        final int base = ((int) Thread.currentThread().getId() & stripeMask) * BUFFER_SIZE;
+        final int i = writeIndex.getAndIncrement(base);
+        if (i >= 0 && i < BUFFER_SIZE) {
+            buffer.lazySet(base + i, key);
+            if (i != BUFFER_SIZE - 1) {
+                return;
+            }
+        }
+        if (lock.tryLock()) {
+            try {
+                drain();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Processes all accesses recorded in the buffer. The caller must hold the lock.
+     */
+    private void drain() {
+        for (int base=0; base < writeIndex.length(); base += BUFFER_SIZE) {
+            final int n = Math.min(writeIndex.get(base), BUFFER_SIZE);
+            for (int i=0; i<n; i++) {
+                @SuppressWarnings("unchecked")
+                final K key = (K) buffer.getAndSet(base + i, null);
+                if (key != null) {
+                    sketch.increment(key);
+                    final Node<K,V> node = nodes.get(key);
+                    if (node != null) {
+                        onAccess(node);
+                    }
+                }
+            }
+            writeIndex.set(base, 0);
+        }
+    }
+
+    /**
+     * Moves the given node to the most recently used position. The caller must hold the lock.
+     */
+    private void onAccess(final Node<K,V> node) {
+        node.unlink();
+        switch (node.queue) {
+            case WINDOW: {
+                addLast(window, node);
+                break;
+            }
+            case PROBATION: {
+                probationCost -= node.cost;
+                protectedCost += node.cost;
+                node.queue = PROTECTED;
+                node.candidate = false;
+                addLast(protect, node);
+                Node<K,V> demoted;
+                while (protectedCost > protectedLimit && (demoted = first(protect)) != node) {
+                    demoted.unlink();
+                    demoted.queue  = PROBATION;
+                    protectedCost -= demoted.cost;
+                    probationCost += demoted.cost;
+                    addLast(probation, demoted);
+                }
+                break;
+            }
+            default: {
+                addLast(protect, node);
+                break;
+            }
+        }
+    }
+
+    /**
+     * Puts the given value in the cache map and records that insertion or replacement, then evicts values
+     * until the total cost is below the limit. The map change and the update of the queues are done while
+     * holding the lock, so the queues always track exactly the values in the map.
+     *
+     * @param  key   The key of the value to add.
+     * @param  value The value to add.
+     * @param  cost  The cost of the given value.
+     * @return The object previously stored in the map for the given key, or {@code null} if none.
+     */
+    final Object put(final K key, final V value, final int cost) {
+        lock.lock();
+        try {
+            final Object previous = map.put(key, value);
+            onWrite(key, value, cost);
+            return previous;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Replaces the object stored in the cache map for the given key by the given value, provided that the
+     * current object is the expected one. If the replacement is done, then this method records it in the
+     * same way than {@link #put(Object, Object, int)}.
+     *
+     * @param  key      The key of the value to add.
+     * @param  expected The object expected to be currently stored in the map for the given key.
+     * @param  value    The value to add.
+     * @param  cost     The cost of the given value.
+     * @return {@code true} if the value has been replaced.
+     */
+    final boolean replace(final K key, final Object expected, final V value, final int cost) {
+        lock.lock();
+        try {
+            if (map.replace(key, expected, value)) {
+                onWrite(key, value, cost);
+                return true;
+            }
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Records the insertion or the replacement of a value in the cache map, then evicts values
+     * until the total cost is below the limit. The evicted values may include the given value,
+     * if its access frequency is too low for being admitted in the main space or if its cost
+     * alone is higher than the cost limit. The caller must hold the lock.
+     *
+     * @param key   The key of the value which has been added.
+     * @param value The value which has been added.
+     * @param cost  The cost of the given value.
+     */
+    private void onWrite(final K key, final V value, final int cost) {
+        drain();
+        sketch.increment(key);
+        Node<K,V> node = nodes.get(key);
+        if (node != null) {
+            final int delta = cost - node.cost;
+            node.value = value;
+            node.cost  = cost;
+            switch (node.queue) {
+                case WINDOW:    windowCost    += delta; break;
+                case PROBATION: probationCost += delta; break;
+                default:        protectedCost += delta; break;
+            }
+            onAccess(node);
+        } else {
+            node = new Node<>(key, value, cost);
+            nodes.put(key, node);
+            sketch.ensureCapacity(nodes.size());
+            addLast(window, node);
+            windowCost += cost;
+        }
+        /*
+         * Move the least recently used entries of the window to the probation queue,
+         * where they are candidates for admission in the main space.
+         */
+        Node<K,V> candidate;
+        while (windowCost > windowLimit && (candidate = first(window)) != null) {
+            candidate.unlink();
+            candidate.queue     = PROBATION;
+            candidate.candidate = true;
+            windowCost    -= candidate.cost;
+            probationCost += candidate.cost;
+            addLast(probation, candidate);
+        }
+        evict();
+    }
+
+    /**
+     * Evicts entries until the total cost is below the cost limit. The caller must hold the lock.
+     * The victim is the least recently used entry of the probation queue, unless the most recent
+     * candidate for admission is less frequently used.
+     */
+    private void evict() {
+        while (windowCost + probationCost + protectedCost > costLimit) {
+            Node<K,V> victim = first(probation);
+            if (victim == null) {
+                victim = first(protect);
+                if (victim == null) {
+                    victim = first(window);
+                }
+            }
+            final Node<K,V> candidate = probation.previous;
+            if (candidate.candidate && candidate != victim
+                    && sketch.frequency(candidate.key) <= sketch.frequency(victim.key))
+            {
+                victim = candidate;
+            }
+            remove(victim);
+            final boolean removed = map.remove(victim.key, victim.value);
+            assert removed : victim.key;    // Map changes are always done together with queue changes.
+            evictionCount++;
+        }
+        for (Node<K,V> node = probation.previous; node.candidate; node = node.previous) {
+            node.candidate = false;
+        }
+    }
+
+    /**
+     * Removes the given node from its queue and from the map of nodes. The caller must hold the lock.
+     */
+    private void remove(final Node<K,V> node) {
+        node.unlink();
+        nodes.remove(node.key);
+        switch (node.queue) {
+            case WINDOW:    windowCost    -= node.cost; break;
+            case PROBATION: probationCost -= node.cost; break;
+            default:        protectedCost -= node.cost; break;
+        }
+    }
+
+    /**
+     * Removes the value associated to the given key from the cache map, and records that removal.
+     *
+     * @param  key The key of the value to remove.
+     * @return The object previously stored in the map for the given key, or {@code null} if none.
+     */
+    final Object remove(final Object key) {
+        lock.lock();
+        try {
+            final Object previous = map.remove(key);
+            final Node<K,V> node = nodes.get(key);
+            if (node != null) {
+                remove(node);
+            }
+            return previous;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes all values from the cache map, and records that removal.
+     */
+    final void clear() {
+        lock.lock();
+        try {
+            map.clear();
+            nodes.clear();
+            window   .previous = window   .next = window;
+            probation.previous = probation.next = probation;
+            protect  .previous = protect  .next = protect;
+            windowCost = probationCost = protectedCost = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of values removed from the cache by this policy.
+     */
+    final long evictionCount() {
+        return evictionCount;
+    }
+}
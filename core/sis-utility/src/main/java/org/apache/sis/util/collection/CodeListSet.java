@@ -28,6 +28,7 @@ import org.apache.sis.util.iso.Types;
 import org.apache.sis.util.resources.Errors;
 import org.apache.sis.util.NullArgumentException;
 import org.apache.sis.internal.util.CheckedArrayList;
+import org.apache.sis.internal.system.CacheRegistry;
 
 
 /**
@@ -54,7 +55,7 @@ import org.apache.sis.internal.util.CheckedArrayList;
  *
  * @author  Martin Desruisseaux (Geomatys)
  * @since   0.3
- * @version 0.4
+ * @version 0.6
  * @module
  *
  * @see java.util.EnumSet
@@ -73,6 +74,9 @@ public class CodeListSet<E extends CodeList<E>> extends AbstractSet<E>
      */
     @SuppressWarnings("rawtypes")
     private static final WeakHashSet<CodeList[]> POOL = new WeakHashSet<>(CodeList[].class);
+    static {
+        CacheRegistry.register("CodeListSet.POOL", POOL);
+    }
 
     /**
      * The type of code list elements.
@@ -0,0 +1,374 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sis.util.collection;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.AbstractSet;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Array;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentHashMap;
+import org.apache.sis.util.ArraysExt;
+import org.apache.sis.util.Disposable;
+import org.apache.sis.util.Utilities;
+import org.apache.sis.util.ArgumentChecks;
+import org.apache.sis.util.NullArgumentException;
+import org.apache.sis.internal.system.ReferenceQueueConsumer;
+
+import static org.apache.sis.util.collection.WeakEntry.HASH_MASK;
+
+// Branch-dependent imports
+import java.util.Objects;
+
+
+/**
+ * A set of objects hold by weak references, optimized for concurrent accesses by many threads.
+ * This class provides the same functionalities than {@link WeakHashSet} — in particular the
+ * {@link #unique(Object)} method for sharing immutable instances — but without global lock.
+ * Lookups of elements already in the set do not block, and additions of different elements
+ * can be executed in parallel.
+ *
+ * <p>This class is preferable to {@code WeakHashSet} for pools used by factories which are invoked
+ * concurrently by many threads, typically for the same few objects. It has a slightly higher memory
+ * consumption per element, and its {@link #size()} method is only an estimation since it may include
+ * elements that have been garbage-collected but not yet removed from the set.</p>
+ *
+ * <p>If the elements stored in this set are arrays like {@code int[]}, {@code float[]} or
+ * {@code Object[]}, then the hash code computations and the comparisons are performed using
+ * the static {@code hashCode(a)} and {@code equals(a1, a2)} methods defined in the {@link Arrays}
+ * class.</p>
+ *
+ * {@section Thread safety}
+ * The same {@code ConcurrentWeakHashSet} instance can be safely used by many threads without
+ * synchronization on the part of the caller. Contrarily to {@code WeakHashSet}, synchronizing
+ * on {@code this} does <strong>not</strong> make a sequence of method calls atomic.
+ *
+ * @param <E> The type of elements in the set.
+ *
+ * @author  Martin Desruisseaux (Geomatys)
+ * @since   0.6
+ * @version 0.6
+ * @module
+ *
+ * @see WeakHashSet
+ */
+public class ConcurrentWeakHashSet<E> extends AbstractSet<E> implements CheckedContainer<E> {
+    /**
+     * The weak references to the elements. Each reference is both the key and the value.
+     * Lookups are performed with {@link Probe} keys, which are considered equal to the
+     * references to an element equal to the probe element.
+     */
+    private final ConcurrentMap<Object,Ref<E>> map;
+
+    /**
+     * The type of the elements in this set.
+     */
+    private final Class<E> elementType;
+
+    /**
+     * {@code true} if the elements in this set may be arrays. If the elements can not
+     * be arrays, then we can avoid the calls to the costly {@link Utilities} methods.
+     */
+    private final boolean mayContainArrays;
+
+    /**
+     * Creates a {@code ConcurrentWeakHashSet} for elements of the specified type.
+     *
+     * @param type The type of the element to be included in this set.
+     */
+    public ConcurrentWeakHashSet(final Class<E> type) {
+        elementType      = type;
+        mayContainArrays = type.isArray() || type.equals(Object.class);
+        map              = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Returns the type of elements in this set.
+     */
+    @Override
+    public Class<E> getElementType() {
+        return elementType;
+    }
+
+    /**
+     * Returns {@code true} if the two given elements are equal, taking arrays in account if needed.
+     * The {@code candidate} is the element of a weak reference, which may be null.
+     */
+    private static boolean equal(final Object element, final Object candidate, final boolean mayContainArrays) {
+        return mayContainArrays ? Objects.deepEquals(element, candidate) : element.equals(candidate);
+    }
+
+    /**
+     * A weak reference to an element, which removes itself from the enclosing set
+     * when the element has been garbage-collected.
+     */
+    private static final class Ref<E> extends WeakReference<E> implements Disposable {
+        /** The map which contains this reference. */ private final ConcurrentMap<Object,Ref<E>> map;
+        /** The hash code value of the element.    */ private final int hash;
+        /** Whether the element may be an array.   */ private final boolean mayContainArrays;
+
+        /** Creates a reference to be stored in the given map. */
+        Ref(final ConcurrentMap<Object,Ref<E>> map, final E element, final int hash, final boolean mayContainArrays) {
+            super(element, ReferenceQueueConsumer.QUEUE);
+            this.map  = map;
+            this.hash = hash;
+            this.mayContainArrays = mayContainArrays;
+        }
+
+        /** Returns the hash code of the referenced element, which is retained after garbage collection. */
+        @Override public int hashCode() {
+            return hash;
+        }
+
+        /** Compares the referenced elements. A reference whose element has been collected is equal only to itself. */
+        @Override public boolean equals(final Object other) {
+            if (other == this) return true;
+            final Object element = get();
+            if (element != null) {
+                if (other instanceof Ref<?>) {
+                    final Ref<?> that = (Ref<?>) other;
+                    return that.hash == hash && equal(element, that.get(), mayContainArrays);
+                }
+                if (other instanceof Probe) {
+                    final Probe that = (Probe) other;
+                    return that.hash == hash && equal(that.element, element, mayContainArrays);
+                }
+            }
+            return false;
+        }
+
+        /** Removes this reference from the map. */
+        @Override public void dispose() {
+            map.remove(this, this);
+        }
+    }
+
+    /**
+     * A key used for searching an element in the map without creating a weak reference.
+     */
+    private static final class Probe {
+        /** The element to search.                  */ final Object element;
+        /** The hash code value of the element.     */ final int hash;
+        /** Whether the element may be an array.    */ private final boolean mayContainArrays;
+
+        /** Creates a new key for the given element. */
+        Probe(final Object element, final int hash, final boolean mayContainArrays) {
+            this.element = element;
+            this.hash    = hash;
+            this.mayContainArrays = mayContainArrays;
+        }
+
+        /** Returns the hash code of the element to search. */
+        @Override public int hashCode() {
+            return hash;
+        }
+
+        /** Returns {@code true} if the given object is a reference to an element equal to the searched one. */
+        @Override public boolean equals(final Object other) {
+            return (other instanceof Ref<?>) && ((Ref<?>) other).hash == hash
+                    && equal(element, ((Ref<?>) other).get(), mayContainArrays);
+        }
+    }
+
+    /**
+     * Returns the hash code value of the given element.
+     */
+    private int hash(final Object element) {
+        return (mayContainArrays ? Utilities.deepHashCode(element) : element.hashCode()) & HASH_MASK;
+    }
+
+    /**
+     * Returns the number of elements in this set. The returned value may include elements
+     * that have been garbage-collected but not yet removed from this set.
+     *
+     * @return Number of elements in this set.
+     */
+    @Override
+    public int size() {
+        return map.size();
+    }
+
+    /**
+     * Adds the specified element to this set if it is not already present.
+     * If this set already contains the specified element, the call leaves
+     * this set unchanged and returns {@code false}.
+     *
+     * @param  element Element to be added to this set.
+     * @return {@code true} if this set did not already contain the specified element.
+     * @throws NullArgumentException If the given object is {@code null}.
+     */
+    @Override
+    public boolean add(final E element) throws NullArgumentException {
+        ArgumentChecks.ensureNonNull("element", element);
+        return intern(element) == null;
+    }
+
+    /**
+     * Removes a single instance of the specified element from this set, if it is present
+     * Null values are considered never present.
+     *
+     * @param  element element to be removed from this set, if present. Can be {@code null}.
+     * @return {@code true} if the set contained the specified element.
+     */
+    @Override
+    public boolean remove(final Object element) {
+        if (element != null) {
+            final Ref<E> ref = map.get(new Probe(element, hash(element), mayContainArrays));
+            if (ref != null && map.remove(ref, ref)) {
+                final boolean found = (ref.get() != null);
+                ref.clear();
+                return found;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns an object equals to the specified object, if present. If this set doesn't
+     * contain any object equals to {@code element}, then this method returns {@code null}.
+     * Null values are considered never present. This method never blocks.
+     *
+     * @param  element The element to get.
+     * @return An element equals to the given one if already presents in the set,
+     *         or {@code null} otherwise.
+     *
+     * @see #unique(Object)
+     */
+    public E get(final Object element) {
+        if (element != null) {
+            final Ref<E> ref = map.get(new Probe(element, hash(element), mayContainArrays));
+            if (ref != null) {
+                return ref.get();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns {@code true} if this set contains the specified element.
+     * Null values are considered never present.
+     *
+     * @param  element Object to be checked for containment in this set. Can be {@code null}.
+     * @return {@code true} if this set contains the specified element.
+     */
+    @Override
+    public boolean contains(final Object element) {
+        return get(element) != null;
+    }
+
+    /**
+     * Returns an object equals to {@code element} if such an object already exist in this
+     * {@code ConcurrentWeakHashSet}. Otherwise, adds {@code element} to this set.
+     * This method is functionally equivalents to the {@link WeakHashSet#unique(Object)} method,
+     * except that it does not block when an equal element already exists in the set.
+     *
+     * @param  <T> The type of the element to get. Can be {@code null}.
+     * @param  element The element to get or to add in the set if not already presents,
+     *         or {@code null} if the given element was null.
+     * @return An element equals to the given one if already presents in the set,
+     *         or the given {@code object} otherwise.
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends E> T unique(final T element) {
+        // There is no way to make sure that this operation is really safe.
+        // We have to trust the Object.equals(Object) method to be strict
+        // about the type of compared objects.
+        if (element != null) {
+            final E existing = intern(element);
+            if (existing != null) {
+                return (T) existing;
+            }
+        }
+        return element;
+    }
+
+    /**
+     * Implementation of {@link #add(Object)} and {@link #unique(Object)}.
+     * Returns the existing element if any, or {@code null} if the given element has been added.
+     */
+    private E intern(final E element) {
+        final int hash = hash(element);
+        Ref<E> existing = map.get(new Probe(element, hash, mayContainArrays));
+        if (existing != null) {
+            final E candidate = existing.get();
+            if (candidate != null) {
+                return candidate;
+            }
+        }
+        final Ref<E> ref = new Ref<>(map, elementType.cast(element), hash, mayContainArrays);
+        while ((existing = map.putIfAbsent(ref, ref)) != null) {
+            final E candidate = existing.get();
+            if (candidate != null) {
+                ref.clear();            // For preventing the reference from being enqueued.
+                return candidate;
+            }
+            /*
+             * The element has been garbage-collected but the reference has not yet been removed
+             * from the map. Remove it now, then try again. Note that a reference whose element
+             * has been collected is equal only to itself, so there is no ambiguity on the entry
+             * to remove.
+             */
+            map.remove(existing, existing);
+        }
+        return null;
+    }
+
+    /**
+     * Removes all of the elements from this set.
+     */
+    @Override
+    public void clear() {
+        map.clear();
+    }
+
+    /**
+     * Returns a view of this set as an array. Elements will be in an arbitrary
+     * order. Note that this array contains strong references. Consequently, no
+     * object reclamation will occur as long as a reference to this array is hold.
+     *
+     * @return All elements in this set.
+     */
+    @Override
+    public E[] toArray() {
+        @SuppressWarnings("unchecked")
+        E[] elements = (E[]) Array.newInstance(elementType, map.size());
+        int index = 0;
+        for (final Ref<E> ref : map.values()) {
+            final E element = ref.get();
+            if (element != null) {
+                if (index == elements.length) {
+                    elements = Arrays.copyOf(elements, index*2 + 1);
+                }
+                elements[index++] = element;
+            }
+        }
+        return ArraysExt.resize(elements, index);
+    }
+
+    /**
+     * Returns an iterator over the elements contained in this collection.
+     * No element from this set will be garbage collected as long as a
+     * reference to the iterator is hold.
+     *
+     * @return An iterator over all elements in this set.
+     */
+    @Override
+    public Iterator<E> iterator() {
+        return Arrays.asList(toArray()).iterator();
+    }
+}
@@ -0,0 +1,527 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sis.util.collection;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.List;
+import java.util.Iterator;
+import java.util.ArrayList;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentHashMap;
+import org.apache.sis.util.Disposable;
+import org.apache.sis.util.Utilities;
+import org.apache.sis.util.NullArgumentException;
+import org.apache.sis.util.resources.Errors;
+import org.apache.sis.internal.system.ReferenceQueueConsumer;
+
+// Branch-dependent imports
+import java.util.Objects;
+
+
+/**
+ * A map of values hold by weak references, optimized for concurrent accesses by many threads.
+ * This class provides the same functionalities than {@link WeakValueHashMap} — an entry is
+ * automatically removed when its value is no longer in ordinary use — but without global lock:
+ * {@link #get(Object)} never blocks, and additions or removals of different keys can be executed
+ * in parallel. The cleanup of entries whose value has been garbage-collected is performed in a
+ * background thread and does not block the readers neither.
+ *
+ * <p>This class is convenient for avoiding the creation of duplicated elements in pools shared by
+ * many threads. Since the {@code synchronized (map) {…}} idiom documented in {@code WeakValueHashMap}
+ * does not apply to this class, atomic "get or create" operations shall use one of the following
+ * methods instead:</p>
+ *
+ * <ul>
+ *   <li>{@link #putIfAbsent(Object, Object)} when the value to add has already been created, or</li>
+ *   <li>{@link #getOrCreate(Object, Callable)} for creating the value only if no value is associated to the key.</li>
+ * </ul>
+ *
+ * <p>This class is preferable to {@code WeakValueHashMap} for maps used on hot read paths by many threads.
+ * It has a slightly higher memory consumption per entry, and its {@link #size()} method is only an estimation
+ * since it may include entries whose value has been garbage-collected but not yet removed from the map.</p>
+ *
+ * <p>{@code ConcurrentWeakValueHashMap} works with array keys as one would expect. For example arrays of
+ * {@code int[]} are compared using the {@link java.util.Arrays#equals(int[], int[])} method.</p>
+ *
+ * {@section Thread safety}
+ * The same {@code ConcurrentWeakValueHashMap} instance can be safely used by many threads without
+ * synchronization on the part of the caller. Contrarily to {@code WeakValueHashMap}, synchronizing
+ * on {@code this} does <strong>not</strong> make a sequence of method calls atomic.
+ *
+ * @param <K> The class of key elements.
+ * @param <V> The class of value elements.
+ *
+ * @author  Martin Desruisseaux (Geomatys)
+ * @since   0.6
+ * @version 0.6
+ * @module
+ *
+ * @see WeakValueHashMap
+ * @see ConcurrentWeakHashSet
+ * @see Cache
+ */
+public class ConcurrentWeakValueHashMap<K,V> extends AbstractMap<K,V> implements ConcurrentMap<K,V> {
+    /**
+     * Comparison mode for key objects. See {@code WeakValueHashMap} for a description of those modes.
+     * Keys compared in the {@code IDENTITY} or {@code DEEP_EQUALS} mode are wrapped in {@link Key}
+     * instances before to be stored in the backing map.
+     *
+     * @see #comparisonMode
+     * @see #wrap(Object)
+     */
+    private static final byte IDENTITY = 0, EQUALS = 1, DEEP_EQUALS = 2;
+
+    /**
+     * The weak references to the values. The keys in this map are the user keys, or {@link Key}
+     * wrappers around the user keys if those keys need a non-standard comparison mode.
+     */
+    private final ConcurrentMap<Object,Ref<V>> map;
+
+    /**
+     * The type of the keys in this map.
+     */
+    private final Class<K> keyType;
+
+    /**
+     * Whether keys shall be compared by reference-equality ({@link #IDENTITY}), by shallow object-equality
+     * ({@link #EQUALS}) or by deep object-equality ({@link #DEEP_EQUALS}).
+     */
+    private final byte comparisonMode;
+
+    /**
+     * The set of entries, created only when first needed.
+     */
+    private transient Set<Map.Entry<K,V>> entrySet;
+
+    /**
+     * Creates a new {@code ConcurrentWeakValueHashMap}.
+     *
+     * @param keyType The type of keys in the map.
+     */
+    public ConcurrentWeakValueHashMap(final Class<K> keyType) {
+        this(keyType, false);
+    }
+
+    /**
+     * Creates a new {@code ConcurrentWeakValueHashMap}, optionally using reference-equality in place of
+     * object-equality. If {@code identity} is {@code true}, then two keys {@code k1} and {@code k2} are
+     * considered equal if and only if {@code (k1 == k2)} instead than if {@code k1.equals(k2)}.
+     *
+     * @param keyType  The type of keys in the map.
+     * @param identity {@code true} if the map shall use reference-equality in place of object-equality
+     *                 when comparing keys, or {@code false} for the standard behavior.
+     */
+    public ConcurrentWeakValueHashMap(final Class<K> keyType, final boolean identity) {
+        this.keyType   = keyType;
+        comparisonMode = identity ? IDENTITY :
+                (keyType.isArray() || keyType.equals(Object.class)) ? DEEP_EQUALS : EQUALS;
+        map = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * A key compared by reference-equality or by deep object-equality.
+     */
+    private static final class Key {
+        /** The user key.                       */ final Object key;
+        /** The hash code value of the key.     */ private final int hash;
+        /** Whether to compare by identity.     */ private final boolean identity;
+
+        /** Wraps the given user key. */
+        Key(final Object key, final boolean identity) {
+            this.key      = key;
+            this.identity = identity;
+            hash = identity ? System.identityHashCode(key) : Utilities.deepHashCode(key);
+        }
+
+        /** Returns the hash code of the user key. */
+        @Override public int hashCode() {
+            return hash;
+        }
+
+        /** Compares the user keys. */
+        @Override public boolean equals(final Object other) {
+            if (other instanceof Key) {
+                final Key that = (Key) other;
+                if (that.hash == hash) {
+                    return identity ? that.key == key : Objects.deepEquals(key, that.key);
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * A weak reference to a value, which removes itself from the enclosing map
+     * when the value has been garbage-collected.
+     */
+    private static final class Ref<V> extends WeakReference<V> implements Disposable {
+        /** The map which contains this reference. */ private final ConcurrentMap<Object,Ref<V>> map;
+        /** The key of this reference in the map.  */ final Object key;
+
+        /** Creates a reference to be stored in the given map. */
+        Ref(final ConcurrentMap<Object,Ref<V>> map, final Object key, final V value) {
+            super(value, ReferenceQueueConsumer.QUEUE);
+            this.map = map;
+            this.key = key;
+        }
+
+        /**
+         * Removes this reference from the map, provided that it has not been replaced by another reference.
+         * Since references are compared by identity, there is no risk to remove a newer entry for the same key.
+         */
+        @Override public void dispose() {
+            map.remove(key, this);
+        }
+    }
+
+    /**
+     * Returns the key to use in the backing map for the given user key.
+     * This method allocates an object only if the keys need a non-standard comparison mode.
+     */
+    private Object wrap(final Object key) {
+        return (comparisonMode == EQUALS) ? key : new Key(key, comparisonMode == IDENTITY);
+    }
+
+    /**
+     * Returns the user key for the given key of the backing map.
+     */
+    private K unwrap(final Object key) {
+        return keyType.cast((comparisonMode == EQUALS) ? key : ((Key) key).key);
+    }
+
+    /**
+     * Ensures that the given key and value are non-null.
+     */
+    private static void ensureNonNull(final Object key, final Object value) throws NullArgumentException {
+        if (key == null || value == null) {
+            throw new NullArgumentException(Errors.format(key == null
+                    ? Errors.Keys.NullMapKey : Errors.Keys.NullMapValue));
+        }
+    }
+
+    /**
+     * Returns the value of the given reference and clears that reference, or returns {@code null}
+     * if the given reference is null. The reference is cleared for preventing it from being enqueued,
+     * since it has already been removed from the map.
+     */
+    private static <V> V valueOf(final Ref<V> ref) {
+        if (ref == null) {
+            return null;
+        }
+        final V value = ref.get();
+        ref.clear();
+        return value;
+    }
+
+    /**
+     * Returns the number of key-value mappings in this map. The returned value may include entries
+     * whose value has been garbage-collected but not yet removed from this map.
+     *
+     * @return The number of entries in this map.
+     */
+    @Override
+    public int size() {
+        return map.size();
+    }
+
+    /**
+     * Returns {@code true} if this map contains a mapping for the specified key.
+     * Null keys are considered never present.
+     *
+     * @param  key key whose presence in this map is to be tested.
+     * @return {@code true} if this map contains a mapping for the specified key.
+     */
+    @Override
+    public boolean containsKey(final Object key) {
+        return get(key) != null;
+    }
+
+    /**
+     * Returns the value to which this map maps the specified key.
+     * Returns {@code null} if the map contains no mapping for this key.
+     * Null keys are considered never present. This method never blocks.
+     *
+     * @param  key Key whose associated value is to be returned.
+     * @return The value to which this map maps the specified key.
+     */
+    @Override
+    public V get(final Object key) {
+        if (key != null) {
+            final Ref<V> ref = map.get(wrap(key));
+            if (ref != null) {
+                return ref.get();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Associates the specified value with the specified key in this map.
+     * The value is associated using a {@link WeakReference}.
+     *
+     * @param  key key with which the specified value is to be associated.
+     * @param  value value to be associated with the specified key.
+     * @return The previous value associated with specified key, or {@code null}
+     *         if there was no mapping for key.
+     *
+     * @throws NullArgumentException if the key or the value is {@code null}.
+     */
+    @Override
+    public V put(final K key, final V value) throws NullArgumentException {
+        ensureNonNull(key, value);
+        final Object k = wrap(keyType.cast(key));
+        return valueOf(map.put(k, new Ref<>(map, k, value)));
+    }
+
+    /**
+     * Associates the specified value with the specified key if no value is currently associated to that key,
+     * or if the previous value has been garbage-collected. Otherwise returns the existing value.
+     *
+     * @param  key key with which the specified value is to be associated.
+     * @param  value value to be associated with the specified key.
+     * @return The value currently associated with specified key, or {@code null}
+     *         if the given value has been added.
+     *
+     * @throws NullArgumentException if the key or the value is {@code null}.
+     */
+    @Override
+    public V putIfAbsent(final K key, final V value) throws NullArgumentException {
+        ensureNonNull(key, value);
+        final Object k = wrap(keyType.cast(key));
+        Ref<V> existing = map.get(k);
+        if (existing != null) {
+            final V current = existing.get();
+            if (current != null) {
+                return current;
+            }
+        }
+        final Ref<V> ref = new Ref<>(map, k, value);
+        while ((existing = map.putIfAbsent(k, ref)) != null) {
+            final V current = existing.get();
+            if (current != null) {
+                ref.clear();            // For preventing the reference from being enqueued.
+                return current;
+            }
+            /*
+             * The value has been garbage-collected but the reference has not yet been removed
+             * from the map. Replace it by the new reference if no other thread did it before us,
+             * otherwise try again with the reference added by the other thread.
+             */
+            if (map.replace(k, existing, ref)) {
+                break;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the value associated to the given key, or creates it if no value is associated to that key.
+     * This method is the equivalent of {@link Cache#getOrCreate(Object, Callable)} for weak values.
+     * The creator is invoked outside any lock, so this method does not block other threads while a
+     * value is being created. If many threads create a value for the same key concurrently, only the
+     * first value added in the map is retained and returned to all callers.
+     *
+     * @param  key The key for which to get the value.
+     * @param  creator A method for creating a value, to be invoked only if no value is associated to the key.
+     * @return The value associated to the given key, which may have been created by this method invocation
+     *         or by a concurrent invocation in another thread.
+     * @throws NullArgumentException if the key is null or the creator returned a null value.
+     * @throws Exception If an exception occurred during the execution of {@code creator}.
+     */
+    public V getOrCreate(final K key, final Callable<? extends V> creator) throws Exception {
+        V value = get(key);
+        if (value == null) {
+            value = creator.call();
+            final V existing = putIfAbsent(key, value);
+            if (existing != null) {
+                value = existing;
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Removes the mapping for this key from this map if present.
+     *
+     * @param key key whose mapping is to be removed from the map.
+     * @return previous value associated with specified key, or {@code null}
+     *         if there was no entry for key.
+     */
+    @Override
+    public V remove(final Object key) {
+        return (key != null) ? valueOf(map.remove(wrap(key))) : null;
+    }
+
+    /**
+     * Removes the entry for the given key only if it is currently mapped to the given value.
+     *
+     * @param  key   key whose mapping is to be removed from the map.
+     * @param  value value expected to be associated with the specified key.
+     * @return {@code true} if the value was removed.
+     */
+    @Override
+    public boolean remove(final Object key, final Object value) {
+        if (key != null && value != null) {
+            final Object k = wrap(key);
+            final Ref<V> ref = map.get(k);
+            if (ref != null && value.equals(ref.get()) && map.remove(k, ref)) {
+                ref.clear();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Replaces the entry for the given key only if it is currently mapped to some value.
+     *
+     * @param  key   key with which the specified value is to be associated.
+     * @param  value value to be associated with the specified key.
+     * @return The previous value associated with specified key, or {@code null}
+     *         if there was no mapping for key.
+     * @throws NullArgumentException if the key or the value is {@code null}.
+     */
+    @Override
+    public V replace(final K key, final V value) throws NullArgumentException {
+        ensureNonNull(key, value);
+        final Object k = wrap(keyType.cast(key));
+        Ref<V> existing;
+        while ((existing = map.get(k)) != null) {
+            final V previous = existing.get();
+            if (previous == null) {
+                break;
+            }
+            if (map.replace(k, existing, new Ref<>(map, k, value))) {
+                existing.clear();
+                return previous;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Replaces the entry for the given key only if currently mapped to the given value.
+     *
+     * @param  key      key with which the specified value is to be associated.
+     * @param  oldValue value expected to be associated with the specified key.
+     * @param  newValue value to be associated with the specified key.
+     * @return {@code true} if the value was replaced.
+     * @throws NullArgumentException if the key or a value is {@code null}.
+     */
+    @Override
+    public boolean replace(final K key, final V oldValue, final V newValue) throws NullArgumentException {
+        ensureNonNull(key, oldValue);
+        ensureNonNull(key, newValue);
+        final Object k = wrap(keyType.cast(key));
+        final Ref<V> existing = map.get(k);
+        if (existing != null && oldValue.equals(existing.get())) {
+            final Ref<V> ref = new Ref<>(map, k, newValue);
+            if (map.replace(k, existing, ref)) {
+                existing.clear();
+                return true;
+            }
+            ref.clear();
+        }
+        return false;
+    }
+
+    /**
+     * Removes all of the elements from this map.
+     */
+    @Override
+    public void clear() {
+        map.clear();
+    }
+
+    /**
+     * Returns a set view of the mappings contained in this map.
+     * Each element in this set is a {@link java.util.Map.Entry}.
+     * The iterator returned by this set iterates over a snapshot of the mappings;
+     * no value will be garbage collected as long as a reference to the iterator is hold.
+     *
+     * @return a set view of the mappings contained in this map.
+     */
+    @Override
+    public Set<Map.Entry<K,V>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new EntrySet();
+        }
+        return entrySet;
+    }
+
+    /**
+     * The set of entries.
+     */
+    private final class EntrySet extends AbstractSet<Map.Entry<K,V>> {
+        /**
+         * Returns the number of entries in the map.
+         */
+        @Override
+        public int size() {
+            return ConcurrentWeakValueHashMap.this.size();
+        }
+
+        /**
+         * Removes all entries from the map.
+         */
+        @Override
+        public void clear() {
+            ConcurrentWeakValueHashMap.this.clear();
+        }
+
+        /**
+         * Returns an iterator over a snapshot of the entries in the map. The entries do not
+         * support the {@code setValue(…)} operation, but the iterator supports {@code remove()}.
+         */
+        @Override
+        public Iterator<Map.Entry<K,V>> iterator() {
+            final List<Map.Entry<K,V>> entries = new ArrayList<>(map.size());
+            for (final Ref<V> ref : map.values()) {
+                final V value = ref.get();
+                if (value != null) {
+                    entries.add(new SimpleImmutableEntry<>(unwrap(ref.key), value));
+                }
+            }
+            final Iterator<Map.Entry<K,V>> it = entries.iterator();
+            return new Iterator<Map.Entry<K,V>>() {
+                /** The last entry returned by {@link #next()}. */
+                private Map.Entry<K,V> last;
+
+                @Override public boolean hasNext() {
+                    return it.hasNext();
+                }
+
+                @Override public Map.Entry<K,V> next() {
+                    return last = it.next();
+                }
+
+                @Override public void remove() {
+                    if (last == null) {
+                        throw new IllegalStateException();
+                    }
+                    ConcurrentWeakValueHashMap.this.remove(last.getKey(), last.getValue());
+                    last = null;
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,207 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sis.util.collection;
+
+
+/**
+ * A probabilistic estimation of the access frequency of cache entries, used by the <cite>TinyLFU</cite>
+ * admission policy described by Einziger, Friedman and Manes in <cite>"TinyLFU: A Highly Efficient Cache
+ * Admission Policy"</cite> (ACM Transactions on Storage, 2017). This is a <cite>count-min sketch</cite>:
+ * each element is mapped to {@value #DEPTH} counters by double hashing, and the estimated frequency is
+ * the smallest of those counters. The counters saturate at {@value #MAX_COUNT}, so the estimated frequencies
+ * are in the [0…15] range. The frequency of an element is never underestimated, but may be overestimated
+ * because of hash collisions.
+ *
+ * <p>Increments use the <cite>conservative update</cite> rule: only the counters equal to the current
+ * estimation are incremented, which reduces the overestimation caused by collisions. In order to give
+ * more weight to recent accesses, all counters are divided by two (<cite>aging</cite>) after a number
+ * of increments proportional to the sketch capacity.</p>
+ *
+ * <p>The sketch starts small and grows with the number of elements in the cache, as notified by
+ * {@link #ensureCapacity(int)}. When growing, the old counters are replicated in the new table,
+ * so the estimations are preserved (but collisions are not reduced until the next aging).</p>
+ *
+ * <p>This class is not thread-safe. Callers shall synchronize all accesses.</p>
+ *
+ * @author  Martin Desruisseaux (Geomatys)
+ * @since   0.6
+ * @version 0.6
+ * @module
+ *
+ * @see CachePolicy
+ */
+final class FrequencySketch {
+    /**
+     * Number of counters associated to each element.
+     */
+    private static final int DEPTH = 4;
+
+    /**
+     * Maximal value of a counter.
+     */
+    private static final int MAX_COUNT = 15;
+
+    /**
+     * Number of counters to allocate for each element expected in the cache.
+     * This is twice the {@linkplain #DEPTH depth} in order to keep collisions low.
+     */
+    private static final int COUNTERS_PER_ELEMENT = 2 * DEPTH;
+
+    /**
+     * Initial number of counters. Must be a power of 2.
+     */
+    private static final int INITIAL_LENGTH = 64;
+
+    /**
+     * Maximal number of counters. Must be a power of 2. The sketch does not grow
+     * beyond this limit, which is reached for about 2 millions cache elements.
+     */
+    private static final int MAXIMUM_LENGTH = 1 << 24;
+
+    /**
+     * The counters, in the [0 … {@value #MAX_COUNT}] range. The length of this array is a power of 2.
+     */
+    private byte[] counters;
+
+    /**
+     * Number of increments before the counters are divided by two.
+     */
+    private int sampleSize;
+
+    /**
+     * Number of increments since the last aging.
+     */
+    private int additions;
+
+    /**
+     * Creates a new sketch of small initial capacity.
+     */
+    FrequencySketch() {
+        counters   = new byte[INITIAL_LENGTH];
+        sampleSize = sampleSize(INITIAL_LENGTH);
+    }
+
+    /**
+     * Returns the number of increments between two agings for the given number of counters.
+     * This is ten times the number of elements that the sketch is sized for.
+     */
+    private static int sampleSize(final int length) {
+        return 10 * (length / COUNTERS_PER_ELEMENT);
+    }
+
+    /**
+     * Ensures that this sketch is large enough for estimating the frequencies of the given number of elements.
+     * This method shall be invoked when the number of elements in the cache increases. It does nothing if the
+     * sketch is already large enough or has reached its maximal size.
+     *
+     * @param count The number of elements in the cache.
+     */
+    void ensureCapacity(final int count) {
+        final byte[] old = counters;
+        if (count <= old.length / COUNTERS_PER_ELEMENT || old.length >= MAXIMUM_LENGTH) {
+            return;
+        }
+        final int required = Math.min(count, MAXIMUM_LENGTH / COUNTERS_PER_ELEMENT) * COUNTERS_PER_ELEMENT;
+        final int length = Math.max(old.length * 2, Integer.highestOneBit(required - 1) << 1);
+        /*
+         * The index of a counter is the hash code masked by (length - 1). Consequently the counters at index
+         * i in the new array correspond to the counter at index (i & (old.length - 1)) in the old array.
+         * Copying the old counters in every slice of the new array preserves all estimations.
+         */
+        final byte[] counters = new byte[length];
+        for (int i=0; i<length; i += old.length) {
+            System.arraycopy(old, 0, counters, i, old.length);
+        }
+        this.counters = counters;
+        sampleSize = sampleSize(length);
+    }
+
+    /**
+     * Returns a 64 bits hash code for the given element. The lower and upper 32 bits
+     * are used as the two hash values of the double hashing.
+     */
+    private static long hash(final Object element) {
+        long h = element.hashCode() * 0x9E3779B97F4A7C15L;      // Fibonacci hashing.
+        h ^= (h >>> 31);
+        h *= 0xBF58476D1CE4E5B9L;
+        return h ^ (h >>> 29);
+    }
+
+    /**
+     * Returns the index of the {@code i}-th counter of an element, using the double hashing
+     * <var>h1</var> + <var>i</var>×<var>h2</var>. The second hash is forced to an odd value,
+     * so the {@value #DEPTH} indices are distinct in a table having a power of 2 length.
+     */
+    private static int indexOf(final long hash, final int i, final int mask) {
+        return ((int) hash + i * ((int) (hash >>> 32) | 1)) & mask;
+    }
+
+    /**
+     * Returns the estimated frequency of the given element, in the [0…15] range.
+     *
+     * @param  element The element for which to get the frequency.
+     * @return The estimated frequency of the given element.
+     */
+    int frequency(final Object element) {
+        final byte[] counters = this.counters;
+        final int  mask = counters.length - 1;
+        final long hash = hash(element);
+        int frequency = MAX_COUNT;
+        for (int i=0; i<DEPTH; i++) {
+            frequency = Math.min(frequency, counters[indexOf(hash, i, mask)]);
+        }
+        return frequency;
+    }
+
+    /**
+     * Increments the estimated frequency of the given element, unless that frequency is already at its maximum.
+     * If the number of increments reaches the sample size, then all frequencies are divided by two.
+     *
+     * @param element The element for which to increment the frequency.
+     */
+    void increment(final Object element) {
+        final byte[] counters = this.counters;
+        final int  mask = counters.length - 1;
+        final long hash = hash(element);
+        int frequency = MAX_COUNT;
+        for (int i=0; i<DEPTH; i++) {
+            frequency = Math.min(frequency, counters[indexOf(hash, i, mask)]);
+        }
+        if (frequency < MAX_COUNT) {
+            for (int i=0; i<DEPTH; i++) {
+                final int index = indexOf(hash, i, mask);
+                if (counters[index] == frequency) {
+                    counters[index]++;
+                }
+            }
+            if (++additions >= sampleSize) {
+                age();
+            }
+        }
+    }
+
+    /**
+     * Divides all counters by two, and the number of increments since the last aging accordingly.
+     */
+    private void age() {
+        final byte[] counters = this.counters;
+        for (int i=0; i<counters.length; i++) {
+            counters[i] >>>= 1;
+        }
+        additions >>>= 1;
+    }
+}
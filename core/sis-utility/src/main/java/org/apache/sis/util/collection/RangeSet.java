@@ -23,6 +23,7 @@ import java.io.ObjectOutputStream;
 import java.lang.reflect.Array;
 import java.util.Arrays;
 import java.util.Iterator;
+import java.util.Collection;
 import java.util.Comparator;
 import java.util.SortedSet;
 import java.util.AbstractSet;
@@ -74,7 +75,8 @@ import static org.apache.sis.util.Numbers.*;
  *
  * <ul>
  *   <li>{@link #indexOfRange(Comparable)} returns the index of the range containing
- *       the given value (if any).</li>
+ *       the given value (if any). The {@link #indexOfLong(long)} and {@link #indexOfDouble(double)}
+ *       methods do the same work for primitive values without creating any object.</li>
  *   <li>{@link #getMinDouble(int)} and {@link #getMaxDouble(int)} return the endpoint values
  *       in the range at the given index as a {@code double} without the cost of creating a
  *       {@link Number} instance.</li>
@@ -84,6 +86,8 @@ import static org.apache.sis.util.Numbers.*;
  *   <li>{@link #intersect(Range)} provides a more convenient way than {@code subSet(…)},
  *       {@code headSet(…)} and {@code tailSet(…)} for creating views over subsets of a
  *       {@code RangeSet}.</li>
+ *   <li>{@link #intersectWith(RangeSet)} computes the intersection with another {@code RangeSet}
+ *       in linear time. The union is computed in linear time by {@link #addAll(Collection)}.</li>
  *   <li>{@link #trimToSize()} frees unused space.</li>
  * </ul>
  *
@@ -103,7 +107,7 @@ import static org.apache.sis.util.Numbers.*;
  * @author  Martin Desruisseaux (Geomatys)
  * @author  Rémi Maréchal (Geomatys)
  * @since   0.3
- * @version 0.5
+ * @version 0.6
  * @module
  *
  * @see Range
@@ -445,6 +449,106 @@ public class RangeSet<E extends Comparable<? super E>> extends AbstractSet<Range
         }
     }
 
+    /**
+     * Returns the index of the given {@code long} value in {@link #array}, without creating wrapper object.
+     * If the value can not be represented by the primitive type of this set, then this method returns the
+     * insertion point that the value would have. Values in sets of floating point numbers are searched as
+     * {@code double} values.
+     *
+     * @param value The value to search.
+     * @param lower Index of the first value to examine.
+     * @param upper Index after the last value to examine.
+     * @throws ClassCastException if range elements are not integer or floating point numbers.
+     */
+    private int binarySearch(final long value, final int lower, final int upper) {
+        switch (elementCode) {
+            case LONG:      return Arrays.binarySearch((long[]) array, lower, upper, value);
+            case INTEGER:   if (value == (int)   value) return Arrays.binarySearch((int  []) array, lower, upper, (int)   value); break;
+            case SHORT:     if (value == (short) value) return Arrays.binarySearch((short[]) array, lower, upper, (short) value); break;
+            case BYTE:      if (value == (byte)  value) return Arrays.binarySearch((byte []) array, lower, upper, (byte)  value); break;
+            case CHARACTER: if (value == (char)  value) return Arrays.binarySearch((char []) array, lower, upper, (char)  value); break;
+            case DOUBLE:
+            case FLOAT:     return binarySearch((double) value, lower, upper);
+            default:        throw new ClassCastException(Errors.format(Errors.Keys.IllegalClass_2, Long.class, elementType));
+        }
+        // The value is outside the range of the primitive type, consequently outside all ranges.
+        return ~((value < 0) ? lower : upper);
+    }
+
+    /**
+     * Returns the index of the given {@code double} value in {@link #array}, without creating wrapper object.
+     * If the value can not be represented by the primitive type of this set, then this method returns the
+     * insertion point that the value would have.
+     *
+     * @param value The value to search.
+     * @param lower Index of the first value to examine.
+     * @param upper Index after the last value to examine.
+     * @throws ClassCastException if range elements are not integer or floating point numbers.
+     */
+    private int binarySearch(final double value, final int lower, final int upper) {
+        switch (elementCode) {
+            case DOUBLE: {
+                return Arrays.binarySearch((double[]) array, lower, upper, value);
+            }
+            case FLOAT: {
+                /*
+                 * No float value can exist between 'value' and the nearest float 'f'.
+                 * So if 'f' has been found, the insertion point is just before or after it.
+                 */
+                final float f = (float) value;
+                final int i = Arrays.binarySearch((float[]) array, lower, upper, f);
+                if (i < 0 || f == value) return i;
+                return ~((value < f) ? i : i+1);
+            }
+            case LONG: case INTEGER: case SHORT: case BYTE: case CHARACTER: {
+                final double f = Math.floor(value);
+                if (!(f >= Long.MIN_VALUE)) return ~((f < 0) ? lower : upper);  // Also for NaN values.
+                if (!(f <= Long.MAX_VALUE)) return ~upper;
+                final int i = binarySearch((long) f, lower, upper);
+                if (i < 0 || f == value) return i;
+                return ~(i+1);          // 'value' is after the integer value found at index i.
+            }
+            default: {
+                throw new ClassCastException(Errors.format(Errors.Keys.IllegalClass_2, Double.class, elementType));
+            }
+        }
+    }
+
+    /**
+     * Compares the value at index {@code i} in array {@code a1} with the value at index {@code j} in
+     * array {@code a2}. Both arrays shall be of the same type than {@link #array}. This method does
+     * not create wrapper objects for primitive values.
+     */
+    @SuppressWarnings("unchecked")
+    private int compare(final Object a1, final int i, final Object a2, final int j) {
+        switch (elementCode) {
+            case DOUBLE:    return Double   .compare(((double[]) a1)[i], ((double[]) a2)[j]);
+            case FLOAT:     return Float    .compare(((float []) a1)[i], ((float []) a2)[j]);
+            case LONG:      return Long     .compare(((long  []) a1)[i], ((long  []) a2)[j]);
+            case INTEGER:   return Integer  .compare(((int   []) a1)[i], ((int   []) a2)[j]);
+            case SHORT:     return Short    .compare(((short []) a1)[i], ((short []) a2)[j]);
+            case BYTE:      return Byte     .compare(((byte  []) a1)[i], ((byte  []) a2)[j]);
+            case CHARACTER: return Character.compare(((char  []) a1)[i], ((char  []) a2)[j]);
+            default:        return ((E) ((Object[]) a1)[i]).compareTo((E) ((Object[]) a2)[j]);
+        }
+    }
+
+    /**
+     * Returns {@code true} if the {@code n} first values of the given array are equal to the values
+     * of this set. The array shall be of the same type than {@link #array}.
+     */
+    private boolean equalsArray(final Object other, final int n) {
+        if (n != length) {
+            return false;
+        }
+        for (int i=0; i<n; i++) {
+            if (compare(array, i, other, i) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     /**
      * Ensures that the given minimum value is not greater than the maximum value.
      * This method is used for argument checks.
@@ -587,6 +691,169 @@ public class RangeSet<E extends Comparable<? super E>> extends AbstractSet<Range
         return modCountChk != modCount;
     }
 
+    /**
+     * Adds all ranges of the given collection to this set. This method computes the union of this set with
+     * the given ranges. If the given collection is another {@code RangeSet} having the same element type and
+     * the same {@code isMinIncluded} and {@code isMaxIncluded} values, and if {@link #add(Range)} has not been
+     * overridden, then this method merges the two sets in a single pass over their internal arrays. The execution
+     * time is then proportional to the sum of the set sizes. Otherwise this method adds the ranges one by one
+     * by invoking {@link #add(Range)}.
+     *
+     * @param  ranges The ranges to add.
+     * @return {@code true} if this set changed as a result of this method call.
+     * @throws IllegalArgumentException If the {@code isMinIncluded} or {@code isMaxIncluded}
+     *         property of a range doesn't match the one given at this {@code RangeSet} constructor.
+     *
+     * @since 0.6
+     */
+    @Override
+    public boolean addAll(final Collection<? extends Range<E>> ranges) throws IllegalArgumentException {
+        if (!isCompatible(ranges) || isAddOverridden()) {
+            return super.addAll(ranges);
+        }
+        final RangeSet<?> that = (RangeSet<?>) ranges;
+        if (that == this || that.length == 0) {
+            return false;
+        }
+        if (length == 0) {
+            array  = Array.newInstance(that.array.getClass().getComponentType(), that.length);
+            length = that.length;
+            System.arraycopy(that.array, 0, array, 0, length);
+            modCount++;
+            return true;
+        }
+        final Object a = this.array;
+        final Object b = that.array;
+        final Object result = Array.newInstance(a.getClass().getComponentType(), length + that.length);
+        int i = 0, j = 0, n = 0;
+        while (i < length || j < that.length) {
+            /*
+             * Copy the range having the smallest minimal value, then extend that range as long as the
+             * next range of either set overlaps it or touches it. Ranges are merged on equal endpoints
+             * for consistency with the add(Comparable, Comparable) method.
+             */
+            if (j >= that.length || (i < length && compare(a, i, b, j) <= 0)) {
+                System.arraycopy(a, i, result, n, 2);
+                i += 2;
+            } else {
+                System.arraycopy(b, j, result, n, 2);
+                j += 2;
+            }
+            final int end = n + 1;
+            for (;;) {
+                if (i < length && compare(a, i, result, end) <= 0) {
+                    if (compare(a, i+1, result, end) > 0) {
+                        System.arraycopy(a, i+1, result, end, 1);
+                    }
+                    i += 2;
+                } else if (j < that.length && compare(b, j, result, end) <= 0) {
+                    if (compare(b, j+1, result, end) > 0) {
+                        System.arraycopy(b, j+1, result, end, 1);
+                    }
+                    j += 2;
+                } else {
+                    break;
+                }
+            }
+            n += 2;
+        }
+        if (equalsArray(result, n)) {
+            return false;
+        }
+        array  = result;
+        length = n;
+        modCount++;
+        return true;
+    }
+
+    /**
+     * Returns {@code true} if a subclass overrides the {@link #add(Range)} method. In such case, the methods
+     * adding many ranges shall invoke {@code add(Range)} for each range instead of merging the arrays directly.
+     */
+    private boolean isAddOverridden() {
+        final Class<?> c = getClass();
+        if (c == RangeSet.class || c == Numeric.class) {
+            return false;
+        }
+        try {
+            return c.getMethod("add", Range.class).getDeclaringClass() != RangeSet.class;
+        } catch (NoSuchMethodException e) {
+            throw new AssertionError(e);    // Should never happen since the method is public.
+        }
+    }
+
+    /**
+     * Returns {@code true} if the given collection is a {@code RangeSet} storing its values in the same kind
+     * of array than this set, with the same inclusion or exclusion of endpoints.
+     */
+    private boolean isCompatible(final Collection<?> ranges) {
+        if (ranges instanceof RangeSet<?>) {
+            final RangeSet<?> that = (RangeSet<?>) ranges;
+            return that.elementType   == elementType   &&
+                   that.isMinIncluded == isMinIncluded &&
+                   that.isMaxIncluded == isMaxIncluded;
+        }
+        return false;
+    }
+
+    /**
+     * Retains in this set only the values which are also contained in the given set. This method computes the
+     * intersection of this set with the given set in a single pass over their internal arrays. The execution
+     * time is proportional to the sum of the set sizes.
+     *
+     * <p>Since the ranges in a {@code RangeSet} can not be reduced to a single value, the intersections of closed
+     * ranges which touch each other only by an endpoint (for example [1 … 5] and [5 … 9]) are not retained.</p>
+     *
+     * @param  other The set to intersect with this set.
+     * @return {@code true} if this set changed as a result of this method call.
+     * @throws IllegalArgumentException If the {@code isMinIncluded} or {@code isMaxIncluded} property of the
+     *         given set, or its element type, doesn't match the ones of this set.
+     *
+     * @since 0.6
+     */
+    public boolean intersectWith(final RangeSet<E> other) throws IllegalArgumentException {
+        ArgumentChecks.ensureNonNull("other", other);
+        if (!isCompatible(other)) {
+            throw new IllegalArgumentException(Errors.format(Errors.Keys.IllegalArgumentValue_2, "other", other));
+        }
+        if (other == this || length == 0) {
+            return false;
+        }
+        final Object a = this.array;
+        final Object b = other.array;
+        final Object result = Array.newInstance(a.getClass().getComponentType(), length + other.length);
+        int i = 0, j = 0, n = 0;
+        while (i < length && j < other.length) {
+            /*
+             * The intersection of the two current ranges goes from the greatest minimal value
+             * to the smallest maximal value. Then move to the next range in the set where the
+             * current range ends first.
+             */
+            final boolean aStartsLast = compare(a, i,   b, j  ) >= 0;
+            final boolean aEndsFirst  = compare(a, i+1, b, j+1) <= 0;
+            final Object  minArray = aStartsLast ? a : b;
+            final Object  maxArray = aEndsFirst  ? a : b;
+            final int     minIndex = aStartsLast ? i   : j;
+            final int     maxIndex = aEndsFirst  ? i+1 : j+1;
+            if (compare(minArray, minIndex, maxArray, maxIndex) < 0) {
+                System.arraycopy(minArray, minIndex, result, n++, 1);
+                System.arraycopy(maxArray, maxIndex, result, n++, 1);
+            }
+            if (aEndsFirst) {
+                i += 2;
+            } else {
+                j += 2;
+            }
+        }
+        if (equalsArray(result, n)) {
+            return false;
+        }
+        array  = result;
+        length = n;
+        modCount++;
+        return true;
+    }
+
     /**
      * Removes a range from this set. If the specified range is inside an existing range, then the
      * existing range may be splitted in two smaller ranges as of {@link Range#subtract(Range)}.
@@ -1388,7 +1655,14 @@ public class RangeSet<E extends Comparable<? super E>> extends AbstractSet<Range
      * @return The index of the range which contains this value, or -1 if there is no such range.
      */
     public int indexOfRange(final E value) {
-        int index = binarySearch(value, 0, length);
+        return (length != 0) ? toRangeIndex(binarySearch(value, 0, length)) : -1;
+    }
+
+    /**
+     * Returns the index of the range at the given array index, or -1 if that index is not inside a range.
+     * The given index is a value computed by one of the {@code binarySearch(…)} methods.
+     */
+    private int toRangeIndex(int index) {
         if (index < 0) {
             // Found an insertion point. Make sure that the insertion
             // point is inside a range (i.e. before the maximum value).
@@ -1400,8 +1674,47 @@ public class RangeSet<E extends Comparable<? super E>> extends AbstractSet<Range
             // The value is equals to an excluded endpoint.
             return -1;
         }
-        index /= 2; // Round toward 0 (odd index are maximum values).
-        return index;
+        return index >>> 1; // Round toward 0 (odd index are maximum values).
+    }
+
+    /**
+     * If the specified value is inside a range, returns the index of this range.
+     * Otherwise, returns {@code -1}. This method is equivalent to {@link #indexOfRange(Comparable)}
+     * for sets of integer numbers, but does not create any object. Consequently it is suitable for
+     * testing the membership of a large amount of values. The value {@code indexOfLong(value) >= 0}
+     * tells whether this set contains the given value.
+     *
+     * <p>If this set contains floating point numbers, then the given value is converted
+     * to the {@code double} type before to be searched.</p>
+     *
+     * @param  value The value to search.
+     * @return The index of the range which contains this value, or -1 if there is no such range.
+     * @throws ClassCastException if range elements are not integer or floating point numbers.
+     *
+     * @since 0.6
+     */
+    public int indexOfLong(final long value) throws ClassCastException {
+        return (length != 0) ? toRangeIndex(binarySearch(value, 0, length)) : -1;
+    }
+
+    /**
+     * If the specified value is inside a range, returns the index of this range.
+     * Otherwise, returns {@code -1}. This method is equivalent to {@link #indexOfRange(Comparable)}
+     * for sets of floating point numbers, but does not create any object. Consequently it is suitable
+     * for testing the membership of a large amount of values. The value {@code indexOfDouble(value) >= 0}
+     * tells whether this set contains the given value.
+     *
+     * <p>If this set contains integer numbers, then the given value is compared to the range
+     * endpoints without rounding. {@link Double#NaN} values are never contained in a range.</p>
+     *
+     * @param  value The value to search.
+     * @return The index of the range which contains this value, or -1 if there is no such range.
+     * @throws ClassCastException if range elements are not integer or floating point numbers.
+     *
+     * @since 0.6
+     */
+    public int indexOfDouble(final double value) throws ClassCastException {
+        return (length != 0) ? toRangeIndex(binarySearch(value, 0, length)) : -1;
     }
 
     /**
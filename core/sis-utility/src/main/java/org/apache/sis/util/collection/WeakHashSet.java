@@ -68,14 +68,17 @@ import java.util.Objects;
  * The same {@code WeakHashSet} instance can be safely used by many threads without synchronization on the part of
  * the caller. But if a sequence of two or more method calls need to appear atomic from other threads perspective,
  * then the caller can synchronize on {@code this}.
+ * All methods are synchronized, so {@link ConcurrentWeakHashSet} should be preferred for pools
+ * used concurrently by many threads.
  *
  * @param <E> The type of elements in the set.
  *
  * @author  Martin Desruisseaux (MPO, IRD, Geomatys)
  * @since   0.3
- * @version 0.3
+ * @version 0.6
  * @module
  *
+ * @see ConcurrentWeakHashSet
  * @see java.util.WeakHashMap
  */
 public class WeakHashSet<E> extends AbstractSet<E> implements CheckedContainer<E> {
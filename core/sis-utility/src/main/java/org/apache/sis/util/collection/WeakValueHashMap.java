@@ -65,7 +65,9 @@ import java.util.Objects;
  *
  * In the above example, the calculation of a new value needs to be fast because it is performed inside a synchronized
  * statement blocking all other access to the map. This is okay if that particular {@code WeakValueHashMap} instance
- * is not expected to be used in a highly concurrent environment.
+ * is not expected to be used in a highly concurrent environment. Otherwise {@link ConcurrentWeakValueHashMap} should
+ * be used instead, since its {@code get} method never blocks and its {@code getOrCreate} method creates the value
+ * outside any lock.
  *
  * <p>{@code WeakValueHashMap} works with array keys as one would expect. For example arrays of {@code int[]} are
  * compared using the {@link java.util.Arrays#equals(int[], int[])} method.</p>
@@ -80,11 +82,12 @@ import java.util.Objects;
  *
  * @author  Martin Desruisseaux (IRD, Geomatys)
  * @since   0.3
- * @version 0.4
+ * @version 0.6
  * @module
  *
  * @see java.util.WeakHashMap
  * @see WeakHashSet
+ * @see ConcurrentWeakValueHashMap
  * @see Cache
  */
 public class WeakValueHashMap<K,V> extends AbstractMap<K,V> {
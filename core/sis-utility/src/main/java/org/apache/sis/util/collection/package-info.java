@@ -26,6 +26,8 @@
  *     {@link java.util.Objects#deepEquals(Object, Object) Objects.deepEquals(Object, Object)}.
  *     The values that were created in previous factory operations are retained by
  *     {@linkplain java.lang.ref.WeakReference weak references} for reuse.
+ *     {@link org.apache.sis.util.collection.ConcurrentWeakHashSet} provides the same service
+ *     for factories invoked concurrently by many threads.
  *   </li><li>
  *     {@link org.apache.sis.util.collection.Cache} and
  *     {@link org.apache.sis.util.collection.WeakValueHashMap} are {@link java.util.Map java.util.Map}
@@ -52,7 +54,7 @@
  *
  * @author  Martin Desruisseaux (IRD, Geomatys)
  * @since   0.3
- * @version 0.3
+ * @version 0.6
  * @module
  */
 package org.apache.sis.util.collection;
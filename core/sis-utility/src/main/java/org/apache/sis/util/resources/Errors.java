@@ -509,6 +509,11 @@ public final class Errors extends IndexedResourceBundle {
          */
         public static final short MissingAuthority_1 = 135;
 
+        /**
+         * Missing component “{1}” in “{0}” element.
+         */
+        public static final short MissingComponentInElement_2 = 181;
+
         /**
          * No horizontal dimension found in “{0}”.
          */
@@ -874,6 +879,11 @@ public final class Errors extends IndexedResourceBundle {
          */
         public static final short UnknownFormatFor_1 = 115;
 
+        /**
+         * Keyword “{0}” is unknown.
+         */
+        public static final short UnknownKeyword_1 = 182;
+
         /**
          * Option “{0}” is not recognized.
          */
@@ -0,0 +1,273 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sis.xml;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import javax.xml.bind.JAXBElement;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Unmarshaller;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamConstants;
+import org.apache.sis.util.ArgumentChecks;
+import org.apache.sis.util.collection.BackingStoreException;
+
+
+/**
+ * Unmarshals the children of some XML elements one at a time, without building the object tree of the whole document.
+ * The elements to unmarshal are all the children of every elements having the name given at construction time.
+ * This is useful for documents containing many repetitions of the same property. For example the following code
+ * iterates over the {@code <gmd:DQ_DataQuality>} elements of an ISO 19139 document, while holding in memory
+ * only one data quality report at a time:
+ *
+ * {@preformat java
+ *     QName property = new QName(Namespaces.GMD, "dataQualityInfo");
+ *     XMLStreamReader input = XMLInputFactory.newInstance().createXMLStreamReader(stream);
+ *     try (ElementReader<DataQuality> reader = new ElementReader<>(pool, input, property, DataQuality.class)) {
+ *         while (reader.hasNext()) {
+ *             DataQuality quality = reader.next();
+ *             // Do some work with the quality report here.
+ *         }
+ *     }
+ * }
+ *
+ * The parent elements can also be the root element of a collection of records,
+ * for example a document written by {@link ElementWriter}.
+ *
+ * {@section Nested elements}
+ * Elements are unmarshalled by JAXB as a whole. Consequently if an element to unmarshal contains itself an element
+ * having the searched name, then the content of that nested element is part of the unmarshalled object and is not
+ * returned separately by this iterator.
+ *
+ * {@section Error handling}
+ * Since the {@link Iterator} methods can not throw checked exceptions, the {@link JAXBException} or
+ * {@link XMLStreamException} thrown while reading the next element are wrapped in a {@link BackingStoreException}.
+ * After such exception, the unmarshaller is not returned to the pool since it may be in an invalid state.
+ *
+ * {@section Thread safety}
+ * Instances of this class are not thread-safe, but many instances can be used concurrently
+ * in different threads if they read different streams.
+ *
+ * @param <T> The type of objects to unmarshal.
+ *
+ * @author  Martin Desruisseaux (Geomatys)
+ * @since   0.6
+ * @version 0.6
+ * @module
+ *
+ * @see ElementWriter
+ */
+public class ElementReader<T> implements Iterator<T>, AutoCloseable {
+    /**
+     * The pool from which the unmarshaller has been acquired.
+     */
+    private final MarshallerPool pool;
+
+    /**
+     * The unmarshaller to use for every elements, or {@code null} after {@link #close()}.
+     */
+    private Unmarshaller unmarshaller;
+
+    /**
+     * The XML stream to read.
+     */
+    private final XMLStreamReader input;
+
+    /**
+     * The name of the elements for which to unmarshal the children.
+     */
+    private final QName parent;
+
+    /**
+     * The type of objects to unmarshal.
+     */
+    private final Class<T> type;
+
+    /**
+     * The number of XML elements currently opened. Elements unmarshalled by JAXB are not counted.
+     * This value is relative to the stream position at construction time and can be negative
+     * if the stream was initially inside an element which has been closed since.
+     */
+    private int depth;
+
+    /**
+     * The value of {@link #depth} when the last parent element has been found.
+     * This value is meaningful only if {@link #insideParent} is {@code true}.
+     */
+    private int parentDepth;
+
+    /**
+     * {@code true} if the reader is inside a parent element, in which case the children are unmarshalled.
+     */
+    private boolean insideParent;
+
+    /**
+     * The next object to return, or {@code null} if not yet read.
+     */
+    private T next;
+
+    /**
+     * {@code true} if the end of document has been reached.
+     */
+    private boolean finished;
+
+    /**
+     * {@code true} if an error occurred, in which case the unmarshaller will not be recycled.
+     */
+    private boolean failed;
+
+    /**
+     * Creates a new reader for the children of the elements of the given name.
+     * The given XML stream can be at any position, typically at the beginning of the document.
+     *
+     * @param  pool   The pool from which to acquire the unmarshaller.
+     * @param  input  The XML stream to read.
+     * @param  parent The name of the elements for which to unmarshal the children.
+     * @param  type   The type of objects to unmarshal.
+     * @throws JAXBException If the unmarshaller can not be created.
+     */
+    public ElementReader(final MarshallerPool pool, final XMLStreamReader input, final QName parent,
+            final Class<T> type) throws JAXBException
+    {
+        ArgumentChecks.ensureNonNull("pool",   pool);
+        ArgumentChecks.ensureNonNull("input",  input);
+        ArgumentChecks.ensureNonNull("parent", parent);
+        ArgumentChecks.ensureNonNull("type",   type);
+        this.pool   = pool;
+        this.input  = input;
+        this.parent = parent;
+        this.type   = type;
+        unmarshaller = pool.acquireUnmarshaller();
+    }
+
+    /**
+     * Reads the XML stream until the next child of a parent element, then unmarshals that child.
+     * After this method call, the XML stream is positioned just after the end of the unmarshalled element.
+     *
+     * @return The next object, or {@code null} if the end of document has been reached.
+     */
+    private T read() throws XMLStreamException, JAXBException {
+        int event = input.getEventType();
+        while (event != XMLStreamConstants.END_DOCUMENT) {
+            switch (event) {
+                case XMLStreamConstants.START_ELEMENT: {
+                    if (insideParent && depth == parentDepth) {
+                        Object value = unmarshaller.unmarshal(input);
+                        if (value instanceof JAXBElement<?>) {
+                            value = ((JAXBElement<?>) value).getValue();
+                        }
+                        if (value != null) {
+                            return type.cast(value);
+                        }
+                        event = input.getEventType();       // JAXB has moved after the end of the element.
+                        continue;
+                    }
+                    depth++;
+                    if (!insideParent && parent.getLocalPart().equals(input.getLocalName())
+                            && parent.getNamespaceURI().equals(nonNull(input.getNamespaceURI())))
+                    {
+                        parentDepth  = depth;
+                        insideParent = true;
+                    }
+                    break;
+                }
+                case XMLStreamConstants.END_ELEMENT: {
+                    if (insideParent && depth == parentDepth) {
+                        insideParent = false;
+                    }
+                    depth--;
+                    break;
+                }
+            }
+            if (!input.hasNext()) break;
+            event = input.next();
+        }
+        return null;
+    }
+
+    /**
+     * Returns the given namespace, or an empty string if null.
+     */
+    private static String nonNull(final String namespace) {
+        return (namespace != null) ? namespace : "";
+    }
+
+    /**
+     * Returns {@code true} if there is more elements to unmarshal.
+     * This method returns {@code false} if this reader has been closed.
+     *
+     * @return {@code true} if there is more elements to unmarshal.
+     * @throws BackingStoreException If an error occurred while reading the XML stream.
+     */
+    @Override
+    public boolean hasNext() throws BackingStoreException {
+        if (next == null && !finished) {
+            try {
+                next = read();
+            } catch (XMLStreamException | JAXBException | RuntimeException e) {
+                failed = true;
+                throw (e instanceof RuntimeException) ? (RuntimeException) e : new BackingStoreException(e);
+            }
+            finished = (next == null);
+        }
+        return next != null;
+    }
+
+    /**
+     * Returns the next unmarshalled object.
+     *
+     * @return The next unmarshalled object.
+     * @throws NoSuchElementException If there is no more elements.
+     * @throws BackingStoreException If an error occurred while reading the XML stream.
+     */
+    @Override
+    public T next() throws BackingStoreException {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        final T value = next;
+        next = null;
+        return value;
+    }
+
+    /**
+     * Unsupported operation, since this iterator is read-only.
+     */
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Returns the unmarshaller to the pool. This method does not close the XML stream reader,
+     * in order to allow the caller to continue reading after the last element of interest.
+     */
+    @Override
+    public void close() {
+        final Unmarshaller u = unmarshaller;
+        if (u != null) {
+            unmarshaller = null;
+            finished = true;
+            next = null;
+            if (!failed) {
+                pool.recycle(u);
+            }
+        }
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sis.xml;
+
+import java.util.Iterator;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamWriter;
+import javax.xml.stream.XMLStreamException;
+import org.apache.sis.util.ArgumentChecks;
+
+
+/**
+ * Marshals objects one at a time as the children of a single XML element, without building a collection
+ * of all objects in memory. The parent element is written at construction time and closed by {@link #close()}.
+ * Each object given to the {@link #write(Object)} or {@link #writeAll(Iterator)} methods is marshalled as a
+ * XML fragment. For example the following code writes records obtained from a database cursor:
+ *
+ * {@preformat java
+ *     XMLStreamWriter output = XMLOutputFactory.newInstance().createXMLStreamWriter(stream, "UTF-8");
+ *     output.writeStartDocument("UTF-8", "1.0");
+ *     try (ElementWriter writer = new ElementWriter(pool, output, new QName("http://www.example.org", "records"))) {
+ *         writer.writeAll(records);    // An iterator over the metadata to write.
+ *     }
+ *     output.writeEndDocument();
+ * }
+ *
+ * The document written by this class can be read back by {@link ElementReader} with the same parent name.
+ *
+ * {@section Thread safety}
+ * Instances of this class are not thread-safe, but many instances can be used concurrently
+ * in different threads if they write in different streams.
+ *
+ * @author  Martin Desruisseaux (Geomatys)
+ * @since   0.6
+ * @version 0.6
+ * @module
+ *
+ * @see ElementReader
+ */
+public class ElementWriter implements AutoCloseable {
+    /**
+     * The pool from which the marshaller has been acquired.
+     */
+    private final MarshallerPool pool;
+
+    /**
+     * The marshaller to use for every objects, or {@code null} after {@link #close()}.
+     */
+    private Marshaller marshaller;
+
+    /**
+     * The XML stream where to write.
+     */
+    private final XMLStreamWriter output;
+
+    /**
+     * {@code true} if an error occurred, in which case the marshaller will not be recycled.
+     */
+    private boolean failed;
+
+    /**
+     * Creates a new writer and writes the start tag of the parent element.
+     *
+     * @param  pool   The pool from which to acquire the marshaller.
+     * @param  output The XML stream where to write.
+     * @param  parent The name of the element which will contain all marshalled objects.
+     * @throws JAXBException If the marshaller can not be created.
+     * @throws XMLStreamException If an error occurred while writing the parent element.
+     */
+    public ElementWriter(final MarshallerPool pool, final XMLStreamWriter output, final QName parent)
+            throws JAXBException, XMLStreamException
+    {
+        ArgumentChecks.ensureNonNull("pool",   pool);
+        ArgumentChecks.ensureNonNull("output", output);
+        ArgumentChecks.ensureNonNull("parent", parent);
+        this.pool   = pool;
+        this.output = output;
+        final String namespace = parent.getNamespaceURI();
+        if (namespace.isEmpty()) {
+            output.writeStartElement(parent.getLocalPart());
+        } else {
+            final String prefix = parent.getPrefix();
+            output.writeStartElement(prefix, parent.getLocalPart(), namespace);
+            if (prefix.isEmpty()) {
+                output.writeDefaultNamespace(namespace);
+            } else {
+                output.writeNamespace(prefix, namespace);
+            }
+        }
+        final Marshaller m = pool.acquireMarshaller();
+        m.setProperty(Marshaller.JAXB_FRAGMENT, Boolean.TRUE);
+        marshaller = m;
+    }
+
+    /**
+     * Marshals the given object as a child of the parent element.
+     *
+     * @param  element The object to marshal.
+     * @throws JAXBException If an error occurred while marshalling the object.
+     */
+    public void write(final Object element) throws JAXBException {
+        ArgumentChecks.ensureNonNull("element", element);
+        boolean success = false;
+        try {
+            marshaller.marshal(element, output);
+            success = true;
+        } finally {
+            if (!success) failed = true;
+        }
+    }
+
+    /**
+     * Marshals all objects returned by the given iterator as children of the parent element.
+     * Objects are marshalled as they are returned by the iterator, so they do not need to be
+     * all in memory at the same time.
+     *
+     * @param  elements The objects to marshal.
+     * @throws JAXBException If an error occurred while marshalling an object.
+     */
+    public void writeAll(final Iterator<?> elements) throws JAXBException {
+        ArgumentChecks.ensureNonNull("elements", elements);
+        while (elements.hasNext()) {
+            write(elements.next());
+        }
+    }
+
+    /**
+     * Writes the end tag of the parent element and returns the marshaller to the pool.
+     * This method does not close the XML stream, in order to allow the caller to write
+     * more content after the parent element.
+     *
+     * @throws XMLStreamException If an error occurred while writing the end tag.
+     */
+    @Override
+    public void close() throws XMLStreamException {
+        final Marshaller m = marshaller;
+        if (m != null) {
+            marshaller = null;
+            if (!failed) {
+                pool.recycle(m);
+            }
+            output.writeEndElement();
+            output.flush();
+        }
+    }
+}
@@ -17,10 +17,18 @@
 package org.apache.sis.xml;
 
 import java.util.Map;
+import java.util.Set;
 import java.util.Deque;
+import java.util.Collections;
 import java.util.ServiceLoader;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedDeque;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicInteger;
 import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
 import javax.xml.bind.Marshaller;
@@ -28,9 +36,14 @@ import javax.xml.bind.Unmarshaller;
 import org.apache.sis.util.logging.Logging;
 import org.apache.sis.internal.system.DelayedExecutor;
 import org.apache.sis.internal.system.DelayedRunnable;
+import org.apache.sis.internal.system.CacheRegistry;
+import org.apache.sis.internal.system.ReferenceQueueConsumer;
+import org.apache.sis.internal.system.UsageReport;
 import org.apache.sis.internal.jaxb.AdapterReplacement;
 import org.apache.sis.internal.jaxb.TypeRegistration;
 import org.apache.sis.util.ArgumentChecks;
+import org.apache.sis.util.Disposable;
+import org.apache.sis.util.collection.TreeTable;
 
 
 /**
@@ -49,6 +62,25 @@ import org.apache.sis.util.ArgumentChecks;
  * The (un)marshallers created by this class can optionally by configured with the SIS-specific
  * properties defined in the {@link XML} class, in addition to JAXB standard properties.
  *
+ * {@section Pool size}
+ * By default the pool is unbounded: a new (un)marshaller is created every time that the pool is empty,
+ * and idle (un)marshallers are disposed after a timeout. Applications having bursts of XML requests
+ * can bound the pool at construction time by specifying:
+ *
+ * <ul>
+ *   <li>a minimal number of idle (un)marshallers to keep despite the timeout,
+ *       which can be created in advance by {@link #warmUp()};</li>
+ *   <li>a maximal number of (un)marshallers that can be in use at the same time;</li>
+ *   <li>the policy to apply when the above maximum is reached: wait without limit for a recycled
+ *       (un)marshaller, which makes the maximum a hard limit, or wait only a limited time (possibly zero)
+ *       after which a new (un)marshaller is created anyway, which makes the maximum a soft limit.</li>
+ * </ul>
+ *
+ * The number of (un)marshallers created, reused and expired, together with the time spent waiting,
+ * are available by the {@link #getCreatedCount()}, {@link #getReusedCount()}, {@link #getExpiredCount()},
+ * {@link #getWaitCount()} and {@link #getWaitTime()} methods. Those statistics are also reported by the
+ * Apache SIS supervisor MBean.
+ *
  * {@section Thread safety}
  * The same {@code MarshallerPool} instance can be safely used by many threads without synchronization
  * on the part of the caller. Subclasses should make sure that any overridden methods remain safe to call
@@ -56,7 +88,7 @@ import org.apache.sis.util.ArgumentChecks;
  *
  * @author  Martin Desruisseaux (Geomatys)
  * @since   0.3
- * @version 0.3
+ * @version 0.6
  * @module
  *
  * @see XML
@@ -80,6 +112,11 @@ public class MarshallerPool {
      */
     private static final byte INTERNAL = 0, ENDORSED = 1, OTHER = 2;
 
+    /**
+     * Number of pools registered in the {@link CacheRegistry}, used for giving a unique name to each pool.
+     */
+    private static final AtomicInteger REGISTERED_COUNT = new AtomicInteger();
+
     /**
      * The JAXB context to use for creating marshaller and unmarshaller.
      */
@@ -148,6 +185,68 @@ public class MarshallerPool {
      */
     private final AtomicBoolean isRemovalScheduled;
 
+    /**
+     * {@code true} if this pool has been registered in the {@link CacheRegistry}.
+     * Registration is deferred until first use, since the constructor shall not
+     * let the {@code this} reference escape before construction is completed.
+     *
+     * @see #register()
+     */
+    private final AtomicBoolean isRegistered;
+
+    /**
+     * The adapter registered in the {@link CacheRegistry}, or {@code null} if this pool has not yet been registered.
+     * We need to keep a strong reference to it since the registry holds only a weak reference.
+     *
+     * @see #register()
+     */
+    private Report report;
+
+    /**
+     * Minimal number of idle (un)marshallers of each kind to keep in the pool despite the timeout.
+     *
+     * @see #warmUp()
+     */
+    private final int minimumSize;
+
+    /**
+     * The permits for acquiring marshallers and unmarshallers, or {@code null} if this pool is unbounded.
+     * The number of permits is the maximal number of (un)marshallers of each kind that can be in use at
+     * the same time. A permit is released when the (un)marshaller is recycled, or when it is garbage
+     * collected if it has never been recycled (for example because an exception occurred).
+     */
+    private final Semaphore marshallerPermits, unmarshallerPermits;
+
+    /**
+     * The permits currently in use, or {@code null} if this pool is unbounded.
+     * We need to keep strong references to them until they are released,
+     * otherwise the weak references would not be enqueued.
+     */
+    private final Set<Lease> leases;
+
+    /**
+     * Maximal time in milliseconds to wait for a recycled (un)marshaller when all permits are in use,
+     * or a negative value for waiting without time limit.
+     */
+    private final long maximumWait;
+
+    /**
+     * Number of (un)marshallers created or reused by this pool, and number of idle (un)marshallers disposed.
+     *
+     * @see #getCreatedCount()
+     * @see #getReusedCount()
+     * @see #getExpiredCount()
+     */
+    private final AtomicLong createdCount, reusedCount, expiredCount;
+
+    /**
+     * Number of times that a thread had to wait for a permit, and the total time spent waiting in nanoseconds.
+     *
+     * @see #getWaitCount()
+     * @see #getWaitTime()
+     */
+    private final AtomicLong waitCount, waitTime;
+
     /**
      * Creates a new factory using the SIS default {@code JAXBContext} instance.
      * The {@code properties} map is optional. If non-null, then the keys can be {@link XML} constants or the
@@ -179,9 +278,49 @@ public class MarshallerPool {
      * @param  properties The properties to be given to the (un)marshaller, or {@code null} if none.
      * @throws JAXBException If the marshaller pool can not be created.
      */
-    @SuppressWarnings({"unchecked", "rawtypes"}) // Generic array creation
     public MarshallerPool(final JAXBContext context, final Map<String,?> properties) throws JAXBException {
+        this(context, properties, 0, Integer.MAX_VALUE, 0);
+    }
+
+    /**
+     * Creates a new factory using the given JAXB context and pool size.
+     * The {@code context} and {@code properties} arguments have the same meaning than in the
+     * {@linkplain #MarshallerPool(JAXBContext, Map) above constructor}.
+     *
+     * <p>The {@code maximumSize} argument is the maximal number of marshallers (and, independently, of
+     * unmarshallers) that can be in use at the same time. {@link Integer#MAX_VALUE} means no maximum.
+     * When that maximum is reached, the behavior depends on the {@code maximumWait} argument:</p>
+     *
+     * <ul>
+     *   <li>If negative, {@code acquire} methods block until an other thread recycles a (un)marshaller.
+     *       The maximum is a hard limit.</li>
+     *   <li>If positive, {@code acquire} methods wait at most {@code maximumWait} milliseconds for an other
+     *       thread to recycle a (un)marshaller. After that time, a new (un)marshaller is created anyway.
+     *       The maximum is a soft limit which bounds the number of (un)marshallers created without wait.</li>
+     *   <li>If zero, a new (un)marshaller is created immediately. The maximum is ignored for the number of
+     *       (un)marshallers in use, but still bounds the number of (un)marshallers obtained with a permit.</li>
+     * </ul>
+     *
+     * <p>The (un)marshallers created after the maximum has been reached can be recycled like the other ones,
+     * and will be disposed after the timeout if the pool contains more idle (un)marshallers than needed.</p>
+     *
+     * @param  context     The JAXB context.
+     * @param  properties  The properties to be given to the (un)marshaller, or {@code null} if none.
+     * @param  minimumSize The number of idle (un)marshallers of each kind to keep in the pool despite the timeout.
+     * @param  maximumSize The maximal number of (un)marshallers of each kind in use at the same time.
+     * @param  maximumWait The maximal time in milliseconds to wait when {@code maximumSize} is reached,
+     *                     or a negative value for waiting without time limit.
+     * @throws JAXBException If the marshaller pool can not be created.
+     *
+     * @since 0.6
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"}) // Generic array creation
+    public MarshallerPool(final JAXBContext context, final Map<String,?> properties,
+            final int minimumSize, final int maximumSize, final long maximumWait) throws JAXBException
+    {
         ArgumentChecks.ensureNonNull("context", context);
+        ArgumentChecks.ensurePositive("minimumSize", minimumSize);
+        ArgumentChecks.ensureBetween ("maximumSize", Math.max(1, minimumSize), Integer.MAX_VALUE, maximumSize);
         this.context = context;
         replacements = ServiceLoader.load(AdapterReplacement.class);
         /*
@@ -225,6 +364,139 @@ public class MarshallerPool {
         marshallers        = new ConcurrentLinkedDeque<>();
         unmarshallers      = new ConcurrentLinkedDeque<>();
         isRemovalScheduled = new AtomicBoolean();
+        isRegistered       = new AtomicBoolean();
+        this.minimumSize   = minimumSize;
+        this.maximumWait   = maximumWait;
+        if (maximumSize != Integer.MAX_VALUE) {
+            marshallerPermits   = new Semaphore(maximumSize);
+            unmarshallerPermits = new Semaphore(maximumSize);
+            leases = Collections.newSetFromMap(new ConcurrentHashMap<Lease,Boolean>());
+        } else {
+            marshallerPermits   = null;
+            unmarshallerPermits = null;
+            leases = null;
+        }
+        createdCount = new AtomicLong();
+        reusedCount  = new AtomicLong();
+        expiredCount = new AtomicLong();
+        waitCount    = new AtomicLong();
+        waitTime     = new AtomicLong();
+    }
+
+    /**
+     * Registers this pool in the {@link CacheRegistry} if not already done, for reporting its usage
+     * statistics by the supervisor MBean. This method is invoked when the pool is first used rather
+     * than at construction time, in order to not publish a partially constructed pool.
+     */
+    private void register() {
+        if (!isRegistered.get() && isRegistered.compareAndSet(false, true)) {
+            report = new Report();
+            CacheRegistry.register("MarshallerPool #" + REGISTERED_COUNT.incrementAndGet(), report);
+        }
+    }
+
+    /**
+     * The object registered in the {@link CacheRegistry} for reporting the usage statistics of this pool.
+     * This adapter keeps the internal {@link UsageReport} interface out of the public API. The registry
+     * holds only a weak reference to the adapter, which is kept reachable by the {@link #report} field
+     * as long as this pool is reachable.
+     */
+    private final class Report implements UsageReport {
+        /** Writes the usage statistics of the enclosing pool as children of the given node. */
+        @Override public void report(final TreeTable.Node node) {
+            CacheRegistry.add(node, "Created", getCreatedCount());
+            CacheRegistry.add(node, "Reused",  getReusedCount());
+            CacheRegistry.add(node, "Expired", getExpiredCount());
+            CacheRegistry.add(node, "Waits",   getWaitCount());
+            CacheRegistry.add(node, "Wait time (ms)", getWaitTime() / 1E+6);
+        }
+    }
+
+    /**
+     * A permit acquired for an (un)marshaller in use. If the (un)marshaller is garbage collected without
+     * having been recycled, then the permit is released by the {@link ReferenceQueueConsumer} thread.
+     */
+    final class Lease extends WeakReference<Pooled> implements Disposable {
+        /** The semaphore from which the permit has been acquired. */
+        private final Semaphore permits;
+
+        /** Creates a new lease for the given (un)marshaller. */
+        Lease(final Pooled marshaller, final Semaphore permits) {
+            super(marshaller, ReferenceQueueConsumer.QUEUE);
+            this.permits = permits;
+            leases.add(this);
+        }
+
+        /** Releases the permit. Invoked when the (un)marshaller is recycled or garbage collected. */
+        @Override public void dispose() {
+            if (leases.remove(this)) {
+                permits.release();
+            }
+        }
+    }
+
+    /**
+     * Acquires a permit for using an (un)marshaller, waiting if necessary up to the {@link #maximumWait} time.
+     * If {@code maximumWait} is negative, then this method blocks until a permit is available.
+     *
+     * @param  permits The permits for the kind of (un)marshaller to acquire, or {@code null} if unbounded.
+     * @return {@code true} if a permit has been acquired, or {@code false} if the pool is unbounded or
+     *         if no permit became available before the timeout.
+     * @throws JAXBException if the thread has been interrupted while blocked without time limit.
+     */
+    private boolean acquirePermit(final Semaphore permits) throws JAXBException {
+        if (permits == null) {
+            return false;
+        }
+        if (permits.tryAcquire()) {
+            return true;
+        }
+        boolean acquired = false;
+        if (maximumWait != 0) {
+            final long start = System.nanoTime();
+            try {
+                if (maximumWait < 0) {
+                    permits.acquire();
+                    acquired = true;
+                } else {
+                    acquired = permits.tryAcquire(maximumWait, TimeUnit.MILLISECONDS);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();     // Keep the status.
+                if (maximumWait < 0) {
+                    throw new JAXBException(e);         // Can not create a (un)marshaller beyond the hard limit.
+                }
+                // Otherwise a new (un)marshaller will be created as after a timeout.
+            } finally {
+                waitTime.addAndGet(System.nanoTime() - start);
+                waitCount.incrementAndGet();
+            }
+        }
+        return acquired;
+    }
+
+    /**
+     * Pushes the given (un)marshaller in the given queue, then releases its permit (if any).
+     * The permit is released only after the (un)marshaller is in the queue, for making sure
+     * that a thread waiting for that permit will find the recycled instance.
+     * If the (un)marshaller has been created without permit in a bounded pool, then it is
+     * returned to the pool like other instances; the number of idle (un)marshallers will be
+     * reduced by the timeout if that instance is not needed anymore.
+     */
+    private <T> void recycle(final Deque<T> queue, final T marshaller, final Semaphore permits) {
+        Lease lease = null;
+        if (permits != null) {
+            final Pooled pooled = (Pooled) marshaller;
+            lease = pooled.lease;
+            if (lease != null) {
+                pooled.lease = null;
+                lease.clear();
+            }
+        }
+        recycle(queue, marshaller);
+        if (lease != null) {
+            lease.dispose();
+        }
     }
 
     /**
@@ -282,16 +554,16 @@ public class MarshallerPool {
     }
 
     /**
-     * Removes expired (un)marshallers from the given queue.
+     * Removes expired (un)marshallers from the given queue, keeping at least {@link #minimumSize} of them.
      *
      * @param  <T>   Either {@code Marshaller} or {@code Unmarshaller} type.
      * @param  queue The queue from which to remove expired (un)marshallers.
      * @param  now   Current value of {@link System#nanoTime()}.
-     * @return {@code true} if the queue became empty as a result of this method call.
+     * @return {@code true} if no more (un)marshallers can expire as a result of this method call.
      */
-    private static <T> boolean removeExpired(final Deque<T> queue, final long now) {
+    private <T> boolean removeExpired(final Deque<T> queue, final long now) {
         T next;
-        while ((next = queue.peekLast()) != null) {
+        while ((minimumSize == 0 || queue.size() > minimumSize) && (next = queue.peekLast()) != null) {
             /*
              * The above line fetched the oldest (un)marshaller without removing it.
              * If the timeout is not yet elapsed, do not remove that (un)marshaller.
@@ -308,10 +580,14 @@ public class MarshallerPool {
              * If such case, restore the (un)marshaller on the queue.
              */
             next = queue.pollLast();
+            if (next == null) {
+                break;
+            }
             if (now - ((Pooled) next).resetTime < TIMEOUT) {
                 queue.addLast(next);
                 return false;
             }
+            expiredCount.incrementAndGet();
         }
         return true;
     }
@@ -331,13 +607,29 @@ public class MarshallerPool {
      * Note that {@link #recycle(Marshaller)} shall not be invoked in case of exception,
      * since the marshaller may be in an invalid state.
      *
+     * If this pool has a maximal size and that maximum is reached, then this method waits for an
+     * other thread to recycle its marshaller as documented in the {@linkplain MarshallerPool class javadoc}.
+     *
      * @return A marshaller configured for formatting OGC/ISO XML.
      * @throws JAXBException If an error occurred while creating and configuring a marshaller.
      */
     public Marshaller acquireMarshaller() throws JAXBException {
-        Marshaller marshaller = marshallers.poll();
+        register();
+        final boolean hasPermit = acquirePermit(marshallerPermits);
+        PooledMarshaller marshaller = (PooledMarshaller) marshallers.poll();
         if (marshaller == null) {
-            marshaller = new PooledMarshaller(createMarshaller(), template);
+            try {
+                marshaller = new PooledMarshaller(createMarshaller(), template);
+            } catch (JAXBException | RuntimeException e) {
+                if (hasPermit) marshallerPermits.release();
+                throw e;
+            }
+            createdCount.incrementAndGet();
+        } else {
+            reusedCount.incrementAndGet();
+        }
+        if (hasPermit) {
+            marshaller.lease = new Lease(marshaller, marshallerPermits);
         }
         return marshaller;
     }
@@ -357,13 +649,29 @@ public class MarshallerPool {
      * Note that {@link #recycle(Unmarshaller)} shall not be invoked in case of exception,
      * since the unmarshaller may be in an invalid state.
      *
+     * If this pool has a maximal size and that maximum is reached, then this method waits for an
+     * other thread to recycle its unmarshaller as documented in the {@linkplain MarshallerPool class javadoc}.
+     *
      * @return A unmarshaller configured for parsing OGC/ISO XML.
      * @throws JAXBException If an error occurred while creating and configuring the unmarshaller.
      */
     public Unmarshaller acquireUnmarshaller() throws JAXBException {
-        Unmarshaller unmarshaller = unmarshallers.poll();
+        register();
+        final boolean hasPermit = acquirePermit(unmarshallerPermits);
+        PooledUnmarshaller unmarshaller = (PooledUnmarshaller) unmarshallers.poll();
         if (unmarshaller == null) {
-            unmarshaller = new PooledUnmarshaller(createUnmarshaller(), template);
+            try {
+                unmarshaller = new PooledUnmarshaller(createUnmarshaller(), template);
+            } catch (JAXBException | RuntimeException e) {
+                if (hasPermit) unmarshallerPermits.release();
+                throw e;
+            }
+            createdCount.incrementAndGet();
+        } else {
+            reusedCount.incrementAndGet();
+        }
+        if (hasPermit) {
+            unmarshaller.lease = new Lease(unmarshaller, unmarshallerPermits);
         }
         return unmarshaller;
     }
@@ -389,7 +697,7 @@ public class MarshallerPool {
      * @param marshaller The marshaller to return to the pool.
      */
     public void recycle(final Marshaller marshaller) {
-        recycle(marshallers, marshaller);
+        recycle(marshallers, marshaller, marshallerPermits);
     }
 
     /**
@@ -413,7 +721,87 @@ public class MarshallerPool {
      * @param unmarshaller The unmarshaller to return to the pool.
      */
     public void recycle(final Unmarshaller unmarshaller) {
-        recycle(unmarshallers, unmarshaller);
+        recycle(unmarshallers, unmarshaller, unmarshallerPermits);
+    }
+
+    /**
+     * Creates marshallers and unmarshallers until the pool contains at least the minimal number of idle
+     * instances specified at construction time. Invoking this method at application startup avoids the
+     * cost of creating (un)marshallers during the first requests. This method does nothing if the pool
+     * has been created without minimal size.
+     *
+     * @throws JAXBException If an error occurred while creating and configuring a (un)marshaller.
+     *
+     * @since 0.6
+     */
+    public void warmUp() throws JAXBException {
+        register();
+        for (int i=marshallers.size(); i<minimumSize; i++) {
+            recycle(marshallers, new PooledMarshaller(createMarshaller(), template));
+            createdCount.incrementAndGet();
+        }
+        for (int i=unmarshallers.size(); i<minimumSize; i++) {
+            recycle(unmarshallers, new PooledUnmarshaller(createUnmarshaller(), template));
+            createdCount.incrementAndGet();
+        }
+    }
+
+    /**
+     * Returns the number of marshallers and unmarshallers created by this pool.
+     * Those (un)marshallers have been created because the pool was empty, or by {@link #warmUp()}.
+     *
+     * @return Number of (un)marshallers created since this pool has been created.
+     *
+     * @since 0.6
+     */
+    public long getCreatedCount() {
+        return createdCount.get();
+    }
+
+    /**
+     * Returns the number of times that an {@code acquire} method returned a recycled (un)marshaller.
+     *
+     * @return Number of (un)marshallers reused since this pool has been created.
+     *
+     * @since 0.6
+     */
+    public long getReusedCount() {
+        return reusedCount.get();
+    }
+
+    /**
+     * Returns the number of idle (un)marshallers disposed by this pool after the timeout.
+     *
+     * @return Number of (un)marshallers disposed since this pool has been created.
+     *
+     * @since 0.6
+     */
+    public long getExpiredCount() {
+        return expiredCount.get();
+    }
+
+    /**
+     * Returns the number of times that an {@code acquire} method had to wait for an other thread to recycle
+     * a (un)marshaller. This happen only if this pool has been created with a maximal size and a non-zero wait time.
+     *
+     * @return Number of waits since this pool has been created.
+     *
+     * @since 0.6
+     */
+    public long getWaitCount() {
+        return waitCount.get();
+    }
+
+    /**
+     * Returns the total time spent by threads waiting for an other thread to recycle a (un)marshaller.
+     * This is the cumulative time of the waits counted by {@link #getWaitCount()}.
+     *
+     * @return Total wait time in nanoseconds since this pool has been created.
+     *
+     * @since 0.6
+     */
+    public long getWaitTime() {
+        return waitTime.get();
     }
 
     /**
@@ -29,6 +29,7 @@ import org.apache.sis.util.CharSequences;
 import org.apache.sis.util.LenientComparable;
 import org.apache.sis.util.collection.WeakHashSet;
 import org.apache.sis.util.collection.WeakValueHashMap;
+import org.apache.sis.internal.system.CacheRegistry;
 import org.apache.sis.internal.jaxb.PrimitiveTypeProperties;
 
 
@@ -54,7 +55,7 @@ import org.apache.sis.internal.jaxb.PrimitiveTypeProperties;
  *
  * @author  Martin Desruisseaux (Geomatys)
  * @since   0.3
- * @version 0.4
+ * @version 0.6
  * @module
  *
  * @see NilObject
@@ -140,6 +141,9 @@ public final class NilReason implements Serializable {
      * The pool of other nil reasons created up to date.
      */
     private static final WeakHashSet<NilReason> POOL = new WeakHashSet<>(NilReason.class);
+    static {
+        CacheRegistry.register("NilReason.POOL", POOL);
+    }
 
     /**
      * Either the XML value as a {@code String} (including the explanation if the prefix
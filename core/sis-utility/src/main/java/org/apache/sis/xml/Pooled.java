@@ -49,7 +49,7 @@ import org.apache.sis.internal.jaxb.LegacyNamespaces;
  *
  * @author  Martin Desruisseaux (Geomatys)
  * @since   0.3
- * @version 0.3
+ * @version 0.6
  * @module
  */
 abstract class Pooled {
@@ -167,6 +167,12 @@ abstract class Pooled {
      */
     volatile long resetTime;
 
+    /**
+     * The permit acquired for this (un)marshaller, or {@code null} if none.
+     * This is used only by {@link MarshallerPool} instances having a maximal size.
+     */
+    MarshallerPool.Lease lease;
+
     /**
      * Creates a {@link PooledTemplate}.
      *
@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sis.internal.converter;
+
+import java.util.Date;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.sis.util.UnconvertibleObjectException;
+
+
+/**
+ * Measures the throughput of {@code SystemRegistry.find(…)} when many threads search converters concurrently,
+ * as happen when metadata objects are populated in parallel. The class pairs include conversions which are
+ * not supported, since their negative results are also cached. The number of searches performed by all threads
+ * in each run is printed.
+ */
+public final class ConverterRegistryBenchmark {
+    /**
+     * Number of milliseconds during which each run is executed.
+     */
+    private static final long DURATION = 1000;
+
+    /**
+     * The source and target classes to search, as (source, target) tuples.
+     */
+    private static final Class<?>[] PAIRS = {
+        String.class,  Integer.class,
+        String.class,  Double.class,
+        String.class,  Locale.class,
+        Integer.class, Double.class,
+        Float.class,   Number.class,
+        Date.class,    Long.class,
+        float[].class, double[].class,
+        Locale.class,  Date.class,          // Not convertible.
+        Double.class,  Locale.class         // Not convertible.
+    };
+
+    /**
+     * Do not allow instantiation of this class.
+     */
+    private ConverterRegistryBenchmark() {
+    }
+
+    /**
+     * Searches the converters for all {@link #PAIRS} until the given time is reached.
+     *
+     * @return Number of searches performed.
+     */
+    private static long run(final long stopTime) {
+        long count = 0;
+        do {
+            for (int i=0; i<PAIRS.length; i += 2) {
+                try {
+                    SystemRegistry.INSTANCE.find(PAIRS[i], PAIRS[i+1]);
+                } catch (UnconvertibleObjectException e) {
+                    // Expected for some pairs.
+                }
+            }
+            count += PAIRS.length / 2;
+        } while (System.currentTimeMillis() < stopTime);
+        return count;
+    }
+
+    /**
+     * Runs from the command line. The benchmark is executed many times for letting the JIT compiler do its work.
+     *
+     * @param  arguments The number of threads, or no argument for the number of available processors.
+     * @throws InterruptedException if a thread has been interrupted.
+     */
+    public static void main(final String[] arguments) throws InterruptedException {
+        final int numThreads = (arguments.length != 0) ? Integer.parseInt(arguments[0])
+                : Runtime.getRuntime().availableProcessors();
+        for (int r=0; r<10; r++) {
+            final AtomicLong total = new AtomicLong();
+            final long stopTime = System.currentTimeMillis() + DURATION;
+            final Thread[] threads = new Thread[numThreads];
+            for (int i=0; i<numThreads; i++) {
+                threads[i] = new Thread() {
+                    @Override public void run() {
+                        total.addAndGet(ConverterRegistryBenchmark.run(stopTime));
+                    }
+                };
+                threads[i].start();
+            }
+            for (final Thread t : threads) {
+                t.join();
+            }
+            System.out.printf("Threads: %d    searches: %,.0f per second%n",
+                    numThreads, total.get() * (1000.0 / DURATION));
+        }
+    }
+}
@@ -41,7 +41,7 @@ import static org.apache.sis.test.Assert.*;
  *
  * @author  Martin Desruisseaux (Geomatys)
  * @since   0.3
- * @version 0.3
+ * @version 0.6
  * @module
  */
 @DependsOn({
@@ -362,4 +362,50 @@ public final strictfp class ConverterRegistryTest extends TestCase {
         assertEquals(double[].class, converter.getTargetClass());
         assertSame("Converter shall be cached.", converter, registry.find(float[].class, double[].class));
     }
+
+    /**
+     * Tests the cache of the results of previous searches, including the searches which did not found
+     * any converter. This method verifies that {@link ConverterRegistry#createConverter(Class, Class)}
+     * is not invoked again for the same classes, and that registering a new converter discards the
+     * cached results.
+     */
+    @Test
+    @DependsOnMethod("testStringToMiscellaneous")
+    public void testCachedResults() {
+        final int[] count = new int[1];
+        final ConverterRegistry registry = new ConverterRegistry() {
+            @Override
+            protected <S,T> ObjectConverter<S,T> createConverter(final Class<S> sourceClass, final Class<T> targetClass) {
+                count[0]++;
+                return super.createConverter(sourceClass, targetClass);
+            }
+        };
+        for (int i=0; i<3; i++) {
+            try {
+                registry.find(String.class, Long.class);
+                fail("Expected no converter from String to Long.");
+            } catch (UnconvertibleObjectException e) {
+                // This is the expected exception.
+            }
+        }
+        assertEquals("Negative result shall be cached.", 1, count[0]);
+        final ObjectConverter<?,?> identity = registry.find(String.class, CharSequence.class);
+        assertInstanceOf("String ← CharSequence", IdentityConverter.class, identity);
+        assertSame("Converter shall be cached.", identity, registry.find(String.class, CharSequence.class));
+        assertEquals("Positive result shall be cached.", 2, count[0]);
+        /*
+         * Registering a converter shall invalidate the negative result.
+         */
+        final StringConverter.Long converter = new StringConverter.Long();
+        registry.register(converter);
+        assertSame(converter, registry.find(String.class, Long.class));
+        assertSame(converter, registry.find(String.class, Long.class));
+        registry.clear();
+        try {
+            registry.find(String.class, Long.class);
+            fail("Expected no converter after clear().");
+        } catch (UnconvertibleObjectException e) {
+            // This is the expected exception.
+        }
+    }
 }
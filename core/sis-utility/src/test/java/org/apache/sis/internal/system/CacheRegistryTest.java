@@ -0,0 +1,79 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sis.internal.system;
+
+import java.util.Iterator;
+import org.apache.sis.util.collection.Cache;
+import org.apache.sis.util.collection.TreeTable;
+import org.apache.sis.util.collection.TableColumn;
+import org.apache.sis.util.collection.DefaultTreeTable;
+import org.apache.sis.test.DependsOn;
+import org.apache.sis.test.TestCase;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+
+/**
+ * Tests {@link CacheRegistry}.
+ *
+ * @author  Martin Desruisseaux (Geomatys)
+ * @since   0.6
+ * @version 0.6
+ * @module
+ */
+@DependsOn(org.apache.sis.util.collection.CacheTest.class)
+public final strictfp class CacheRegistryTest extends TestCase {
+    /**
+     * Tests the report of the statistics of a registered cache.
+     */
+    @Test
+    public void testReport() {
+        final Cache<Integer,String> cache = new Cache<>();
+        CacheRegistry.register("CacheRegistryTest.cache", cache);
+        cache.put(1, "One");
+        cache.put(2, "Two");
+        assertEquals("One", cache.peek(1));
+        assertNull(cache.peek(3));
+        cache.lock(3).putAndUnlock("Three");
+
+        final DefaultTreeTable table = new DefaultTreeTable(TableColumn.NAME, TableColumn.VALUE);
+        CacheRegistry.report(table.getRoot());
+        TreeTable.Node node = null;
+        for (final TreeTable.Node candidate : table.getRoot().getChildren()) {
+            if ("CacheRegistryTest.cache".equals(candidate.getValue(TableColumn.NAME))) {
+                assertNull("Cache shall be reported only once.", node);
+                node = candidate;
+            }
+        }
+        assertNotNull("Cache not found in the report.", node);
+        final Iterator<TreeTable.Node> it = node.getChildren().iterator();
+        assertValue(it.next(), "Type",   "Cache");
+        assertValue(it.next(), "Size",   3);
+        assertValue(it.next(), "Hits",   1L);
+        assertValue(it.next(), "Misses", 1L);
+        assertValue(it.next(), "Hit ratio", 0.5);
+    }
+
+    /**
+     * Verifies the name and value of the given node.
+     */
+    private static void assertValue(final TreeTable.Node node, final String name, final Object value) {
+        assertEquals(name, node.getValue(TableColumn.NAME));
+        assertEquals(name, value, node.getValue(TableColumn.VALUE));
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sis.math;
+
+import java.util.Arrays;
+import java.util.Random;
+import org.apache.sis.test.TestCase;
+import org.apache.sis.test.DependsOn;
+import org.apache.sis.test.DependsOnMethod;
+import org.junit.Test;
+
+import static java.lang.StrictMath.abs;
+import static org.apache.sis.test.Assert.*;
+
+
+/**
+ * Tests the {@link QuantileSketch} class. Quantiles estimated by the sketch are compared with the exact
+ * quantiles computed from sorted arrays. This class uses {@link Random} numbers generator with hard-coded
+ * seeds for the same reasons than {@link StatisticsTest}.
+ *
+ * @author  Martin Desruisseaux (Geomatys)
+ * @since   0.6
+ * @version 0.6
+ * @module
+ */
+@DependsOn(StatisticsTest.class)
+public final strictfp class QuantileSketchTest extends TestCase {
+    /**
+     * The relative accuracy of the sketches created by the tests.
+     */
+    private static final double ACCURACY = 0.01;
+
+    /**
+     * Verifies the quantiles estimated by the given sketch against the exact quantiles of the given values.
+     *
+     * @param sketch The sketch to verify.
+     * @param sorted The sample values given to the sketch, sorted in increasing order.
+     */
+    private static void verifyQuantiles(final QuantileSketch sketch, final double[] sorted) {
+        assertEquals("count", sorted.length, sketch.count());
+        for (int i=0; i<=20; i++) {
+            final double q = i / 20.0;
+            final double expected = sorted[(int) (q * (sorted.length - 1))];
+            assertEquals("quantile", expected, sketch.quantile(q), abs(expected) * ACCURACY * 1.0001);
+        }
+    }
+
+    /**
+     * Tests the quantiles of a Gaussian distribution having positive, negative and zero values.
+     */
+    @Test
+    public void testGaussian() {
+        final Random random = new Random(-3417830946612871925L);
+        final QuantileSketch sketch = new QuantileSketch(ACCURACY);
+        assertTrue(Double.isNaN(sketch.quantile(0.5)));
+        final double[] values = new double[10000];
+        for (int i=0; i<values.length; i++) {
+            values[i] = (i % 100 == 0) ? 0 : random.nextGaussian() * 1000;
+        }
+        sketch.acceptAll(values, 0, values.length);
+        sketch.accept(Double.NaN);                          // Shall be ignored.
+        sketch.accept(Double.POSITIVE_INFINITY);            // Shall be ignored.
+        Arrays.sort(values);
+        verifyQuantiles(sketch, values);
+    }
+
+    /**
+     * Tests the merge of sketches computed on different blocks of values,
+     * as would be done in a parallel computation.
+     */
+    @Test
+    @DependsOnMethod("testGaussian")
+    public void testCombine() {
+        final Random random = new Random(8215305917362047153L);
+        final float[] values = new float[8000];
+        for (int i=0; i<values.length; i++) {
+            values[i] = (float) (Math.exp(random.nextGaussian() * 5) - 20);      // Wide range of magnitudes.
+        }
+        final QuantileSketch global = new QuantileSketch(ACCURACY);
+        final QuantileSketch merged = new QuantileSketch(ACCURACY);
+        global.acceptAll(values, 0, values.length);
+        for (int i=0; i<values.length; i += 1000) {
+            final QuantileSketch block = new QuantileSketch(ACCURACY);
+            block.acceptAll(values, i, 1000);
+            merged.combine(block);
+        }
+        final double[] sorted = new double[values.length];
+        for (int i=0; i<values.length; i++) {
+            sorted[i] = values[i];
+        }
+        Arrays.sort(sorted);
+        verifyQuantiles(merged, sorted);
+        for (int i=0; i<=10; i++) {
+            final double q = i / 10.0;
+            assertEquals("Merged sketch shall be identical to the global one.", global.quantile(q), merged.quantile(q), 0);
+        }
+        try {
+            merged.combine(new QuantileSketch(0.02));
+            fail("Shall not combine sketches of different accuracy.");
+        } catch (IllegalArgumentException e) {
+            // This is the expected exception.
+        }
+    }
+}
@@ -20,6 +20,7 @@ import java.util.Random;
 import java.io.IOException;
 import org.junit.Test;
 import org.apache.sis.test.TestCase;
+import org.apache.sis.test.DependsOnMethod;
 
 import static java.lang.StrictMath.*;
 import static java.lang.Double.NaN;
@@ -42,7 +43,7 @@ import static org.apache.sis.test.Assert.*;
  *
  * @author  Martin Desruisseaux (Geomatys)
  * @since   0.3
- * @version 0.3
+ * @version 0.6
  * @module
  */
 public final strictfp class StatisticsTest extends TestCase {
@@ -229,6 +230,67 @@ public final strictfp class StatisticsTest extends TestCase {
         }
     }
 
+    /**
+     * Tests {@link Statistics#acceptAll(double[], int, int)} and {@link Statistics#acceptAll(float[], int, int)}.
+     * The results shall be identical to the ones computed by {@link Statistics#accept(double)}, including the
+     * statistics on differences.
+     */
+    @Test
+    @DependsOnMethod("testConcatenation")
+    public void testAcceptAll() {
+        final Random random = new Random(5642181925637105512L);
+        final double[] doubles = new double[1000];
+        final float [] floats  = new float [1000];
+        for (int i=0; i<doubles.length; i++) {
+            doubles[i] = (random.nextInt(100) == 0) ? NaN : random.nextGaussian() + 10*random.nextDouble();
+            floats [i] = (float) doubles[i];
+        }
+        for (int series=0; series<=1; series++) {
+            final Statistics expected = (series == 0) ? new Statistics(null) : Statistics.forSeries(null, "∂y/∂x");
+            final Statistics fromDoubles = expected.clone();
+            final Statistics fromFloats  = expected.clone();
+            for (int i=10; i<900; i++) {
+                expected.accept(doubles[i]);
+            }
+            fromDoubles.acceptAll(doubles, 10, 400);
+            fromDoubles.acceptAll(doubles, 410, 490);
+            assertEquals(expected, fromDoubles);
+
+            expected.reset();
+            for (int i=0; i<floats.length; i++) {
+                expected.accept(floats[i]);
+            }
+            fromFloats.acceptAll(floats, 0, floats.length);
+            assertEquals(expected, fromFloats);
+        }
+    }
+
+    /**
+     * Tests {@link Statistics#acceptAll(double[], int, int)} and {@link Statistics#acceptAll(float[], int, int)}
+     * on a subclass overriding {@link Statistics#accept(double)}. The overridden method shall be invoked for each value.
+     */
+    @Test
+    @DependsOnMethod("testAcceptAll")
+    public void testAcceptAllOverridden() {
+        final double[] values = {4, 1, NaN, 8};
+        final int[] invocations = new int[1];
+        final Statistics stats = new Statistics(null) {
+            @Override public void accept(final double sample) {
+                invocations[0]++;
+                super.accept(sample * 2);
+            }
+        };
+        stats.acceptAll(values, 0, values.length);
+        assertEquals("invocations", 4, invocations[0]);
+        stats.acceptAll(new float[] {3, 5}, 1, 1);
+        assertEquals("invocations", 5, invocations[0]);
+        assertEquals("count",    4, stats.count());
+        assertEquals("countNaN", 1, stats.countNaN());
+        assertEquals("minimum",  2, stats.minimum(), STRICT);
+        assertEquals("maximum", 16, stats.maximum(), STRICT);
+        assertEquals("sum",     36, stats.sum(),     STRICT);
+    }
+
     /**
      * Tests the serialization.
      *
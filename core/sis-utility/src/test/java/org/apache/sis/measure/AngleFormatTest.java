@@ -17,6 +17,8 @@
 package org.apache.sis.measure;
 
 import java.util.Locale;
+import java.util.Random;
+import java.io.IOException;
 import java.text.FieldPosition;
 import java.text.AttributedCharacterIterator;
 import java.text.ParseException;
@@ -34,7 +36,7 @@ import static org.apache.sis.test.TestUtilities.*;
  *
  * @author  Martin Desruisseaux (MPO, IRD, Geomatys)
  * @since   0.3
- * @version 0.4
+ * @version 0.6
  * @module
  */
 @DependsOn({
@@ -335,4 +337,95 @@ public final strictfp class AngleFormatTest extends TestCase {
         assertEquals(FormattedCharacterIteratorTest.LATITUDE_STRING, it.toString());
         FormattedCharacterIteratorTest.testAttributes(it, true);
     }
+
+    /**
+     * Tests {@link AngleFormat.Compiled}. The results shall be identical to the ones of {@link AngleFormat}
+     * for the same pattern and locale, including the cases delegated to {@code AngleFormat}. This method
+     * tests all patterns used in this {@code AngleFormatTest} class, with the values used in the above
+     * tests (including rounding cases and negative zero) followed by random values.
+     *
+     * @throws IOException should never happen since we write in a {@link StringBuilder}.
+     * @throws ParseException if a string can not be parsed.
+     */
+    @Test
+    @DependsOnMethod({"testRounding", "testOptionalFields", "testJavadocExamples", "testOptionalFractionDigits",
+                      "testSetMaximumWidth", "testNoSeparator"})
+    public void testCompiled() throws IOException, ParseException {
+        final String[] patterns = {
+            "DD.ddd°", "DDddd", "DD°MM.m", "DD°MM′SS.sss″", "D°?MM′?SS.################″?",
+            "DD°MM′SS.#″", "DD°MM′", "DD.ddd", "DD.###", "DDMM", "DDMMSSs", "DD°MM′?SS.s″?",
+            "DD°MM′SS.s##″", "DD°MM′SS.###″", "D°MM′SS.################″", "DD°MM′SS.s″",
+            "DDD°MM.mmm′", "D.ddd°"
+        };
+        final double[] values = {
+            Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, 0, -0.0, 0.125,
+            +(59 + (59.9999 / 60)) / 60,
+            -(59 + (59.9999 / 60)) / 60,
+            -(59 + (59.9988 / 60)) / 60,
+            12, 12.5, 12.01, -0.01, 12.515625, -12.515625, 12.53125, -12.53125, 12.5625, -12.5625,
+            48.5, 8.123456, 20.123456, FormattedCharacterIteratorTest.LATITUDE_VALUE
+        };
+        final Random random = createRandomNumberGenerator();
+        for (final String pattern : patterns) {
+            for (final Locale locale : new Locale[] {Locale.CANADA, Locale.FRANCE}) {
+                compareCompiled(new AngleFormat(pattern, locale), values, random);
+            }
+        }
+        /*
+         * Patterns with a maximal width, as in testSetMaximumWidth().
+         * Those cases are delegated to AngleFormat by the compiled format.
+         */
+        for (final int width : new int[] {12, 10, 7, 4}) {
+            final AngleFormat f = new AngleFormat("D°MM′SS.################″", Locale.CANADA);
+            f.setMaximumWidth(width);
+            compareCompiled(f, values, random);
+        }
+        /*
+         * Strings that do not strictly follow the pattern are delegated to AngleFormat.
+         */
+        final AngleFormat.Compiled c = new AngleFormat("DD°MM′SS.#″", Locale.CANADA).compile();
+        assertEquals( 12.5,   c.parse("12°30′"),          0);
+        assertEquals(-12.5,   c.parse("12°30′00″ S"),     0);
+        assertEquals( 12.5,   c.parse(" 12° 30′"),        0);
+        assertEquals( 12.505, c.parse("12 30 18"),        1E-12);
+        try {
+            c.parse("12°30′ 18″ x");
+            fail("Expected a ParseException.");
+        } catch (ParseException e) {
+            // This is the expected exception.
+        }
+    }
+
+    /**
+     * Verifies that a {@link AngleFormat.Compiled} instance formats and parses the given values, followed by
+     * random values, with the same results than the {@link AngleFormat} from which it has been compiled.
+     *
+     * @param f      The angle format to compile and compare with the compiled format.
+     * @param values The values to test before the random values.
+     * @param random The generator of random values.
+     */
+    private static void compareCompiled(final AngleFormat f, final double[] values, final Random random)
+            throws IOException, ParseException
+    {
+        final String pattern = f.toPattern();
+        final AngleFormat.Compiled c = f.compile();
+        final StringBuilder buffer = new StringBuilder();
+        for (int i=0; i<200; i++) {
+            final double value = (i < values.length) ? values[i] : (random.nextDouble() * 2 - 1) * 180;
+            final String expected = f.format(value);
+            c.format(value, buffer);
+            assertEquals(pattern, expected, buffer.toString());
+            buffer.setLength(0);
+            c.formatLatitude(value, buffer);
+            assertEquals(pattern, f.format(new Latitude(value)), buffer.toString());
+            buffer.setLength(0);
+            c.formatLongitude(value, buffer);
+            assertEquals(pattern, f.format(new Longitude(value)), buffer.toString());
+            if (!Double.isNaN(value) && !Double.isInfinite(value) && !expected.isEmpty()) {  // Empty if all fields are optional.
+                assertEquals(expected, f.parse(expected).degrees(), c.parse(expected), 0);
+                assertEquals(buffer.toString(), f.parse(buffer.toString()).degrees(), c.parse(buffer), 0);
+            }
+            buffer.setLength(0);
+        }
+    }
 }
@@ -58,6 +58,7 @@ import org.junit.BeforeClass;
     org.apache.sis.math.MathFunctionsTest.class,
     org.apache.sis.math.DecimalFunctionsTest.class,
     org.apache.sis.math.StatisticsTest.class,
+    org.apache.sis.math.QuantileSketchTest.class,
     org.apache.sis.math.StatisticsFormatTest.class,
     org.apache.sis.internal.util.UtilitiesTest.class,
     org.apache.sis.internal.util.DoubleDoubleTest.class,
@@ -68,8 +69,12 @@ import org.junit.BeforeClass;
     org.apache.sis.internal.util.CheckedArrayListTest.class,
     org.apache.sis.internal.system.ReferenceQueueConsumerTest.class,
     org.apache.sis.util.collection.WeakHashSetTest.class,
+    org.apache.sis.util.collection.ConcurrentWeakHashSetTest.class,
     org.apache.sis.util.collection.WeakValueHashMapTest.class,
+    org.apache.sis.util.collection.ConcurrentWeakValueHashMapTest.class,
+    org.apache.sis.util.collection.FrequencySketchTest.class,
     org.apache.sis.util.collection.CacheTest.class,
+    org.apache.sis.internal.system.CacheRegistryTest.class,
     org.apache.sis.util.collection.DerivedSetTest.class,
     org.apache.sis.util.collection.DerivedMapTest.class,
     org.apache.sis.util.collection.TableColumnTest.class,
@@ -135,6 +140,7 @@ import org.junit.BeforeClass;
     org.apache.sis.xml.ValueConverterTest.class,
     org.apache.sis.xml.OGCNamespacePrefixMapperTest.class,
     org.apache.sis.xml.MarshallerPoolTest.class,
+    org.apache.sis.xml.ElementReaderTest.class,
     org.apache.sis.internal.jaxb.XmlUtilitiesTest.class,
     org.apache.sis.internal.jaxb.IdentifierMapAdapterTest.class,
     org.apache.sis.internal.jaxb.IdentifierMapWithSpecialCasesTest.class,
@@ -0,0 +1,127 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sis.util;
+
+import java.util.Arrays;
+import java.util.Random;
+
+
+/**
+ * Compares the speed of {@code CharSequences.parseDoubles(…)} with the parsing of the tokens returned by
+ * {@code CharSequences.split(…)}, and the speed of {@code StringBuilders.appendAll(…)} with invocations of
+ * {@code StringBuilder.append(double)} for each value. This class simulates the parsing and formatting of
+ * a large GML {@code <gml:posList>} element containing projected coordinates.
+ */
+public final class CharSequencesBenchmark {
+    /**
+     * Number of coordinate values to parse and format.
+     */
+    private static final int NUM_VALUES = 1000000;
+
+    /**
+     * The coordinate values.
+     */
+    private final double[] values;
+
+    /**
+     * The coordinate values formatted as a space-separated list (a few megabytes).
+     */
+    private final String text;
+
+    /**
+     * Creates a new benchmark with random coordinate values.
+     */
+    private CharSequencesBenchmark() {
+        final Random random = new Random();
+        values = new double[NUM_VALUES];
+        final StringBuilder buffer = new StringBuilder(NUM_VALUES * 12);
+        for (int i=0; i<NUM_VALUES; i++) {
+            final double value = Math.rint(random.nextGaussian() * 1E+8) / 100;     // Centimetre precision.
+            values[i] = value;
+            if (i != 0) buffer.append(' ');
+            buffer.append(value);
+        }
+        text = buffer.toString();
+    }
+
+    /**
+     * Parses the values by splitting the text, then parsing each token.
+     * This was the implementation of {@code parseDoubles(…)} in Apache SIS 0.5.
+     */
+    private double[] parseTokens() {
+        final CharSequence[] tokens = CharSequences.split(text, ' ');
+        final double[] parsed = new double[tokens.length];
+        for (int i=0; i<tokens.length; i++) {
+            parsed[i] = Double.parseDouble(tokens[i].toString());
+        }
+        return parsed;
+    }
+
+    /**
+     * Formats the values by invoking {@code StringBuilder.append(double)} for each value.
+     */
+    private String formatEach() {
+        final StringBuilder buffer = new StringBuilder();
+        for (int i=0; i<values.length; i++) {
+            if (i != 0) buffer.append(' ');
+            buffer.append(values[i]);
+        }
+        return buffer.toString();
+    }
+
+    /**
+     * Formats the values with a single call to {@code StringBuilders.appendAll(…)}.
+     */
+    private String formatAll() {
+        final StringBuilder buffer = new StringBuilder();
+        StringBuilders.appendAll(buffer, values, ' ');
+        return buffer.toString();
+    }
+
+    /**
+     * Runs from the command line. The methods are executed many times for letting
+     * the JIT compiler do its work. The execution times of each run are printed.
+     *
+     * @param arguments Ignored.
+     */
+    public static void main(final String[] arguments) {
+        final CharSequencesBenchmark b = new CharSequencesBenchmark();
+        System.out.printf("Text length: %.1f MB%n", b.text.length() / 1E+6);
+        for (int i=0; i<20; i++) {
+            long time = System.nanoTime();
+            final double[] expected = b.parseTokens();
+            final long tokens = System.nanoTime() - time;
+            time = System.nanoTime();
+            final double[] actual = CharSequences.parseDoubles(b.text, ' ');
+            final long direct = System.nanoTime() - time;
+            if (!Arrays.equals(expected, actual) || !Arrays.equals(b.values, actual)) {
+                throw new AssertionError("Inconsistent parsing results.");
+            }
+            time = System.nanoTime();
+            final String each = b.formatEach();
+            final long perValue = System.nanoTime() - time;
+            time = System.nanoTime();
+            final String all = b.formatAll();
+            final long bulk = System.nanoTime() - time;
+            if (!Arrays.equals(b.values, CharSequences.parseDoubles(all, ' '))) {
+                throw new AssertionError("Inconsistent formatting results.");
+            }
+            System.out.printf("Parse: split %6.2f ms, direct %6.2f ms    Format: append %6.2f ms (%d chars), appendAll %6.2f ms (%d chars)%n",
+                    tokens / 1E+6, direct / 1E+6, perValue / 1E+6, each.length(), bulk / 1E+6, all.length());
+        }
+    }
+}
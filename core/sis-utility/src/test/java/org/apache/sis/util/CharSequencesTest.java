@@ -17,10 +17,12 @@
 package org.apache.sis.util;
 
 import java.util.Arrays;
+import java.util.Random;
 import java.nio.CharBuffer;
 import org.apache.sis.test.TestCase;
 import org.apache.sis.test.DependsOn;
 import org.apache.sis.test.DependsOnMethod;
+import org.apache.sis.test.TestUtilities;
 import org.apache.sis.util.iso.SimpleInternationalString;
 import org.junit.Test;
 
@@ -184,6 +186,59 @@ public final strictfp class CharSequencesTest extends TestCase {
     @DependsOnMethod("testSplit")
     public void testParseDoubles() {
         assertArrayEquals(new double[] {5, 1.5, Double.NaN, -8}, parseDoubles("5 , 1.5,, -8 ", ','), 0.0);
+        assertArrayEquals(new double[] {0.25, -0.0, 1E-30, 2.5E+25, Double.POSITIVE_INFINITY, 0x1.8p1, Double.NaN},
+                parseDoubles("+.25 -0 1e-30 2.5E25 Infinity 0x1.8p1 NaN", ' '), 0.0);
+        assertArrayEquals(new double[] {1, 2, Double.NaN, 3},  parseDoubles("1\r\n2\n\r3", '\n'), 0.0);
+        assertArrayEquals(new double[] {1, 2},                 parseDoubles("  1 \t 2  ", ' '), 0.0);
+        assertArrayEquals(new double[] {Double.NaN},           parseDoubles("", ','), 0.0);
+        assertArrayEquals(new double[] {},                     parseDoubles(null, ','), 0.0);
+        assertEquals("Sign of zero.", Double.doubleToRawLongBits(-0.0),
+                Double.doubleToRawLongBits(parseDoubles("-0.0", ',')[0]));
+        try {
+            parseDoubles("1, 2.5.3", ',');
+            fail("Shall not parse a number with two decimal separators.");
+        } catch (NumberFormatException e) {
+            // This is the expected exception.
+        }
+    }
+
+    /**
+     * Tests {@link CharSequences#parseDoubles(CharSequence, char)} and {@link CharSequences#parseFloats(CharSequence,
+     * char)} with random numbers having various number of digits and exponents. Some numbers are parsed by the fast
+     * path and some other numbers are delegated to the standard Java parsers. The results shall be identical to the
+     * values parsed by {@link Double#parseDouble(String)} and {@link Float#parseFloat(String)} in all cases.
+     */
+    @Test
+    @DependsOnMethod({"testParseDoubles", "testParseFloats"})
+    public void testParseRandomNumbers() {
+        final Random random = TestUtilities.createRandomNumberGenerator();
+        final StringBuilder buffer = new StringBuilder();
+        final String[] numbers = new String[1000];
+        for (int i=0; i<numbers.length; i++) {
+            buffer.setLength(0);
+            if (random.nextBoolean()) buffer.append('-');
+            int n = random.nextInt(18) + 1;
+            while (--n >= 0) buffer.append((char) ('0' + random.nextInt(10)));
+            if (random.nextBoolean()) {
+                buffer.insert(random.nextInt(buffer.length()) + 1, '.');
+            }
+            if (random.nextInt(4) == 0) {
+                buffer.append('E').append(random.nextInt(80) - 40);
+            }
+            numbers[i] = buffer.toString();
+        }
+        buffer.setLength(0);
+        for (final String number : numbers) {
+            buffer.append(number).append(' ');
+        }
+        final double[] doubles = parseDoubles(buffer, ' ');
+        final float[]  floats  = parseFloats (buffer, ' ');
+        assertEquals(numbers.length, doubles.length);
+        assertEquals(numbers.length, floats .length);
+        for (int i=0; i<numbers.length; i++) {
+            assertEquals(numbers[i], Double.parseDouble(numbers[i]), doubles[i], 0.0);
+            assertEquals(numbers[i], Float .parseFloat (numbers[i]), floats [i], 0f);
+        }
     }
 
     /**
@@ -193,6 +248,8 @@ public final strictfp class CharSequencesTest extends TestCase {
     @DependsOnMethod("testSplit")
     public void testParseFloats() {
         assertArrayEquals(new float[] {5, 1.5f, Float.NaN, -8}, parseFloats("5 , 1.5,, -8 ", ','), 0f);
+        assertArrayEquals(new float[] {0.1f, 16777217f, 3E-20f, Float.NEGATIVE_INFINITY},
+                parseFloats("0.1 16777217 3E-20 -Infinity", ' '), 0f);
     }
 
     /**
@@ -202,6 +259,9 @@ public final strictfp class CharSequencesTest extends TestCase {
     @DependsOnMethod("testSplit")
     public void testParseLongs() {
         assertArrayEquals(new long[] {5, 2, -8}, parseLongs("5 , 2, -8 ", ',', 10));
+        assertArrayEquals(new long[] {Long.MIN_VALUE, 255, 1234567890123L},
+                parseLongs("-9223372036854775808 255 +1234567890123", ' ', 10));
+        assertArrayEquals(new long[] {255, -0x7FFFFFFFFFFFFFFFL}, parseLongs("ff,-7FFFFFFFFFFFFFFF", ',', 16));
     }
 
     /**
@@ -211,6 +271,12 @@ public final strictfp class CharSequencesTest extends TestCase {
     @DependsOnMethod("testSplit")
     public void testParseInts() {
         assertArrayEquals(new int[] {5, 2, -8}, parseInts("5 , 2, -8 ", ',', 10));
+        try {
+            parseInts("5, 3000000000", ',', 10);
+            fail("Shall not parse a number outside the range of 32 bits integers.");
+        } catch (NumberFormatException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("3000000000"));
+        }
     }
 
     /**
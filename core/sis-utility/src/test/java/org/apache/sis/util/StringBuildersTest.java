@@ -29,7 +29,7 @@ import static org.apache.sis.util.StringBuilders.*;
  * @author  Martin Desruisseaux (Geomatys)
  * @author  Johann Sorel (Geomatys)
  * @since   0.3
- * @version 0.3
+ * @version 0.6
  * @module
  */
 public final strictfp class StringBuildersTest extends TestCase {
@@ -101,4 +101,23 @@ public final strictfp class StringBuildersTest extends TestCase {
         toASCII(metre);
         assertEquals("metres\n", metre.toString());
     }
+
+    /**
+     * Tests the {@link StringBuilders#appendAll(StringBuilder, double[], char)} method,
+     * including the round trip with {@link CharSequences#parseDoubles(CharSequence, char)}.
+     */
+    @Test
+    public void testAppendAll() {
+        final double[] values = {500000, 4000000.25, -1.5, -0.0, Double.NaN, Double.NEGATIVE_INFINITY, 0.1, 1E+300};
+        final StringBuilder buffer = new StringBuilder("Values: ");
+        appendAll(buffer, values, ' ');
+        assertEquals("Values: 500000 4000000.25 -1.5 -0.0 NaN -Infinity 0.1 1.0E300", buffer.toString());
+        assertArrayEquals(values, CharSequences.parseDoubles(buffer.substring(8), ' '), 0.0);
+
+        final float[] floats = {2, -0.5f, 0.1f};
+        buffer.setLength(0);
+        appendAll(buffer, floats, ',');
+        assertEquals("2,-0.5,0.1", buffer.toString());
+        assertArrayEquals(floats, CharSequences.parseFloats(buffer, ','), 0f);
+    }
 }
@@ -44,7 +44,7 @@ import static org.apache.sis.test.Assert.*;
  *
  * @author  Martin Desruisseaux (Geomatys)
  * @since   0.3
- * @version 0.3
+ * @version 0.6
  * @module
  */
 @DependsOn(WeakValueHashMapTest.class)
@@ -99,6 +99,72 @@ public final strictfp class CacheTest extends TestCase {
         assertEquals(singleton(new SimpleEntry<>(key, value)), cache.entrySet());
     }
 
+    /**
+     * Tests a cache in {@link Cache.Eviction#BOUNDED} mode. The cost limit shall be a hard limit,
+     * and the values accessed frequently shall be retained in preference to the values used once.
+     *
+     * @throws Exception should never happen since our value creator does not throw exception.
+     */
+    @Test
+    @DependsOnMethod("testPutAndUnlock")
+    public void testBounded() throws Exception {
+        final Cache<Integer,Integer> cache = new Cache<>(16, 100, Cache.Eviction.BOUNDED);
+        for (int i=0; i<1000; i++) {
+            assertNull(cache.put(i, i));
+        }
+        assertEquals("size", 100, cache.size());
+        assertEquals("evictionCount", 900, cache.getEvictionCount());
+        cache.clear();
+        assertTrue("isEmpty", cache.isEmpty());
+        /*
+         * Access 50 "hot" values many times, interleaved with values used only once.
+         * The hot values shall stay in the cache despite the flow of new values.
+         */
+        final Callable<Integer> creator = new Callable<Integer>() {
+            @Override public Integer call() {
+                return -1;
+            }
+        };
+        for (int i=0; i<50; i++) {
+            cache.put(i, i);
+        }
+        int key = 1000;
+        for (int n=0; n<100; n++) {
+            for (int i=0; i<50; i++) {
+                assertEquals(Integer.valueOf(i), cache.getOrCreate(i, creator));
+            }
+            for (int i=0; i<20; i++) {
+                cache.getOrCreate(key++, creator);
+            }
+        }
+        for (int i=0; i<50; i++) {
+            assertEquals("Hot value shall be retained.", Integer.valueOf(i), cache.peek(i));
+        }
+        assertTrue("size", cache.size() <= 100);
+        assertEquals("missCount", 2000, cache.getMissCount());
+        assertEquals("hitCount",  5050, cache.getHitCount());
+    }
+
+    /**
+     * Tests a cache in {@link Cache.Eviction#BOUNDED} mode with values of different costs.
+     */
+    @Test
+    @DependsOnMethod("testBounded")
+    public void testBoundedCost() {
+        final Cache<Integer,String> cache = new Cache<Integer,String>(16, 50, Cache.Eviction.BOUNDED) {
+            @Override protected int cost(final String value) {
+                return value.length();
+            }
+        };
+        for (int i=0; i<100; i++) {
+            cache.put(i, "12345");
+        }
+        assertEquals("size", 10, cache.size());
+        cache.put(-1, CharSequences.spaces(60).toString());
+        assertNull("Value exceeding the cost limit shall not be retained.", cache.peek(-1));
+        assertEquals("size", 10, cache.size());
+    }
+
     /**
      * Tests the cache when a thread is blocking a second one.
      * The second thread tries to write a value while the first thread holds the lock.
@@ -0,0 +1,150 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sis.util.collection;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * Compares the throughput of {@code ConcurrentWeakHashSet.unique(…)} with {@code WeakHashSet.unique(…)}
+ * when many threads use the same pool concurrently, as happen when factories share their immutable instances.
+ * Most invocations search an element which is already in the set. Every 16th invocation adds a new element
+ * which is not retained, and will therefore be garbage-collected later. The number of invocations performed
+ * by all threads in each run is printed for both sets.
+ */
+public final class ConcurrentWeakHashSetBenchmark {
+    /**
+     * Number of milliseconds during which each run is executed.
+     */
+    private static final long DURATION = 1000;
+
+    /**
+     * Default number of threads if no number is given on the command line.
+     */
+    private static final int DEFAULT_THREADS = 32;
+
+    /**
+     * Number of distinct elements which are retained in the sets.
+     */
+    private static final int NUM_ELEMENTS = 1000;
+
+    /**
+     * The elements retained in the sets. We need to keep references to them
+     * for preventing the garbage collector to remove them from the sets.
+     */
+    private final Long[] canonical;
+
+    /**
+     * Elements equal to the {@link #canonical} ones, but different instances.
+     * Those elements are given to the {@code unique(…)} methods.
+     */
+    private final Long[] queries;
+
+    /**
+     * The sets to compare. Each run uses only one of them.
+     */
+    private final WeakHashSet<Long> weakSet;
+    private final ConcurrentWeakHashSet<Long> concurrentSet;
+
+    /**
+     * Creates a new benchmark with sets populated by {@link #NUM_ELEMENTS} elements.
+     */
+    @SuppressWarnings("UnnecessaryBoxing")
+    private ConcurrentWeakHashSetBenchmark() {
+        canonical     = new Long[NUM_ELEMENTS];
+        queries       = new Long[NUM_ELEMENTS];
+        weakSet       = new WeakHashSet<>(Long.class);
+        concurrentSet = new ConcurrentWeakHashSet<>(Long.class);
+        for (int i=0; i<NUM_ELEMENTS; i++) {
+            final long value = i * 7919L;
+            canonical[i] = new Long(value);
+            queries  [i] = new Long(value);
+            weakSet      .add(canonical[i]);
+            concurrentSet.add(canonical[i]);
+        }
+    }
+
+    /**
+     * Invokes {@code unique(…)} on the specified set until the given time is reached.
+     *
+     * @param  concurrent {@code true} for using {@link ConcurrentWeakHashSet}, or {@code false} for {@link WeakHashSet}.
+     * @param  seed       Index of the first element to search, different for each thread.
+     * @param  stopTime   Value of {@link System#currentTimeMillis()} when to stop.
+     * @return Number of invocations of {@code unique(…)}.
+     */
+    @SuppressWarnings("UnnecessaryBoxing")
+    private long run(final boolean concurrent, int seed, final long stopTime) {
+        long count = 0;
+        do {
+            for (int i=0; i<NUM_ELEMENTS; i++) {
+                final Long element;
+                if ((i & 15) == 0) {
+                    element = new Long(-1 - (count + i) * 31 - seed);      // Not in the set.
+                } else {
+                    element = queries[(seed + i) % NUM_ELEMENTS];
+                }
+                final Long unique = concurrent ? concurrentSet.unique(element) : weakSet.unique(element);
+                if (!unique.equals(element)) {
+                    throw new AssertionError("Inconsistent result.");
+                }
+            }
+            count += NUM_ELEMENTS;
+        } while (System.currentTimeMillis() < stopTime);
+        return count;
+    }
+
+    /**
+     * Executes one run with the given number of threads.
+     *
+     * @return Number of invocations of {@code unique(…)} per second.
+     */
+    private double run(final boolean concurrent, final int numThreads) throws InterruptedException {
+        final AtomicLong total = new AtomicLong();
+        final long stopTime = System.currentTimeMillis() + DURATION;
+        final Thread[] threads = new Thread[numThreads];
+        for (int i=0; i<numThreads; i++) {
+            final int seed = i * (NUM_ELEMENTS / numThreads + 1);
+            threads[i] = new Thread() {
+                @Override public void run() {
+                    total.addAndGet(ConcurrentWeakHashSetBenchmark.this.run(concurrent, seed, stopTime));
+                }
+            };
+            threads[i].start();
+        }
+        for (final Thread t : threads) {
+            t.join();
+        }
+        return total.get() * (1000.0 / DURATION);
+    }
+
+    /**
+     * Runs from the command line. The benchmark is executed many times for letting the JIT compiler do its work.
+     *
+     * @param  arguments The number of threads, or no argument for 32 threads.
+     * @throws InterruptedException if a thread has been interrupted.
+     */
+    public static void main(final String[] arguments) throws InterruptedException {
+        final int numThreads = (arguments.length != 0) ? Integer.parseInt(arguments[0]) : DEFAULT_THREADS;
+        final ConcurrentWeakHashSetBenchmark b = new ConcurrentWeakHashSetBenchmark();
+        for (int r=0; r<10; r++) {
+            final double locked     = b.run(false, numThreads);
+            final double concurrent = b.run(true,  numThreads);
+            System.out.printf("Threads: %d    WeakHashSet: %,.0f    ConcurrentWeakHashSet: %,.0f    (invocations per second)%n",
+                    numThreads, locked, concurrent);
+        }
+    }
+}
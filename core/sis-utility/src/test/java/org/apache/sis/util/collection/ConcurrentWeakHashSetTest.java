@@ -0,0 +1,188 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sis.util.collection;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+import org.apache.sis.test.TestCase;
+import org.apache.sis.test.DependsOn;
+import org.apache.sis.test.DependsOnMethod;
+import org.apache.sis.test.TestUtilities;
+import org.apache.sis.test.TestConfiguration;
+import org.junit.Test;
+
+import static org.apache.sis.test.Assert.*;
+import static org.apache.sis.test.TestUtilities.waitForGarbageCollection;
+
+
+/**
+ * Tests the {@link ConcurrentWeakHashSet}.
+ * A standard {@link HashSet} object is used for comparison purpose.
+ *
+ * @author  Martin Desruisseaux (Geomatys)
+ * @since   0.6
+ * @version 0.6
+ * @module
+ */
+@DependsOn(WeakHashSetTest.class)
+public final strictfp class ConcurrentWeakHashSetTest extends TestCase {
+    /**
+     * The size of the test sets to be created.
+     */
+    private static final int SAMPLE_SIZE = 500;
+
+    /**
+     * Tests the {@link ConcurrentWeakHashSet} using strong references.
+     * The tested set shall behave like a standard {@link HashSet}, except for element order.
+     */
+    @Test
+    public void testStrongReferences() {
+        final Random random = TestUtilities.createRandomNumberGenerator();
+        final ConcurrentWeakHashSet<Integer> weakSet = new ConcurrentWeakHashSet<>(Integer.class);
+        final HashSet<Integer> strongSet = new HashSet<>();
+        for (int i=0; i<SAMPLE_SIZE; i++) {
+            final Integer value = random.nextInt(SAMPLE_SIZE);
+            if (random.nextBoolean()) {
+                final boolean   weakModified = weakSet  .add(value);
+                final boolean strongModified = strongSet.add(value);
+                assertEquals("add:", strongModified, weakModified);
+                if (strongModified) {
+                    assertSame("get:", value, weakSet.get(value));
+                } else {
+                    assertEquals("get:",  value, weakSet.get(value));
+                }
+            } else {
+                final boolean   weakModified = weakSet  .remove(value);
+                final boolean strongModified = strongSet.remove(value);
+                assertEquals("remove:", strongModified, weakModified);
+                assertNull("get:", weakSet.get(value));
+            }
+            assertEquals("contains:", strongSet.contains(value), weakSet.contains(value));
+            assertEquals("equals:", strongSet, weakSet);
+        }
+        assertSetEquals(strongSet, weakSet);
+    }
+
+    /**
+     * Tests the {@link ConcurrentWeakHashSet} using weak references.
+     *
+     * @throws InterruptedException If the test has been interrupted.
+     */
+    @Test
+    @DependsOnMethod("testStrongReferences")
+    public void testWeakReferences() throws InterruptedException {
+        final ConcurrentWeakHashSet<Integer> weakSet = new ConcurrentWeakHashSet<>(Integer.class);
+        final HashSet<Integer> strongSet = new HashSet<>();
+        for (int i=0; i<SAMPLE_SIZE; i++) {
+            final Integer value = new Integer(i);               // Really need new instances
+            assertTrue("add:", weakSet.add(value));
+            if ((i & 1) == 0) {
+                assertTrue("add:", strongSet.add(value));
+            }
+        }
+        assertTrue("containsAll:", weakSet.containsAll(strongSet));
+        if (TestConfiguration.allowGarbageCollectorDependentTests()) {
+            waitForGarbageCollection(new Callable<Boolean>() {
+                @Override public Boolean call() {
+                    return weakSet.size() == strongSet.size();
+                }
+            });
+            assertSetEquals(strongSet, weakSet);
+            strongSet.clear();
+            assertTrue("Expected an empty set.", waitForGarbageCollection(new Callable<Boolean>() {
+                @Override public Boolean call() {
+                    return weakSet.isEmpty();
+                }
+            }));
+        }
+    }
+
+    /**
+     * Tests with array elements.
+     */
+    @Test
+    @DependsOnMethod("testStrongReferences")
+    public void testWithArrayElements() {
+        final ConcurrentWeakHashSet<int[]> weakSet = new ConcurrentWeakHashSet<>(int[].class);
+        final int[] array = new int[] {2, 5, 3};
+        assertTrue (weakSet.add(array));
+        assertFalse(weakSet.add(array));
+        assertFalse(weakSet.add(array.clone()));
+        assertTrue (weakSet.add(new int[] {2, 5, 4}));
+        assertSame (array, weakSet.unique(array.clone()));
+    }
+
+    /**
+     * Starts many threads invoking {@link ConcurrentWeakHashSet#unique(Object)} for the same values,
+     * and verifies that all threads got the same instances.
+     *
+     * @throws InterruptedException If the test has been interrupted.
+     */
+    @Test
+    @DependsOnMethod("testStrongReferences")
+    public void testConcurrentUnique() throws InterruptedException {
+        final ConcurrentWeakHashSet<Integer> pool = new ConcurrentWeakHashSet<>(Integer.class);
+        final AtomicReference<Throwable> failures = new AtomicReference<>();
+        final CountDownLatch start = new CountDownLatch(1);
+        final class InternThread extends Thread {
+            /** The instances returned by {@code unique(…)}. */
+            final Integer[] instances = new Integer[SAMPLE_SIZE];
+
+            /** Creates a new thread. */
+            InternThread(final int i) {
+                super(TestUtilities.THREADS, "ConcurrentWeakHashSetTest.testConcurrentUnique() #" + i);
+            }
+
+            /** Interns new instances of the same values than the other threads. */
+            @Override public void run() {
+                try {
+                    start.await();
+                    for (int i=0; i<SAMPLE_SIZE; i++) {
+                        final Integer value = new Integer(i);   // We really want new instance.
+                        instances[i] = pool.unique(value);
+                        assertEquals(value, instances[i]);
+                    }
+                } catch (Throwable e) {
+                    if (!failures.compareAndSet(null, e)) {
+                        failures.get().addSuppressed(e);
+                    }
+                }
+            }
+        }
+        final InternThread[] threads = new InternThread[32];
+        for (int i=0; i<threads.length; i++) threads[i] = new InternThread(i);
+        for (int i=0; i<threads.length; i++) threads[i].start();
+        start.countDown();
+        for (int i=0; i<threads.length; i++) threads[i].join();
+        TestUtilities.rethrownIfNotNull(failures.get());
+        /*
+         * All threads shall have got the same instances,
+         * since all instances are retained by strong references.
+         */
+        final Integer[] expected = threads[0].instances;
+        for (int i=1; i<threads.length; i++) {
+            final Integer[] actual = threads[i].instances;
+            for (int j=0; j<SAMPLE_SIZE; j++) {
+                assertSame(expected[j], actual[j]);
+            }
+        }
+        assertEquals("size", SAMPLE_SIZE, pool.size());
+    }
+}
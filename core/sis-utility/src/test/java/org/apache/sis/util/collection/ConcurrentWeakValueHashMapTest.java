@@ -0,0 +1,155 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sis.util.collection;
+
+import java.util.HashMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.apache.sis.test.TestCase;
+import org.apache.sis.test.DependsOn;
+import org.apache.sis.test.DependsOnMethod;
+import org.apache.sis.test.TestUtilities;
+import org.junit.Test;
+
+import static org.apache.sis.test.Assert.*;
+
+
+/**
+ * Tests the {@link ConcurrentWeakValueHashMap}.
+ * A standard {@link HashMap} object is used for comparison purpose.
+ *
+ * @author  Martin Desruisseaux (Geomatys)
+ * @since   0.6
+ * @version 0.6
+ * @module
+ */
+@DependsOn(WeakValueHashMapTest.class)
+public final strictfp class ConcurrentWeakValueHashMapTest extends TestCase {
+    /**
+     * Tests the {@link ConcurrentWeakValueHashMap} using strong references.
+     * The tested map shall behave like a standard {@link HashMap}, except for element order.
+     */
+    @Test
+    public void testStrongReferences() {
+        WeakValueHashMapTest.testStrongReferences(new ConcurrentWeakValueHashMap<Integer,Integer>(Integer.class));
+    }
+
+    /**
+     * Tests the {@link ConcurrentWeakValueHashMap} using weak references.
+     *
+     * @throws InterruptedException If the test has been interrupted.
+     */
+    @Test
+    @DependsOnMethod("testStrongReferences")
+    public void testWeakReferences() throws InterruptedException {
+        WeakValueHashMapTest.testWeakReferences(new ConcurrentWeakValueHashMap<Integer,Integer>(Integer.class));
+    }
+
+    /**
+     * Tests with array keys and with the {@link ConcurrentWeakValueHashMap#putIfAbsent(Object, Object)},
+     * {@link ConcurrentWeakValueHashMap#replace(Object, Object)} and
+     * {@link ConcurrentWeakValueHashMap#remove(Object, Object)} methods.
+     */
+    @Test
+    @DependsOnMethod("testStrongReferences")
+    public void testWithArrayKeys() {
+        final ConcurrentWeakValueHashMap<int[],Integer> weakMap = new ConcurrentWeakValueHashMap<>(int[].class);
+        final int[] k1 = new int[] {2, 5, 3};
+        final int[] k2 = new int[] {2, 5, 4};
+        final Integer v1 = 1;
+        final Integer v2 = 2;
+        assertNull (    weakMap.putIfAbsent(k1,         v1));
+        assertSame (v1, weakMap.putIfAbsent(k1.clone(), v2));
+        assertNull (    weakMap.replace    (k2,         v2));
+        assertNull (    weakMap.put        (k2,         v1));
+        assertSame (v1, weakMap.replace    (k2.clone(), v2));
+        assertFalse(    weakMap.remove     (k2,         v1));
+        assertSame (v1, weakMap.get(k1.clone()));
+        assertSame (v2, weakMap.get(k2.clone()));
+        assertEquals("size", 2, weakMap.size());
+        assertTrue (    weakMap.remove     (k2.clone(), v2));
+        assertNull (    weakMap.get(k2));
+        assertEquals("size", 1, weakMap.size());
+    }
+
+    /**
+     * Starts many threads invoking {@link ConcurrentWeakValueHashMap#getOrCreate(Object, Callable)}
+     * for the same keys, and verifies that all threads got the same instances.
+     *
+     * @throws InterruptedException If the test has been interrupted.
+     */
+    @Test
+    @DependsOnMethod("testWithArrayKeys")
+    public void testConcurrentGetOrCreate() throws InterruptedException {
+        final int sampleSize = WeakValueHashMapTest.SAMPLE_SIZE;
+        final ConcurrentWeakValueHashMap<Integer,Integer> pool = new ConcurrentWeakValueHashMap<>(Integer.class);
+        final AtomicReference<Throwable> failures = new AtomicReference<>();
+        final AtomicInteger creationCount = new AtomicInteger();
+        final CountDownLatch start = new CountDownLatch(1);
+        final class CreatorThread extends Thread {
+            /** The instances returned by {@code getOrCreate(…)}. */
+            final Integer[] instances = new Integer[sampleSize];
+
+            /** Creates a new thread. */
+            CreatorThread(final int i) {
+                super(TestUtilities.THREADS, "ConcurrentWeakValueHashMapTest.testConcurrentGetOrCreate() #" + i);
+            }
+
+            /** Gets or creates instances for the same keys than the other threads. */
+            @Override public void run() {
+                try {
+                    start.await();
+                    for (int i=0; i<sampleSize; i++) {
+                        final int key = i;
+                        instances[i] = pool.getOrCreate(key, new Callable<Integer>() {
+                            @Override public Integer call() {
+                                creationCount.incrementAndGet();
+                                return new Integer(key * 10);   // We really want new instance.
+                            }
+                        });
+                        assertEquals(Integer.valueOf(key * 10), instances[i]);
+                    }
+                } catch (Throwable e) {
+                    if (!failures.compareAndSet(null, e)) {
+                        failures.get().addSuppressed(e);
+                    }
+                }
+            }
+        }
+        final CreatorThread[] threads = new CreatorThread[32];
+        for (int i=0; i<threads.length; i++) threads[i] = new CreatorThread(i);
+        for (int i=0; i<threads.length; i++) threads[i].start();
+        start.countDown();
+        for (int i=0; i<threads.length; i++) threads[i].join();
+        TestUtilities.rethrownIfNotNull(failures.get());
+        /*
+         * All threads shall have got the same instances, since all instances are retained
+         * by strong references, even if some values have been created more than once.
+         */
+        final Integer[] expected = threads[0].instances;
+        for (int i=1; i<threads.length; i++) {
+            final Integer[] actual = threads[i].instances;
+            for (int j=0; j<sampleSize; j++) {
+                assertSame(expected[j], actual[j]);
+            }
+        }
+        assertEquals("size", sampleSize, pool.size());
+        assertTrue("creationCount", creationCount.get() >= sampleSize);
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sis.util.collection;
+
+import org.apache.sis.test.TestCase;
+import org.apache.sis.test.DependsOnMethod;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+
+/**
+ * Tests the {@link FrequencySketch} used by the cache eviction policy.
+ *
+ * @author  Martin Desruisseaux (Geomatys)
+ * @since   0.6
+ * @version 0.6
+ * @module
+ */
+public final strictfp class FrequencySketchTest extends TestCase {
+    /**
+     * Tests the estimation of frequencies, including the saturation of counters.
+     */
+    @Test
+    public void testFrequency() {
+        final FrequencySketch sketch = new FrequencySketch();
+        assertEquals(0, sketch.frequency("A"));
+        for (int i=1; i<=20; i++) {
+            sketch.increment("A");
+            assertEquals("frequency", Math.min(i, 15), sketch.frequency("A"));
+        }
+        sketch.increment("B");
+        assertTrue("frequency", sketch.frequency("B") >= 1);
+    }
+
+    /**
+     * Tests that growing the sketch preserves the estimated frequencies.
+     */
+    @Test
+    @DependsOnMethod("testFrequency")
+    public void testEnsureCapacity() {
+        final FrequencySketch sketch = new FrequencySketch();
+        for (int i=0; i<5; i++) {
+            sketch.increment(3);
+        }
+        sketch.increment(7);
+        sketch.ensureCapacity(1000);
+        assertTrue("frequency", sketch.frequency(3) >= 5);
+        assertTrue("frequency", sketch.frequency(7) >= 1);
+        sketch.increment(3);
+        assertTrue("frequency", sketch.frequency(3) >= 6);
+    }
+
+    /**
+     * Tests the aging of counters: after many increments of other elements, the frequency
+     * of an element which is no longer accessed shall decrease.
+     */
+    @Test
+    @DependsOnMethod("testFrequency")
+    public void testAging() {
+        final FrequencySketch sketch = new FrequencySketch();
+        for (int i=0; i<15; i++) {
+            sketch.increment("old");
+        }
+        assertEquals(15, sketch.frequency("old"));
+        for (int i=0; i<1000; i++) {
+            sketch.increment(i);
+        }
+        assertTrue("frequency", sketch.frequency("old") < 15);
+    }
+}
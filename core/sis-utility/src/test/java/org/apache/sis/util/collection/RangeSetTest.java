@@ -42,7 +42,7 @@ import static org.apache.sis.test.Assert.*;
  * @author  Martin Desruisseaux (Geomatys)
  * @author  Rémi Maréchal (Geomatys)
  * @since   0.3
- * @version 0.5
+ * @version 0.6
  * @module
  */
 @DependsOn(org.apache.sis.measure.RangeTest.class)
@@ -244,6 +244,124 @@ public final strictfp class RangeSetTest extends TestCase {
         assertEquals(-1, ranges.indexOfRange(-30));
     }
 
+    /**
+     * Tests the {@link RangeSet#indexOfLong(long)} and {@link RangeSet#indexOfDouble(double)} methods
+     * on sets of integer and floating point values, including values that can not be represented
+     * by the type of range elements.
+     */
+    @Test
+    @DependsOnMethod("testIndexOfRange")
+    public void testIndexOfPrimitiveValue() {
+        final RangeSet<Short> shorts = RangeSet.create(Short.class, true, false);
+        assertTrue(shorts.add((short) -20, (short) -10));
+        assertTrue(shorts.add((short)  40, (short)  50));
+        assertEquals( 0, shorts.indexOfLong(-20L));
+        assertEquals(-1, shorts.indexOfLong(-10L));
+        assertEquals( 1, shorts.indexOfDouble( 49.5));
+        assertEquals(-1, shorts.indexOfDouble( 50.0));
+        assertEquals(-1, shorts.indexOfDouble(-20.5));
+        assertEquals( 0, shorts.indexOfDouble(-19.5));
+        assertEquals(-1, shorts.indexOfLong(Long.MAX_VALUE));
+        assertEquals(-1, shorts.indexOfLong(Long.MIN_VALUE));
+        assertEquals(-1, shorts.indexOfDouble(Double.NaN));
+        assertEquals(-1, shorts.indexOfDouble(Double.NEGATIVE_INFINITY));
+
+        final RangeSet<Float> floats = RangeSet.create(Float.class, false, true);
+        assertTrue(floats.add(0.1f, 0.2f));
+        assertTrue(floats.add(2.5f, 3.0f));
+        assertEquals(-1, floats.indexOfDouble(0.1f));
+        assertEquals( 0, floats.indexOfDouble(0.2f));
+        assertEquals( 0, floats.indexOfDouble(0.15));
+        assertEquals( 1, floats.indexOfLong(3L));
+        assertEquals(-1, floats.indexOfDouble(Math.nextUp((double) 0.2f)));
+        assertEquals( 0, floats.indexOfDouble(Math.nextUp((double) 0.1f)));
+        assertEquals(-1, floats.indexOfDouble(Double.NaN));
+        /*
+         * Sets of non-numerical values can not be searched with primitive values.
+         */
+        final RangeSet<String> strings = RangeSet.create(String.class, true, false);
+        assertTrue(strings.add("A", "B"));
+        try {
+            strings.indexOfLong(2L);
+            fail("Expected a ClassCastException.");
+        } catch (ClassCastException e) {
+            // This is the expected exception.
+        }
+    }
+
+    /**
+     * Tests {@link RangeSet#addAll(java.util.Collection)} and {@link RangeSet#intersectWith(RangeSet)}
+     * on random sets of closed and half-open ranges. The results are compared with the membership of
+     * each value in the two sets. In the case of closed ranges, the intersection of two ranges which
+     * touch each other only by an endpoint is not expected to be retained.
+     */
+    @Test
+    @DependsOnMethod("testIndexOfPrimitiveValue")
+    public void testUnionAndIntersection() {
+        final Random random = TestUtilities.createRandomNumberGenerator();
+        for (int pass=0; pass<30; pass++) {
+            final boolean isMinIncluded, isMaxIncluded;
+            switch (pass % 3) {
+                case 0:  isMinIncluded = true;  isMaxIncluded = true;  break;   // [min … max]
+                case 1:  isMinIncluded = true;  isMaxIncluded = false; break;   // [min … max)
+                default: isMinIncluded = false; isMaxIncluded = true;  break;   // (min … max]
+            }
+            final RangeSet<Integer> s1 = RangeSet.create(Integer.class, isMinIncluded, isMaxIncluded);
+            final RangeSet<Integer> s2 = RangeSet.create(Integer.class, isMinIncluded, isMaxIncluded);
+            for (int i=0; i<30; i++) {
+                int lower = random.nextInt(1000);
+                s1.add(lower, lower + random.nextInt(40) + 1);
+                lower = random.nextInt(1000);
+                s2.add(lower, lower + random.nextInt(40) + 1);
+            }
+            final RangeSet<Integer> union = s1.clone();
+            final RangeSet<Integer> intersection = s1.clone();
+            final RangeSet<Integer> expected = s1.clone();
+            for (final Range<Integer> range : s2) {
+                expected.add(range);
+            }
+            union.addAll(s2);
+            intersection.intersectWith(s2);
+            assertEquals("union", expected, union);
+            for (int value=-1; value <= 1050; value++) {
+                final int i1 = s1.indexOfRange(value);
+                final int i2 = s2.indexOfRange(value);
+                boolean inBoth = (i1 >= 0 && i2 >= 0);
+                if (inBoth) {
+                    inBoth = Math.max(s1.getMinLong(i1), s2.getMinLong(i2)) <
+                             Math.min(s1.getMaxLong(i1), s2.getMaxLong(i2));
+                }
+                assertEquals("union",        (i1 >= 0) | (i2 >= 0), union.indexOfRange(value) >= 0);
+                assertEquals("intersection", inBoth, intersection.indexOfRange(value) >= 0);
+            }
+            assertFalse("union", union.addAll(s1));
+            assertFalse("intersection", intersection.intersectWith(s1));
+        }
+    }
+
+    /**
+     * Tests that {@link RangeSet#addAll(java.util.Collection)} invokes {@link RangeSet#add(Range)}
+     * when that method is overridden by a subclass.
+     */
+    @Test
+    @DependsOnMethod("testUnionAndIntersection")
+    public void testAddAllWithOverriddenAdd() {
+        final int[] count = new int[1];
+        @SuppressWarnings("serial")
+        final RangeSet<Integer> ranges = new RangeSet<Integer>(Integer.class, true, false) {
+            @Override public boolean add(final Range<Integer> range) {
+                count[0]++;
+                return super.add(range);
+            }
+        };
+        final RangeSet<Integer> other = RangeSet.create(Integer.class, true, false);
+        assertTrue(other.add(10, 20));
+        assertTrue(other.add(30, 40));
+        assertTrue(ranges.addAll(other));
+        assertEquals("Number of add(Range) calls.", 2, count[0]);
+        assertEquals(other, ranges);
+    }
+
     /**
      * Tests the {@link RangeSet#getMinLong(int)}, {@link RangeSet#getMaxLong(int)},
      * {@link RangeSet#getMinDouble(int)} and {@link RangeSet#getMaxDouble(int)} methods.
@@ -0,0 +1,185 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sis.xml;
+
+import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.List;
+import java.io.StringReader;
+import java.io.StringWriter;
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.annotation.XmlElement;
+import javax.xml.bind.annotation.XmlRootElement;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+import javax.xml.stream.XMLStreamException;
+import org.apache.sis.test.DependsOnMethod;
+import org.apache.sis.test.DependsOn;
+import org.apache.sis.test.TestCase;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+
+/**
+ * Tests {@link ElementReader} and {@link ElementWriter}.
+ *
+ * @author  Martin Desruisseaux (Geomatys)
+ * @since   0.6
+ * @version 0.6
+ * @module
+ */
+@DependsOn(MarshallerPoolTest.class)
+public final strictfp class ElementReaderTest extends TestCase {
+    /**
+     * The namespace of the elements used in this test.
+     */
+    private static final String NAMESPACE = "http://sis.apache.org/test";
+
+    /**
+     * The elements to unmarshal in this test.
+     */
+    @XmlRootElement(name = "Entry", namespace = NAMESPACE)
+    public static final class Entry {
+        /** The name of this entry. */
+        @XmlElement(name = "name", namespace = NAMESPACE)
+        public String name;
+
+        /** Creates an entry without name, for JAXB only. */
+        public Entry() {
+        }
+
+        /** Creates an entry of the given name. */
+        Entry(final String name) {
+            this.name = name;
+        }
+    }
+
+    /**
+     * Creates a pool for (un)marshalling {@link Entry} instances.
+     */
+    private static MarshallerPool createPool() throws JAXBException {
+        return new MarshallerPool(JAXBContext.newInstance(Entry.class), null);
+    }
+
+    /**
+     * Reads all entries which are children of the given element in the given XML document.
+     */
+    private static List<String> read(final MarshallerPool pool, final String xml, final String parent)
+            throws XMLStreamException, JAXBException
+    {
+        final XMLStreamReader input = XMLInputFactory.newInstance().createXMLStreamReader(new StringReader(xml));
+        final List<String> names = read(pool, input, parent);
+        input.close();
+        return names;
+    }
+
+    /**
+     * Reads all entries which are children of the given element, starting at the current position of the given stream.
+     */
+    private static List<String> read(final MarshallerPool pool, final XMLStreamReader input, final String parent)
+            throws JAXBException
+    {
+        final List<String> names = new ArrayList<>();
+        try (ElementReader<Entry> reader = new ElementReader<>(pool, input, new QName(NAMESPACE, parent), Entry.class)) {
+            while (reader.hasNext()) {
+                names.add(reader.next().name);
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Tests the unmarshalling of the children of some elements in a document.
+     * Elements having the same name than the desired ones but a different parent shall be ignored.
+     *
+     * @throws XMLStreamException Should never happen.
+     * @throws JAXBException Should never happen.
+     */
+    @Test
+    public void testRead() throws XMLStreamException, JAXBException {
+        final String xml =
+                "<doc xmlns=\"" + NAMESPACE + "\">\n" +
+                "  <other><Entry><name>Ignored</name></Entry></other>\n" +
+                "  <list>\n" +
+                "    <Entry><name>A</name></Entry>\n" +
+                "    <Entry><name>B</name></Entry>\n" +
+                "  </list>\n" +
+                "  <list><Entry><name>C</name></Entry></list>\n" +
+                "</doc>";
+        final MarshallerPool pool = createPool();
+        assertEquals(Arrays.asList("A", "B", "C"), read(pool, xml, "list"));
+        assertEquals(Arrays.asList("Ignored"),     read(pool, xml, "other"));
+        assertTrue(read(pool, xml, "none").isEmpty());
+        assertEquals("reused", 2, pool.getReusedCount());
+    }
+
+    /**
+     * Tests reading from a stream positioned on a nested element. After the element enclosing the initial
+     * position has been closed, the elements which are not children of a parent element shall be ignored.
+     *
+     * @throws XMLStreamException Should never happen.
+     * @throws JAXBException Should never happen.
+     */
+    @Test
+    @DependsOnMethod("testRead")
+    public void testReadFromNestedElement() throws XMLStreamException, JAXBException {
+        final String xml =
+                "<doc xmlns=\"" + NAMESPACE + "\">\n" +
+                "  <wrapper>\n" +
+                "    <skip><Entry><name>Ignored</name></Entry></skip>\n" +
+                "  </wrapper>\n" +
+                "  <Entry><name>Sibling</name></Entry>\n" +
+                "  <other><Entry><name>Other</name></Entry></other>\n" +
+                "  <list><Entry><name>A</name></Entry></list>\n" +
+                "</doc>";
+        final XMLStreamReader input = XMLInputFactory.newInstance().createXMLStreamReader(new StringReader(xml));
+        while (!input.isStartElement() || !"skip".equals(input.getLocalName())) {
+            input.next();
+        }
+        assertEquals(Arrays.asList("A"), read(createPool(), input, "list"));
+        input.close();
+    }
+
+    /**
+     * Tests writing entries with {@link ElementWriter}, then reading them back with {@link ElementReader}.
+     *
+     * @throws XMLStreamException Should never happen.
+     * @throws JAXBException Should never happen.
+     */
+    @Test
+    @DependsOnMethod("testRead")
+    public void testWriteAndRead() throws XMLStreamException, JAXBException {
+        final MarshallerPool pool = createPool();
+        final StringWriter buffer = new StringWriter();
+        final XMLStreamWriter output = XMLOutputFactory.newInstance().createXMLStreamWriter(buffer);
+        output.writeStartDocument();
+        try (ElementWriter writer = new ElementWriter(pool, output, new QName(NAMESPACE, "records", "t"))) {
+            writer.write(new Entry("First"));
+            writer.writeAll(Arrays.asList(new Entry("Second"), new Entry("Third")).iterator());
+        }
+        output.writeEndDocument();
+        output.close();
+        final String xml = buffer.toString();
+        assertTrue(xml, xml.contains("<t:records"));
+        assertEquals(Arrays.asList("First", "Second", "Third"), read(pool, xml, "records"));
+    }
+}
@@ -17,9 +17,11 @@
 package org.apache.sis.xml;
 
 import javax.xml.bind.Marshaller;
+import javax.xml.bind.Unmarshaller;
 import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
 import org.apache.sis.test.DependsOn;
+import org.apache.sis.test.DependsOnMethod;
 import org.apache.sis.test.TestCase;
 import org.junit.Test;
 
@@ -31,7 +33,7 @@ import static org.junit.Assert.*;
  *
  * @author  Martin Desruisseaux (Geomatys)
  * @since   0.3
- * @version 0.3
+ * @version 0.6
  * @module
  */
 @DependsOn(OGCNamespacePrefixMapperTest.class)
@@ -67,4 +69,67 @@ public final strictfp class MarshallerPoolTest extends TestCase {
         assertEquals("", marshaller.getProperty("com.sun.xml.bind.xmlHeaders"));
         pool.recycle(marshaller);
     }
+
+    /**
+     * Tests a pool having a minimal and maximal size. This method verifies the pre-allocation of
+     * (un)marshallers, the wait for a permit, and the statistics about the pool usage.
+     *
+     * @throws Exception If an error occurred while creating the (un)marshallers or in the thread.
+     */
+    @Test
+    @DependsOnMethod("testAcquireRelease")
+    public void testBoundedPool() throws Exception {
+        final MarshallerPool pool = new MarshallerPool(JAXBContext.newInstance(new Class<?>[0]), null, 1, 1, 10);
+        pool.warmUp();
+        assertEquals("created", 2, pool.getCreatedCount());
+        final Unmarshaller unmarshaller = pool.acquireUnmarshaller();
+        final Marshaller   marshaller   = pool.acquireMarshaller();
+        assertEquals("reused",  2, pool.getReusedCount());
+        assertEquals("waits",   0, pool.getWaitCount());
+        /*
+         * The maximum is reached. A new marshaller should be created after the wait.
+         * That marshaller shall be returned to the pool when recycled, like the other ones.
+         */
+        final Marshaller extra = pool.acquireMarshaller();
+        assertNotSame(marshaller, extra);
+        assertEquals("created", 3, pool.getCreatedCount());
+        assertEquals("waits",   1, pool.getWaitCount());
+        assertTrue  ("waitTime",   pool.getWaitTime() > 0);
+        pool.recycle(extra);
+        assertEquals("expired", 0, pool.getExpiredCount());
+        pool.recycle(marshaller);
+        pool.recycle(unmarshaller);
+        assertSame(marshaller,   pool.acquireMarshaller());
+        assertSame(unmarshaller, pool.acquireUnmarshaller());
+        assertSame(extra,        pool.acquireMarshaller());
+        assertEquals("created", 3, pool.getCreatedCount());
+    }
+
+    /**
+     * Tests a pool created with a negative wait time, which makes the maximal size a hard limit.
+     * The marshaller is recycled from an other thread while the main thread is blocked waiting for it.
+     *
+     * @throws Exception If an error occurred while creating the (un)marshallers or in the thread.
+     */
+    @Test
+    @DependsOnMethod("testBoundedPool")
+    public void testBlockingPool() throws Exception {
+        final MarshallerPool blocking = new MarshallerPool(JAXBContext.newInstance(new Class<?>[0]), null, 0, 1, -1);
+        final Marshaller first = blocking.acquireMarshaller();
+        final Thread thread = new Thread("MarshallerPoolTest") {
+            @Override public void run() {
+                try {
+                    Thread.sleep(50);
+                } catch (InterruptedException e) {
+                    // Recycle now.
+                }
+                blocking.recycle(first);
+            }
+        };
+        thread.start();
+        assertSame(first, blocking.acquireMarshaller());
+        thread.join();
+        assertEquals("created", 1, blocking.getCreatedCount());
+        assertEquals("waits",   1, blocking.getWaitCount());
+    }
 }